@@ -0,0 +1,45 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.security.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试公共数据
+ */
+final class Fixtures {
+
+    static final String SECRET = "chronotes-benchmark-secret-key-0123456789abcdef";
+
+    private Fixtures() {
+    }
+
+    /**
+     * 构建 JwtUtils；cacheTtl 为 0 时每次都做完整的签名校验与解析
+     */
+    static JwtUtils jwtUtils(long cacheTtl) {
+        JwtUtils jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxTtl", cacheTtl);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z0DB7Ol4W5JQ/6bP7s6oVjTW");
+        user.setUsername("bench");
+        user.setStatus(1);
+        user.setTokenVersion(0);
+        user.setCreateTime(LocalDateTime.now());
+        user.setUpdateTime(LocalDateTime.now());
+        return user;
+    }
+}
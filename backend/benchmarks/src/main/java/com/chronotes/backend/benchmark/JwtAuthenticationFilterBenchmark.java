@@ -0,0 +1,125 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.security.JwtAuthenticationFilter;
+import com.chronotes.backend.security.JwtUtils;
+import com.chronotes.backend.security.UserDetailsCache;
+import com.chronotes.backend.security.UserDetailsServiceImpl;
+import com.chronotes.backend.service.UserCacheService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter 单次请求的认证开销
+ * <p>
+ * 依赖使用内存替身：用户查询直接返回固定用户，不经过 MySQL / Redis。
+ * 替身为手写实现而非 Mockito，避免记录调用产生的额外分配干扰分配统计
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        JwtUtils cachedJwt = Fixtures.jwtUtils(600_000L);
+        cachedFilter = filter(cachedJwt, 10_000L);
+        uncachedFilter = filter(Fixtures.jwtUtils(0L), 0L);
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/notes");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + cachedJwt.generateToken(Fixtures.user()));
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/notes");
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * Token 与用户详情均命中缓存
+     */
+    @Benchmark
+    public Object authenticatedCached() throws ServletException, IOException {
+        return run(cachedFilter, authenticatedRequest);
+    }
+
+    /**
+     * 每次完整校验 Token 并加载用户
+     */
+    @Benchmark
+    public Object authenticatedUncached() throws ServletException, IOException {
+        return run(uncachedFilter, authenticatedRequest);
+    }
+
+    /**
+     * 未携带 Token
+     */
+    @Benchmark
+    public Object anonymous() throws ServletException, IOException {
+        return run(cachedFilter, anonymousRequest);
+    }
+
+    private Object run(JwtAuthenticationFilter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        filter.doFilter(request, response, NO_OP_CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtils jwtUtils, long principalCacheTtl) {
+        UserDetailsCache userDetailsCache = new UserDetailsCache();
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", principalCacheTtl);
+        userDetailsCache.init();
+
+        UserDetailsServiceImpl userDetailsService =
+                new UserDetailsServiceImpl(new FixedUserCacheService(), userDetailsCache);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+        ReflectionTestUtils.setField(filter, "principalMode", "claims");
+        return filter;
+    }
+
+    /**
+     * 固定返回同一用户的查询替身
+     */
+    private static class FixedUserCacheService implements UserCacheService {
+
+        private final User user = Fixtures.user();
+
+        @Override
+        public User findByEmail(String email) {
+            return user;
+        }
+
+        @Override
+        public User findById(Long id) {
+            return user;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.security.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils 生成、校验与解析
+ * <p>
+ * cached 为命中已验证 Token 缓存的路径，uncached 为每次完整校验签名并解析 JSON 的路径
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtils cached;
+    private JwtUtils uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cached = Fixtures.jwtUtils(600_000L);
+        uncached = Fixtures.jwtUtils(0L);
+        user = Fixtures.user();
+        token = cached.generateToken(user);
+        cached.validateToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cached.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncached.validateToken(token);
+    }
+
+    @Benchmark
+    public String getEmailFromTokenCached() {
+        return cached.getEmailFromToken(token);
+    }
+
+    @Benchmark
+    public String getEmailFromTokenUncached() {
+        return uncached.getEmailFromToken(token);
+    }
+}
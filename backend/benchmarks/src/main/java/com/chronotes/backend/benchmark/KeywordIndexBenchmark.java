@@ -0,0 +1,162 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.search.KeywordIndex;
+import com.chronotes.backend.search.Tokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关键词统计：内存占用与增量更新、查询耗时
+ * <p>
+ * 合成笔记的词按 Zipf 分布取自中英文混合词表。Setup 中输出每 1 万篇笔记的常驻堆内存，
+ * 并以 HashMap&lt;Long, HashMap&lt;String, Integer&gt;&gt; 加词典的装箱实现作对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class KeywordIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_NOTE = 300;
+
+    @Param("10000")
+    public int notes;
+
+    private KeywordIndex index;
+    private String[] vocabulary;
+    private double[] cumulative;
+    private SplittableRandom random;
+    private long version;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new SplittableRandom(1);
+        vocabulary = new String[VOCABULARY];
+        cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            // 一半英文词、一半四字中文词（切成三个双字词）
+            vocabulary[i] = i % 2 == 0 ? word(i) : cjk(i);
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < VOCABULARY; i++) {
+            cumulative[i] /= sum;
+        }
+
+        String[][] texts = new String[notes][];
+        for (int id = 0; id < notes; id++) {
+            texts[id] = new String[]{text(8), text(WORDS_PER_NOTE), "tag" + id % 20};
+        }
+
+        long before = usedHeap();
+        index = new KeywordIndex();
+        for (int id = 0; id < notes; id++) {
+            index.put(id, 0, texts[id][0], texts[id][1], texts[id][2]);
+        }
+        long primitive = usedHeap() - before;
+
+        before = usedHeap();
+        Map<Long, Map<String, Integer>> boxed = new HashMap<>();
+        Map<String, Integer> docFreqs = new HashMap<>();
+        for (int id = 0; id < notes; id++) {
+            Map<String, Integer> vector = new HashMap<>();
+            Tokenizer.tokenizeNote(texts[id][0], texts[id][1], texts[id][2], (term, weight) -> vector.merge(term, weight, Integer::sum));
+            vector.keySet().forEach(term -> docFreqs.merge(term, 1, Integer::sum));
+            boxed.put((long) id, vector);
+        }
+        long boxedBytes = usedHeap() - before;
+
+        System.out.printf("%nnotes=%d 每1万篇常驻内存: KeywordIndex=%.1f MB, 装箱HashMap=%.1f MB (%d 篇, %d 词)%n",
+                notes, primitive * 10_000.0 / notes / (1 << 20), boxedBytes * 10_000.0 / notes / (1 << 20),
+                boxed.size(), docFreqs.size());
+        version = 1;
+    }
+
+    /**
+     * 保存一篇笔记：减去旧词向量、加上新词向量
+     */
+    @Benchmark
+    public void put() {
+        long id = random.nextInt(notes);
+        index.put(id, version++, text(8), text(WORDS_PER_NOTE), "tag" + id % 20);
+    }
+
+    @Benchmark
+    public List<KeywordIndex.Keyword> noteKeywords() {
+        return index.noteKeywords(random.nextInt(notes), 10);
+    }
+
+    /**
+     * 保存后首次请求词云：缓存已失效，需扫描整个词典
+     */
+    @Benchmark
+    public List<KeywordIndex.Keyword> cloudAfterSave() {
+        long id = random.nextInt(notes);
+        index.put(id, version++, text(8), text(WORDS_PER_NOTE), "tag" + id % 20);
+        return index.userKeywords(100);
+    }
+
+    /**
+     * 未变更时的词云，直接返回缓存
+     */
+    @Benchmark
+    public List<KeywordIndex.Keyword> cloudCached() {
+        return index.userKeywords(100);
+    }
+
+    private String text(int words) {
+        StringBuilder text = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(vocabulary[rank < 0 ? Math.min(-rank - 1, VOCABULARY - 1) : rank]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder();
+        int n = i + 26 * 26;
+        while (n > 0) {
+            word.append((char) ('a' + n % 26));
+            n /= 26;
+        }
+        return word.toString();
+    }
+
+    private static String cjk(int i) {
+        char[] chars = new char[4];
+        for (int k = 0; k < 4; k++) {
+            chars[k] = (char) (0x4E00 + (i * 7919 + k * 104729) % 0x5000);
+        }
+        return new String(chars);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,48 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.dto.auth.AuthResponse;
+import com.chronotes.backend.util.Result;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result&lt;AuthResponse&gt; 的 Jackson 序列化
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ResultSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Result<AuthResponse> result;
+
+    @Setup
+    public void setup() {
+        // 与 Spring MVC 默认使用的 ObjectMapper 配置一致
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        String token = Fixtures.jwtUtils(0L).generateToken(Fixtures.user());
+        result = Result.success(new AuthResponse(token, "bench@example.com", "bench",
+                "https://cdn.example.com/avatar/42.png", "学习记录"));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(result);
+    }
+}
@@ -0,0 +1,123 @@
+package com.chronotes.backend.benchmark;
+
+import com.chronotes.backend.feature.ai.HnswIndex;
+import com.chronotes.backend.feature.ai.VectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HNSW 向量检索：召回率与吞吐量（QPS）
+ * <p>
+ * 分区建在 target/vector-bench-{size}-{dimension}，首次运行时插入随机向量，之后的 fork 与参数组合直接打开复用。
+ * 每个 ef 在 Setup 中用 100 条查询与精确检索对比，输出 recall@10；吞吐量即每秒查询数。
+ * 1M 向量的默认规模建图耗时较长，可用 -p size=100000 先试跑
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class VectorSearchBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERY_COUNT = 1024;
+
+    @Param("1000000")
+    public int size;
+
+    @Param("128")
+    public int dimension;
+
+    @Param({"16", "32", "64", "128"})
+    public int ef;
+
+    private HnswIndex index;
+    private float[][] queries;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path directory = Path.of("target", "vector-bench-" + size + "-" + dimension);
+        index = HnswIndex.open(directory, dimension, 16, 100);
+        if (index.liveSize() < size) {
+            SplittableRandom random = new SplittableRandom(1);
+            for (long id = index.size(); id < size; id++) {
+                index.upsert(id, randomVector(random));
+                if (id % 100_000 == 0) {
+                    System.out.printf("建图进度: %d / %d%n", id, size);
+                }
+            }
+            index.flush();
+        }
+
+        SplittableRandom random = new SplittableRandom(2);
+        queries = new float[QUERY_COUNT][];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = randomVector(random);
+        }
+
+        int found = 0;
+        for (int i = 0; i < 100; i++) {
+            HashSet<Long> exact = new HashSet<>();
+            index.searchExact(queries[i], K).forEach(hit -> exact.add(hit.noteId()));
+            for (VectorStore.Hit hit : index.search(queries[i], K, ef)) {
+                if (exact.contains(hit.noteId())) {
+                    found++;
+                }
+            }
+        }
+        System.out.printf("%nsize=%d dimension=%d ef=%d recall@%d=%.4f%n", size, dimension, ef, K, found / (100.0 * K));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Benchmark
+    public List<VectorStore.Hit> hnsw() {
+        return index.search(nextQuery(), K, ef);
+    }
+
+    private float[] nextQuery() {
+        return queries[cursor.getAndIncrement() & (QUERY_COUNT - 1)];
+    }
+
+    private float[] randomVector(SplittableRandom random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+
+    /**
+     * 精确检索的吞吐量作为对照，与 ef 无关，只在 ef=16 时运行一次即可：-p ef=16 exact
+     */
+    @Benchmark
+    public List<VectorStore.Hit> exact() {
+        return index.searchExact(nextQuery(), K);
+    }
+}
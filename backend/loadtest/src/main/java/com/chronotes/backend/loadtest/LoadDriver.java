@@ -0,0 +1,150 @@
+package com.chronotes.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 开放模型压测驱动
+ * <p>
+ * 按固定速率发起新会话，不等待上一个会话结束；每个会话依次执行
+ * 发送验证码 → 注册 → 登录 → 若干次携带 Token 的请求
+ */
+final class LoadDriver {
+
+    private static final String PASSWORD = "Passw0rd123";
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyReport report = new LatencyReport();
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final HttpClient client;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * HttpClient 的异步任务单独使用一个执行器：会话执行器关闭后仍在进行的会话需要它完成请求
+     */
+    private final ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile long measureFrom;
+
+    LoadDriver(LoadTestOptions options, int port, StringRedisTemplate redisTemplate) {
+        this.options = options;
+        this.baseUrl = "http://127.0.0.1:" + port;
+        this.redisTemplate = redisTemplate;
+        this.client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofMillis(options.requestTimeoutMillis()))
+                .build();
+    }
+
+    /**
+     * 运行预热与正式压测，返回统计结果
+     */
+    LatencyReport run() throws InterruptedException {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.sessionsPerSecond());
+        measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate(() -> sessions.execute(this::runSession), 0, periodNanos, TimeUnit.NANOSECONDS);
+        TimeUnit.SECONDS.sleep(options.warmupSeconds() + options.durationSeconds());
+        ticker.shutdownNow();
+
+        sessions.shutdown();
+        sessions.awaitTermination(options.requestTimeoutMillis() * (options.callsPerSession() + 3), TimeUnit.MILLISECONDS);
+        clientExecutor.shutdownNow();
+        return report;
+    }
+
+    private void runSession() {
+        String email = "load-" + runId + "-" + sequence.incrementAndGet() + "@example.com";
+        try {
+            if (!postOk("send-code", "/api/auth/send-code", Map.of("email", email))) {
+                return;
+            }
+            String code = redisTemplate.opsForValue().get("verify_code:" + email);
+            if (code == null
+                    || !postOk("register", "/api/auth/register",
+                    Map.of("email", email, "verifyCode", code, "password", PASSWORD))) {
+                return;
+            }
+            JsonNode login = post("login", "/api/auth/login", Map.of("email", email, "password", PASSWORD));
+            if (login == null) {
+                return;
+            }
+            String token = login.path("data").path("token").asText();
+            for (int i = 0; i < options.callsPerSession(); i++) {
+                Thread.sleep(options.thinkTimeMillis());
+                get("GET " + options.authenticatedPath(), options.authenticatedPath(), token);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean postOk(String endpoint, String path, Map<String, String> body) throws InterruptedException {
+        return post(endpoint, path, body) != null;
+    }
+
+    /**
+     * 发送 POST 请求，成功（HTTP 2xx 且 code 为 0）返回响应体，否则返回 null
+     */
+    private JsonNode post(String endpoint, String path, Map<String, String> body) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofMillis(options.requestTimeoutMillis()))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode json = response.statusCode() / 100 == 2 ? objectMapper.readTree(response.body()) : null;
+            boolean success = json != null && json.path("code").asInt(-1) == 0;
+            record(endpoint, start, success);
+            return success ? json : null;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            record(endpoint, start, false);
+            return null;
+        }
+    }
+
+    private void get(String endpoint, String path, String token) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofMillis(options.requestTimeoutMillis()))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            record(endpoint, start, response.statusCode() / 100 == 2);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            record(endpoint, start, false);
+        }
+    }
+
+    private void record(String endpoint, long start, boolean success) {
+        if (start >= measureFrom) {
+            report.record(endpoint, System.nanoTime() - start, success);
+        }
+    }
+}
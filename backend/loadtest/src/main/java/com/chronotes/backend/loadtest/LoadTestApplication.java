@@ -0,0 +1,42 @@
+package com.chronotes.backend.loadtest;
+
+import com.chronotes.backend.ChronotesBackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 离线压测入口
+ * <p>
+ * 先启动进程内 MySQL / Redis / SMTP 替身，再在同一进程中启动后端应用，按配置速率压测并输出各接口的吞吐量与延迟分位数
+ * <pre>
+ * cd backend &amp;&amp; mvn -B install -DskipTests
+ * cd loadtest &amp;&amp; mvn -B package
+ * java -jar target/loadtest.jar --load.sessions-per-second=20 --load.duration=60
+ * </pre>
+ * 可用参数：--load.sessions-per-second、--load.duration、--load.warmup（秒）、--load.calls-per-session、
+ * --load.think-time（毫秒）、--load.authenticated-path、--load.request-timeout（毫秒）；
+ * 其余 --key=value 参数原样传给被测应用，例如 --password.hash.strength=8、--spring.threads.virtual.enabled=true
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        try (StandIns standIns = StandIns.start();
+             ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                     new SpringApplicationBuilder(ChronotesBackendApplication.class)
+                             .properties(standIns.applicationProperties())
+                             .run(options.applicationArgs())) {
+            int port = context.getWebServer().getPort();
+            System.out.printf("应用已启动: http://127.0.0.1:%d，速率 %.1f 会话/秒，预热 %ds，压测 %ds%n",
+                    port, options.sessionsPerSecond(), options.warmupSeconds(), options.durationSeconds());
+
+            LoadDriver driver = new LoadDriver(options, port, context.getBean(StringRedisTemplate.class));
+            LatencyReport report = driver.run();
+            report.print(System.out, options.durationSeconds());
+            System.out.printf("%nSMTP 替身共收到邮件: %d%n", standIns.receivedMails());
+        }
+        System.exit(0);
+    }
+}
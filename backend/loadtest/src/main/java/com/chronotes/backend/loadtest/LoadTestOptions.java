@@ -0,0 +1,54 @@
+package com.chronotes.backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测参数
+ * <p>
+ * 以 --load. 开头的参数由压测程序自己使用，其余参数原样传给被测应用
+ */
+record LoadTestOptions(
+        double sessionsPerSecond,
+        int durationSeconds,
+        int warmupSeconds,
+        int callsPerSession,
+        long thinkTimeMillis,
+        String authenticatedPath,
+        long requestTimeoutMillis,
+        String[] applicationArgs) {
+
+    private static final String PREFIX = "--load.";
+
+    static LoadTestOptions parse(String[] args) {
+        double sessionsPerSecond = 10;
+        int durationSeconds = 30;
+        int warmupSeconds = 5;
+        int callsPerSession = 10;
+        long thinkTimeMillis = 100;
+        String authenticatedPath = "/api/notes";
+        long requestTimeoutMillis = 10_000;
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith(PREFIX) || !arg.contains("=")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            String key = arg.substring(PREFIX.length(), arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "sessions-per-second" -> sessionsPerSecond = Double.parseDouble(value);
+                case "duration" -> durationSeconds = Integer.parseInt(value);
+                case "warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "calls-per-session" -> callsPerSession = Integer.parseInt(value);
+                case "think-time" -> thinkTimeMillis = Long.parseLong(value);
+                case "authenticated-path" -> authenticatedPath = value;
+                case "request-timeout" -> requestTimeoutMillis = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        return new LoadTestOptions(sessionsPerSecond, durationSeconds, warmupSeconds, callsPerSession,
+                thinkTimeMillis, authenticatedPath, requestTimeoutMillis, applicationArgs.toArray(new String[0]));
+    }
+}
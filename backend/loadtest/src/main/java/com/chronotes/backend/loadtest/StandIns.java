@@ -0,0 +1,146 @@
+package com.chronotes.backend.loadtest;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.datastructures.Slice;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import com.github.fppt.jedismock.storage.OperationExecutorState;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 进程内基础设施替身：H2（MySQL 兼容模式）、jedis-mock Redis 服务器、GreenMail SMTP 服务器
+ */
+final class StandIns implements AutoCloseable {
+
+    private static final String JDBC_URL =
+            "jdbc:h2:mem:chronotes;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private final RedisServer redis;
+    private final GreenMail smtp;
+
+    private StandIns(RedisServer redis, GreenMail smtp) {
+        this.redis = redis;
+        this.smtp = smtp;
+    }
+
+    static StandIns start() throws IOException, SQLException {
+        loadSchema();
+
+        RedisServer redis = RedisServer.newRedisServer(0)
+                .setOptions(ServiceOptions.withInterceptor(StandIns::translateMove));
+        redis.start();
+
+        GreenMail smtp = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        smtp.start();
+        return new StandIns(redis, smtp);
+    }
+
+    /**
+     * 指向替身的应用配置
+     */
+    Map<String, Object> applicationProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.application.name", "Chronotes Backend");
+        properties.put("server.port", 0);
+
+        properties.put("spring.datasource.url", JDBC_URL);
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("mybatis.mapper-locations", "classpath:mapper/*.xml");
+        properties.put("mybatis.type-aliases-package", "com.chronotes.backend.entity");
+        properties.put("mybatis.configuration.map-underscore-to-camel-case", true);
+
+        properties.put("spring.data.redis.host", redis.getHost());
+        properties.put("spring.data.redis.port", redis.getBindPort());
+
+        properties.put("spring.mail.host", "127.0.0.1");
+        properties.put("spring.mail.port", smtp.getSmtp().getPort());
+        properties.put("spring.mail.username", "noreply@chronotes.local");
+        properties.put("spring.mail.properties.mail.smtp.auth", false);
+
+        properties.put("jwt.secret", UUID.randomUUID() + "-" + UUID.randomUUID());
+        properties.put("jwt.expiration", 86_400_000L);
+        // 压测从同一 IP 发起，默认关闭限流；需要压测限流本身时传入 --rate-limit.enabled=true
+        properties.put("rate-limit.enabled", false);
+        properties.put("logging.level.root", "WARN");
+        return properties;
+    }
+
+    /**
+     * 按 schema.sql 建表；去掉 H2 不支持的 CREATE DATABASE / USE 语句，以及只用于升级已有 MySQL 库的语句
+     */
+    private static void loadSchema() throws IOException, SQLException {
+        String script = StreamUtils.copyToString(
+                new ClassPathResource("sql/schema.sql").getInputStream(), StandardCharsets.UTF_8);
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                String trimmed = stripComments(sql).trim();
+                String upper = trimmed.toUpperCase();
+                if (trimmed.isEmpty() || upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")
+                        || isUpgradeStatement(upper)) {
+                    continue;
+                }
+                statement.execute(trimmed);
+            }
+        }
+    }
+
+    /**
+     * 升级已有库用的预处理语句（SET @ddl / PREPARE / EXECUTE / DEALLOCATE），新建的库不需要
+     */
+    private static boolean isUpgradeStatement(String upper) {
+        return upper.startsWith("SET @") || upper.startsWith("PREPARE ")
+                || upper.startsWith("EXECUTE ") || upper.startsWith("DEALLOCATE ");
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                builder.append(line).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * jedis-mock 不支持 LMOVE / BLMOVE，改写为 RPOPLPUSH / BRPOPLPUSH。
+     * 发件箱只在队列为空时用 BLMOVE 阻塞等待（同一列表 RIGHT → RIGHT，不改变顺序）；
+     * 改写后等待到的那条会被轮转到队首，替身中只影响投递顺序，不会丢失或重复
+     */
+    private static Slice translateMove(OperationExecutorState state, String name, List<Slice> params) {
+        if ("lmove".equalsIgnoreCase(name)) {
+            return MockExecutor.proceed(state, "rpoplpush", params.subList(0, 2));
+        }
+        if ("blmove".equalsIgnoreCase(name)) {
+            return MockExecutor.proceed(state, "brpoplpush", List.of(params.get(0), params.get(1), params.get(4)));
+        }
+        return MockExecutor.proceed(state, name, params);
+    }
+
+    int receivedMails() {
+        return smtp.getReceivedMessages().length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        smtp.stop();
+        redis.stop();
+    }
+}
@@ -0,0 +1,124 @@
+package com.chronotes.backend.analytics;
+
+import com.chronotes.backend.entity.ActivityRollup;
+import com.chronotes.backend.mapper.ActivityRollupMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 从笔记表与提醒表重建活动统计汇总
+ * <p>
+ * 按用户ID分段，各段并行执行：每段用两次 GROUP BY 统计按日计数，折叠为各周期分桶后整段替换。
+ * 汇总表为空时（首次部署）启动后自动重建，也可通过 analytics.rollup.rebuild-on-startup 强制重建。
+ * 重建期间其他节点尚未刷写的增量可能被重复计入，重建应在低峰期进行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivityRollupRebuilder {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ActivityRollupMapper rollupMapper;
+    private final ActivityRollupUpdater rollupUpdater;
+
+    @Value("${analytics.rollup.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    /**
+     * 每段的用户ID个数
+     */
+    @Value("${analytics.rollup.rebuild-chunk:500}")
+    private int chunkSize;
+
+    @Value("${analytics.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 应用启动完成后按需在后台重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!rebuildOnStartup && rollupMapper.findAny() != null) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("统计汇总重建失败: {}", e.getMessage());
+            }
+        }, "rollup-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 重建全部用户的汇总，返回失败的段数；已有重建在进行时直接返回 -1
+     */
+    public int rebuild() throws InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+            Thread thread = new Thread(runnable, "rollup-rebuild-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Long maxUserId = rollupMapper.maxUserId();
+            if (maxUserId == null) {
+                return 0;
+            }
+            long start = System.currentTimeMillis();
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = 1; from <= maxUserId; from += chunkSize) {
+                long fromUserId = from;
+                long toUserId = from + chunkSize - 1;
+                chunks.add(workers.submit(() -> rebuildChunk(fromUserId, toUserId)));
+            }
+            int failed = 0;
+            for (Future<?> chunk : chunks) {
+                try {
+                    chunk.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("统计汇总分段重建失败: {}", e.getCause().getMessage());
+                }
+            }
+            log.info("统计汇总重建完成: 段数={}, 失败={}, 耗时={}ms", chunks.size(), failed, System.currentTimeMillis() - start);
+            return failed;
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void rebuildChunk(long fromUserId, long toUserId) {
+        rollupUpdater.rebuild(fromUserId, toUserId, () -> {
+            List<ActivityRollup> daily = new ArrayList<>(rollupMapper.countNotesByDay(fromUserId, toUserId));
+            daily.addAll(rollupMapper.countRemindersByDay(fromUserId, toUserId));
+            List<ActivityRollup> rows = TrendCalculator.fold(daily);
+            rollupMapper.deleteByUserRange(fromUserId, toUserId);
+            for (int i = 0; i < rows.size(); i += INSERT_BATCH_SIZE) {
+                rollupMapper.insertAll(rows.subList(i, Math.min(i + INSERT_BATCH_SIZE, rows.size())));
+            }
+        });
+    }
+}
@@ -0,0 +1,228 @@
+package com.chronotes.backend.analytics;
+
+import com.chronotes.backend.entity.ActivityRollup;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.mapper.ActivityRollupMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 活动统计汇总的增量更新
+ * <p>
+ * 笔记与提醒变更时只在内存中按 (用户, 日期) 累加增量，同一天的多次变更合并为一次写入；
+ * 后台线程定期把增量折叠到日、周、月与全部分桶，以 INSERT ... ON DUPLICATE KEY UPDATE 累加。
+ * 汇总最多比源数据晚一个刷写间隔，进程异常退出时未刷写的增量会丢失，可通过 {@link ActivityRollupRebuilder} 重建
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivityRollupUpdater {
+
+    /**
+     * 每条 SQL 写入的 (用户, 日期) 增量数，折叠后最多 4 倍行数
+     */
+    private static final int FLUSH_BATCH_SIZE = 100;
+
+    private final ActivityRollupMapper rollupMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 刷写间隔（毫秒）
+     */
+    @Value("${analytics.rollup.flush-interval:5000}")
+    private long flushInterval;
+
+    /**
+     * 待写入的增量：(用户, 日期) → 增量
+     */
+    private final Map<DayKey, Delta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 刷写持写锁，重建持读锁：重建各段可以并行，但不会与刷写交错
+     */
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("rollup.pending", pending, Map::size)
+                .description("尚未写入统计汇总的 (用户, 日期) 增量数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后开始定期刷写
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rollup-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    @EventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (event.getCreateTime() == null) {
+            return;
+        }
+        if (event.isCreated()) {
+            add(event.getUserId(), event.getCreateTime(), new Delta(1, 0, 0));
+        } else if (event.isDeleted()) {
+            // 笔记数按创建日期统计，删除时从创建当天扣减，与重建时按现存笔记统计的结果一致
+            add(event.getUserId(), event.getCreateTime(), new Delta(-1, 0, 0));
+        }
+    }
+
+    @EventListener
+    public void onNotesImported(NotesImportedEvent event) {
+        for (Note note : event.getNotes()) {
+            add(event.getUserId(), note.getCreateTime(), new Delta(1, 0, 0));
+        }
+    }
+
+    @EventListener
+    public void onReminderChanged(ReminderChangedEvent event) {
+        Delta delta = switch (event.getStatus()) {
+            case Reminder.STATUS_PENDING -> new Delta(0, 1, 0);
+            case Reminder.STATUS_CANCELLED -> new Delta(0, -1, 0);
+            case Reminder.STATUS_FIRED -> new Delta(0, 0, 1);
+            default -> null;
+        };
+        if (delta != null) {
+            add(event.getUserId(), event.getRemindAt(), delta);
+        }
+    }
+
+    /**
+     * 把缓冲的增量写入汇总表
+     */
+    public void flush() {
+        rebuildLock.writeLock().lock();
+        try {
+            List<ActivityRollup> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+            Iterator<DayKey> keys = pending.keySet().iterator();
+            while (keys.hasNext()) {
+                DayKey key = keys.next();
+                Delta delta = pending.remove(key);
+                if (delta == null) {
+                    continue;
+                }
+                batch.add(delta.toRow(key));
+                if (batch.size() == FLUSH_BATCH_SIZE) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 重建用户ID在 [fromUserId, toUserId] 内的汇总：丢弃这些用户缓冲的增量（已包含在源数据中），再执行 rebuild
+     */
+    void rebuild(long fromUserId, long toUserId, Runnable rebuild) {
+        rebuildLock.readLock().lock();
+        try {
+            pending.keySet().removeIf(key -> key.userId() >= fromUserId && key.userId() <= toUserId);
+            rebuild.run();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void add(Long userId, LocalDateTime time, Delta delta) {
+        if (userId == null || time == null) {
+            return;
+        }
+        pending.merge(new DayKey(userId, time.toLocalDate()), delta, Delta::plus);
+    }
+
+    /**
+     * 单条 SQL 写入，失败时整批放回，下次刷写重试
+     */
+    private void write(List<ActivityRollup> batch) {
+        List<ActivityRollup> rows = TrendCalculator.fold(batch);
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            rollupMapper.addAll(rows);
+        } catch (RuntimeException e) {
+            for (ActivityRollup row : batch) {
+                pending.merge(new DayKey(row.getUserId(), row.getBucket()),
+                        new Delta(row.getNotesCreated(), row.getRemindersDue(), row.getRemindersFired()), Delta::plus);
+            }
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("统计汇总刷写失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    private record DayKey(long userId, LocalDate day) {
+    }
+
+    private record Delta(int notesCreated, int remindersDue, int remindersFired) {
+
+        Delta plus(Delta other) {
+            return new Delta(notesCreated + other.notesCreated, remindersDue + other.remindersDue,
+                    remindersFired + other.remindersFired);
+        }
+
+        ActivityRollup toRow(DayKey key) {
+            ActivityRollup row = new ActivityRollup();
+            row.setUserId(key.userId());
+            row.setPeriod(ActivityRollup.PERIOD_DAY);
+            row.setBucket(key.day());
+            row.setNotesCreated(notesCreated);
+            row.setRemindersDue(remindersDue);
+            row.setRemindersFired(remindersFired);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.chronotes.backend.analytics;
+
+import com.chronotes.backend.dto.stats.TrendPoint;
+import com.chronotes.backend.entity.ActivityRollup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计分桶的折叠与趋势计算
+ * <p>
+ * 按日的计数同时累加到所在的周、月分桶以及每个用户一行的全部分桶，
+ * 统计页只需读取所选周期最近若干个分桶与全部分桶，行数与账号使用了多久无关
+ */
+public final class TrendCalculator {
+
+    /**
+     * 全部分桶的日期
+     */
+    public static final LocalDate TOTAL_BUCKET = LocalDate.EPOCH;
+
+    private static final int[] PERIODS = {
+            ActivityRollup.PERIOD_DAY, ActivityRollup.PERIOD_WEEK, ActivityRollup.PERIOD_MONTH, ActivityRollup.PERIOD_TOTAL
+    };
+
+    private TrendCalculator() {
+    }
+
+    /**
+     * 日期所在分桶的起始日期
+     */
+    public static LocalDate bucketStart(int period, LocalDate day) {
+        return switch (period) {
+            case ActivityRollup.PERIOD_DAY -> day;
+            case ActivityRollup.PERIOD_WEEK -> day.minusDays(day.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+            case ActivityRollup.PERIOD_MONTH -> day.withDayOfMonth(1);
+            case ActivityRollup.PERIOD_TOTAL -> TOTAL_BUCKET;
+            default -> throw new IllegalArgumentException("未知的统计周期: " + period);
+        };
+    }
+
+    /**
+     * 把按日的计数（bucket 为当日）折叠到日、周、月与全部四种分桶，同一分桶的计数合并，全为 0 的分桶去掉
+     */
+    public static List<ActivityRollup> fold(Collection<ActivityRollup> daily) {
+        Map<Key, ActivityRollup> rows = new LinkedHashMap<>();
+        for (ActivityRollup day : daily) {
+            for (int period : PERIODS) {
+                LocalDate bucket = bucketStart(period, day.getBucket());
+                ActivityRollup row = rows.computeIfAbsent(new Key(day.getUserId(), period, bucket), key -> {
+                    ActivityRollup created = new ActivityRollup();
+                    created.setUserId(key.userId());
+                    created.setPeriod(key.period());
+                    created.setBucket(key.bucket());
+                    created.setNotesCreated(0);
+                    created.setRemindersDue(0);
+                    created.setRemindersFired(0);
+                    return created;
+                });
+                row.setNotesCreated(row.getNotesCreated() + count(day.getNotesCreated()));
+                row.setRemindersDue(row.getRemindersDue() + count(day.getRemindersDue()));
+                row.setRemindersFired(row.getRemindersFired() + count(day.getRemindersFired()));
+            }
+        }
+        rows.values().removeIf(row -> row.getNotesCreated() == 0 && row.getRemindersDue() == 0 && row.getRemindersFired() == 0);
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * 以 today 所在分桶为最后一个，生成 count 个分桶的趋势，没有数据的分桶补 0
+     *
+     * @param rows      该周期从第一个分桶起（含）的全部分桶，可以包含之后的分桶（如未来的提醒）
+     * @param noteTotal 当前笔记总数，用于倒推各分桶结束时的笔记总数
+     */
+    public static List<TrendPoint> series(int period, LocalDate today, int count, List<ActivityRollup> rows, int noteTotal) {
+        LocalDate last = bucketStart(period, today);
+        Map<LocalDate, ActivityRollup> byBucket = new HashMap<>();
+        // 创建时间晚于当前分桶的笔记（如导入时带有未来时间）不计入各分桶结束时的总数
+        int running = noteTotal;
+        for (ActivityRollup row : rows) {
+            byBucket.put(row.getBucket(), row);
+            if (row.getBucket().isAfter(last)) {
+                running -= count(row.getNotesCreated());
+            }
+        }
+
+        TrendPoint[] points = new TrendPoint[count];
+        LocalDate bucket = last;
+        for (int i = count - 1; i >= 0; i--) {
+            ActivityRollup row = byBucket.get(bucket);
+            TrendPoint point = new TrendPoint();
+            point.setBucket(bucket);
+            point.setNotesCreated(row == null ? 0 : count(row.getNotesCreated()));
+            point.setNoteTotal(running);
+            point.setRemindersDue(row == null ? 0 : count(row.getRemindersDue()));
+            point.setRemindersFired(row == null ? 0 : count(row.getRemindersFired()));
+            point.setCompletionRate(point.getRemindersDue() > 0
+                    ? (double) point.getRemindersFired() / point.getRemindersDue() : null);
+            points[i] = point;
+            running -= point.getNotesCreated();
+            bucket = previous(period, bucket);
+        }
+        return List.of(points);
+    }
+
+    /**
+     * 上一个分桶的起始日期
+     */
+    public static LocalDate previous(int period, LocalDate bucket) {
+        return switch (period) {
+            case ActivityRollup.PERIOD_DAY -> bucket.minusDays(1);
+            case ActivityRollup.PERIOD_WEEK -> bucket.minusWeeks(1);
+            case ActivityRollup.PERIOD_MONTH -> bucket.minusMonths(1);
+            default -> throw new IllegalArgumentException("统计周期没有上一个分桶: " + period);
+        };
+    }
+
+    private static int count(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private record Key(Long userId, int period, LocalDate bucket) {
+    }
+}
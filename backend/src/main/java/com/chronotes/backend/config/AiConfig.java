@@ -0,0 +1,36 @@
+package com.chronotes.backend.config;
+
+import com.chronotes.backend.feature.ai.AnswerModel;
+import com.chronotes.backend.feature.ai.EmbeddingModel;
+import com.chronotes.backend.feature.ai.HashingEmbeddingModel;
+import com.chronotes.backend.feature.ai.LocalAnswerModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 相关配置
+ */
+@Configuration
+public class AiConfig {
+
+    /**
+     * 默认嵌入模型：本地特征哈希。接入真实模型时声明自己的 {@link EmbeddingModel} Bean 即可替换，
+     * 其输出维度需与 ai.vector.dimension 一致
+     */
+    @Bean
+    @ConditionalOnMissingBean(EmbeddingModel.class)
+    public EmbeddingModel embeddingModel(@Value("${ai.vector.dimension:384}") int dimension) {
+        return new HashingEmbeddingModel(dimension);
+    }
+
+    /**
+     * 默认问答模型：本地摘录。接入真实模型时声明自己的 {@link AnswerModel} Bean 即可替换
+     */
+    @Bean
+    @ConditionalOnMissingBean(AnswerModel.class)
+    public AnswerModel answerModel() {
+        return new LocalAnswerModel();
+    }
+}
@@ -1,11 +1,15 @@
 package com.chronotes.backend.config;
 
 import com.chronotes.backend.security.JwtAuthenticationFilter;
+import com.chronotes.backend.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,6 +21,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
 
 /**
  * Spring Security 配置
@@ -28,14 +33,30 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
 
+    /**
+     * BCrypt 计算强度
+     */
+    @Value("${password.hash.strength:10}")
+    private int passwordStrength;
+
+    /**
+     * 管理端口（Actuator 独立监听的端口），未配置时为 -1
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
     /**
      * 密码编码器
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(passwordStrength);
     }
 
     /**
@@ -69,6 +90,8 @@ public class SecurityConfig {
                 .cors(AbstractHttpConfigurer::disable)
                 // 配置请求授权
                 .authorizeHttpRequests(auth -> auth
+                    // SSE 等异步响应结束时的再次分派：原请求已通过认证，无状态模式下此时没有认证信息
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     // 允许访问认证相关接口
                     .requestMatchers("/api/auth/**").permitAll()
                     // 允许访问 Swagger/Knife4j 静态资源和接口
@@ -82,15 +105,31 @@ public class SecurityConfig {
                         "/swagger-ui/index.html",
                         "/favicon.ico"
                     ).permitAll()
+                    // 允许访问健康检查
+                    .requestMatchers("/actuator/health").permitAll()
+                    // Prometheus 指标只在管理端口上匿名开放；未单独配置管理端口时与其他接口一样需要认证
+                    .requestMatchers(request -> managementPort > 0 && managementPort != serverPort
+                            && request.getLocalPort() == managementPort).permitAll()
                     // 其他请求需要认证
                     .anyRequest().authenticated()
                 )
+                // 请求开始时就写入安全响应头：SSE 的首次写出在推送线程上，
+                // 若等到提交时再写，会与仍在退出过滤器链的请求线程并发修改响应头
+                .headers(headers -> headers.addObjectPostProcessor(new ObjectPostProcessor<HeaderWriterFilter>() {
+                    @Override
+                    public <O extends HeaderWriterFilter> O postProcess(O filter) {
+                        filter.setShouldWriteHeadersEagerly(true);
+                        return filter;
+                    }
+                }))
                 // 配置会话管理为无状态
                 .sessionManagement(session -> 
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 // 配置认证提供者
                 .authenticationProvider(authenticationProvider())
+                // 添加限流过滤器（在认证与控制器之前拦截超限请求）
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 // 添加 JWT 过滤器
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
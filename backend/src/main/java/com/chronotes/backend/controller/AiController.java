@@ -0,0 +1,38 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.feature.ai.AIAnswerService;
+import com.chronotes.backend.security.CustomUserDetails;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * AI 控制器
+ */
+@Tag(name = "AI 问答", description = "基于笔记内容回答问题")
+@RestController
+@RequestMapping("/api/ai")
+@RequiredArgsConstructor
+public class AiController {
+
+    private final AIAnswerService aiAnswerService;
+
+    /**
+     * 笔记问答（SSE）
+     */
+    @Operation(summary = "笔记问答", description = "Server-Sent Events：先返回 sources（引用的笔记），再逐段返回 token，"
+            + "以 done 结束；出错时返回 error（code、message）。断开连接即停止生成")
+    @GetMapping(value = "/answer", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter answer(@AuthenticationPrincipal CustomUserDetails principal,
+                             @Parameter(description = "问题，最多500字") @RequestParam String q) {
+        return aiAnswerService.answer(principal.getUser().getId(), q);
+    }
+}
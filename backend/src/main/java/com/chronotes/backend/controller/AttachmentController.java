@@ -0,0 +1,188 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.attachment.AttachmentResponse;
+import com.chronotes.backend.entity.Attachment;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.AttachmentService;
+import com.chronotes.backend.storage.ByteRange;
+import com.chronotes.backend.util.Result;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 附件控制器
+ * <p>
+ * 下载支持单区间 Range 与 ETag（内容 SHA-256）。本地存储且容器支持时交给 Tomcat 以 sendfile 发送，
+ * 否则由 FileChannel.transferTo 写出，文件内容都不经过堆内存
+ */
+@Tag(name = "附件管理", description = "附件的上传、下载与删除")
+@RestController
+@RequestMapping("/api/attachments")
+@RequiredArgsConstructor
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于该大小的内容直接写出，sendfile 的额外开销不划算（与 Tomcat DefaultServlet 默认值一致）
+     */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    /**
+     * 附件内容不可变（内容变化即为新附件），允许浏览器长期缓存
+     */
+    private static final String CACHE_CONTROL = "private, max-age=31536000, immutable";
+
+    private final AttachmentService attachmentService;
+
+    /**
+     * 以请求体直接上传
+     */
+    @Operation(summary = "上传附件", description = "请求体即文件内容，Content-Type 为文件类型；边读边写入磁盘，不在内存中缓存整个文件")
+    @PostMapping(consumes = "!" + MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<AttachmentResponse> upload(@AuthenticationPrincipal CustomUserDetails principal,
+                                             @Parameter(description = "文件名") @RequestParam String name,
+                                             @Parameter(description = "所属笔记ID，可不传") @RequestParam(required = false) Long noteId,
+                                             HttpServletRequest request) throws IOException {
+        return Result.success(attachmentService.upload(principal.getUser().getId(), noteId, name,
+                request.getContentType(), request.getInputStream()));
+    }
+
+    /**
+     * 以表单上传
+     */
+    @Operation(summary = "表单上传附件", description = "multipart/form-data，文件字段名为 file；表单内容由容器写入临时文件后再转存")
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<AttachmentResponse> uploadForm(@AuthenticationPrincipal CustomUserDetails principal,
+                                                 @RequestParam("file") MultipartFile file,
+                                                 @Parameter(description = "所属笔记ID，可不传") @RequestParam(required = false) Long noteId) throws IOException {
+        return Result.success(attachmentService.upload(principal.getUser().getId(), noteId, file.getOriginalFilename(),
+                file.getContentType(), file.getInputStream()));
+    }
+
+    /**
+     * 查询笔记的附件
+     */
+    @Operation(summary = "笔记附件列表")
+    @GetMapping
+    public Result<List<AttachmentResponse>> list(@AuthenticationPrincipal CustomUserDetails principal,
+                                                 @Parameter(description = "笔记ID") @RequestParam Long noteId) {
+        return Result.success(attachmentService.listByNote(principal.getUser().getId(), noteId));
+    }
+
+    /**
+     * 下载附件
+     */
+    @Operation(summary = "下载附件", description = "支持 Range（单区间）、If-Range 与 If-None-Match")
+    @GetMapping("/{id}")
+    public void download(@AuthenticationPrincipal CustomUserDetails principal,
+                         @PathVariable Long id,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Attachment attachment = attachmentService.get(principal.getUser().getId(), id);
+        String etag = "\"" + attachment.getSha256() + "\"";
+        long size = attachment.getSize();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // If-Range 只接受强 ETag；为日期或不匹配时忽略 Range，返回完整内容
+        ByteRange range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(etag)) {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        long position = 0;
+        long length = size;
+        if (range != null) {
+            position = range.start();
+            length = range.length();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+        }
+        response.setContentType(attachment.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(attachment));
+        // 禁止浏览器按内容猜测类型，避免把上传的文件当作 HTML 执行
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        Path file = attachmentService.localFile(attachment);
+        if (file != null && length >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // 由 Tomcat 在请求处理结束后直接从文件发送到套接字
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + length);
+            return;
+        }
+        attachmentService.transferTo(attachment, position, length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 删除附件
+     */
+    @Operation(summary = "删除附件")
+    @DeleteMapping("/{id}")
+    public Result<Void> delete(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        attachmentService.delete(principal.getUser().getId(), id);
+        return Result.success("附件已删除", null);
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 图片（SVG 除外）与 PDF 在浏览器内打开，其余类型一律下载
+     */
+    private static String contentDisposition(Attachment attachment) {
+        String type = attachment.getContentType();
+        boolean inline = (type.startsWith("image/") && !type.startsWith("image/svg")) || type.equals(MediaType.APPLICATION_PDF_VALUE);
+        ContentDisposition.Builder builder = inline ? ContentDisposition.inline() : ContentDisposition.attachment();
+        return builder.filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString();
+    }
+}
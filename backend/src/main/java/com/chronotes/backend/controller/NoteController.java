@@ -0,0 +1,162 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.note.KeywordResponse;
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.note.PreviewRequest;
+import com.chronotes.backend.dto.note.NoteRequest;
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.NoteSearchHit;
+import com.chronotes.backend.dto.note.RenderedNote;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.FilterService;
+import com.chronotes.backend.service.KeywordService;
+import com.chronotes.backend.service.MarkdownService;
+import com.chronotes.backend.service.NoteSearchService;
+import com.chronotes.backend.service.NoteService;
+import com.chronotes.backend.util.Result;
+import com.chronotes.backend.web.ConditionalGet;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 笔记控制器
+ */
+@Tag(name = "笔记管理", description = "笔记的增删改查")
+@RestController
+@RequestMapping("/api/notes")
+@RequiredArgsConstructor
+public class NoteController {
+
+    private final NoteService noteService;
+    private final NoteSearchService noteSearchService;
+    private final MarkdownService markdownService;
+    private final KeywordService keywordService;
+    private final FilterService filterService;
+
+    /**
+     * 分页查询笔记
+     */
+    @Operation(summary = "笔记列表", description = "按更新时间倒序分页，翻页时传入上一页返回的 nextCursor")
+    @GetMapping
+    @ConditionalGet
+    public Result<NotePage> list(@AuthenticationPrincipal CustomUserDetails principal,
+                                 @Parameter(description = "分页游标，首页不传") @RequestParam(required = false) String cursor,
+                                 @Parameter(description = "每页数量，最大100") @RequestParam(defaultValue = "20") int size) {
+        return Result.success(noteService.list(principal.getUser().getId(), cursor, size));
+    }
+
+    /**
+     * 全文检索笔记
+     */
+    @Operation(summary = "检索笔记", description = "在标题、正文与标签中检索，中文按双字切分，按相关度排序")
+    @GetMapping("/search")
+    @ConditionalGet
+    public Result<List<NoteSearchHit>> search(@AuthenticationPrincipal CustomUserDetails principal,
+                                              @Parameter(description = "检索词") @RequestParam String q,
+                                              @Parameter(description = "返回数量，最大100") @RequestParam(defaultValue = "20") int limit) {
+        return Result.success(noteSearchService.search(principal.getUser().getId(), q, limit));
+    }
+
+    /**
+     * 按标签与日期筛选笔记
+     */
+    @Operation(summary = "筛选笔记", description = "条件为 tag:标签、date:yyyy-MM-dd 或 date:起..止（按创建日期），"
+            + "可用 AND、OR、NOT 与括号组合，省略运算符即为 AND；按更新时间倒序分页")
+    @GetMapping("/filter")
+    @ConditionalGet
+    public Result<NotePage> filter(@AuthenticationPrincipal CustomUserDetails principal,
+                                   @Parameter(description = "筛选条件，如 tag:工作 AND NOT tag:已归档") @RequestParam String q,
+                                   @Parameter(description = "分页游标，首页不传") @RequestParam(required = false) String cursor,
+                                   @Parameter(description = "每页数量，最大100") @RequestParam(defaultValue = "20") int size) {
+        return Result.success(filterService.filterNotes(principal.getUser().getId(), q, cursor, size));
+    }
+
+    /**
+     * 主题词云
+     */
+    @Operation(summary = "主题词云", description = "统计全部笔记的关键词，按 TF-IDF 权重倒序，中文按双字切分")
+    @GetMapping("/keywords")
+    @ConditionalGet
+    public Result<List<KeywordResponse>> keywords(@AuthenticationPrincipal CustomUserDetails principal,
+                                                  @Parameter(description = "返回数量，最大200") @RequestParam(defaultValue = "50") int limit) {
+        return Result.success(keywordService.userKeywords(principal.getUser().getId(), limit));
+    }
+
+    /**
+     * 笔记关键词
+     */
+    @Operation(summary = "笔记关键词", description = "按词频与在全部笔记中的稀有程度排序")
+    @GetMapping("/{id}/keywords")
+    @ConditionalGet
+    public Result<List<KeywordResponse>> noteKeywords(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id,
+                                                      @Parameter(description = "返回数量，最大200") @RequestParam(defaultValue = "10") int limit) {
+        return Result.success(keywordService.noteKeywords(principal.getUser().getId(), id, limit));
+    }
+
+    /**
+     * 查询笔记详情
+     */
+    @Operation(summary = "笔记详情")
+    @GetMapping("/{id}")
+    @ConditionalGet
+    public Result<NoteResponse> get(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        return Result.success(noteService.get(principal.getUser().getId(), id));
+    }
+
+    /**
+     * 查询渲染后的笔记
+     */
+    @Operation(summary = "渲染笔记", description = "正文按 Markdown（含表格、删除线）渲染为 HTML，原始 HTML 会被转义")
+    @GetMapping("/{id}/html")
+    @ConditionalGet
+    public Result<RenderedNote> render(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        return Result.success(noteService.render(principal.getUser().getId(), id));
+    }
+
+    /**
+     * 编辑时实时预览
+     */
+    @Operation(summary = "预览 Markdown", description = "渲染编辑中的正文，未修改的段落直接使用缓存结果")
+    @PostMapping("/preview")
+    public Result<String> preview(@Valid @RequestBody PreviewRequest request) {
+        return Result.success(markdownService.render(request.getContent()));
+    }
+
+    /**
+     * 创建笔记
+     */
+    @Operation(summary = "创建笔记")
+    @PostMapping
+    public Result<NoteResponse> create(@AuthenticationPrincipal CustomUserDetails principal,
+                                       @Valid @RequestBody NoteRequest request) {
+        return Result.success(noteService.create(principal.getUser().getId(), request));
+    }
+
+    /**
+     * 更新笔记
+     */
+    @Operation(summary = "更新笔记", description = "正文或标签为空时保持不变")
+    @PutMapping("/{id}")
+    public Result<NoteResponse> update(@AuthenticationPrincipal CustomUserDetails principal,
+                                       @PathVariable Long id,
+                                       @Valid @RequestBody NoteRequest request) {
+        return Result.success(noteService.update(principal.getUser().getId(), id, request));
+    }
+
+    /**
+     * 删除笔记
+     */
+    @Operation(summary = "删除笔记")
+    @DeleteMapping("/{id}")
+    public Result<Void> delete(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        noteService.delete(principal.getUser().getId(), id);
+        return Result.success("笔记已删除", null);
+    }
+}
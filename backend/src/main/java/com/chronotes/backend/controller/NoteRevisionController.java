@@ -0,0 +1,63 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.RevisionPage;
+import com.chronotes.backend.dto.note.RevisionResponse;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.NoteRevisionService;
+import com.chronotes.backend.util.Result;
+import com.chronotes.backend.web.ConditionalGet;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 笔记版本控制器
+ */
+@Tag(name = "笔记版本", description = "笔记历史版本的查询与恢复")
+@RestController
+@RequestMapping("/api/notes/{noteId}/revisions")
+@RequiredArgsConstructor
+public class NoteRevisionController {
+
+    private final NoteRevisionService noteRevisionService;
+
+    /**
+     * 分页查询历史版本
+     */
+    @Operation(summary = "版本列表", description = "按版本号倒序分页，翻页时传入上一页返回的 nextCursor")
+    @GetMapping
+    @ConditionalGet
+    public Result<RevisionPage> list(@AuthenticationPrincipal CustomUserDetails principal,
+                                     @PathVariable Long noteId,
+                                     @Parameter(description = "分页游标，首页不传") @RequestParam(required = false) Integer cursor,
+                                     @Parameter(description = "每页数量，最大100") @RequestParam(defaultValue = "20") int size) {
+        return Result.success(noteRevisionService.list(principal.getUser().getId(), noteId, cursor, size));
+    }
+
+    /**
+     * 查询指定版本
+     */
+    @Operation(summary = "版本详情", description = "返回该版本的完整正文")
+    @GetMapping("/{revision}")
+    @ConditionalGet
+    public Result<RevisionResponse> get(@AuthenticationPrincipal CustomUserDetails principal,
+                                        @PathVariable Long noteId,
+                                        @PathVariable int revision) {
+        return Result.success(noteRevisionService.get(principal.getUser().getId(), noteId, revision));
+    }
+
+    /**
+     * 恢复到指定版本
+     */
+    @Operation(summary = "恢复版本", description = "用该版本的标题、正文与标签覆盖笔记，恢复操作本身会生成一个新版本")
+    @PostMapping("/{revision}/restore")
+    public Result<NoteResponse> restore(@AuthenticationPrincipal CustomUserDetails principal,
+                                        @PathVariable Long noteId,
+                                        @PathVariable int revision) {
+        return Result.success(noteRevisionService.restore(principal.getUser().getId(), noteId, revision));
+    }
+}
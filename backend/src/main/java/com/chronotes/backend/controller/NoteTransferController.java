@@ -0,0 +1,82 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.note.TransferProgress;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.NoteTransferService;
+import com.chronotes.backend.util.Result;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * 笔记导入导出控制器
+ */
+@Tag(name = "笔记导入导出", description = "以 ZIP 压缩的 Markdown 文件批量导入导出笔记")
+@RestController
+@RequestMapping("/api/notes")
+@RequiredArgsConstructor
+public class NoteTransferController {
+
+    private final NoteTransferService noteTransferService;
+
+    /**
+     * 导出全部笔记
+     */
+    @Operation(summary = "导出笔记", description = "每篇笔记一个 Markdown 文件（标题、标签、时间写在 front matter 中），边读边压缩输出")
+    @GetMapping("/export")
+    public void export(@AuthenticationPrincipal CustomUserDetails principal, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("chronotes-" + LocalDate.now() + ".zip")
+                .build()
+                .toString());
+        noteTransferService.export(principal.getUser().getId(), response.getOutputStream());
+    }
+
+    /**
+     * 以请求体导入
+     */
+    @Operation(summary = "导入笔记", description = "请求体为 ZIP 压缩包，其中的 .md/.markdown/.txt 文件各导入为一篇新笔记，其余文件跳过")
+    @PostMapping(value = "/import", consumes = "!" + MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<TransferProgress> importArchive(@AuthenticationPrincipal CustomUserDetails principal,
+                                                  HttpServletRequest request) throws IOException {
+        return Result.success(noteTransferService.importArchive(principal.getUser().getId(),
+                request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    /**
+     * 以表单导入
+     */
+    @Operation(summary = "表单导入笔记", description = "multipart/form-data，文件字段名为 file")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<TransferProgress> importForm(@AuthenticationPrincipal CustomUserDetails principal,
+                                               @RequestParam("file") MultipartFile file) throws IOException {
+        return Result.success(noteTransferService.importArchive(principal.getUser().getId(),
+                file.getInputStream(), file.getSize()));
+    }
+
+    /**
+     * 查询导入导出进度
+     */
+    @Operation(summary = "导入导出进度", description = "返回最近一次任务的进度，一天内有效")
+    @GetMapping("/transfer/progress")
+    public Result<TransferProgress> progress(@AuthenticationPrincipal CustomUserDetails principal,
+                                             @Parameter(description = "export-导出，import-导入") @RequestParam String type) {
+        if (!"export".equals(type) && !"import".equals(type)) {
+            return Result.error(4000, "type 只能为 export 或 import");
+        }
+        return Result.success(noteTransferService.progress(principal.getUser().getId(), type));
+    }
+}
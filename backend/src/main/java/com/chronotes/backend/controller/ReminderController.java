@@ -0,0 +1,75 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.reminder.ReminderRequest;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.FilterService;
+import com.chronotes.backend.service.ReminderService;
+import com.chronotes.backend.util.Result;
+import com.chronotes.backend.web.ConditionalGet;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 提醒控制器
+ */
+@Tag(name = "提醒管理", description = "提醒的创建、查询与取消，到期后发送邮件")
+@RestController
+@RequestMapping("/api/reminders")
+@RequiredArgsConstructor
+public class ReminderController {
+
+    private final ReminderService reminderService;
+    private final FilterService filterService;
+
+    /**
+     * 创建提醒
+     */
+    @Operation(summary = "创建提醒", description = "提醒时间按服务器时区解释，到期后一秒内发送提醒邮件")
+    @PostMapping
+    public Result<ReminderResponse> create(@AuthenticationPrincipal CustomUserDetails principal,
+                                           @Valid @RequestBody ReminderRequest request) {
+        return Result.success(reminderService.create(principal.getUser().getId(), request));
+    }
+
+    /**
+     * 查询待提醒的提醒
+     */
+    @Operation(summary = "待提醒列表", description = "按提醒时间先后排序")
+    @GetMapping
+    @ConditionalGet
+    public Result<List<ReminderResponse>> list(@AuthenticationPrincipal CustomUserDetails principal,
+                                               @Parameter(description = "返回数量，最大100") @RequestParam(defaultValue = "20") int limit) {
+        return Result.success(reminderService.listPending(principal.getUser().getId(), limit));
+    }
+
+    /**
+     * 按状态与日期筛选提醒
+     */
+    @Operation(summary = "筛选提醒", description = "条件为 status:pending|fired|cancelled、date:yyyy-MM-dd 或 date:起..止（按提醒日期），"
+            + "可用 AND、OR、NOT 与括号组合，省略运算符即为 AND；按提醒时间先后排序")
+    @GetMapping("/filter")
+    @ConditionalGet
+    public Result<List<ReminderResponse>> filter(@AuthenticationPrincipal CustomUserDetails principal,
+                                                 @Parameter(description = "筛选条件，如 status:pending date:2026-01-01..") @RequestParam String q,
+                                                 @Parameter(description = "返回数量，最大100") @RequestParam(defaultValue = "20") int limit) {
+        return Result.success(filterService.filterReminders(principal.getUser().getId(), q, limit));
+    }
+
+    /**
+     * 取消提醒
+     */
+    @Operation(summary = "取消提醒")
+    @DeleteMapping("/{id}")
+    public Result<Void> cancel(@AuthenticationPrincipal CustomUserDetails principal, @PathVariable Long id) {
+        reminderService.cancel(principal.getUser().getId(), id);
+        return Result.success("提醒已取消", null);
+    }
+}
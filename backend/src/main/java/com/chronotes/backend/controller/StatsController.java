@@ -0,0 +1,38 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.stats.TrendResponse;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.StudyStatsService;
+import com.chronotes.backend.util.Result;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 统计控制器
+ */
+@Tag(name = "学习统计", description = "笔记增长趋势与提醒完成率")
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final StudyStatsService studyStatsService;
+
+    /**
+     * 统计趋势
+     */
+    @Operation(summary = "统计趋势", description = "按日、周（周一开始）或月分桶，数据最多延迟几秒")
+    @GetMapping("/trend")
+    public Result<TrendResponse> trend(@AuthenticationPrincipal CustomUserDetails principal,
+                                       @Parameter(description = "day、week 或 month") @RequestParam(defaultValue = "week") String period,
+                                       @Parameter(description = "分桶个数，最大60") @RequestParam(defaultValue = "12") int count) {
+        return Result.success(studyStatsService.trend(principal.getUser().getId(), period, count));
+    }
+}
@@ -0,0 +1,42 @@
+package com.chronotes.backend.controller;
+
+import com.chronotes.backend.dto.sync.SyncResponse;
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.util.Result;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * 同步控制器
+ */
+@Tag(name = "增量同步", description = "多设备客户端按版本号拉取笔记与提醒的变更")
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * 拉取变更
+     */
+    @Operation(summary = "拉取变更", description = "返回版本 since 之后新建、修改或删除的笔记与提醒，每个实体只返回最新状态；"
+            + "首次同步传 0。hasMore 为 true 时以返回的 version 继续请求；reset 为 true 时清空本地数据后从 0 重新同步。"
+            + "传入 wait 时若暂无变更则挂起，有变更立即返回，超时返回空结果")
+    @GetMapping
+    public DeferredResult<Result<SyncResponse>> changes(@AuthenticationPrincipal CustomUserDetails principal,
+                                                        @Parameter(description = "上次同步到的版本号") @RequestParam(defaultValue = "0") long since,
+                                                        @Parameter(description = "返回变更数，最大1000") @RequestParam(defaultValue = "500") int limit,
+                                                        @Parameter(description = "无变更时最长等待毫秒数，最大60000，0 表示不等待") @RequestParam(defaultValue = "0") long wait) {
+        return syncService.changes(principal.getUser().getId(), since, limit, wait);
+    }
+}
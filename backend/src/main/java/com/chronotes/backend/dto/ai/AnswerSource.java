@@ -0,0 +1,28 @@
+package com.chronotes.backend.dto.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 问答引用的笔记 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSource {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 与问题的相似度
+     */
+    private Float score;
+}
@@ -0,0 +1,51 @@
+package com.chronotes.backend.dto.attachment;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 附件响应 DTO
+ */
+@Data
+public class AttachmentResponse {
+    /**
+     * 附件ID
+     */
+    private Long id;
+
+    /**
+     * 所属笔记ID
+     */
+    private Long noteId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * MIME 类型
+     */
+    private String contentType;
+
+    /**
+     * 字节数
+     */
+    private Long size;
+
+    /**
+     * 内容 SHA-256，同时作为下载时的 ETag
+     */
+    private String sha256;
+
+    /**
+     * 下载地址
+     */
+    private String url;
+
+    /**
+     * 上传时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,28 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 关键词 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeywordResponse {
+    /**
+     * 词
+     */
+    private String term;
+
+    /**
+     * 权重（TF-IDF），用于排序与词云字号
+     */
+    private Double weight;
+
+    /**
+     * 包含该词的笔记数
+     */
+    private Integer noteCount;
+}
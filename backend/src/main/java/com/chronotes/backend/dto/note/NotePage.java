@@ -0,0 +1,25 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 笔记分页结果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotePage {
+    /**
+     * 本页笔记
+     */
+    private List<NoteSummary> items;
+
+    /**
+     * 下一页游标，为空表示没有更多
+     */
+    private String nextCursor;
+}
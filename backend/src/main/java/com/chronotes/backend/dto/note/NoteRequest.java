@@ -0,0 +1,32 @@
+package com.chronotes.backend.dto.note;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 创建/更新笔记请求 DTO
+ */
+@Data
+public class NoteRequest {
+    /**
+     * 标题
+     */
+    @NotBlank(message = "标题不能为空")
+    @Size(max = 200, message = "标题长度不能超过200")
+    private String title;
+
+    /**
+     * Markdown 正文
+     */
+    @Size(max = 1_000_000, message = "正文长度不能超过100万字符")
+    private String content;
+
+    /**
+     * 标签
+     */
+    @Size(max = 20, message = "标签不能超过20个")
+    private List<@Size(max = 30, message = "单个标签长度不能超过30") String> tags;
+}
@@ -0,0 +1,42 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记详情 DTO
+ */
+@Data
+public class NoteResponse {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * Markdown 正文
+     */
+    private String content;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
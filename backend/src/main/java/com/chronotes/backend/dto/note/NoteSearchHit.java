@@ -0,0 +1,37 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记检索结果 DTO
+ */
+@Data
+public class NoteSearchHit {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+
+    /**
+     * 相关度得分（BM25）
+     */
+    private Double score;
+}
@@ -0,0 +1,37 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记列表项 DTO（不含正文）
+ */
+@Data
+public class NoteSummary {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,16 @@
+package com.chronotes.backend.dto.note;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Markdown 预览请求 DTO
+ */
+@Data
+public class PreviewRequest {
+    /**
+     * Markdown 正文
+     */
+    @Size(max = 1_000_000, message = "正文长度不能超过100万字符")
+    private String content;
+}
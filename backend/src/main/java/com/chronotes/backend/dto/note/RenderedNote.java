@@ -0,0 +1,31 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 渲染后的笔记 DTO
+ */
+@Data
+public class RenderedNote {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 正文渲染后的 HTML
+     */
+    private String html;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
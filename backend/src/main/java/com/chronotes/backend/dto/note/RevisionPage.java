@@ -0,0 +1,25 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 笔记版本分页结果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionPage {
+    /**
+     * 本页版本，按版本号倒序
+     */
+    private List<RevisionSummary> items;
+
+    /**
+     * 下一页游标（本页最后一个版本号），为空表示没有更多
+     */
+    private Integer nextCursor;
+}
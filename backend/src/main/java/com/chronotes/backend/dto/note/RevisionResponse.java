@@ -0,0 +1,42 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记版本详情 DTO
+ */
+@Data
+public class RevisionResponse {
+    /**
+     * 笔记ID
+     */
+    private Long noteId;
+
+    /**
+     * 版本号
+     */
+    private Integer revision;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 该版本的 Markdown 正文
+     */
+    private String content;
+
+    /**
+     * 标签
+     */
+    private List<String> tags;
+
+    /**
+     * 保存时间
+     */
+    private LocalDateTime createTime;
+}
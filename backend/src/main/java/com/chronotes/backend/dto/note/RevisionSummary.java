@@ -0,0 +1,31 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记版本摘要 DTO
+ */
+@Data
+public class RevisionSummary {
+    /**
+     * 版本号
+     */
+    private Integer revision;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 正文字符数
+     */
+    private Integer contentLength;
+
+    /**
+     * 保存时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,61 @@
+package com.chronotes.backend.dto.note;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记导入/导出进度 DTO
+ */
+@Data
+public class TransferProgress {
+    /**
+     * 状态：running-进行中，done-已完成，failed-失败
+     */
+    private String status;
+
+    /**
+     * 已处理条目数（导出为已写出的笔记数，导入为已读取的压缩包条目数）
+     */
+    private Long processed;
+
+    /**
+     * 导出的笔记总数；导入时为空
+     */
+    private Long total;
+
+    /**
+     * 已导入的笔记数
+     */
+    private Long imported;
+
+    /**
+     * 跳过的条目数（非 Markdown 文件、超过大小上限或无法解析）
+     */
+    private Long skipped;
+
+    /**
+     * 导入时已读取的字节数
+     */
+    private Long bytesRead;
+
+    /**
+     * 导入文件的总字节数，未知时为空
+     */
+    private Long totalBytes;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 最近一次更新时间
+     */
+    private LocalDateTime updateTime;
+}
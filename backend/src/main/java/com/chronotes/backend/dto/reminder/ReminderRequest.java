@@ -0,0 +1,34 @@
+package com.chronotes.backend.dto.reminder;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 创建提醒请求 DTO
+ */
+@Data
+public class ReminderRequest {
+    /**
+     * 关联笔记ID，可不传
+     */
+    private Long noteId;
+
+    /**
+     * 提醒内容
+     */
+    @NotBlank(message = "提醒内容不能为空")
+    @Size(max = 200, message = "提醒内容长度不能超过200")
+    private String title;
+
+    /**
+     * 提醒时间
+     */
+    @NotNull(message = "提醒时间不能为空")
+    @Future(message = "提醒时间必须晚于当前时间")
+    private LocalDateTime remindAt;
+}
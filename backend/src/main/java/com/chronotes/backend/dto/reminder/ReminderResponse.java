@@ -0,0 +1,46 @@
+package com.chronotes.backend.dto.reminder;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 提醒响应 DTO
+ */
+@Data
+public class ReminderResponse {
+    /**
+     * 提醒ID
+     */
+    private Long id;
+
+    /**
+     * 关联笔记ID
+     */
+    private Long noteId;
+
+    /**
+     * 提醒内容
+     */
+    private String title;
+
+    /**
+     * 提醒时间
+     */
+    private LocalDateTime remindAt;
+
+    /**
+     * 状态:0-待提醒,1-已提醒,2-已取消
+     */
+    private Integer status;
+
+    /**
+     * 实际提醒时间
+     */
+    private LocalDateTime fireTime;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,41 @@
+package com.chronotes.backend.dto.stats;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 趋势中的一个分桶 DTO
+ */
+@Data
+public class TrendPoint {
+    /**
+     * 分桶起始日期（当日、当周周一或当月1日）
+     */
+    private LocalDate bucket;
+
+    /**
+     * 该时段新建的笔记数（不含之后已删除的）
+     */
+    private Integer notesCreated;
+
+    /**
+     * 该时段结束时的笔记总数
+     */
+    private Integer noteTotal;
+
+    /**
+     * 提醒时间在该时段、未取消的提醒数
+     */
+    private Integer remindersDue;
+
+    /**
+     * 其中已提醒的数量
+     */
+    private Integer remindersFired;
+
+    /**
+     * 完成率（已提醒 / 未取消），该时段没有提醒时为空
+     */
+    private Double completionRate;
+}
@@ -0,0 +1,30 @@
+package com.chronotes.backend.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 统计趋势 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendResponse {
+    /**
+     * 统计周期：day、week 或 month
+     */
+    private String period;
+
+    /**
+     * 当前笔记总数
+     */
+    private Integer noteTotal;
+
+    /**
+     * 各分桶，按时间升序，最后一个为当前时段
+     */
+    private List<TrendPoint> points;
+}
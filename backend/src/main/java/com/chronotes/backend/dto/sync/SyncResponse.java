@@ -0,0 +1,49 @@
+package com.chronotes.backend.dto.sync;
+
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 增量同步响应 DTO
+ */
+@Data
+public class SyncResponse {
+    /**
+     * 本次同步到的版本号，下次请求作为 since 传入
+     */
+    private long version;
+
+    /**
+     * 是否还有更多变更，为 true 时应立即以 version 继续请求
+     */
+    private boolean hasMore;
+
+    /**
+     * since 超出服务端版本（如数据已恢复到旧备份），客户端应清空本地数据后从 0 重新同步
+     */
+    private boolean reset;
+
+    /**
+     * 新建或修改过的笔记（含正文）
+     */
+    private List<NoteResponse> notes = new ArrayList<>();
+
+    /**
+     * 新建或状态变化过的提醒
+     */
+    private List<ReminderResponse> reminders = new ArrayList<>();
+
+    /**
+     * 已删除的笔记ID
+     */
+    private List<Long> deletedNoteIds = new ArrayList<>();
+
+    /**
+     * 已删除的提醒ID
+     */
+    private List<Long> deletedReminderIds = new ArrayList<>();
+}
@@ -0,0 +1,61 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 用户活动统计汇总（按日、周、月分桶）
+ */
+@Data
+public class ActivityRollup {
+    /**
+     * 按日
+     */
+    public static final int PERIOD_DAY = 0;
+
+    /**
+     * 按周（周一开始）
+     */
+    public static final int PERIOD_WEEK = 1;
+
+    /**
+     * 按月
+     */
+    public static final int PERIOD_MONTH = 2;
+
+    /**
+     * 全部，每个用户一行
+     */
+    public static final int PERIOD_TOTAL = 3;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 统计周期:0-日,1-周,2-月,3-全部
+     */
+    private Integer period;
+
+    /**
+     * 分桶起始日期（当日、当周周一、当月1日），全部为 1970-01-01
+     */
+    private LocalDate bucket;
+
+    /**
+     * 该时段创建、目前仍存在的笔记数
+     */
+    private Integer notesCreated;
+
+    /**
+     * 提醒时间在该时段、未取消的提醒数
+     */
+    private Integer remindersDue;
+
+    /**
+     * 提醒时间在该时段、已提醒的提醒数
+     */
+    private Integer remindersFired;
+}
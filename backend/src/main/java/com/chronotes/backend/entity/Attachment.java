@@ -0,0 +1,50 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 附件实体类
+ */
+@Data
+public class Attachment {
+    /**
+     * 附件ID
+     */
+    private Long id;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 所属笔记ID，未关联笔记时为空
+     */
+    private Long noteId;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * MIME 类型
+     */
+    private String contentType;
+
+    /**
+     * 字节数
+     */
+    private Long size;
+
+    /**
+     * 内容 SHA-256
+     */
+    private String sha256;
+
+    /**
+     * 上传时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,56 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 变更记录实体类（每个实体只保留最近一次变更）
+ */
+@Data
+public class ChangeLog {
+    /**
+     * 笔记
+     */
+    public static final int TYPE_NOTE = 1;
+
+    /**
+     * 提醒
+     */
+    public static final int TYPE_REMINDER = 2;
+
+    /**
+     * 主键
+     */
+    private Long id;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 实体类型
+     */
+    private Integer entityType;
+
+    /**
+     * 实体ID
+     */
+    private Long entityId;
+
+    /**
+     * 最近一次变更的版本号，同一用户内递增
+     */
+    private Long version;
+
+    /**
+     * 是否已删除
+     */
+    private Boolean deleted;
+
+    /**
+     * 最近一次变更时间
+     */
+    private LocalDateTime changeTime;
+}
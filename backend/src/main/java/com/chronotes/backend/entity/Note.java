@@ -0,0 +1,45 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 笔记实体类
+ */
+@Data
+public class Note {
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * Markdown 正文
+     */
+    private String content;
+
+    /**
+     * 标签，逗号分隔
+     */
+    private String tags;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
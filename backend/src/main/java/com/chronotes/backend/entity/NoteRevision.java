@@ -0,0 +1,69 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 笔记版本实体类
+ */
+@Data
+public class NoteRevision {
+    /**
+     * 主键
+     */
+    private Long id;
+
+    /**
+     * 笔记ID
+     */
+    private Long noteId;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 版本号，同一笔记内从1递增
+     */
+    private Integer revision;
+
+    /**
+     * 所在增量链起点的全量快照版本号
+     */
+    private Integer snapshotRevision;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 标签，逗号分隔
+     */
+    private String tags;
+
+    /**
+     * 快照为 UTF-8 正文，增量为相对上一版本的行级增量
+     */
+    private byte[] body;
+
+    /**
+     * body 是否已压缩
+     */
+    private Boolean compressed;
+
+    /**
+     * 该版本正文字符数
+     */
+    private Integer contentLength;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    public boolean isSnapshot() {
+        return revision.equals(snapshotRevision);
+    }
+}
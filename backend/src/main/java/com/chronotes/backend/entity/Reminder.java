@@ -0,0 +1,65 @@
+package com.chronotes.backend.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 提醒实体类
+ */
+@Data
+public class Reminder {
+    /**
+     * 待提醒
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 已提醒
+     */
+    public static final int STATUS_FIRED = 1;
+
+    /**
+     * 已取消
+     */
+    public static final int STATUS_CANCELLED = 2;
+
+    /**
+     * 提醒ID
+     */
+    private Long id;
+
+    /**
+     * 所属用户ID
+     */
+    private Long userId;
+
+    /**
+     * 关联笔记ID，未关联笔记时为空
+     */
+    private Long noteId;
+
+    /**
+     * 提醒内容
+     */
+    private String title;
+
+    /**
+     * 提醒时间
+     */
+    private LocalDateTime remindAt;
+
+    /**
+     * 状态:0-待提醒,1-已提醒,2-已取消
+     */
+    private Integer status;
+
+    /**
+     * 实际提醒时间
+     */
+    private LocalDateTime fireTime;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -43,6 +43,11 @@ public class User {
      */
     private Integer status;
 
+    /**
+     * Token 版本号（修改密码或状态时递增）
+     */
+    private Integer tokenVersion;
+
     /**
      * 创建时间
      */
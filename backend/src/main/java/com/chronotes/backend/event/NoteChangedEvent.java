@@ -0,0 +1,50 @@
+package com.chronotes.backend.event;
+
+import com.chronotes.backend.entity.Note;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记变更事件（创建、更新或删除成功后发布）
+ */
+@Getter
+@AllArgsConstructor
+public class NoteChangedEvent {
+    /**
+     * 所属用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 笔记ID
+     */
+    private final Long noteId;
+
+    /**
+     * 写入后的笔记，删除时为 null
+     */
+    private final Note note;
+
+    /**
+     * 笔记的创建时间，删除时为被删除笔记的创建时间
+     */
+    private final LocalDateTime createTime;
+
+    /**
+     * 是否为新建
+     */
+    private final boolean created;
+
+    /**
+     * 更新事件
+     */
+    public NoteChangedEvent(Long userId, Long noteId, Note note) {
+        this(userId, noteId, note, note == null ? null : note.getCreateTime(), false);
+    }
+
+    public boolean isDeleted() {
+        return note == null;
+    }
+}
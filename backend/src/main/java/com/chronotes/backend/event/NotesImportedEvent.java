@@ -0,0 +1,26 @@
+package com.chronotes.backend.event;
+
+import com.chronotes.backend.entity.Note;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 批量导入事件（每批笔记提交后发布）
+ * <p>
+ * 与逐篇保存的 {@link NoteChangedEvent} 分开：监听方不应在此阻塞导入，耗时的处理（如计算嵌入）需自行排队
+ */
+@Getter
+@AllArgsConstructor
+public class NotesImportedEvent {
+    /**
+     * 所属用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 新插入的笔记
+     */
+    private final List<Note> notes;
+}
@@ -0,0 +1,33 @@
+package com.chronotes.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 提醒状态变更事件（创建、取消或触发成功后发布）
+ */
+@Getter
+@AllArgsConstructor
+public class ReminderChangedEvent {
+    /**
+     * 所属用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 提醒ID
+     */
+    private final Long reminderId;
+
+    /**
+     * 提醒时间
+     */
+    private final LocalDateTime remindAt;
+
+    /**
+     * 变更后的状态，取值同 {@link com.chronotes.backend.entity.Reminder#STATUS_PENDING} 等
+     */
+    private final int status;
+}
@@ -0,0 +1,26 @@
+package com.chronotes.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 用户数据变更事件（UserMapper 插入或更新成功后发布）
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 本次写入的邮箱（更新时未修改邮箱则为 null）
+     */
+    private final String email;
+
+    /**
+     * 是否修改了密码或状态
+     */
+    private final boolean credentialsChanged;
+}
@@ -7,6 +7,12 @@ import lombok.Getter;
  */
 @Getter
 public class BusinessException extends RuntimeException {
+
+    /**
+     * 系统繁忙错误码：有界线程池、队列或连接数已满，客户端稍后重试即可
+     */
+    public static final int BUSY_CODE = 4290;
+
     private final Integer code;
 
     public BusinessException(String message) {
@@ -1,12 +1,17 @@
 package com.chronotes.backend.exception;
 
 import com.chronotes.backend.util.Result;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+
+import java.io.IOException;
 
 /**
  * 全局异常处理器
@@ -46,6 +51,27 @@ public class GlobalExceptionHandler {
         return Result.error(4000, message);
     }
 
+    /**
+     * 客户端断开后异步响应（如 SSE）已无法写出，不按系统异常记录
+     */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleAsyncRequestNotUsable(AsyncRequestNotUsableException e) {
+        log.debug("客户端已断开: {}", e.getMessage());
+    }
+
+    /**
+     * 处理 I/O 异常；异步响应写出失败说明客户端已断开
+     */
+    @ExceptionHandler(IOException.class)
+    public Result<Void> handleIOException(IOException e, HttpServletRequest request) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            log.debug("客户端已断开: {}", e.getMessage());
+            return null;
+        }
+        log.error("系统异常: ", e);
+        return Result.error(5000, "系统异常，请稍后重试");
+    }
+
     /**
      * 处理其他异常
      */
@@ -0,0 +1,220 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.dto.ai.AnswerSource;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 笔记问答（“我在笔记里学过 X 吗？”）
+ * <p>
+ * 问题经嵌入流水线向量化后检索用户最相关的笔记，先以 sources 事件返回引用的笔记，
+ * 再把 {@link AnswerModel} 的输出以 token 事件逐段推送，最后以 done 事件结束；出错时以 error 事件结束。
+ * 请求线程只创建连接即返回，检索与推送都在固定大小的 answer-sender 线程池上进行，
+ * 模型输出按客户端的读取速度拉取（见 {@link AnswerStream}）。同时进行的问答数按用户与全局限制
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AIAnswerService {
+
+    /**
+     * 同时进行的问答过多错误码
+     */
+    public static final int TOO_MANY_STREAMS_CODE = 4292;
+
+    /**
+     * 回答生成失败错误码
+     */
+    public static final int GENERATION_FAILED_CODE = 5001;
+
+    private static final int MAX_QUESTION_LENGTH = 500;
+
+    private final EmbeddingService embeddingService;
+    private final VectorStore vectorStore;
+    private final NoteMapper noteMapper;
+    private final AnswerModel answerModel;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.answer.max-streams:200}")
+    private int maxStreams;
+
+    @Value("${ai.answer.max-streams-per-user:2}")
+    private int maxStreamsPerUser;
+
+    @Value("${ai.answer.sender-threads:4}")
+    private int senderThreads;
+
+    /**
+     * 预先向模型请求的文本段数
+     */
+    @Value("${ai.answer.window:32}")
+    private int window;
+
+    /**
+     * 单次问答连接的最长时间（毫秒）
+     */
+    @Value("${ai.answer.timeout:120000}")
+    private long timeout;
+
+    @Value("${ai.answer.top-k:5}")
+    private int topK;
+
+    /**
+     * 每篇笔记交给模型的最大字符数
+     */
+    @Value("${ai.answer.passage-chars:1000}")
+    private int passageChars;
+
+    /**
+     * 用户ID → 进行中的问答数
+     */
+    private final Map<Long, Integer> active = new ConcurrentHashMap<>();
+
+    private Semaphore permits;
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxStreams);
+        AtomicInteger index = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "answer-sender-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("ai.answer.active", permits, semaphore -> maxStreams - semaphore.availablePermits())
+                .description("进行中的问答推送数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * 开始一次问答，立即返回 SSE 连接，检索与生成异步进行
+     */
+    public SseEmitter answer(Long userId, String question) {
+        return answer(userId, question, new SseEmitter(timeout));
+    }
+
+    SseEmitter answer(Long userId, String question, SseEmitter emitter) {
+        String trimmed = question == null ? "" : question.strip();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_QUESTION_LENGTH) {
+            new AnswerStream(emitter, sender, window, result -> {
+            }).fail(4000, "问题不能为空且不超过" + MAX_QUESTION_LENGTH + "个字符");
+            return emitter;
+        }
+        if (!acquire(userId)) {
+            meterRegistry.counter("ai.answer.streams", "result", "rejected").increment();
+            new AnswerStream(emitter, sender, window, result -> {
+            }).fail(TOO_MANY_STREAMS_CODE, "进行中的问答过多，请稍后重试");
+            return emitter;
+        }
+
+        long start = System.nanoTime();
+        AnswerStream stream = new AnswerStream(emitter, sender, window, result -> {
+            release(userId);
+            Timer.builder("ai.answer.duration")
+                    .description("问答从开始到连接结束的时间")
+                    .tag("result", result.name().toLowerCase())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+        try {
+            embeddingService.embedAllAsync(List.of(trimmed))
+                    .thenAcceptAsync(vectors -> start(userId, trimmed, vectors.get(0), stream), sender)
+                    .exceptionally(e -> {
+                        log.warn("问答检索失败: userId={}, {}", userId, e.getMessage());
+                        stream.fail(GENERATION_FAILED_CODE, "回答生成失败，请稍后重试");
+                        return null;
+                    });
+        } catch (BusinessException e) {
+            // 嵌入队列已满
+            stream.fail(e.getCode(), e.getMessage());
+        }
+        return emitter;
+    }
+
+    private void start(Long userId, String question, float[] vector, AnswerStream stream) {
+        if (stream.isClosed()) {
+            return;
+        }
+        List<VectorStore.Hit> hits = vectorStore.search(userId, vector, topK);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (VectorStore.Hit hit : hits) {
+            ids.add(hit.noteId());
+        }
+        Map<Long, Note> notes = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Note note : noteMapper.findByIds(userId, ids)) {
+                notes.put(note.getId(), note);
+            }
+        }
+
+        List<AnswerModel.Passage> passages = new ArrayList<>(notes.size());
+        List<AnswerSource> sources = new ArrayList<>(notes.size());
+        for (VectorStore.Hit hit : hits) {
+            // 向量索引中可能残留刚删除的笔记
+            Note note = notes.get(hit.noteId());
+            if (note == null) {
+                continue;
+            }
+            String content = note.getContent() == null ? "" : note.getContent();
+            passages.add(new AnswerModel.Passage(note.getId(), note.getTitle(),
+                    content.length() > passageChars ? content.substring(0, passageChars) : content));
+            sources.add(new AnswerSource(note.getId(), note.getTitle(), hit.score()));
+        }
+        if (stream.sendEvent("sources", sources)) {
+            answerModel.generate(question, passages).subscribe(stream);
+        }
+    }
+
+    private boolean acquire(Long userId) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        boolean[] acquired = new boolean[1];
+        active.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxStreamsPerUser) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            permits.release();
+        }
+        return acquired[0];
+    }
+
+    private void release(Long userId) {
+        active.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        permits.release();
+    }
+}
@@ -0,0 +1,33 @@
+package com.chronotes.backend.feature.ai;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * 问答生成模型
+ * <p>
+ * 实现方负责组织提示词并与具体模型后端通信，以 {@link Flow.Publisher} 逐段推送生成的文本：
+ * 只在订阅方请求后才推送（背压），订阅方取消时须停止上游生成。检索、限流与推送由 {@link AIAnswerService} 统一处理
+ */
+public interface AnswerModel {
+
+    /**
+     * 模型标识（名称 + 版本）
+     */
+    String id();
+
+    /**
+     * 根据检索到的笔记片段回答问题，每次订阅开始一次新的生成
+     */
+    Flow.Publisher<String> generate(String question, List<Passage> passages);
+
+    /**
+     * 检索到的笔记片段
+     *
+     * @param noteId 笔记ID
+     * @param title  标题
+     * @param text   正文（已截断）
+     */
+    record Passage(long noteId, String title, String text) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.chronotes.backend.feature.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 一次问答的推送：订阅模型输出，写入 SSE 连接
+ * <p>
+ * 最多向模型预先请求 window 段文本，写出后再补充同样数量，客户端读得慢时模型随之放慢。
+ * 写出由共享的推送线程池完成，每轮只把已到达的文本合并成一个事件写出，然后让出线程，
+ * 阻塞的线程数不随连接数增长。客户端断开、超时或写出失败时取消上游生成
+ */
+@Slf4j
+class AnswerStream implements Flow.Subscriber<String> {
+
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final int window;
+    private final Consumer<Result> onClose;
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    AnswerStream(SseEmitter emitter, Executor sender, int window, Consumer<Result> onClose) {
+        this.emitter = emitter;
+        this.sender = sender;
+        this.window = window;
+        this.onClose = onClose;
+        emitter.onCompletion(() -> close(Result.CANCELLED));
+        emitter.onTimeout(() -> close(Result.CANCELLED));
+        emitter.onError(e -> close(Result.CANCELLED));
+    }
+
+    /**
+     * 推送结果
+     */
+    enum Result {
+        /**
+         * 完整推送
+         */
+        COMPLETED,
+        /**
+         * 客户端断开或超时
+         */
+        CANCELLED,
+        /**
+         * 检索或生成失败
+         */
+        FAILED
+    }
+
+    /**
+     * 在模型输出之前写出一个事件（如引用的笔记），写出失败时结束推送
+     */
+    boolean sendEvent(String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (Exception e) {
+            close(Result.CANCELLED);
+            return false;
+        }
+    }
+
+    /**
+     * 以错误事件结束推送
+     */
+    void fail(int code, String message) {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("error").data(Map.of("code", code, "message", message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (Exception e) {
+            log.debug("问答错误事件写出失败: {}", e.getMessage());
+        }
+        close(Result.FAILED);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (closed.get()) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(String token) {
+        pending.add(token);
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (closed.get() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 停机中
+            scheduled.set(false);
+            cancel(Result.CANCELLED);
+        }
+    }
+
+    private void drain() {
+        try {
+            if (!closed.get()) {
+                writeOnce();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!closed.get() && (!pending.isEmpty() || done)) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * 把已到达的文本合并成一个事件写出并补充请求量；上游结束且全部写出后发送结束事件
+     */
+    private void writeOnce() {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        String token;
+        while (count < window && (token = pending.poll()) != null) {
+            text.append(token);
+            count++;
+        }
+        if (count > 0) {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(Map.of("text", text.toString()), MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                // 客户端已断开
+                cancel(Result.CANCELLED);
+                return;
+            }
+            subscription.request(count);
+        }
+        if (done && pending.isEmpty()) {
+            if (error != null) {
+                log.warn("问答生成失败: {}", error.getMessage());
+                fail(AIAnswerService.GENERATION_FAILED_CODE, "回答生成失败，请稍后重试");
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("done").data(Map.of(), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                log.debug("问答结束事件写出失败: {}", e.getMessage());
+            }
+            close(Result.COMPLETED);
+        }
+    }
+
+    private void cancel(Result result) {
+        if (close(result)) {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 只执行一次：取消上游生成并通知调用方释放名额
+     */
+    private boolean close(Result result) {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        pending.clear();
+        onClose.accept(result);
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.chronotes.backend.feature.ai;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 内容哈希 → 嵌入向量缓存
+ * <p>
+ * 键为 {@link EmbeddingService} 计算的内容哈希（已包含模型标识），相同文本只计算一次嵌入
+ */
+public interface EmbeddingCache {
+
+    /**
+     * 批量读取，只返回命中的条目
+     */
+    Map<String, float[]> getAll(Collection<String> hashes);
+
+    /**
+     * 批量写入
+     */
+    void putAll(Map<String, float[]> vectors);
+}
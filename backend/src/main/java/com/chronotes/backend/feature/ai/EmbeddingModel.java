@@ -0,0 +1,26 @@
+package com.chronotes.backend.feature.ai;
+
+import java.util.List;
+
+/**
+ * 文本嵌入模型
+ * <p>
+ * 实现方负责与具体模型后端通信；批处理、去重、缓存与背压由 {@link EmbeddingService} 统一处理
+ */
+public interface EmbeddingModel {
+
+    /**
+     * 模型标识（名称 + 版本），作为向量缓存键的一部分，更换模型后旧缓存自然失效
+     */
+    String id();
+
+    /**
+     * 输出向量维度
+     */
+    int dimension();
+
+    /**
+     * 批量计算嵌入向量，返回顺序与输入一致，向量已归一化
+     */
+    List<float[]> embed(List<String> texts);
+}
@@ -0,0 +1,404 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 嵌入计算流水线
+ * <p>
+ * 调用方提交的文本先按内容哈希查缓存，未命中的文本进入有界队列；
+ * 相同内容在计算完成前只排队一次，后来者共享同一个结果。
+ * 工作线程凑满 ai.embedding.batch-size 条或等待 ai.embedding.max-wait 毫秒后整批调用模型，
+ * 结果写回缓存。模型处理不过来时队列被占满，调用方最多阻塞 ai.embedding.submit-timeout 毫秒后收到繁忙错误
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingService {
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingCache embeddingCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.embedding.batch-size:32}")
+    private int batchSize;
+
+    @Value("${ai.embedding.max-wait:20}")
+    private long maxWait;
+
+    @Value("${ai.embedding.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${ai.embedding.submit-timeout:2000}")
+    private long submitTimeout;
+
+    @Value("${ai.embedding.timeout:30000}")
+    private long timeout;
+
+    @Value("${ai.embedding.concurrency:1}")
+    private int concurrency;
+
+    @Value("${ai.embedding.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 已排队或正在计算的内容哈希 → 结果
+     */
+    private final Map<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    private ArrayBlockingQueue<Request> queue;
+
+    private ExecutorService workers;
+
+    private volatile boolean running;
+
+    private Counter cachedCounter;
+    private Counter joinedCounter;
+    private Counter queuedCounter;
+    private Counter rejectedCounter;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void init() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.cachedCounter = chunkCounter("cached");
+        this.joinedCounter = chunkCounter("joined");
+        this.queuedCounter = chunkCounter("queued");
+        this.rejectedCounter = Counter.builder("embedding.rejected")
+                .description("队列已满被拒绝的嵌入请求数")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("embedding.batch.size")
+                .description("单次模型调用的文本条数")
+                .register(meterRegistry);
+        Gauge.builder("embedding.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("等待嵌入计算的文本数")
+                .register(meterRegistry);
+
+        running = true;
+        AtomicInteger index = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::workLoop);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    public int dimension() {
+        return embeddingModel.dimension();
+    }
+
+    /**
+     * 计算单条文本的嵌入向量（如检索语句），阻塞等待结果
+     */
+    public float[] embed(String text) {
+        return await(embedAllAsync(List.of(text))).get(0);
+    }
+
+    /**
+     * 批量计算嵌入向量，阻塞等待结果，返回顺序与输入一致
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        return await(embedAllAsync(texts));
+    }
+
+    /**
+     * 批量提交嵌入计算，返回顺序与输入一致
+     * <p>
+     * 一次读取缓存；重复文本只提交一次。队列已满时阻塞等待空位，超时抛出繁忙异常
+     */
+    public CompletableFuture<List<float[]>> embedAllAsync(List<String> texts) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        List<String> hashes = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String hash = hash(text);
+            hashes.add(hash);
+            if (unique.putIfAbsent(hash, text) != null) {
+                joinedCounter.increment();
+            }
+        }
+
+        Map<String, float[]> cached = embeddingCache.getAll(unique.keySet());
+        cachedCounter.increment(cached.size());
+        Map<String, CompletableFuture<float[]>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : unique.entrySet()) {
+            if (!cached.containsKey(entry.getKey())) {
+                pending.put(entry.getKey(), submit(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<float[]> vectors = new ArrayList<>(hashes.size());
+                    for (String hash : hashes) {
+                        float[] vector = cached.get(hash);
+                        vectors.add(vector != null ? vector : pending.get(hash).join());
+                    }
+                    return vectors;
+                });
+    }
+
+    /**
+     * 计算长文本的嵌入向量：按段落切块分别嵌入（未修改的段落命中缓存），
+     * 再按块长度加权平均并归一化。文本为空时结果为 null
+     */
+    public CompletableFuture<float[]> embedDocumentAsync(String text) {
+        List<String> chunks = chunk(text);
+        if (chunks.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return embedAllAsync(chunks).thenApply(vectors -> {
+            float[] document = new float[embeddingModel.dimension()];
+            for (int i = 0; i < chunks.size(); i++) {
+                float weight = chunks.get(i).length();
+                float[] vector = vectors.get(i);
+                for (int d = 0; d < document.length; d++) {
+                    document[d] += weight * vector[d];
+                }
+            }
+            return normalize(document);
+        });
+    }
+
+    /**
+     * 按空行切分段落；超过 ai.embedding.chunk-size 个字符的段落再按行聚合成块。
+     * 切点由行内容决定（行哈希命中或累计长度达到上限），修改某一行只影响它所在的块，
+     * 不会像按固定偏移切分那样让后续所有切点平移、整段重新计算
+     */
+    List<String> chunk(String text) {
+        List<String> chunks = new ArrayList<>();
+        if (!StringUtils.hasText(text)) {
+            return chunks;
+        }
+        for (String paragraph : text.split("\\n\\s*\\n")) {
+            String trimmed = paragraph.strip();
+            if (trimmed.length() <= chunkSize) {
+                if (!trimmed.isEmpty()) {
+                    chunks.add(trimmed);
+                }
+                continue;
+            }
+            StringBuilder current = new StringBuilder();
+            for (String line : trimmed.split("\\n")) {
+                if (!current.isEmpty()) {
+                    current.append('\n');
+                }
+                current.append(line);
+                if (current.length() >= chunkSize
+                        || (current.length() >= chunkSize / 4 && (line.hashCode() & 7) == 0)) {
+                    addChunk(chunks, current);
+                }
+            }
+            addChunk(chunks, current);
+        }
+        return chunks;
+    }
+
+    /**
+     * 单行超过上限时按长度切开
+     */
+    private void addChunk(List<String> chunks, StringBuilder chunk) {
+        for (int start = 0; start < chunk.length(); start += chunkSize) {
+            chunks.add(chunk.substring(start, Math.min(chunk.length(), start + chunkSize)));
+        }
+        chunk.setLength(0);
+    }
+
+    private CompletableFuture<float[]> submit(String hash, String text) {
+        CompletableFuture<float[]> created = new CompletableFuture<>();
+        CompletableFuture<float[]> existing = inFlight.putIfAbsent(hash, created);
+        if (existing != null) {
+            joinedCounter.increment();
+            return existing;
+        }
+        // 调用方读缓存之后、登记之前，可能已有批次算完同一文本并移出登记（先写缓存再移出），登记成功后再查一次
+        float[] cached = embeddingCache.getAll(List.of(hash)).get(hash);
+        if (cached != null) {
+            cachedCounter.increment();
+            created.complete(cached);
+            inFlight.remove(hash, created);
+            return created;
+        }
+        boolean accepted = false;
+        try {
+            accepted = queue.offer(new Request(hash, text, created), submitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!accepted) {
+            inFlight.remove(hash, created);
+            rejectedCounter.increment();
+            BusinessException busy = new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+            // 已经共享了这个结果的其他调用方一并失败
+            created.completeExceptionally(busy);
+            throw busy;
+        }
+        queuedCounter.increment();
+        return created;
+    }
+
+    private void workLoop() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Request first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("嵌入计算异常: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 整批调用模型；成功时先写缓存再完成结果，失败时整批以同一异常结束
+     */
+    void process(List<Request> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            texts.add(request.text());
+        }
+        batchSizeSummary.record(batch.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            List<float[]> vectors = embeddingModel.embed(texts);
+            if (vectors.size() != batch.size()) {
+                throw new IllegalStateException("嵌入模型返回数量不一致: " + vectors.size() + " != " + batch.size());
+            }
+            Map<String, float[]> computed = new LinkedHashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                computed.put(batch.get(i).hash(), vectors.get(i));
+            }
+            embeddingCache.putAll(computed);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(vectors.get(i));
+            }
+        } catch (Exception e) {
+            outcome = "error";
+            log.warn("嵌入模型调用失败: batch={}, {}", batch.size(), e.getMessage());
+            batch.forEach(request -> request.future().completeExceptionally(e));
+        } finally {
+            batch.forEach(request -> inFlight.remove(request.hash(), request.future()));
+            sample.stop(Timer.builder("embedding.model")
+                    .description("单批嵌入模型调用耗时")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 内容哈希：SHA-256(模型标识 + 文本)，更换模型后不会命中旧向量
+     */
+    private String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(embeddingModel.id().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private Counter chunkCounter(String result) {
+        return Counter.builder("embedding.chunks")
+                .description("提交嵌入计算的文本数（cached-命中缓存，joined-与相同内容合并，queued-进入队列）")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 排队中的嵌入请求
+     */
+    record Request(String hash, String text, CompletableFuture<float[]> future) {
+    }
+}
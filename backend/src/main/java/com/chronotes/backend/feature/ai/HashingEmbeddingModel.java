@@ -0,0 +1,63 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.search.Tokenizer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 本地特征哈希嵌入模型
+ * <p>
+ * 把分词结果带符号地哈希到固定维度后归一化，不依赖外部服务，
+ * 用作未接入真实模型时的默认实现和测试替身；只能反映字面重合，不具备真正的语义能力
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimension;
+
+    public HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public String id() {
+        return "hashing-v1-" + dimension;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(text));
+        }
+        return vectors;
+    }
+
+    private float[] embed(String text) {
+        float[] vector = new float[dimension];
+        Tokenizer.tokenize(text, token -> {
+            int hash = Arrays.hashCode(token.getBytes(StandardCharsets.UTF_8));
+            // 再混合一次决定符号，减少不同词落入同一维度时的相互抵消偏差
+            int mixed = hash * 0x9E3779B9;
+            vector[Math.floorMod(hash, dimension)] += (mixed >>> 31) == 0 ? 1 : -1;
+        });
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
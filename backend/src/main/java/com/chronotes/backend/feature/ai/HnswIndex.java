@@ -0,0 +1,814 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.util.LongIntHashMap;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW 近似最近邻索引（单个分区）
+ * <p>
+ * 向量与第 0 层邻接表按固定大小的槽位存放在内存映射文件 vectors.bin 中，不占用堆；
+ * 只有少数节点拥有的上层邻接表保存在堆上，并在 {@link #flush()} 时写入 upper.bin。
+ * 向量写入前归一化，相似度为内积（即余弦相似度）。删除只打墓碑，
+ * 墓碑节点仍参与图遍历但不出现在结果中，比例过高时由调用方重建
+ * <p>
+ * 槽位布局（小端序）：noteId(long) | flags(int) | level(int) | vector(float[dimension]) | 邻居数(int) | 邻居(int[2M])
+ */
+public class HnswIndex implements Closeable {
+
+    private static final long CHUNK_BYTES = 32L << 20;
+    private static final int FLAG_DELETED = 1;
+    private static final String META_FILE = "partition.properties";
+    private static final String VECTORS_FILE = "vectors.bin";
+    private static final String UPPER_FILE = "upper.bin";
+
+    /**
+     * 每插入多少个节点持久化一次元数据；崩溃时只丢失最近一批插入
+     */
+    private static final int FLUSH_INTERVAL = 4096;
+
+    private static final int OFFSET_NOTE_ID = 0;
+    private static final int OFFSET_FLAGS = 8;
+    private static final int OFFSET_LEVEL = 12;
+    private static final int OFFSET_VECTOR = 16;
+
+    private final Path directory;
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final int slotSize;
+    private final int slotsPerChunk;
+    private final int neighborCountOffset;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private final List<FloatBuffer> floatViews = new ArrayList<>();
+    private final Map<Integer, int[][]> upperLinks = new HashMap<>();
+    private final LongIntHashMap nodesByNoteId = new LongIntHashMap();
+    private final ConcurrentLinkedQueue<Visited> visitedPool = new ConcurrentLinkedQueue<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private int count;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private HnswIndex(Path directory, int dimension, int m, int efConstruction) throws IOException {
+        this.directory = directory;
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.neighborCountOffset = OFFSET_VECTOR + dimension * Float.BYTES;
+        this.slotSize = neighborCountOffset + Integer.BYTES + maxM0 * Integer.BYTES;
+        this.slotsPerChunk = (int) Math.max(1, CHUNK_BYTES / slotSize);
+        this.channel = FileChannel.open(directory.resolve(VECTORS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 打开（或新建）目录下的分区；已有分区的维度与 M 以文件中记录的为准
+     */
+    public static HnswIndex open(Path directory, int dimension, int m, int efConstruction) throws IOException {
+        Files.createDirectories(directory);
+        Path meta = directory.resolve(META_FILE);
+        Properties properties = new Properties();
+        if (Files.exists(meta)) {
+            try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            int storedDimension = Integer.parseInt(properties.getProperty("dimension"));
+            if (storedDimension != dimension) {
+                throw new IllegalStateException("向量维度不一致: 分区为 " + storedDimension + "，配置为 " + dimension);
+            }
+            m = Integer.parseInt(properties.getProperty("m"));
+        }
+        HnswIndex index = new HnswIndex(directory, dimension, m, efConstruction);
+        if (!properties.isEmpty()) {
+            index.load(properties);
+        }
+        return index;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * 节点总数（含墓碑）
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int liveSize() {
+        lock.readLock().lock();
+        try {
+            return count - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedSize() {
+        lock.readLock().lock();
+        try {
+            return deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long noteId) {
+        lock.readLock().lock();
+        try {
+            return nodesByNoteId.containsKey(noteId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 插入或替换笔记的向量（替换时旧节点打墓碑）
+     */
+    public void upsert(long noteId, float[] vector) throws IOException {
+        float[] query = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int previous = nodesByNoteId.get(noteId, -1);
+            if (previous >= 0) {
+                markDeleted(previous);
+            }
+            int node = count;
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            ensureCapacity(node + 1);
+            MappedByteBuffer chunk = chunk(node);
+            int base = base(node);
+            chunk.putLong(base + OFFSET_NOTE_ID, noteId);
+            chunk.putInt(base + OFFSET_FLAGS, 0);
+            chunk.putInt(base + OFFSET_LEVEL, level);
+            for (int i = 0; i < dimension; i++) {
+                chunk.putFloat(base + OFFSET_VECTOR + i * Float.BYTES, query[i]);
+            }
+            chunk.putInt(base + neighborCountOffset, 0);
+            if (level > 0) {
+                int[][] links = new int[level][];
+                Arrays.fill(links, new int[0]);
+                upperLinks.put(node, links);
+            }
+            count++;
+            nodesByNoteId.put(noteId, node, -1);
+            link(node, level, query);
+            if (count % FLUSH_INTERVAL == 0) {
+                flush();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(long noteId) {
+        lock.writeLock().lock();
+        try {
+            int node = nodesByNoteId.remove(noteId, -1);
+            if (node < 0) {
+                return false;
+            }
+            markDeleted(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 近似检索：返回与查询向量最相似的 k 个向量
+     */
+    public List<VectorStore.Hit> search(float[] vector, int k, int ef) {
+        float[] query = normalize(vector);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            float[] scratch = new float[dimension];
+            int current = entryPoint;
+            float currentSimilarity = similarity(query, current, scratch);
+            for (int level = maxLevel; level > 0; level--) {
+                int[] best = {current};
+                currentSimilarity = greedy(query, best, currentSimilarity, level, scratch);
+                current = best[0];
+            }
+            NodeHeap results = searchLayer(query, current, currentSimilarity, Math.max(ef, k), 0, scratch);
+            int[] nodes = results.drainDescending();
+            float[] scores = results.lastDrainedScores();
+            List<VectorStore.Hit> hits = new ArrayList<>(k);
+            for (int i = 0; i < nodes.length && hits.size() < k; i++) {
+                if (!isDeleted(nodes[i])) {
+                    hits.add(new VectorStore.Hit(noteId(nodes[i]), scores[i]));
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 精确检索：遍历全部向量，用于召回率校验与基准对照
+     */
+    public List<VectorStore.Hit> searchExact(float[] vector, int k) {
+        float[] query = normalize(vector);
+        lock.readLock().lock();
+        try {
+            float[] scratch = new float[dimension];
+            NodeHeap top = new NodeHeap(k + 1, false);
+            for (int node = 0; node < count; node++) {
+                if (isDeleted(node)) {
+                    continue;
+                }
+                float score = similarity(query, node, scratch);
+                if (top.size() < k) {
+                    top.push(node, score);
+                } else if (score > top.peekScore()) {
+                    top.pop();
+                    top.push(node, score);
+                }
+            }
+            int[] nodes = top.drainDescending();
+            float[] scores = top.lastDrainedScores();
+            List<VectorStore.Hit> hits = new ArrayList<>(nodes.length);
+            for (int i = 0; i < nodes.length; i++) {
+                hits.add(new VectorStore.Hit(noteId(nodes[i]), scores[i]));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 依次访问所有未删除的向量（用于重建）
+     */
+    public void forEachLive(VectorConsumer consumer) throws IOException {
+        lock.readLock().lock();
+        try {
+            float[] vector = new float[dimension];
+            for (int node = 0; node < count; node++) {
+                if (!isDeleted(node)) {
+                    readVector(node, vector);
+                    consumer.accept(noteId(node), vector);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 持久化元数据与上层邻接表；向量与第 0 层邻接表随映射页一并刷盘
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+            Path upperTemp = directory.resolve(UPPER_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new java.io.BufferedOutputStream(
+                    Files.newOutputStream(upperTemp)))) {
+                out.writeInt(upperLinks.size());
+                for (Map.Entry<Integer, int[][]> entry : upperLinks.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (int[] links : entry.getValue()) {
+                        out.writeInt(links.length);
+                        for (int link : links) {
+                            out.writeInt(link);
+                        }
+                    }
+                }
+            }
+            Files.move(upperTemp, directory.resolve(UPPER_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            Properties properties = new Properties();
+            properties.setProperty("dimension", String.valueOf(dimension));
+            properties.setProperty("m", String.valueOf(m));
+            properties.setProperty("count", String.valueOf(count));
+            properties.setProperty("entryPoint", String.valueOf(entryPoint));
+            properties.setProperty("maxLevel", String.valueOf(maxLevel));
+            Path metaTemp = directory.resolve(META_FILE + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(metaTemp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(metaTemp, directory.resolve(META_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    // ---------------------------------------------------------------- 建图
+
+    private void link(int node, int level, float[] query) {
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        float[] scratch = new float[dimension];
+        int current = entryPoint;
+        float currentSimilarity = similarity(query, current, scratch);
+        for (int l = maxLevel; l > level; l--) {
+            int[] best = {current};
+            currentSimilarity = greedy(query, best, currentSimilarity, l, scratch);
+            current = best[0];
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(query, current, currentSimilarity, efConstruction, l, scratch);
+            int[] nodes = candidates.drainDescending();
+            float[] scores = candidates.lastDrainedScores();
+            current = nodes[0];
+            currentSimilarity = scores[0];
+
+            int[] selected = selectNeighbors(nodes, scores, m);
+            setNeighbors(node, l, selected, selected.length);
+            int maxConnections = l == 0 ? maxM0 : m;
+            for (int neighbor : selected) {
+                connect(neighbor, node, l, maxConnections, scratch);
+            }
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * 为 target 增加一条指向 node 的边；超过上限时按启发式重新挑选
+     */
+    private void connect(int target, int node, int level, int maxConnections, float[] scratch) {
+        int[] existing = neighbors(target, level);
+        if (existing.length < maxConnections) {
+            int[] updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = node;
+            setNeighbors(target, level, updated, updated.length);
+            return;
+        }
+        float[] targetVector = new float[dimension];
+        readVector(target, targetVector);
+        int[] candidates = Arrays.copyOf(existing, existing.length + 1);
+        candidates[existing.length] = node;
+        float[] scores = new float[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            scores[i] = similarity(targetVector, candidates[i], scratch);
+        }
+        sortDescending(candidates, scores);
+        int[] selected = selectNeighbors(candidates, scores, maxConnections);
+        setNeighbors(target, level, selected, selected.length);
+    }
+
+    /**
+     * 启发式选邻：候选按与查询的相似度降序，只保留比已选邻居更接近查询的候选，
+     * 使邻居分散在不同方向；不足 max 时用被淘汰的候选补齐
+     */
+    private int[] selectNeighbors(int[] candidates, float[] scores, int max) {
+        if (candidates.length <= max) {
+            return candidates;
+        }
+        int[] selected = new int[max];
+        float[][] selectedVectors = new float[max][];
+        int size = 0;
+        boolean[] taken = new boolean[candidates.length];
+        float[] candidateVector = new float[dimension];
+        for (int i = 0; i < candidates.length && size < max; i++) {
+            readVector(candidates[i], candidateVector);
+            boolean keep = true;
+            for (int j = 0; j < size; j++) {
+                if (dot(candidateVector, selectedVectors[j]) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selectedVectors[size] = candidateVector.clone();
+                selected[size++] = candidates[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.length && size < max; i++) {
+            if (!taken[i]) {
+                selected[size++] = candidates[i];
+            }
+        }
+        return selected;
+    }
+
+    // ---------------------------------------------------------------- 检索
+
+    private float greedy(float[] query, int[] current, float currentSimilarity, int level, float[] scratch) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbor : neighbors(current[0], level)) {
+                float score = similarity(query, neighbor, scratch);
+                if (score > currentSimilarity) {
+                    currentSimilarity = score;
+                    current[0] = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return currentSimilarity;
+    }
+
+    /**
+     * 在单层上做最佳优先搜索，返回最相似的 ef 个节点（小顶堆）
+     */
+    private NodeHeap searchLayer(float[] query, int entry, float entrySimilarity, int ef, int level, float[] scratch) {
+        Visited visited = acquireVisited();
+        try {
+            NodeHeap candidates = new NodeHeap(ef * 2, true);
+            NodeHeap results = new NodeHeap(ef + 1, false);
+            visited.mark(entry);
+            candidates.push(entry, entrySimilarity);
+            results.push(entry, entrySimilarity);
+            while (candidates.size() > 0) {
+                float candidateScore = candidates.peekScore();
+                if (results.size() >= ef && candidateScore < results.peekScore()) {
+                    break;
+                }
+                int candidate = candidates.peekNode();
+                candidates.pop();
+                for (int neighbor : neighbors(candidate, level)) {
+                    if (!visited.mark(neighbor)) {
+                        continue;
+                    }
+                    float score = similarity(query, neighbor, scratch);
+                    if (results.size() < ef || score > results.peekScore()) {
+                        candidates.push(neighbor, score);
+                        results.push(neighbor, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+            return results;
+        } finally {
+            visitedPool.offer(visited);
+        }
+    }
+
+    private Visited acquireVisited() {
+        Visited visited = visitedPool.poll();
+        if (visited == null) {
+            visited = new Visited();
+        }
+        visited.reset(count);
+        return visited;
+    }
+
+    // ---------------------------------------------------------------- 存储
+
+    private void load(Properties properties) throws IOException {
+        count = Integer.parseInt(properties.getProperty("count", "0"));
+        entryPoint = Integer.parseInt(properties.getProperty("entryPoint", "-1"));
+        maxLevel = Integer.parseInt(properties.getProperty("maxLevel", "-1"));
+        ensureCapacity(count);
+        Path upper = directory.resolve(UPPER_FILE);
+        if (Files.exists(upper)) {
+            try (DataInputStream in = new DataInputStream(new java.io.BufferedInputStream(
+                    Files.newInputStream(upper)))) {
+                int nodes = in.readInt();
+                for (int i = 0; i < nodes; i++) {
+                    int node = in.readInt();
+                    int[][] links = new int[in.readInt()][];
+                    for (int l = 0; l < links.length; l++) {
+                        links[l] = new int[in.readInt()];
+                        for (int j = 0; j < links[l].length; j++) {
+                            links[l][j] = in.readInt();
+                        }
+                    }
+                    if (node < count) {
+                        upperLinks.put(node, links);
+                    }
+                }
+            }
+        }
+        for (int node = 0; node < count; node++) {
+            if (isDeleted(node)) {
+                deletedCount++;
+            } else {
+                nodesByNoteId.put(noteId(node), node, -1);
+            }
+        }
+    }
+
+    private void ensureCapacity(int slots) throws IOException {
+        while ((long) chunks.size() * slotsPerChunk < slots) {
+            long position = (long) chunks.size() * slotsPerChunk * slotSize;
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slotsPerChunk * slotSize);
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunks.add(chunk);
+            floatViews.add(chunk.asFloatBuffer());
+        }
+    }
+
+    private MappedByteBuffer chunk(int node) {
+        return chunks.get(node / slotsPerChunk);
+    }
+
+    private int base(int node) {
+        return (node % slotsPerChunk) * slotSize;
+    }
+
+    private long noteId(int node) {
+        return chunk(node).getLong(base(node) + OFFSET_NOTE_ID);
+    }
+
+    private boolean isDeleted(int node) {
+        return (chunk(node).getInt(base(node) + OFFSET_FLAGS) & FLAG_DELETED) != 0;
+    }
+
+    private void markDeleted(int node) {
+        MappedByteBuffer chunk = chunk(node);
+        int offset = base(node) + OFFSET_FLAGS;
+        int flags = chunk.getInt(offset);
+        if ((flags & FLAG_DELETED) == 0) {
+            chunk.putInt(offset, flags | FLAG_DELETED);
+            deletedCount++;
+        }
+    }
+
+    private void readVector(int node, float[] target) {
+        floatViews.get(node / slotsPerChunk).get((base(node) + OFFSET_VECTOR) / Float.BYTES, target, 0, dimension);
+    }
+
+    /**
+     * 先把向量整块复制到 scratch（槽位大小是 4 的倍数，向量按 float 对齐），再在堆数组上计算内积，
+     * 避免逐个元素经由映射缓冲区读取
+     */
+    private float similarity(float[] query, int node, float[] scratch) {
+        readVector(node, scratch);
+        return dot(query, scratch);
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        for (; i + 3 < a.length; i += 4) {
+            sum0 += a[i] * b[i];
+            sum1 += a[i + 1] * b[i + 1];
+            sum2 += a[i + 2] * b[i + 2];
+            sum3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            sum0 += a[i] * b[i];
+        }
+        return sum0 + sum1 + sum2 + sum3;
+    }
+
+    /**
+     * 读取邻接表；崩溃恢复后可能存在指向未落盘节点的边，一并过滤
+     */
+    private int[] neighbors(int node, int level) {
+        int[] links;
+        if (level == 0) {
+            MappedByteBuffer chunk = chunk(node);
+            int offset = base(node) + neighborCountOffset;
+            links = new int[chunk.getInt(offset)];
+            for (int i = 0; i < links.length; i++) {
+                links[i] = chunk.getInt(offset + Integer.BYTES + i * Integer.BYTES);
+            }
+        } else {
+            int[][] upper = upperLinks.get(node);
+            links = upper == null || level > upper.length ? new int[0] : upper[level - 1];
+        }
+        for (int link : links) {
+            if (link >= count) {
+                return Arrays.stream(links).filter(value -> value < count).toArray();
+            }
+        }
+        return links;
+    }
+
+    private void setNeighbors(int node, int level, int[] links, int size) {
+        if (level == 0) {
+            MappedByteBuffer chunk = chunk(node);
+            int offset = base(node) + neighborCountOffset;
+            chunk.putInt(offset, size);
+            for (int i = 0; i < size; i++) {
+                chunk.putInt(offset + Integer.BYTES + i * Integer.BYTES, links[i]);
+            }
+        } else {
+            upperLinks.get(node)[level - 1] = Arrays.copyOf(links, size);
+        }
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度应为 " + dimension + "，实际为 " + vector.length);
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[dimension];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static void sortDescending(int[] nodes, float[] scores) {
+        // 邻居数不超过 2M+1，插入排序即可
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                nodes[j + 1] = nodes[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            scores[j + 1] = score;
+        }
+    }
+
+    @FunctionalInterface
+    public interface VectorConsumer {
+        void accept(long noteId, float[] vector) throws IOException;
+    }
+
+    /**
+     * 访问标记：用递增的轮次号代替每次清零
+     */
+    private static final class Visited {
+
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * 标记节点，返回是否为首次访问
+         */
+        boolean mark(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+
+    /**
+     * (节点, 相似度) 二叉堆，max 为 true 时堆顶为最大值
+     */
+    private static final class NodeHeap {
+
+        private final boolean max;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+        private float[] drainedScores;
+
+        NodeHeap(int capacity, boolean max) {
+            this.max = max;
+            this.nodes = new int[Math.max(capacity, 4)];
+            this.scores = new float[nodes.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(score, scores[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        void pop() {
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!before(scores[child], lastScore)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+        }
+
+        /**
+         * 按相似度降序取出全部元素（仅用于小顶堆），分数通过 {@link #lastDrainedScores()} 获取
+         */
+        int[] drainDescending() {
+            int[] drained = new int[size];
+            drainedScores = new float[size];
+            for (int i = size - 1; i >= 0; i--) {
+                drained[i] = nodes[0];
+                drainedScores[i] = scores[0];
+                pop();
+            }
+            return drained;
+        }
+
+        float[] lastDrainedScores() {
+            return drainedScores;
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
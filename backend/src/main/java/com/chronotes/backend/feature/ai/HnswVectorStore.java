@@ -0,0 +1,159 @@
+package com.chronotes.backend.feature.ai;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 基于 HNSW 的进程内向量存储
+ * <p>
+ * 每个用户一个分区（ai.vector.dir/{用户ID}），按需打开、闲置后落盘关闭。
+ * 删除只打墓碑，墓碑超过 ai.vector.compact-ratio 时把存活向量重新插入新分区后替换
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HnswVectorStore implements VectorStore {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.vector.dir:data/vector-index}")
+    private String vectorDir;
+
+    @Value("${ai.vector.dimension:384}")
+    private int dimension;
+
+    @Value("${ai.vector.m:16}")
+    private int m;
+
+    @Value("${ai.vector.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${ai.vector.ef-search:64}")
+    private int efSearch;
+
+    @Value("${ai.vector.max-open-users:200}")
+    private long maxOpenUsers;
+
+    @Value("${ai.vector.idle-timeout:1800000}")
+    private long idleTimeout;
+
+    @Value("${ai.vector.compact-ratio:0.3}")
+    private double compactRatio;
+
+    private LoadingCache<Long, HnswIndex> partitions;
+
+    @PostConstruct
+    public void init() {
+        this.partitions = Caffeine.newBuilder()
+                .maximumSize(maxOpenUsers)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .<Long, HnswIndex>evictionListener((userId, index, cause) -> closeQuietly(userId, index))
+                .build(userId -> HnswIndex.open(partitionDir(userId), dimension, m, efConstruction));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitions.asMap().forEach(this::closeQuietly);
+    }
+
+    @Override
+    public void upsert(Long userId, Long noteId, float[] vector) {
+        try {
+            partitions.get(userId).upsert(noteId, vector);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void delete(Long userId, Long noteId) {
+        HnswIndex index = partitions.get(userId);
+        if (index.delete(noteId) && index.size() >= 1000 && index.deletedSize() > index.size() * compactRatio) {
+            compact(userId);
+        }
+    }
+
+    @Override
+    public List<Hit> search(Long userId, float[] query, int k) {
+        return timed("hnsw", () -> partitions.get(userId).search(query, k, efSearch));
+    }
+
+    @Override
+    public List<Hit> searchExact(Long userId, float[] query, int k) {
+        return timed("exact", () -> partitions.get(userId).searchExact(query, k));
+    }
+
+    /**
+     * 重建分区以清除墓碑；重建期间该用户的读写在分区条目上等待
+     */
+    private void compact(Long userId) {
+        partitions.asMap().computeIfPresent(userId, (id, index) -> {
+            Path target = partitionDir(id);
+            Path rebuilt = target.resolveSibling(id + ".compact");
+            try {
+                FileSystemUtils.deleteRecursively(rebuilt);
+                try (HnswIndex fresh = HnswIndex.open(rebuilt, dimension, m, efConstruction)) {
+                    index.forEachLive(fresh::upsert);
+                }
+                index.close();
+                Path retired = target.resolveSibling(id + ".retired");
+                Files.move(target, retired, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(rebuilt, target, StandardCopyOption.ATOMIC_MOVE);
+                FileSystemUtils.deleteRecursively(retired);
+                log.info("向量分区重建完成: userId={}", id);
+                return HnswIndex.open(target, dimension, m, efConstruction);
+            } catch (IOException e) {
+                log.warn("向量分区重建失败: userId={}, {}", id, e.getMessage());
+                return index;
+            }
+        });
+    }
+
+    private List<Hit> timed(String mode, Supplier<List<Hit>> search) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return search.get();
+        } finally {
+            sample.stop(Timer.builder("vector.search")
+                    .description("向量检索耗时")
+                    .tag("mode", mode)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private Path partitionDir(Long userId) {
+        return Path.of(vectorDir).resolve(String.valueOf(userId));
+    }
+
+    private void closeQuietly(Long userId, HnswIndex index) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.close();
+        } catch (IOException e) {
+            log.warn("向量分区落盘失败: userId={}, {}", userId, e.getMessage());
+        }
+    }
+}
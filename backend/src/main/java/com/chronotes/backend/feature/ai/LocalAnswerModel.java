@@ -0,0 +1,136 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.search.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地摘录式问答模型
+ * <p>
+ * 从每篇检索到的笔记中摘出与问题字面重合最多的一句，按字（英文按词）逐段推送。
+ * 不依赖外部服务，用作未接入真实模型时的默认实现和测试替身；没有理解与归纳能力
+ */
+public class LocalAnswerModel implements AnswerModel {
+
+    @Override
+    public String id() {
+        return "local-extractive-v1";
+    }
+
+    @Override
+    public Flow.Publisher<String> generate(String question, List<Passage> passages) {
+        return subscriber -> subscriber.onSubscribe(new TokenSubscription(subscriber, tokens(answer(question, passages))));
+    }
+
+    static String answer(String question, List<Passage> passages) {
+        if (passages.isEmpty()) {
+            return "笔记中没有找到与「" + question + "」相关的内容。";
+        }
+        Set<String> terms = new HashSet<>(Tokenizer.tokenize(question));
+        StringBuilder answer = new StringBuilder("在 ").append(passages.size()).append(" 篇笔记中找到相关内容：\n");
+        for (Passage passage : passages) {
+            answer.append("\n《").append(passage.title()).append("》：").append(bestSentence(passage.text(), terms));
+        }
+        return answer.toString();
+    }
+
+    private static String bestSentence(String text, Set<String> terms) {
+        String best = "";
+        int bestOverlap = -1;
+        for (String sentence : text.split("(?<=[。！？.!?])|\\n+")) {
+            String trimmed = sentence.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int[] overlap = new int[1];
+            Tokenizer.tokenize(trimmed, token -> {
+                if (terms.contains(token)) {
+                    overlap[0]++;
+                }
+            });
+            if (overlap[0] > bestOverlap) {
+                best = trimmed;
+                bestOverlap = overlap[0];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 按生成粒度切分：汉字等逐字，连续的字母数字连同其后的空白为一段
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = start;
+            while (end < text.length() && Character.isLetterOrDigit(text.charAt(end)) && text.charAt(end) < 0x80) {
+                end++;
+            }
+            if (end == start) {
+                end = text.offsetByCodePoints(start, 1);
+            }
+            while (end < text.length() && text.charAt(end) == ' ') {
+                end++;
+            }
+            tokens.add(text.substring(start, end));
+            start = end;
+        }
+        return tokens;
+    }
+
+    /**
+     * 按请求量推送的订阅；在请求方线程上推送，重入的 request 只累加请求量，不会递归
+     */
+    private static final class TokenSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super String> subscriber;
+        private final List<String> tokens;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private int next;
+
+        TokenSubscription(Flow.Subscriber<? super String> subscriber, List<String> tokens) {
+            this.subscriber = subscriber;
+            this.tokens = tokens;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("请求量必须为正数"));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!cancelled.get() && next < tokens.size() && demand.get() > 0) {
+                    demand.decrementAndGet();
+                    subscriber.onNext(tokens.get(next++));
+                }
+                if (!cancelled.get() && next == tokens.size()) {
+                    cancelled.set(true);
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+}
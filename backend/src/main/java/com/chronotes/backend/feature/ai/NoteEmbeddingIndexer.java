@@ -0,0 +1,240 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 笔记保存后异步计算嵌入并写入向量存储
+ * <p>
+ * 同一笔记连续保存时，只有最后一次提交的结果会写入，先完成的旧版本结果直接丢弃。
+ * 批量导入的笔记以及嵌入队列已满时的保存不占用请求线程，先记入待补算集合，
+ * 由后台线程按模型的处理速度从数据库读取最新内容逐批补算
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NoteEmbeddingIndexer {
+
+    /**
+     * 后台补算每次从数据库读取的笔记数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    /**
+     * 补算时嵌入队列已满的重试间隔（毫秒）
+     */
+    private static final long BACKFILL_RETRY_DELAY = 200;
+
+    private final EmbeddingService embeddingService;
+    private final VectorStore vectorStore;
+    private final NoteMapper noteMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 笔记ID → 最近一次提交的序号
+     */
+    private final Map<Long, Long> latest = new ConcurrentHashMap<>();
+
+    /**
+     * 待补算的笔记：笔记ID → 用户ID
+     */
+    private final Map<Long, Long> backlog = new ConcurrentHashMap<>();
+
+    private final ReentrantLock backlogLock = new ReentrantLock();
+    private final Condition backlogReady = backlogLock.newCondition();
+
+    private volatile boolean running;
+
+    private ExecutorService backfill;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("embedding.backlog", backlog, Map::size)
+                .description("等待后台补算嵌入的笔记数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后开始补算
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        backfill = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedding-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backfill.execute(this::backfillLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (backfill != null) {
+            backfill.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        Long userId = event.getUserId();
+        Long noteId = event.getNoteId();
+        if (event.isDeleted()) {
+            backlog.remove(noteId);
+            latest.compute(noteId, (id, current) -> {
+                vectorStore.delete(userId, noteId);
+                return null;
+            });
+            return;
+        }
+
+        if (!submit(userId, event.getNote())) {
+            log.warn("嵌入队列已满，稍后补算: noteId={}", noteId);
+            defer(Map.of(noteId, userId));
+        }
+    }
+
+    /**
+     * 批量导入的笔记全部交给后台补算，导入请求不在嵌入队列上等待
+     */
+    @EventListener
+    public void onNotesImported(NotesImportedEvent event) {
+        Map<Long, Long> notes = new HashMap<>();
+        for (Note note : event.getNotes()) {
+            notes.put(note.getId(), event.getUserId());
+        }
+        defer(notes);
+    }
+
+    /**
+     * 提交嵌入计算；队列已满时返回 false
+     */
+    private boolean submit(Long userId, Note note) {
+        Long noteId = note.getId();
+        long seq = sequence.incrementAndGet();
+        latest.put(noteId, seq);
+        try {
+            embeddingService.embedDocumentAsync(text(note)).whenComplete((vector, error) -> {
+                if (error != null) {
+                    latest.remove(noteId, seq);
+                    log.warn("笔记嵌入计算失败: noteId={}, {}", noteId, error.getMessage());
+                    return;
+                }
+                latest.computeIfPresent(noteId, (id, current) -> {
+                    if (current != seq) {
+                        return current;
+                    }
+                    if (vector == null) {
+                        vectorStore.delete(userId, noteId);
+                    } else {
+                        vectorStore.upsert(userId, noteId, vector);
+                    }
+                    return null;
+                });
+            });
+            return true;
+        } catch (BusinessException e) {
+            latest.remove(noteId, seq);
+            return false;
+        }
+    }
+
+    private void defer(Map<Long, Long> notes) {
+        backlog.putAll(notes);
+        backlogLock.lock();
+        try {
+            backlogReady.signal();
+        } finally {
+            backlogLock.unlock();
+        }
+    }
+
+    private void backfillLoop() {
+        while (running) {
+            try {
+                backfillBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("嵌入补算异常: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void backfillBatch() throws InterruptedException {
+        backlogLock.lock();
+        try {
+            while (backlog.isEmpty()) {
+                backlogReady.await();
+            }
+        } finally {
+            backlogLock.unlock();
+        }
+
+        // 按用户分组读取；取出后笔记又被保存或删除时，以事件处理为准，这里读到的也是最新内容
+        Map<Long, List<Long>> byUser = new HashMap<>();
+        int taken = 0;
+        Iterator<Map.Entry<Long, Long>> iterator = backlog.entrySet().iterator();
+        while (iterator.hasNext() && taken < BACKFILL_BATCH_SIZE) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            if (backlog.remove(entry.getKey(), entry.getValue())) {
+                byUser.computeIfAbsent(entry.getValue(), id -> new ArrayList<>()).add(entry.getKey());
+                taken++;
+            }
+        }
+
+        for (Map.Entry<Long, List<Long>> entry : byUser.entrySet()) {
+            Long userId = entry.getKey();
+            for (Note note : noteMapper.findByIds(userId, entry.getValue())) {
+                while (!submit(userId, note)) {
+                    if (!running) {
+                        return;
+                    }
+                    Thread.sleep(BACKFILL_RETRY_DELAY);
+                }
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(BACKFILL_RETRY_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String text(Note note) {
+        return note.getTitle() + "\n\n" + note.getContent();
+    }
+}
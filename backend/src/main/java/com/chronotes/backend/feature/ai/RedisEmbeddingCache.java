@@ -0,0 +1,127 @@
+package com.chronotes.backend.feature.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级嵌入向量缓存：本地 Caffeine + Redis
+ * <p>
+ * Redis 中按 embedding:{内容哈希} 存放小端序 float 数组原始字节，所有节点共享且重启后仍有效；
+ * Redis 不可用时退化为只用本地缓存，不影响嵌入计算
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisEmbeddingCache implements EmbeddingCache {
+
+    private static final String KEY_PREFIX = "embedding:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${ai.embedding.cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${ai.embedding.cache.redis-ttl:2592000000}")
+    private long redisTtl;
+
+    private Cache<String, float[]> localVectors;
+
+    @PostConstruct
+    public void init() {
+        this.localVectors = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .build();
+    }
+
+    @Override
+    public Map<String, float[]> getAll(Collection<String> hashes) {
+        Map<String, float[]> found = new HashMap<>(localVectors.getAllPresent(hashes));
+        List<String> missing = new ArrayList<>();
+        for (String hash : hashes) {
+            if (!found.containsKey(hash)) {
+                missing.add(hash);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        List<byte[]> values;
+        try {
+            byte[][] keys = new byte[missing.size()][];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = key(missing.get(i));
+            }
+            values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.stringCommands().mGet(keys));
+        } catch (Exception e) {
+            log.warn("读取嵌入向量缓存失败: {}", e.getMessage());
+            return found;
+        }
+        if (values == null) {
+            return found;
+        }
+        for (int i = 0; i < missing.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null) {
+                float[] vector = decode(value);
+                found.put(missing.get(i), vector);
+                localVectors.put(missing.get(i), vector);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, float[]> vectors) {
+        if (vectors.isEmpty()) {
+            return;
+        }
+        localVectors.putAll(vectors);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                Expiration expiration = Expiration.from(redisTtl, TimeUnit.MILLISECONDS);
+                vectors.forEach((hash, vector) -> connection.stringCommands()
+                        .set(key(hash), encode(vector), expiration, RedisStringCommands.SetOption.upsert()));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("写入嵌入向量缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] key(String hash) {
+        return (KEY_PREFIX + hash).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
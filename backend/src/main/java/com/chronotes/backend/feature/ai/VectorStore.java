@@ -0,0 +1,35 @@
+package com.chronotes.backend.feature.ai;
+
+import java.util.List;
+
+/**
+ * 笔记向量存储，按用户分区
+ */
+public interface VectorStore {
+
+    /**
+     * 写入或替换笔记的向量
+     */
+    void upsert(Long userId, Long noteId, float[] vector);
+
+    /**
+     * 删除笔记的向量
+     */
+    void delete(Long userId, Long noteId);
+
+    /**
+     * 近似最近邻检索，按相似度降序返回最多 k 条
+     */
+    List<Hit> search(Long userId, float[] query, int k);
+
+    /**
+     * 精确检索（遍历分区内全部向量），用于召回率校验
+     */
+    List<Hit> searchExact(Long userId, float[] query, int k);
+
+    /**
+     * 检索结果，score 为余弦相似度
+     */
+    record Hit(long noteId, float score) {
+    }
+}
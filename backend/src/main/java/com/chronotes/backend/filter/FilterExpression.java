@@ -0,0 +1,352 @@
+package com.chronotes.backend.filter;
+
+import com.chronotes.backend.exception.BusinessException;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 筛选表达式
+ * <p>
+ * 语法：{@code tag:工作 AND (status:pending OR NOT date:2026-01-01..2026-01-31)}。
+ * 条件为 字段:值，值含空格时加双引号；日期可写单日或 起..止 的闭区间，任一端可省略。
+ * 运算符不区分大小写，优先级 NOT &gt; AND &gt; OR，相邻条件之间省略运算符即为 AND。
+ * 表达式在索引上求值为位图，也可对单条记录求值，用于回表后复核
+ */
+public sealed interface FilterExpression {
+
+    int MAX_LENGTH = 500;
+
+    int MAX_CONDITIONS = 32;
+
+    String TAG = "tag";
+    String STATUS = "status";
+    String DATE = "date";
+
+    /**
+     * 在索引上求值
+     */
+    RoaringBitmap evaluate(Postings postings);
+
+    /**
+     * 对单条记录求值
+     *
+     * @param terms 记录的全部条件键（{@link #key}）
+     * @param day   记录的日期（epoch day）
+     */
+    boolean matches(Set<String> terms, int day);
+
+    /**
+     * 条件在索引中的键：字段与规范化（小写、去首尾空白）后的值
+     */
+    static String key(String field, String value) {
+        return field + ':' + value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 解析表达式，只接受 fields 中的字段（{@link #DATE} 以外的字段按值精确匹配），
+     * statuses 为 status 字段可取的值
+     */
+    static FilterExpression parse(String text, Set<String> fields, Set<String> statuses) {
+        if (text == null || text.isBlank()) {
+            throw invalid("筛选条件不能为空");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw invalid("筛选条件过长");
+        }
+        return new Parser(text, fields, statuses).parse();
+    }
+
+    private static BusinessException invalid(String message) {
+        return new BusinessException(4000, message);
+    }
+
+    /**
+     * 表达式求值所需的索引位图；返回的位图只读
+     */
+    interface Postings {
+
+        /**
+         * 全部记录
+         */
+        RoaringBitmap all();
+
+        /**
+         * 含该条件的记录
+         */
+        RoaringBitmap term(String key);
+
+        /**
+         * 日期在 [from, to] 内的记录
+         */
+        RoaringBitmap days(int from, int to);
+    }
+
+    record Term(String key) implements FilterExpression {
+
+        @Override
+        public RoaringBitmap evaluate(Postings postings) {
+            return postings.term(key);
+        }
+
+        @Override
+        public boolean matches(Set<String> terms, int day) {
+            return terms.contains(key);
+        }
+    }
+
+    record DateRange(int from, int to) implements FilterExpression {
+
+        @Override
+        public RoaringBitmap evaluate(Postings postings) {
+            return postings.days(from, to);
+        }
+
+        @Override
+        public boolean matches(Set<String> terms, int day) {
+            return day >= from && day <= to;
+        }
+    }
+
+    record Not(FilterExpression operand) implements FilterExpression {
+
+        @Override
+        public RoaringBitmap evaluate(Postings postings) {
+            return RoaringBitmap.andNot(postings.all(), operand.evaluate(postings));
+        }
+
+        @Override
+        public boolean matches(Set<String> terms, int day) {
+            return !operand.matches(terms, day);
+        }
+    }
+
+    record And(List<FilterExpression> operands) implements FilterExpression {
+
+        /**
+         * 否定的操作数不单独求补集，直接从其余操作数的交集中减去
+         */
+        @Override
+        public RoaringBitmap evaluate(Postings postings) {
+            RoaringBitmap result = null;
+            List<FilterExpression> negated = new ArrayList<>();
+            for (FilterExpression operand : operands) {
+                if (operand instanceof Not not) {
+                    negated.add(not.operand());
+                    continue;
+                }
+                result = result == null ? operand.evaluate(postings) : RoaringBitmap.and(result, operand.evaluate(postings));
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            if (result == null) {
+                result = postings.all();
+            }
+            for (FilterExpression operand : negated) {
+                result = RoaringBitmap.andNot(result, operand.evaluate(postings));
+            }
+            return result;
+        }
+
+        @Override
+        public boolean matches(Set<String> terms, int day) {
+            for (FilterExpression operand : operands) {
+                if (!operand.matches(terms, day)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    record Or(List<FilterExpression> operands) implements FilterExpression {
+
+        @Override
+        public RoaringBitmap evaluate(Postings postings) {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(operands.size());
+            for (FilterExpression operand : operands) {
+                bitmaps.add(operand.evaluate(postings));
+            }
+            return RoaringBitmap.or(bitmaps);
+        }
+
+        @Override
+        public boolean matches(Set<String> terms, int day) {
+            for (FilterExpression operand : operands) {
+                if (operand.matches(terms, day)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 递归下降解析：or := and (OR and)*，and := unary ((AND)? unary)*，unary := NOT unary | ( or ) | 条件
+     */
+    final class Parser {
+
+        private final String text;
+        private final Set<String> fields;
+        private final Set<String> statuses;
+        private int position;
+        private int conditions;
+
+        private Parser(String text, Set<String> fields, Set<String> statuses) {
+            this.text = text;
+            this.fields = fields;
+            this.statuses = statuses;
+        }
+
+        FilterExpression parse() {
+            FilterExpression expression = parseOr();
+            skipSpaces();
+            if (position < text.length()) {
+                throw invalid("筛选条件在第 " + (position + 1) + " 个字符处有多余内容");
+            }
+            return expression;
+        }
+
+        private FilterExpression parseOr() {
+            List<FilterExpression> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while (keyword("OR")) {
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(List.copyOf(operands));
+        }
+
+        private FilterExpression parseAnd() {
+            List<FilterExpression> operands = new ArrayList<>();
+            operands.add(parseUnary());
+            while (true) {
+                if (keyword("AND")) {
+                    operands.add(parseUnary());
+                    continue;
+                }
+                skipSpaces();
+                if (position == text.length() || text.charAt(position) == ')' || peekKeyword("OR")) {
+                    break;
+                }
+                operands.add(parseUnary());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(List.copyOf(operands));
+        }
+
+        private FilterExpression parseUnary() {
+            if (keyword("NOT")) {
+                return new Not(parseUnary());
+            }
+            skipSpaces();
+            if (position == text.length()) {
+                throw invalid("筛选条件不完整");
+            }
+            if (text.charAt(position) == '(') {
+                position++;
+                FilterExpression expression = parseOr();
+                skipSpaces();
+                if (position == text.length() || text.charAt(position) != ')') {
+                    throw invalid("筛选条件缺少右括号");
+                }
+                position++;
+                return expression;
+            }
+            return parseCondition();
+        }
+
+        private FilterExpression parseCondition() {
+            if (++conditions > MAX_CONDITIONS) {
+                throw invalid("筛选条件最多 " + MAX_CONDITIONS + " 个");
+            }
+            int colon = text.indexOf(':', position);
+            if (colon < 0) {
+                throw invalid("筛选条件应为 字段:值 的形式");
+            }
+            String field = text.substring(position, colon).toLowerCase(Locale.ROOT);
+            if (!fields.contains(field)) {
+                throw invalid("不支持的筛选字段: " + text.substring(position, colon));
+            }
+            position = colon + 1;
+            String value = readValue();
+            if (value.isBlank()) {
+                throw invalid("筛选字段 " + field + " 缺少值");
+            }
+            if (DATE.equals(field)) {
+                return parseDate(value);
+            }
+            if (STATUS.equals(field) && !statuses.contains(value.trim().toLowerCase(Locale.ROOT))) {
+                throw invalid("不支持的状态: " + value + "，可选 " + String.join("、", statuses));
+            }
+            return new Term(key(field, value));
+        }
+
+        private String readValue() {
+            if (position < text.length() && text.charAt(position) == '"') {
+                int close = text.indexOf('"', position + 1);
+                if (close < 0) {
+                    throw invalid("筛选条件缺少右引号");
+                }
+                String value = text.substring(position + 1, close);
+                position = close + 1;
+                return value;
+            }
+            int start = position;
+            while (position < text.length() && !Character.isWhitespace(text.charAt(position))
+                    && text.charAt(position) != '(' && text.charAt(position) != ')') {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+
+        private FilterExpression parseDate(String value) {
+            int separator = value.indexOf("..");
+            try {
+                if (separator < 0) {
+                    int day = (int) LocalDate.parse(value.trim()).toEpochDay();
+                    return new DateRange(day, day);
+                }
+                String from = value.substring(0, separator).trim();
+                String to = value.substring(separator + 2).trim();
+                int fromDay = from.isEmpty() ? Integer.MIN_VALUE : (int) LocalDate.parse(from).toEpochDay();
+                int toDay = to.isEmpty() ? Integer.MAX_VALUE : (int) LocalDate.parse(to).toEpochDay();
+                if (fromDay > toDay) {
+                    throw invalid("日期范围的起始日期晚于结束日期");
+                }
+                return new DateRange(fromDay, toDay);
+            } catch (DateTimeException e) {
+                throw invalid("日期格式应为 yyyy-MM-dd 或 yyyy-MM-dd..yyyy-MM-dd");
+            }
+        }
+
+        /**
+         * 读取运算符；运算符须独立成词，不能是字段名的前缀
+         */
+        private boolean keyword(String keyword) {
+            if (!peekKeyword(keyword)) {
+                return false;
+            }
+            position += keyword.length();
+            return true;
+        }
+
+        private boolean peekKeyword(String keyword) {
+            skipSpaces();
+            int end = position + keyword.length();
+            if (!text.regionMatches(true, position, keyword, 0, keyword.length())) {
+                return false;
+            }
+            return end == text.length() || Character.isWhitespace(text.charAt(end)) || text.charAt(end) == '(';
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
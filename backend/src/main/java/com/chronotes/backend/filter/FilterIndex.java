@@ -0,0 +1,330 @@
+package com.chronotes.backend.filter;
+
+import com.chronotes.backend.util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单个用户的筛选索引
+ * <p>
+ * 每条记录分配一个用户内的连续编号（删除后回收复用），每个条件（标签、状态）与每个日期各有一个
+ * {@link RoaringBitmap}，筛选表达式按位图的交并差求值，不读数据库。命中的记录按排序键倒序、ID 倒序
+ * 取一页：排序键与 ID 按编号存放在 long 数组中，用定长小顶堆选出前 limit 个，与命中数无关地只保留一页。
+ * 结果只是ID，由调用方回表取数并复核。
+ * <p>
+ * 只在内存中，不落盘，由调用方从数据库加载
+ */
+public class FilterIndex {
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 记录ID → 编号
+     */
+    private final LongIntHashMap docs = new LongIntHashMap(256);
+    private long[] ids = new long[256];
+    private long[] versions = new long[256];
+    private long[] sortKeys = new long[256];
+    private int[] days = new int[256];
+    private String[][] terms = new String[256][];
+
+    /**
+     * 已回收的编号，优先复用以保持编号紧凑
+     */
+    private int[] free = new int[16];
+    private int freeCount;
+    private int nextDoc;
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> dayPostings = new TreeMap<>();
+
+    /**
+     * 已同步到的数据库版本（由调用方定义，用于追赶其他节点的写入）
+     */
+    private long checkpoint;
+
+    private final FilterExpression.Postings view = new FilterExpression.Postings() {
+
+        @Override
+        public RoaringBitmap all() {
+            return live;
+        }
+
+        @Override
+        public RoaringBitmap term(String key) {
+            RoaringBitmap bitmap = postings.get(key);
+            return bitmap == null ? new RoaringBitmap() : bitmap;
+        }
+
+        @Override
+        public RoaringBitmap days(int from, int to) {
+            return RoaringBitmap.or(dayPostings.subMap(from, true, to, true).values());
+        }
+    };
+
+    public long checkpoint() {
+        lock.readLock().lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void advanceCheckpoint(long value) {
+        lock.writeLock().lock();
+        try {
+            checkpoint = Math.max(checkpoint, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 记录在索引中的版本，不存在时返回 -1
+     */
+    public long version(long id) {
+        lock.readLock().lock();
+        try {
+            int doc = docs.get(id, -1);
+            return doc < 0 ? -1 : versions[doc];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] ids() {
+        lock.readLock().lock();
+        try {
+            long[] result = new long[docs.size()];
+            int[] count = {0};
+            docs.forEach((id, doc) -> result[count[0]++] = id);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或替换一条记录
+     *
+     * @param keys 条件键（{@link FilterExpression#key}），可重复
+     * @param day  日期（epoch day）
+     */
+    public void put(long id, long version, long sortKey, int day, String[] keys) {
+        lock.writeLock().lock();
+        try {
+            int doc = docs.get(id, -1);
+            if (doc >= 0) {
+                unindex(doc);
+            } else {
+                doc = allocate();
+                docs.put(id, doc, -1);
+                ids[doc] = id;
+                live.add(doc);
+            }
+            versions[doc] = version;
+            sortKeys[doc] = sortKey;
+            days[doc] = day;
+            terms[doc] = keys.length == 0 ? NO_TERMS : keys.clone();
+            for (String key : terms[doc]) {
+                postings.computeIfAbsent(key, k -> new RoaringBitmap()).add(doc);
+            }
+            dayPostings.computeIfAbsent(day, d -> new RoaringBitmap()).add(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(long id) {
+        lock.writeLock().lock();
+        try {
+            int doc = docs.remove(id, -1);
+            if (doc < 0) {
+                return;
+            }
+            unindex(doc);
+            live.remove(doc);
+            terms[doc] = null;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 命中的记录数
+     */
+    public int count(FilterExpression expression) {
+        lock.readLock().lock();
+        try {
+            return expression.evaluate(view).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按 (排序键, ID) 倒序，取位置 (afterKey, afterId) 之后命中的至多 limit 条记录；
+     * 首页传 {@link Long#MAX_VALUE}
+     */
+    public Hits query(FilterExpression expression, long afterKey, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matched = expression.evaluate(view);
+            // 小顶堆，堆顶是已选中的记录里最靠后的一条
+            int[] heap = new int[Math.min(limit, matched.cardinality())];
+            int[] size = {0};
+            matched.forEach(doc -> {
+                long key = sortKeys[doc];
+                if (key > afterKey || (key == afterKey && ids[doc] >= afterId)) {
+                    return;
+                }
+                if (size[0] < heap.length) {
+                    heap[size[0]] = doc;
+                    siftUp(heap, size[0]++);
+                } else if (heap.length > 0 && before(doc, heap[0])) {
+                    heap[0] = doc;
+                    siftDown(heap, size[0]);
+                }
+            });
+            long[] hitIds = new long[size[0]];
+            long[] hitKeys = new long[size[0]];
+            for (int i = size[0] - 1; i >= 0; i--) {
+                hitIds[i] = ids[heap[0]];
+                hitKeys[i] = sortKeys[heap[0]];
+                heap[0] = heap[i];
+                siftDown(heap, i);
+            }
+            return new Hits(hitIds, hitKeys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引占用的堆内存估算（字节），不含条件键字符串
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = ids.length * (8L + 8 + 8 + 4 + 4) + free.length * 4L + live.sizeInBytes();
+            for (RoaringBitmap bitmap : postings.values()) {
+                bytes += bitmap.sizeInBytes();
+            }
+            for (RoaringBitmap bitmap : dayPostings.values()) {
+                bytes += bitmap.sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * a 是否排在 b 之前（排序键倒序、ID 倒序）
+     */
+    private boolean before(int a, int b) {
+        return sortKeys[a] != sortKeys[b] ? sortKeys[a] > sortKeys[b] : ids[a] > ids[b];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int doc = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(heap[parent], doc)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = doc;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int doc = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!before(doc, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = doc;
+    }
+
+    private void unindex(int doc) {
+        for (String key : terms[doc]) {
+            RoaringBitmap bitmap = postings.get(key);
+            if (bitmap != null) {
+                bitmap.remove(doc);
+                if (bitmap.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+        RoaringBitmap bitmap = dayPostings.get(days[doc]);
+        if (bitmap != null) {
+            bitmap.remove(doc);
+            if (bitmap.isEmpty()) {
+                dayPostings.remove(days[doc]);
+            }
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return free[--freeCount];
+        }
+        if (nextDoc == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            sortKeys = Arrays.copyOf(sortKeys, capacity);
+            days = Arrays.copyOf(days, capacity);
+            terms = Arrays.copyOf(terms, capacity);
+        }
+        return nextDoc++;
+    }
+
+    /**
+     * 一页命中的记录，按 (排序键, ID) 倒序
+     */
+    public record Hits(long[] ids, long[] sortKeys) {
+
+        public int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.chronotes.backend.mail;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 邮件投递工作线程
+ * <p>
+ * 从发件箱批量取出消息，一批消息通过同一个 SMTP 连接发送；
+ * 临时失败按指数退避重试，永久失败或超过最大次数转入死信。
+ * 取出的消息带租约，发送期间定期续约；本节点崩溃后租约过期，由任意节点回收重发
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+    private final MailOutbox mailOutbox;
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${mail.worker.threads:2}")
+    private int workerThreads;
+
+    @Value("${mail.worker.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.worker.poll-timeout:2000}")
+    private long pollTimeout;
+
+    /**
+     * 租约时长（毫秒），每过三分之一续约一次
+     */
+    @Value("${mail.outbox.lease:60000}")
+    private long lease;
+
+    @Value("${mail.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.retry.initial-backoff:5000}")
+    private long initialBackoff;
+
+    @Value("${mail.retry.max-backoff:600000}")
+    private long maxBackoff;
+
+    /**
+     * 节点ID，只用于区分租约归属，每次启动重新生成
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点已取出、尚未结束的消息ID
+     */
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+
+    private long lastRenew;
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService maintenance;
+
+    private Timer sendSuccessTimer;
+    private Timer sendErrorTimer;
+
+    @PostConstruct
+    public void init() {
+        this.sendSuccessTimer = sendTimer("success");
+        this.sendErrorTimer = sendTimer("error");
+    }
+
+    /**
+     * 应用启动完成后开始投递
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        AtomicInteger index = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "mail-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerThreads; i++) {
+            workers.execute(this::workLoop);
+        }
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, 1, 1, TimeUnit.SECONDS);
+        log.info("邮件投递已启动: nodeId={}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 未结束的邮件立即放回，不必等租约过期
+        try {
+            int released = mailOutbox.release(nodeId, new ArrayList<>(held));
+            if (released > 0) {
+                log.info("已放回未发送的邮件: {}", released);
+            }
+        } catch (Exception e) {
+            log.warn("放回邮件失败，将在租约过期后由其他节点接管: {}", e.getMessage());
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                dispatchBatch();
+            } catch (Exception e) {
+                log.error("邮件投递异常: {}", e.getMessage());
+                sleepQuietly(pollTimeout);
+            }
+        }
+    }
+
+    /**
+     * 放回到期的重试邮件、为发送中的邮件续约、回收租约过期的邮件（包括已下线节点遗留的）
+     */
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        try {
+            mailOutbox.promoteDueRetries(now);
+        } catch (Exception e) {
+            log.warn("投递重试邮件失败: {}", e.getMessage());
+        }
+        try {
+            if (now - lastRenew >= lease / 3 && !held.isEmpty()) {
+                mailOutbox.renew(nodeId, new ArrayList<>(held), now + lease);
+                lastRenew = now;
+            }
+            int reclaimed = mailOutbox.reclaimExpired(now, 100);
+            if (reclaimed > 0) {
+                log.info("已回收租约过期的邮件: {}", reclaimed);
+            }
+        } catch (Exception e) {
+            log.warn("邮件租约维护失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取出并发送一批邮件，返回本批数量
+     */
+    int dispatchBatch() {
+        List<MailMessage> batch = mailOutbox.take(nodeId, batchSize, Duration.ofMillis(pollTimeout),
+                System.currentTimeMillis() + lease);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.forEach(message -> held.add(message.getId()));
+
+        // 按消息ID对应；内容相同的两封邮件各自是独立的 MimeMessage，失败结果按对象身份匹配
+        Map<String, MimeMessage> outgoing = new LinkedHashMap<>();
+        List<MailMessage> sending = new ArrayList<>(batch.size());
+        for (MailMessage message : batch) {
+            try {
+                outgoing.put(message.getId(), toMimeMessage(message));
+                sending.add(message);
+            } catch (MessagingException e) {
+                onFailed(message, new MailPreparationException(e));
+            }
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer timer = sendSuccessTimer;
+        try {
+            if (!outgoing.isEmpty()) {
+                // JavaMailSender 对同一次调用中的多封邮件复用一个 SMTP 连接
+                mailSender.send(outgoing.values().toArray(new MimeMessage[0]));
+            }
+            sending.forEach(this::onSent);
+        } catch (MailSendException e) {
+            timer = sendErrorTimer;
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                // 连接层面失败，整批重试
+                sending.forEach(message -> onFailed(message, e));
+            } else {
+                for (MailMessage message : sending) {
+                    Exception cause = failed.get(outgoing.get(message.getId()));
+                    if (cause == null) {
+                        onSent(message);
+                    } else {
+                        onFailed(message, cause);
+                    }
+                }
+            }
+        } catch (MailException e) {
+            timer = sendErrorTimer;
+            sending.forEach(message -> onFailed(message, e));
+        } finally {
+            batch.forEach(message -> held.remove(message.getId()));
+            sample.stop(timer);
+        }
+        return batch.size();
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("mail.send")
+                .description("单批邮件 SMTP 发送耗时")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void onSent(MailMessage message) {
+        if (!mailOutbox.ack(nodeId, message)) {
+            log.warn("邮件已发送但租约已过期，可能被其他节点重复发送: {}", message.getId());
+        }
+        meterRegistry.counter("mail.delivery", "result", "sent").increment();
+        log.info("邮件发送成功: {}", message.getTo());
+    }
+
+    private void onFailed(MailMessage message, Exception cause) {
+        message.setAttempts(message.getAttempts() + 1);
+        if (isPermanent(cause) || message.getAttempts() >= maxAttempts) {
+            mailOutbox.deadLetter(nodeId, message, cause.getMessage());
+            meterRegistry.counter("mail.delivery", "result", "dead").increment();
+            log.error("邮件发送失败，已转入死信: {}, 原因: {}", message.getTo(), cause.getMessage());
+            return;
+        }
+        long backoff = Math.min(maxBackoff, initialBackoff << Math.min(message.getAttempts() - 1, 20));
+        mailOutbox.retry(nodeId, message, System.currentTimeMillis() + backoff);
+        meterRegistry.counter("mail.delivery", "result", "retry").increment();
+        log.warn("邮件发送失败，{}ms 后重试: {}, 原因: {}", backoff, message.getTo(), cause.getMessage());
+    }
+
+    /**
+     * 地址错误、内容无法解析、服务器 5xx 拒收等属于永久失败，重试无意义；
+     * 4xx 拒收（如 451 灰名单、452 空间不足）是临时失败
+     */
+    static boolean isPermanent(Throwable cause) {
+        if (cause instanceof MailParseException || cause instanceof MailPreparationException) {
+            return true;
+        }
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof AddressException) {
+                return true;
+            }
+            if (t instanceof SendFailedException sendFailed) {
+                return !isTransient(sendFailed);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 应答码为 4xx，或收件人地址有效但未发送（JavaMail 把 RCPT 阶段的 4xx 归入此类）
+     */
+    private static boolean isTransient(SendFailedException e) {
+        for (Exception next = e; next != null;
+             next = next instanceof MessagingException messaging ? messaging.getNextException() : null) {
+            int code = replyCode(next);
+            if (code >= 400 && code < 500) {
+                return true;
+            }
+            if (code >= 500) {
+                return false;
+            }
+        }
+        Address[] invalid = e.getInvalidAddresses();
+        Address[] validUnsent = e.getValidUnsentAddresses();
+        return (invalid == null || invalid.length == 0) && validUnsent != null && validUnsent.length > 0;
+    }
+
+    private static int replyCode(Exception e) {
+        if (e instanceof SMTPAddressFailedException addressFailed) {
+            return addressFailed.getReturnCode();
+        }
+        if (e instanceof SMTPSendFailedException sendFailed) {
+            return sendFailed.getReturnCode();
+        }
+        return -1;
+    }
+
+    private MimeMessage toMimeMessage(MailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(message.getTo());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getText());
+        return mimeMessage;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
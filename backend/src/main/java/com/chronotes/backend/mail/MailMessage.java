@@ -0,0 +1,39 @@
+package com.chronotes.backend.mail;
+
+import lombok.Data;
+
+/**
+ * 待发送邮件（发件箱中的一条记录）
+ */
+@Data
+public class MailMessage {
+    /**
+     * 消息ID
+     */
+    private String id;
+
+    /**
+     * 收件人邮箱
+     */
+    private String to;
+
+    /**
+     * 邮件主题
+     */
+    private String subject;
+
+    /**
+     * 邮件正文
+     */
+    private String text;
+
+    /**
+     * 已尝试发送次数
+     */
+    private int attempts;
+
+    /**
+     * 入队时间（毫秒时间戳）
+     */
+    private long createTime;
+}
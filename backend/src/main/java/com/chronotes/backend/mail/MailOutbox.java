@@ -0,0 +1,58 @@
+package com.chronotes.backend.mail;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 邮件发件箱
+ * <p>
+ * 取出的消息带租约，在确认（{@link #ack}）、重试（{@link #retry}）或转入死信（{@link #deadLetter}）之前
+ * 由取出的节点持有；节点崩溃或下线后租约过期，任何节点都可以通过 {@link #reclaimExpired} 放回发件箱
+ */
+public interface MailOutbox {
+    /**
+     * 入队
+     */
+    void enqueue(MailMessage message);
+
+    /**
+     * 取出一批待发送消息并登记租约（leaseUntil 为毫秒时间戳），最多阻塞 timeout，没有消息时返回空列表
+     */
+    List<MailMessage> take(String nodeId, int batchSize, Duration timeout, long leaseUntil);
+
+    /**
+     * 为本节点仍持有的消息续约，返回续约成功的数量
+     */
+    int renew(String nodeId, Collection<String> ids, long leaseUntil);
+
+    /**
+     * 确认发送成功；租约已失去时返回 false
+     */
+    boolean ack(String nodeId, MailMessage message);
+
+    /**
+     * 在 dueAt（毫秒时间戳）之后重新投递；租约已失去时返回 false
+     */
+    boolean retry(String nodeId, MailMessage message, long dueAt);
+
+    /**
+     * 转入死信队列，不再重试；租约已失去时返回 false
+     */
+    boolean deadLetter(String nodeId, MailMessage message, String reason);
+
+    /**
+     * 把到期的重试消息放回发件箱，返回数量
+     */
+    int promoteDueRetries(long now);
+
+    /**
+     * 把本节点持有的消息立即放回发件箱（正常停机时调用），返回数量
+     */
+    int release(String nodeId, Collection<String> ids);
+
+    /**
+     * 把租约已过期的消息放回发件箱，返回数量
+     */
+    int reclaimExpired(long now, int limit);
+}
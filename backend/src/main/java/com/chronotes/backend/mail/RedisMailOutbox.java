@@ -0,0 +1,205 @@
+package com.chronotes.backend.mail;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisListCommands.Direction;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于 Redis 的邮件发件箱
+ * <p>
+ * 消息体按ID存放在 Hash 中，各队列只保存消息ID：
+ * <ul>
+ *     <li>mail:outbox —— 待发送（List）</li>
+ *     <li>mail:lease —— 已取出、尚未结束，score 为租约到期时间（ZSet）</li>
+ *     <li>mail:owner —— 已取出的消息 → 节点ID（Hash）</li>
+ *     <li>mail:retry —— 等待重试，score 为到期时间（ZSet）</li>
+ *     <li>mail:dead —— 死信（List）</li>
+ * </ul>
+ * 入队、取出、结束与放回都由 Lua 脚本原子完成；租约与节点名无关，节点下线或改名后由任意节点回收
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisMailOutbox implements MailOutbox {
+
+    private static final String MESSAGES_KEY = "mail:messages";
+    private static final String OUTBOX_KEY = "mail:outbox";
+    private static final String LEASE_KEY = "mail:lease";
+    private static final String OWNER_KEY = "mail:owner";
+    private static final String RETRY_KEY = "mail:retry";
+    private static final String DEAD_KEY = "mail:dead";
+    private static final String DEAD_REASON_KEY = "mail:dead:reason";
+
+    private static final int PROMOTE_BATCH = 100;
+
+    private static final List<String> SETTLE_KEYS =
+            List.of(LEASE_KEY, OWNER_KEY, MESSAGES_KEY, OUTBOX_KEY, RETRY_KEY, DEAD_KEY, DEAD_REASON_KEY);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private DefaultRedisScript<Long> enqueueScript;
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> claimScript;
+    private DefaultRedisScript<Long> renewScript;
+    private DefaultRedisScript<Long> settleScript;
+    private DefaultRedisScript<Long> releaseScript;
+    private DefaultRedisScript<Long> promoteScript;
+
+    @PostConstruct
+    public void init() {
+        enqueueScript = new DefaultRedisScript<>();
+        enqueueScript.setLocation(new ClassPathResource("scripts/mail_enqueue.lua"));
+        enqueueScript.setResultType(Long.class);
+        claimScript = new DefaultRedisScript<>();
+        claimScript.setLocation(new ClassPathResource("scripts/mail_claim.lua"));
+        claimScript.setResultType(List.class);
+        renewScript = new DefaultRedisScript<>();
+        renewScript.setLocation(new ClassPathResource("scripts/mail_renew.lua"));
+        renewScript.setResultType(Long.class);
+        settleScript = new DefaultRedisScript<>();
+        settleScript.setLocation(new ClassPathResource("scripts/mail_settle.lua"));
+        settleScript.setResultType(Long.class);
+        releaseScript = new DefaultRedisScript<>();
+        releaseScript.setLocation(new ClassPathResource("scripts/mail_release.lua"));
+        releaseScript.setResultType(Long.class);
+        promoteScript = new DefaultRedisScript<>();
+        promoteScript.setLocation(new ClassPathResource("scripts/mail_promote.lua"));
+        promoteScript.setResultType(Long.class);
+    }
+
+    @Override
+    public void enqueue(MailMessage message) {
+        redisTemplate.execute(enqueueScript, List.of(MESSAGES_KEY, OUTBOX_KEY), message.getId(), toJson(message));
+    }
+
+    @Override
+    public List<MailMessage> take(String nodeId, int batchSize, Duration timeout, long leaseUntil) {
+        List<String> ids = claim(nodeId, batchSize, leaseUntil);
+        if (ids.isEmpty()) {
+            // 发件箱为空时阻塞等待：把队尾移到队尾，只等待、不取出，取出仍由脚本连同租约一起完成
+            if (redisTemplate.opsForList()
+                    .move(OUTBOX_KEY, Direction.RIGHT, OUTBOX_KEY, Direction.RIGHT, timeout) == null) {
+                return List.of();
+            }
+            ids = claim(nodeId, batchSize, leaseUntil);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Object> bodies = redisTemplate.opsForHash().multiGet(MESSAGES_KEY, new ArrayList<>(ids));
+        List<MailMessage> messages = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Object body = bodies.get(i);
+            MailMessage message = body == null ? null : fromJson(body.toString());
+            if (message == null) {
+                // 消息体丢失或无法解析，直接丢弃
+                settle("ack", nodeId, ids.get(i), "", "");
+                continue;
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Override
+    public int renew(String nodeId, Collection<String> ids, long leaseUntil) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(ids.size() + 2);
+        args.add(Long.toString(leaseUntil));
+        args.add(nodeId);
+        args.addAll(ids);
+        Long renewed = redisTemplate.execute(renewScript, List.of(LEASE_KEY, OWNER_KEY), args.toArray());
+        return renewed == null ? 0 : renewed.intValue();
+    }
+
+    @Override
+    public boolean ack(String nodeId, MailMessage message) {
+        return settle("ack", nodeId, message.getId(), "", "");
+    }
+
+    @Override
+    public boolean retry(String nodeId, MailMessage message, long dueAt) {
+        return settle("retry", nodeId, message.getId(), toJson(message), Long.toString(dueAt));
+    }
+
+    @Override
+    public boolean deadLetter(String nodeId, MailMessage message, String reason) {
+        return settle("dead", nodeId, message.getId(), toJson(message), reason == null ? "" : reason);
+    }
+
+    @Override
+    public int promoteDueRetries(long now) {
+        Long promoted = redisTemplate.execute(promoteScript, List.of(RETRY_KEY, OUTBOX_KEY),
+                Long.toString(now), Integer.toString(PROMOTE_BATCH));
+        return promoted == null ? 0 : promoted.intValue();
+    }
+
+    @Override
+    public int release(String nodeId, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<String> args = new ArrayList<>(ids.size() + 2);
+        args.add("node");
+        args.add(nodeId);
+        args.addAll(ids);
+        Long released = redisTemplate.execute(releaseScript, List.of(OUTBOX_KEY, LEASE_KEY, OWNER_KEY), args.toArray());
+        return released == null ? 0 : released.intValue();
+    }
+
+    @Override
+    public int reclaimExpired(long now, int limit) {
+        Long released = redisTemplate.execute(releaseScript, List.of(OUTBOX_KEY, LEASE_KEY, OWNER_KEY),
+                "expired", Long.toString(now), Integer.toString(limit));
+        return released == null ? 0 : released.intValue();
+    }
+
+    private List<String> claim(String nodeId, int batchSize, long leaseUntil) {
+        List<?> result = redisTemplate.execute(claimScript, List.of(OUTBOX_KEY, LEASE_KEY, OWNER_KEY),
+                Integer.toString(batchSize), Long.toString(leaseUntil), nodeId);
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(result.size());
+        result.forEach(id -> ids.add(id.toString()));
+        return ids;
+    }
+
+    private boolean settle(String mode, String nodeId, String id, String json, String extra) {
+        Long settled = redisTemplate.execute(settleScript, SETTLE_KEYS, mode, nodeId, id, json, extra);
+        return settled != null && settled > 0;
+    }
+
+    private String toJson(MailMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("邮件消息序列化失败", e);
+        }
+    }
+
+    private MailMessage fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, MailMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("邮件消息反序列化失败: {}", e.getMessage());
+            return null;
+        }
+    }
+}
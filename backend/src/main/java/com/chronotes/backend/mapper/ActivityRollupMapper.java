@@ -0,0 +1,57 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.ActivityRollup;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 活动统计汇总 Mapper 接口
+ */
+@Mapper
+public interface ActivityRollupMapper {
+    /**
+     * 查询用户某一周期从 from 起（含）的全部分桶，按分桶升序
+     */
+    List<ActivityRollup> findSince(@Param("userId") Long userId,
+                                   @Param("period") int period,
+                                   @Param("from") LocalDate from);
+
+    /**
+     * 把各行的计数累加到已有分桶，分桶不存在时插入
+     */
+    int addAll(@Param("rows") Collection<ActivityRollup> rows);
+
+    /**
+     * 插入分桶（重建时使用）
+     */
+    int insertAll(@Param("rows") Collection<ActivityRollup> rows);
+
+    /**
+     * 删除用户ID在 [fromUserId, toUserId] 内的全部分桶
+     */
+    int deleteByUserRange(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+    /**
+     * 从笔记表按用户、创建日期统计笔记数（按日分桶）
+     */
+    List<ActivityRollup> countNotesByDay(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+    /**
+     * 从提醒表按用户、提醒日期统计未取消与已提醒的提醒数（按日分桶）
+     */
+    List<ActivityRollup> countRemindersByDay(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+
+    /**
+     * 是否已有汇总数据
+     */
+    Integer findAny();
+
+    /**
+     * 最大的用户ID，没有用户时为 null
+     */
+    Long maxUserId();
+}
@@ -0,0 +1,44 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.Attachment;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 附件 Mapper 接口
+ */
+@Mapper
+public interface AttachmentMapper {
+    /**
+     * 查询用户的附件
+     */
+    Attachment findById(@Param("userId") Long userId, @Param("id") Long id);
+
+    /**
+     * 查询笔记的全部附件，按上传顺序
+     */
+    List<Attachment> findByNote(@Param("userId") Long userId, @Param("noteId") Long noteId);
+
+    /**
+     * 统计引用该内容的附件数
+     */
+    int countBySha256(@Param("sha256") String sha256);
+
+    /**
+     * 锁定内容对应的行（不存在时插入），行锁持有到事务结束
+     */
+    int lockContent(@Param("sha256") String sha256, @Param("lockTime") LocalDateTime lockTime);
+
+    /**
+     * 插入附件
+     */
+    int insert(Attachment attachment);
+
+    /**
+     * 删除用户的附件
+     */
+    int delete(@Param("userId") Long userId, @Param("id") Long id);
+}
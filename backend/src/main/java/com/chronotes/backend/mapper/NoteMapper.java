@@ -0,0 +1,86 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.Note;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 笔记 Mapper 接口
+ */
+@Mapper
+public interface NoteMapper {
+    /**
+     * 根据ID查询用户的笔记
+     */
+    Note findById(@Param("userId") Long userId, @Param("id") Long id);
+
+    /**
+     * 按 (update_time, id) 倒序查询游标之后的一页笔记摘要（不含正文）；
+     * 游标为空时从最新一条开始
+     */
+    List<Note> findPage(@Param("userId") Long userId,
+                        @Param("cursorTime") LocalDateTime cursorTime,
+                        @Param("cursorId") Long cursorId,
+                        @Param("limit") int limit);
+
+    /**
+     * 按 (update_time, id) 升序查询某位置之后更新过的笔记ID与更新时间（只读索引，不回表）
+     */
+    List<Note> findVersionsSince(@Param("userId") Long userId,
+                                 @Param("sinceTime") LocalDateTime sinceTime,
+                                 @Param("sinceId") Long sinceId,
+                                 @Param("limit") int limit);
+
+    /**
+     * 按 (update_time, id) 升序查询某位置之后的笔记标签与时间（不含标题、正文），用于加载筛选索引
+     */
+    List<Note> findFilterRows(@Param("userId") Long userId,
+                              @Param("sinceTime") LocalDateTime sinceTime,
+                              @Param("sinceId") Long sinceId,
+                              @Param("limit") int limit);
+
+    /**
+     * 根据ID批量查询用户的笔记
+     */
+    List<Note> findByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * 根据ID批量查询用户的笔记摘要（不含正文）
+     */
+    List<Note> findSummariesByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * 按 (update_time, id) 升序逐行读取用户的全部笔记；需在事务内遍历，结果不会一次性载入内存
+     */
+    Cursor<Note> streamByUser(@Param("userId") Long userId);
+
+    /**
+     * 统计用户的笔记数
+     */
+    int countByUser(@Param("userId") Long userId);
+
+    /**
+     * 插入笔记
+     */
+    int insert(Note note);
+
+    /**
+     * 一条语句插入多篇笔记，回填各自的ID
+     */
+    int insertAll(@Param("notes") List<Note> notes);
+
+    /**
+     * 更新笔记
+     */
+    int update(Note note);
+
+    /**
+     * 删除笔记
+     */
+    int delete(@Param("userId") Long userId, @Param("id") Long id);
+}
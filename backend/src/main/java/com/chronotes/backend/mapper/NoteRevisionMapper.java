@@ -0,0 +1,61 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.NoteRevision;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 笔记版本 Mapper 接口
+ */
+@Mapper
+public interface NoteRevisionMapper {
+    /**
+     * 查询笔记的最新版本（含 body）
+     */
+    NoteRevision findLatest(@Param("noteId") Long noteId);
+
+    /**
+     * 查询用户笔记的指定版本（不含 body）
+     */
+    NoteRevision findHeader(@Param("userId") Long userId,
+                            @Param("noteId") Long noteId,
+                            @Param("revision") int revision);
+
+    /**
+     * 按版本号升序查询 [fromRevision, toRevision] 区间内的版本（含 body）
+     */
+    List<NoteRevision> findChain(@Param("noteId") Long noteId,
+                                 @Param("fromRevision") int fromRevision,
+                                 @Param("toRevision") int toRevision);
+
+    /**
+     * 按版本号倒序查询游标之前的一页版本（不含 body）；游标为空时从最新版本开始
+     */
+    List<NoteRevision> findPage(@Param("userId") Long userId,
+                                @Param("noteId") Long noteId,
+                                @Param("cursor") Integer cursor,
+                                @Param("limit") int limit);
+
+    /**
+     * 查询创建时间早于 before 的未压缩版本（含 body）
+     */
+    List<NoteRevision> findUncompressed(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 插入版本
+     */
+    int insert(NoteRevision revision);
+
+    /**
+     * 写入压缩后的 body；已被其他节点压缩过时不更新
+     */
+    int markCompressed(@Param("id") Long id, @Param("body") byte[] body);
+
+    /**
+     * 删除笔记的全部版本
+     */
+    int deleteByNote(@Param("noteId") Long noteId);
+}
@@ -0,0 +1,62 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.Reminder;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 提醒 Mapper 接口
+ */
+@Mapper
+public interface ReminderMapper {
+    /**
+     * 查询用户的提醒
+     */
+    Reminder findById(@Param("userId") Long userId, @Param("id") Long id);
+
+    /**
+     * 查询待提醒的提醒（到期触发时使用，不限用户）
+     */
+    Reminder findPendingById(@Param("id") Long id);
+
+    /**
+     * 查询用户待提醒的提醒，按提醒时间先后
+     */
+    List<Reminder> findPendingByUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * 按 id 升序查询某ID之后的提醒状态与时间（不含内容），用于加载筛选索引
+     */
+    List<Reminder> findFilterRows(@Param("userId") Long userId,
+                                  @Param("afterId") Long afterId,
+                                  @Param("limit") int limit);
+
+    /**
+     * 根据ID批量查询用户的提醒
+     */
+    List<Reminder> findByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询笔记关联的待提醒的提醒ID
+     */
+    List<Long> findPendingIdsByNote(@Param("userId") Long userId, @Param("noteId") Long noteId);
+
+    /**
+     * 插入提醒
+     */
+    int insert(Reminder reminder);
+
+    /**
+     * 取消待提醒的提醒
+     */
+    int cancel(@Param("userId") Long userId, @Param("id") Long id);
+
+    /**
+     * 标记为已提醒，只有仍为待提醒状态时成功，多个节点重复触发时只有一个成功
+     */
+    int markFired(@Param("id") Long id, @Param("fireTime") LocalDateTime fireTime);
+}
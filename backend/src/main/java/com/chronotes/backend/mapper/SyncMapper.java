@@ -0,0 +1,58 @@
+package com.chronotes.backend.mapper;
+
+import com.chronotes.backend.entity.ChangeLog;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 同步状态与变更记录 Mapper 接口
+ */
+@Mapper
+public interface SyncMapper {
+    /**
+     * 查询用户最新的变更版本号，尚未开始记录时返回 null
+     */
+    Long findVersion(@Param("userId") Long userId);
+
+    /**
+     * 开始记录用户的变更，版本号从 0 开始
+     */
+    int insertState(@Param("userId") Long userId, @Param("createTime") LocalDateTime createTime);
+
+    /**
+     * 版本号增加 count，尚未开始记录时不更新；在事务内持有该行的锁直到提交，同一用户的变更按版本号顺序提交
+     */
+    int incrementVersion(@Param("userId") Long userId, @Param("count") int count);
+
+    /**
+     * 设置版本号
+     */
+    int updateVersion(@Param("userId") Long userId, @Param("version") long version);
+
+    /**
+     * 为用户现有的全部笔记写入变更记录，版本号从 offset + 1 起按笔记ID顺序分配，返回写入行数
+     */
+    int backfillNotes(@Param("userId") Long userId, @Param("offset") long offset,
+                      @Param("changeTime") LocalDateTime changeTime);
+
+    /**
+     * 为用户现有的全部提醒写入变更记录，版本号从 offset + 1 起按提醒ID顺序分配，返回写入行数
+     */
+    int backfillReminders(@Param("userId") Long userId, @Param("offset") long offset,
+                          @Param("changeTime") LocalDateTime changeTime);
+
+    /**
+     * 批量写入变更记录，实体已有记录时覆盖为本次变更
+     */
+    int upsertChanges(@Param("changes") List<ChangeLog> changes);
+
+    /**
+     * 按版本号升序查询某版本之后的变更
+     */
+    List<ChangeLog> findChangesSince(@Param("userId") Long userId,
+                                     @Param("since") long since,
+                                     @Param("limit") int limit);
+}
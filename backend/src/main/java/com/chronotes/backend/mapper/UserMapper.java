@@ -4,6 +4,8 @@ import com.chronotes.backend.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+
 /**
  * 用户 Mapper 接口
  */
@@ -24,8 +26,19 @@ public interface UserMapper {
      */
     User findById(@Param("id") Long id);
 
+    /**
+     * 查询用户的密码哈希（用户缓存不保存密码哈希，仅登录校验时读取）
+     */
+    String findPasswordById(@Param("id") Long id);
+
     /**
      * 更新用户信息
      */
     int update(User user);
+
+    /**
+     * 更新密码哈希（仅重新哈希同一密码，不递增 Token 版本号）；密码已不是 oldPassword 时不更新，返回 0
+     */
+    int updatePasswordHash(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                           @Param("password") String password, @Param("updateTime") LocalDateTime updateTime);
 }
@@ -0,0 +1,162 @@
+package com.chronotes.backend.reminder;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于 Redis 的提醒到期队列
+ * <ul>
+ *     <li>reminder:due —— 未认领，score 为到期时间（ZSet）</li>
+ *     <li>reminder:lease —— 已认领，score 为租约到期时间（ZSet）</li>
+ *     <li>reminder:owner —— 已认领的提醒 → "节点ID|到期时间"（Hash）</li>
+ * </ul>
+ * 认领、续约与放回都由 Lua 脚本原子完成，多个节点同时认领不会取到同一条提醒
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisReminderQueue implements ReminderQueue {
+
+    private static final String DUE_KEY = "reminder:due";
+    private static final String LEASE_KEY = "reminder:lease";
+    private static final String OWNER_KEY = "reminder:owner";
+
+    private static final int SCRIPT_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> claimScript;
+    private DefaultRedisScript<Long> renewScript;
+    private DefaultRedisScript<Long> releaseScript;
+    private DefaultRedisScript<Long> ackScript;
+
+    @PostConstruct
+    public void init() {
+        claimScript = new DefaultRedisScript<>();
+        claimScript.setLocation(new ClassPathResource("scripts/reminder_claim.lua"));
+        claimScript.setResultType(List.class);
+        renewScript = new DefaultRedisScript<>();
+        renewScript.setLocation(new ClassPathResource("scripts/reminder_renew.lua"));
+        renewScript.setResultType(Long.class);
+        releaseScript = new DefaultRedisScript<>();
+        releaseScript.setLocation(new ClassPathResource("scripts/reminder_release.lua"));
+        releaseScript.setResultType(Long.class);
+        ackScript = new DefaultRedisScript<>();
+        ackScript.setLocation(new ClassPathResource("scripts/reminder_ack.lua"));
+        ackScript.setResultType(Long.class);
+    }
+
+    @Override
+    public void schedule(long id, long dueAt) {
+        redisTemplate.opsForZSet().add(DUE_KEY, Long.toString(id), dueAt);
+    }
+
+    @Override
+    public void cancel(long id) {
+        String member = Long.toString(id);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.zRem(DUE_KEY, member);
+            stringConnection.zRem(LEASE_KEY, member);
+            stringConnection.hDel(OWNER_KEY, member);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Claim> claim(String nodeId, long horizon, int limit, long leaseUntil) {
+        List<?> result = redisTemplate.execute(claimScript, List.of(DUE_KEY, LEASE_KEY, OWNER_KEY),
+                Long.toString(horizon), Integer.toString(limit), Long.toString(leaseUntil), nodeId);
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+        List<Claim> claims = new ArrayList<>(result.size() / 2);
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            // 分数按 Redis 的浮点格式返回，毫秒时间戳在 double 的精确范围内
+            claims.add(new Claim(Long.parseLong(result.get(i).toString()), (long) Double.parseDouble(result.get(i + 1).toString())));
+        }
+        return claims;
+    }
+
+    @Override
+    public int renew(String nodeId, Collection<Long> ids, long leaseUntil) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return execute(renewScript, List.of(LEASE_KEY, OWNER_KEY), Long.toString(leaseUntil), nodeId, ids);
+    }
+
+    @Override
+    public int ack(String nodeId, Collection<Claim> claims) {
+        int total = 0;
+        List<String> args = new ArrayList<>(SCRIPT_BATCH_SIZE * 2 + 1);
+        for (Claim claim : claims) {
+            if (args.isEmpty()) {
+                args.add(nodeId);
+            }
+            args.add(Long.toString(claim.id()));
+            args.add(Long.toString(claim.dueAt()));
+            if (args.size() == SCRIPT_BATCH_SIZE * 2 + 1) {
+                total += executeBatch(ackScript, List.of(LEASE_KEY, OWNER_KEY), args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            total += executeBatch(ackScript, List.of(LEASE_KEY, OWNER_KEY), args);
+        }
+        return total;
+    }
+
+    @Override
+    public int release(String nodeId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return execute(releaseScript, List.of(DUE_KEY, LEASE_KEY, OWNER_KEY), "node", nodeId, ids);
+    }
+
+    @Override
+    public int reclaimExpired(long now, int limit) {
+        Long released = redisTemplate.execute(releaseScript, List.of(DUE_KEY, LEASE_KEY, OWNER_KEY),
+                "expired", Long.toString(now), Integer.toString(limit));
+        return released == null ? 0 : released.intValue();
+    }
+
+    /**
+     * 提醒ID作为脚本参数，分批执行避免单次脚本过长阻塞 Redis
+     */
+    private int execute(DefaultRedisScript<Long> script, List<String> keys, String first, String second, Collection<Long> ids) {
+        int total = 0;
+        List<String> args = new ArrayList<>(SCRIPT_BATCH_SIZE + 2);
+        for (Long id : ids) {
+            if (args.isEmpty()) {
+                args.add(first);
+                args.add(second);
+            }
+            args.add(id.toString());
+            if (args.size() == SCRIPT_BATCH_SIZE + 2) {
+                total += executeBatch(script, keys, args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            total += executeBatch(script, keys, args);
+        }
+        return total;
+    }
+
+    private int executeBatch(DefaultRedisScript<Long> script, List<String> keys, List<String> args) {
+        Long count = redisTemplate.execute(script, keys, args.toArray());
+        return count == null ? 0 : count.intValue();
+    }
+}
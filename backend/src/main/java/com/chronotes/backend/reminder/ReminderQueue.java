@@ -0,0 +1,56 @@
+package com.chronotes.backend.reminder;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 提醒的到期队列
+ * <p>
+ * 节点按时间片认领即将到期的提醒，认领带有租约：认领的节点需在租约到期前续约，
+ * 节点宕机后租约过期的提醒由任一节点通过 {@link #reclaimExpired} 放回队列，再由其他节点认领
+ */
+public interface ReminderQueue {
+    /**
+     * 加入队列，dueAt 为毫秒时间戳
+     */
+    void schedule(long id, long dueAt);
+
+    /**
+     * 取消，无论是否已被认领
+     */
+    void cancel(long id);
+
+    /**
+     * 认领 horizon（毫秒时间戳）之前到期的提醒，最多 limit 条，租约到 leaseUntil 为止
+     */
+    List<Claim> claim(String nodeId, long horizon, int limit, long leaseUntil);
+
+    /**
+     * 为本节点仍持有的提醒续约，返回续约成功的数量
+     */
+    int renew(String nodeId, Collection<Long> ids, long leaseUntil);
+
+    /**
+     * 确认已处理，释放认领记录；已被其他节点重新认领的不做处理，返回确认成功的数量
+     */
+    int ack(String nodeId, Collection<Claim> claims);
+
+    /**
+     * 把本节点持有的提醒放回队列（正常停机时调用）
+     */
+    int release(String nodeId, Collection<Long> ids);
+
+    /**
+     * 把租约在 now 之前过期的提醒放回队列，最多 limit 条，返回数量
+     */
+    int reclaimExpired(long now, int limit);
+
+    /**
+     * 已认领的提醒
+     *
+     * @param id    提醒ID
+     * @param dueAt 到期时间（毫秒时间戳）
+     */
+    record Claim(long id, long dueAt) {
+    }
+}
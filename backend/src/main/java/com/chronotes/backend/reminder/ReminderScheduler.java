@@ -0,0 +1,353 @@
+package com.chronotes.backend.reminder;
+
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.mapper.ReminderMapper;
+import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.reminder.ReminderQueue.Claim;
+import com.chronotes.backend.service.EmailService;
+import com.chronotes.backend.service.SyncService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 提醒调度
+ * <p>
+ * 每个节点定期从 Redis 认领未来 lookahead 毫秒内到期的提醒，放入本地分层时间轮，
+ * 到期后交给投递线程：在数据库中把提醒标记为已提醒（只有一个节点能成功），再写入邮件发件箱。
+ * 认领带租约，本节点持有期间定期续约；节点宕机后租约过期，提醒由其他节点放回队列重新认领，
+ * 最多晚一个租约时长触发。数据库中的状态保证同一提醒只提醒一次
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReminderScheduler {
+
+    /**
+     * 同一时刻到期的提醒按此数量分批交给投递线程，每批只向 Redis 确认一次
+     */
+    private static final int DELIVER_BATCH_SIZE = 100;
+
+    private final ReminderQueue reminderQueue;
+    private final ReminderMapper reminderMapper;
+    private final UserMapper userMapper;
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 时间轮每格毫秒数，即触发精度
+     */
+    @Value("${reminder.wheel.tick:100}")
+    private long tick;
+
+    @Value("${reminder.wheel.size:64}")
+    private int wheelSize;
+
+    /**
+     * 认领间隔（毫秒）
+     */
+    @Value("${reminder.claim.interval:1000}")
+    private long claimInterval;
+
+    /**
+     * 每次认领未来多少毫秒内到期的提醒，需大于认领间隔
+     */
+    @Value("${reminder.claim.lookahead:5000}")
+    private long lookahead;
+
+    @Value("${reminder.claim.batch-size:1000}")
+    private int claimBatchSize;
+
+    /**
+     * 本节点最多持有的提醒数，达到后暂停认领，由其他节点分担
+     */
+    @Value("${reminder.claim.max-pending:100000}")
+    private int maxPending;
+
+    /**
+     * 租约时长（毫秒），每过三分之一续约一次
+     */
+    @Value("${reminder.lease:30000}")
+    private long lease;
+
+    @Value("${reminder.worker.threads:4}")
+    private int workerThreads;
+
+    /**
+     * 节点ID，只用于区分租约归属，每次启动重新生成
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点持有的提醒：提醒ID → 到期时间
+     */
+    private final Map<Long, Long> held = new ConcurrentHashMap<>();
+
+    /**
+     * 时间轮本身非线程安全，认领线程与时钟线程共用
+     */
+    private final ReentrantLock wheelLock = new ReentrantLock();
+
+    private TimingWheel<Claim> wheel;
+
+    private volatile boolean running;
+
+    private long lastRenew;
+
+    private ScheduledExecutorService claimer;
+
+    private ExecutorService ticker;
+
+    private ExecutorService workers;
+
+    private Timer lagTimer;
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.lagTimer = Timer.builder("reminder.fire.lag")
+                .description("提醒实际触发时间与设定时间之差")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("reminder.held", held, Map::size)
+                .description("本节点已认领、尚未触发的提醒数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后开始调度
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        wheel = new TimingWheel<>(tick, wheelSize, System.currentTimeMillis());
+
+        AtomicInteger index = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "reminder-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.execute(this::tickLoop);
+        claimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-claimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        claimer.scheduleWithFixedDelay(this::claim, 0, claimInterval, TimeUnit.MILLISECONDS);
+        log.info("提醒调度已启动: nodeId={}", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (claimer != null) {
+            claimer.shutdownNow();
+        }
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 未触发的提醒立即放回，不必等租约过期
+        try {
+            int released = reminderQueue.release(nodeId, new ArrayList<>(held.keySet()));
+            if (released > 0) {
+                log.info("已放回未触发的提醒: {}", released);
+            }
+        } catch (Exception e) {
+            log.warn("放回提醒失败，将在租约过期后由其他节点接管: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 提醒时间对应的毫秒时间戳（按服务器时区）
+     */
+    public static long epochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    void claim() {
+        try {
+            long now = System.currentTimeMillis();
+            int reclaimed = reminderQueue.reclaimExpired(now, claimBatchSize);
+            if (reclaimed > 0) {
+                log.info("已回收租约过期的提醒: {}", reclaimed);
+            }
+            if (!held.isEmpty() && now - lastRenew >= lease / 3) {
+                reminderQueue.renew(nodeId, new ArrayList<>(held.keySet()), now + lease);
+                lastRenew = now;
+            }
+            while (running && held.size() < maxPending) {
+                int limit = Math.min(claimBatchSize, maxPending - held.size());
+                List<Claim> claims = reminderQueue.claim(nodeId, now + lookahead, limit, now + lease);
+                schedule(claims);
+                if (claims.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("认领提醒失败: {}", e.getMessage());
+        }
+    }
+
+    private void schedule(List<Claim> claims) {
+        if (claims.isEmpty()) {
+            return;
+        }
+        List<Claim> due = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            for (Claim claim : claims) {
+                held.put(claim.id(), claim.dueAt());
+                if (!wheel.add(claim, claim.dueAt())) {
+                    due.add(claim);
+                }
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+        dispatch(due);
+    }
+
+    private void tickLoop() {
+        while (running) {
+            List<Claim> due;
+            long wait;
+            wheelLock.lock();
+            try {
+                due = wheel.advance(System.currentTimeMillis());
+                wait = wheel.nextTick() - System.currentTimeMillis();
+            } finally {
+                wheelLock.unlock();
+            }
+            dispatch(due);
+            if (wait > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<Claim> claims) {
+        for (int from = 0; from < claims.size(); from += DELIVER_BATCH_SIZE) {
+            List<Claim> batch = claims.subList(from, Math.min(from + DELIVER_BATCH_SIZE, claims.size()));
+            workers.execute(() -> deliver(batch));
+        }
+    }
+
+    void deliver(List<Claim> batch) {
+        List<Claim> done = new ArrayList<>(batch.size());
+        for (Claim claim : batch) {
+            if (deliver(claim)) {
+                done.add(claim);
+            }
+        }
+        try {
+            reminderQueue.ack(nodeId, done);
+        } catch (Exception e) {
+            // 未确认的租约过期后放回队列，数据库状态保证不会重复提醒
+            log.warn("确认提醒失败: {}", e.getMessage());
+        } finally {
+            for (Claim claim : batch) {
+                held.remove(claim.id(), claim.dueAt());
+            }
+        }
+    }
+
+    /**
+     * 触发单条提醒，返回是否可以确认
+     */
+    private boolean deliver(Claim claim) {
+        try {
+            Reminder reminder = reminderMapper.findPendingById(claim.id());
+            // 已取消或已由其他节点提醒的跳过
+            if (reminder == null) {
+                counter("skipped").increment();
+            } else if (markFired(reminder)) {
+                lagTimer.record(Math.max(0, System.currentTimeMillis() - claim.dueAt()), TimeUnit.MILLISECONDS);
+                User user = userMapper.findById(reminder.getUserId());
+                if (user != null) {
+                    emailService.sendReminder(user.getEmail(), reminder.getTitle(), reminder.getRemindAt());
+                }
+                eventPublisher.publishEvent(new ReminderChangedEvent(reminder.getUserId(), reminder.getId(),
+                        reminder.getRemindAt(), Reminder.STATUS_FIRED));
+                counter("fired").increment();
+            } else {
+                counter("skipped").increment();
+            }
+            return true;
+        } catch (Exception e) {
+            // 不确认也不再续约，租约过期后由任一节点放回队列重试
+            counter("failed").increment();
+            log.warn("提醒触发失败: reminderId={}, {}", claim.id(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 标记为已提醒并记录同步版本，同一事务提交
+     */
+    private boolean markFired(Reminder reminder) {
+        return Boolean.TRUE.equals(writeTransaction.execute(status -> {
+            if (reminderMapper.markFired(reminder.getId(), LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)) == 0) {
+                return false;
+            }
+            syncService.recordReminder(reminder.getUserId(), reminder.getId());
+            return true;
+        }));
+    }
+
+    private Counter counter(String result) {
+        return meterRegistry.counter("reminder.fired", "result", result);
+    }
+}
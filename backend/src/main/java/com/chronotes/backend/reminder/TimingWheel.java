@@ -0,0 +1,159 @@
+package com.chronotes.backend.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 第 0 层每格 tickMs，第 n 层每格为第 n-1 层一圈的长度，层数按需增加。到期时间向上取整到 tickMs，
+ * 因此任务不会早于到期时间触发，最多晚一个 tickMs。加入与每次推进的开销与任务总数无关，
+ * 时钟走到高层某格的起点时，把该格的任务降级放入低层。
+ * <p>
+ * 非线程安全，由调用方加锁
+ *
+ * @param <T> 任务类型
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    /**
+     * 当前时间（tickMs 的整数倍），不大于该时间的任务都已触发
+     */
+    private long currentTime;
+
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs 必须为正数，wheelSize 不能小于 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = Math.floorDiv(startMs, tickMs) * tickMs;
+        levels.add(new Level<>(tickMs, wheelSize));
+    }
+
+    /**
+     * 加入任务；已到期（不晚于当前时间）时不加入并返回 false，由调用方立即执行
+     */
+    public boolean add(T task, long deadlineMs) {
+        long slot = Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs;
+        if (slot <= currentTime) {
+            return false;
+        }
+        place(new Entry<>(task, slot));
+        size++;
+        return true;
+    }
+
+    /**
+     * 把时钟推进到 nowMs，返回期间到期的任务（按到期时间先后）
+     */
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // 先从高到低降级，刚好在本格到期的任务会落入第 0 层的当前格
+            for (int i = levels.size() - 1; i >= 1; i--) {
+                Level<T> level = levels.get(i);
+                if (currentTime % level.tick == 0) {
+                    for (Entry<T> entry : level.drain(currentTime)) {
+                        if (entry.slot == currentTime) {
+                            expired.add(entry.task);
+                            size--;
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            for (Entry<T> entry : levels.get(0).drain(currentTime)) {
+                expired.add(entry.task);
+                size--;
+            }
+            if (size == 0 && nowMs - currentTime > tickMs) {
+                // 没有待触发的任务，直接跳到目标时间
+                currentTime = Math.floorDiv(nowMs, tickMs) * tickMs;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 当前时间，不大于该时间的任务都已触发
+     */
+    public long currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * 下一格的起点，调用方可以据此决定等待多久再推进
+     */
+    public long nextTick() {
+        return currentTime + tickMs;
+    }
+
+    /**
+     * 待触发的任务数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 放入能容纳到期时间的最低一层：该层中到期格与当前格的距离小于一圈
+     */
+    private void place(Entry<T> entry) {
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> top = levels.get(i - 1);
+                levels.add(new Level<>(top.tick * wheelSize, wheelSize));
+            }
+            Level<T> level = levels.get(i);
+            if (entry.slot / level.tick - currentTime / level.tick < wheelSize) {
+                level.add(entry);
+                return;
+            }
+        }
+    }
+
+    private record Entry<T>(T task, long slot) {
+    }
+
+    private static final class Level<T> {
+
+        private final long tick;
+        private final List<Entry<T>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, int wheelSize) {
+            this.tick = tick;
+            this.buckets = new List[wheelSize];
+        }
+
+        void add(Entry<T> entry) {
+            int index = (int) ((entry.slot / tick) % buckets.length);
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayList<>();
+            }
+            buckets[index].add(entry);
+        }
+
+        /**
+         * 取出时间 time 所在格的全部任务
+         */
+        List<Entry<T>> drain(long time) {
+            int index = (int) ((time / tick) % buckets.length);
+            List<Entry<T>> bucket = buckets[index];
+            if (bucket == null) {
+                return List.of();
+            }
+            buckets[index] = null;
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.chronotes.backend.revision;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行级增量
+ * <p>
+ * 增量由两种操作组成：COPY（从旧版本复制连续若干行）与 INSERT（插入一段新文本），
+ * 旧版本中未被复制的行即视为删除。行包含行尾换行符，应用增量后与新版本逐字节一致。
+ * 先去掉公共前后缀，中间部分用 Myers 差分求最短编辑脚本；编辑距离超过
+ * {@link #MAX_EDIT_DISTANCE} 时不再细分，整段作为插入
+ */
+public final class LineDelta {
+
+    /**
+     * Myers 差分的最大编辑距离，回溯记录占用 O(D²) 内存
+     */
+    static final int MAX_EDIT_DISTANCE = 1000;
+
+    private static final int OP_COPY = 1;
+    private static final int OP_INSERT = 2;
+
+    private LineDelta() {
+    }
+
+    /**
+     * 计算把 base 变为 target 的增量
+     */
+    public static byte[] diff(String base, String target) {
+        List<String> a = lines(base);
+        List<String> b = lines(target);
+        int n = a.size();
+        int m = b.size();
+
+        int prefix = 0;
+        while (prefix < n && prefix < m && a.get(prefix).equals(b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && a.get(n - 1 - suffix).equals(b.get(m - 1 - suffix))) {
+            suffix++;
+        }
+
+        Encoder encoder = new Encoder(b);
+        encoder.copy(0, prefix);
+        middle(a, prefix, n - suffix, b, prefix, m - suffix, encoder);
+        encoder.copy(n - suffix, suffix);
+        return encoder.finish();
+    }
+
+    /**
+     * 把增量应用到 base 上得到新版本
+     */
+    public static String apply(String base, byte[] delta) {
+        return String.join("", apply(lines(base), delta));
+    }
+
+    /**
+     * 在行列表上应用增量；连续回放多个增量时只需在首尾各切分、拼接一次
+     */
+    public static List<String> apply(List<String> base, byte[] delta) {
+        List<String> result = new ArrayList<>(base.size() + 16);
+        int[] position = {0};
+        while (position[0] < delta.length) {
+            int op = delta[position[0]++];
+            if (op == OP_COPY) {
+                int start = readVarint(delta, position);
+                int count = readVarint(delta, position);
+                result.addAll(base.subList(start, start + count));
+            } else if (op == OP_INSERT) {
+                int length = readVarint(delta, position);
+                result.addAll(lines(new String(delta, position[0], length, StandardCharsets.UTF_8)));
+                position[0] += length;
+            } else {
+                throw new IllegalArgumentException("无效的增量操作: " + op);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按行切分，每行保留行尾的 '\n'
+     */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    /**
+     * 对 a[aStart, aEnd) 与 b[bStart, bEnd) 做 Myers 差分并写入编码器
+     */
+    private static void middle(List<String> aLines, int aStart, int aEnd,
+                               List<String> bLines, int bStart, int bEnd, Encoder encoder) {
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        if (n == 0 || m == 0) {
+            encoder.insert(bStart, m);
+            return;
+        }
+
+        // 行内容映射为整数，比较时不再逐字符比较字符串
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = new int[n];
+        int[] b = new int[m];
+        for (int i = 0; i < n; i++) {
+            a[i] = ids.computeIfAbsent(aLines.get(aStart + i), key -> ids.size());
+        }
+        for (int i = 0; i < m; i++) {
+            b[i] = ids.computeIfAbsent(bLines.get(bStart + i), key -> ids.size());
+        }
+
+        int limit = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int offset = limit + 1;
+        int[] v = new int[2 * limit + 3];
+        // trace[d] 保存第 d 步结束后 k ∈ [-d, d] 上的最远 x
+        List<int[]> trace = new ArrayList<>();
+        int found = -1;
+        for (int d = 0; d <= limit && found < 0; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+            int[] snapshot = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, snapshot, 0, 2 * d + 1);
+            trace.add(snapshot);
+        }
+        if (found < 0) {
+            encoder.insert(bStart, m);
+            return;
+        }
+
+        // 从终点回溯，倒序记录 [类型, a 位置, b 位置, 长度]，类型 0-相同 1-插入
+        List<int[]> edits = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = found; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = x - y;
+            boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = previous[previousK + d - 1];
+            int previousY = previousX - previousK;
+            int snakeX = down ? previousX : previousX + 1;
+            int snakeY = snakeX - k;
+            if (x > snakeX) {
+                edits.add(new int[]{0, snakeX, snakeY, x - snakeX});
+            }
+            if (down) {
+                edits.add(new int[]{1, previousX, previousY, 1});
+            }
+            x = previousX;
+            y = previousY;
+        }
+        if (x > 0) {
+            edits.add(new int[]{0, 0, 0, x});
+        }
+        for (int i = edits.size() - 1; i >= 0; i--) {
+            int[] edit = edits.get(i);
+            if (edit[0] == 0) {
+                encoder.copy(aStart + edit[1], edit[3]);
+            } else {
+                encoder.insert(bStart + edit[2], edit[3]);
+            }
+        }
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * 增量编码：合并相邻的 COPY 与相邻的 INSERT
+     */
+    private static class Encoder {
+
+        private final List<String> target;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final StringBuilder pendingInsert = new StringBuilder();
+        private int copyStart;
+        private int copyCount;
+
+        Encoder(List<String> target) {
+            this.target = target;
+        }
+
+        void copy(int start, int count) {
+            if (count == 0) {
+                return;
+            }
+            flushInsert();
+            if (copyCount > 0 && copyStart + copyCount == start) {
+                copyCount += count;
+                return;
+            }
+            flushCopy();
+            copyStart = start;
+            copyCount = count;
+        }
+
+        void insert(int targetStart, int count) {
+            if (count == 0) {
+                return;
+            }
+            flushCopy();
+            for (int i = targetStart; i < targetStart + count; i++) {
+                pendingInsert.append(target.get(i));
+            }
+        }
+
+        byte[] finish() {
+            flushCopy();
+            flushInsert();
+            return out.toByteArray();
+        }
+
+        private void flushCopy() {
+            if (copyCount > 0) {
+                out.write(OP_COPY);
+                writeVarint(copyStart);
+                writeVarint(copyCount);
+                copyCount = 0;
+            }
+        }
+
+        private void flushInsert() {
+            if (!pendingInsert.isEmpty()) {
+                byte[] bytes = pendingInsert.toString().getBytes(StandardCharsets.UTF_8);
+                out.write(OP_INSERT);
+                writeVarint(bytes.length);
+                out.write(bytes, 0, bytes.length);
+                pendingInsert.setLength(0);
+            }
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+}
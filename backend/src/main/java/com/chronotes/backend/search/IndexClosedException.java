@@ -0,0 +1,11 @@
+package com.chronotes.backend.search;
+
+/**
+ * 索引已关闭（闲置淘汰或写入失败后丢弃），调用方应重新获取索引
+ */
+public class IndexClosedException extends IllegalStateException {
+
+    public IndexClosedException() {
+        super("索引已关闭");
+    }
+}
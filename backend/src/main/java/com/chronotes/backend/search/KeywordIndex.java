@@ -0,0 +1,447 @@
+package com.chronotes.backend.search;
+
+import com.chronotes.backend.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单个用户的关键词统计
+ * <p>
+ * 词典把词映射为用户内的连续编号，文档频率与总词频按编号存放在 int 数组中；
+ * 每篇笔记的词向量是按编号升序的 (编号, 词频) 两个 int 数组，笔记ID到槽位用 {@link LongIntHashMap}，
+ * 整个结构没有装箱的键值。保存笔记时先减去旧向量再加上新向量，删除时减去旧向量，
+ * 开销只与该笔记的词数有关。笔记关键词按 TF-IDF 排序；用户词云按总词频 × IDF 排序，结果缓存到下次变更。
+ * <p>
+ * 只在内存中，不落盘，由调用方从数据库加载
+ */
+public class KeywordIndex {
+
+    /**
+     * 少于两个字符的词（单字、单个字母）不作为关键词
+     */
+    private static final int MIN_TERM_LENGTH = 2;
+
+    /**
+     * 不再被任何笔记使用的词超过一半且词典不小于该值时整理词典
+     */
+    private static final int COMPACT_MIN_TERMS = 1024;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long PROBE_STEP = 0x9E3779B97F4A7C15L;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "do", "for", "from", "has", "have",
+            "he", "her", "his", "if", "in", "into", "is", "it", "its", "me", "my", "no", "not", "of",
+            "on", "or", "our", "she", "so", "than", "that", "the", "their", "them", "then", "there",
+            "these", "they", "this", "to", "up", "was", "we", "were", "what", "when", "which", "who",
+            "will", "with", "you", "your",
+            "http", "https", "www", "com");
+
+    /**
+     * 得分升序，同分时词序靠后的排在前面，保证同分的词取舍与顺序稳定
+     */
+    private static final Comparator<Keyword> ASCENDING = Comparator.comparingDouble(Keyword::score)
+            .thenComparing(Keyword::term, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词的 64 位哈希 → 编号；哈希冲突时按固定步长换一个键继续探测
+     */
+    private LongIntHashMap termIds = new LongIntHashMap(256);
+    private String[] terms = new String[256];
+    private int[] docFreqs = new int[256];
+    private int[] totalFreqs = new int[256];
+    private int termCount;
+    private int liveTerms;
+
+    /**
+     * 笔记ID → 槽位
+     */
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private long[] versions = new long[64];
+    private int[][] noteTerms = new int[64][];
+    private int[][] noteFreqs = new int[64][];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    /**
+     * 按编号累加一篇笔记词频的临时数组，只在写锁内使用，用后清零
+     */
+    private int[] scratch = new int[256];
+    private int[] touched = new int[256];
+
+    private long modCount;
+    private long checkpoint;
+    private volatile Cloud cloud = new Cloud(-1, 0, List.of());
+
+    /**
+     * 已同步到的笔记最大更新时间（毫秒）
+     */
+    public long checkpoint() {
+        lock.readLock().lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void advanceCheckpoint(long value) {
+        lock.writeLock().lock();
+        try {
+            checkpoint = Math.max(checkpoint, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 笔记已统计的版本（更新时间毫秒），未统计返回 -1
+     */
+    public long version(long noteId) {
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(noteId, -1);
+            return slot < 0 ? -1 : versions[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已统计的笔记数
+     */
+    public int noteCount() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已统计的笔记ID
+     */
+    public long[] noteIds() {
+        lock.readLock().lock();
+        try {
+            long[] ids = new long[slots.size()];
+            int[] next = new int[1];
+            slots.forEach((noteId, slot) -> ids[next[0]++] = noteId);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或替换一篇笔记
+     */
+    public void put(long noteId, long version, String title, String content, String tags) {
+        // 分词在锁外完成
+        Tokens tokens = new Tokens();
+        Tokenizer.tokenizeNote(title, content, tags, (term, weight) -> {
+            if (isCandidate(term)) {
+                tokens.add(term, weight);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            removeNote(noteId);
+            int distinct = 0;
+            for (int i = 0; i < tokens.size; i++) {
+                int id = intern(tokens.terms[i]);
+                if (scratch[id] == 0) {
+                    if (distinct == touched.length) {
+                        touched = Arrays.copyOf(touched, distinct * 2);
+                    }
+                    touched[distinct++] = id;
+                }
+                scratch[id] += tokens.weights[i];
+            }
+            Arrays.sort(touched, 0, distinct);
+            int[] ids = Arrays.copyOf(touched, distinct);
+            int[] freqs = new int[distinct];
+            for (int i = 0; i < distinct; i++) {
+                int id = ids[i];
+                freqs[i] = scratch[id];
+                scratch[id] = 0;
+                if (docFreqs[id]++ == 0) {
+                    liveTerms++;
+                }
+                totalFreqs[id] += freqs[i];
+            }
+
+            int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot();
+            slots.put(noteId, slot, -1);
+            versions[slot] = version;
+            noteTerms[slot] = ids;
+            noteFreqs[slot] = freqs;
+            modCount++;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(long noteId) {
+        lock.writeLock().lock();
+        try {
+            if (removeNote(noteId)) {
+                modCount++;
+                compactIfSparse();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 笔记的关键词：按 (1 + ln 词频) × IDF 取前 limit 个
+     */
+    public List<Keyword> noteKeywords(long noteId, int limit) {
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(noteId, -1);
+            if (slot < 0 || limit <= 0) {
+                return List.of();
+            }
+            int[] ids = noteTerms[slot];
+            int[] freqs = noteFreqs[slot];
+            PriorityQueue<Keyword> top = new PriorityQueue<>(ASCENDING);
+            for (int i = 0; i < ids.length; i++) {
+                offer(top, limit, ids[i], (1 + Math.log(freqs[i])) * idf(ids[i]));
+            }
+            return sorted(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 用户词云：按总词频 × IDF 取前 limit 个，结果缓存到下次变更
+     */
+    public List<Keyword> userKeywords(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Cloud cached = cloud;
+            if (cached.modCount() == modCount && cached.limit() >= limit) {
+                return cached.keywords().subList(0, Math.min(limit, cached.keywords().size()));
+            }
+            PriorityQueue<Keyword> top = new PriorityQueue<>(ASCENDING);
+            for (int id = 0; id < termCount; id++) {
+                if (docFreqs[id] > 0) {
+                    offer(top, limit, id, totalFreqs[id] * idf(id));
+                }
+            }
+            List<Keyword> keywords = sorted(top);
+            cloud = new Cloud(modCount, limit, keywords);
+            return keywords;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void offer(PriorityQueue<Keyword> top, int limit, int id, double score) {
+        if (top.size() < limit) {
+            top.add(new Keyword(terms[id], score, docFreqs[id]));
+        } else if (score >= top.peek().score()) {
+            Keyword keyword = new Keyword(terms[id], score, docFreqs[id]);
+            if (ASCENDING.compare(keyword, top.peek()) > 0) {
+                top.poll();
+                top.add(keyword);
+            }
+        }
+    }
+
+    private static List<Keyword> sorted(PriorityQueue<Keyword> top) {
+        List<Keyword> keywords = new ArrayList<>(top);
+        keywords.sort(ASCENDING.reversed());
+        return List.copyOf(keywords);
+    }
+
+    /**
+     * 与检索的 BM25 相同的平滑 IDF，始终为正
+     */
+    private double idf(int id) {
+        int notes = slots.size();
+        return Math.log(1 + (notes - docFreqs[id] + 0.5) / (docFreqs[id] + 0.5));
+    }
+
+    private boolean removeNote(long noteId) {
+        int slot = slots.remove(noteId, -1);
+        if (slot < 0) {
+            return false;
+        }
+        int[] ids = noteTerms[slot];
+        int[] freqs = noteFreqs[slot];
+        for (int i = 0; i < ids.length; i++) {
+            if (--docFreqs[ids[i]] == 0) {
+                liveTerms--;
+            }
+            totalFreqs[ids[i]] -= freqs[i];
+        }
+        noteTerms[slot] = null;
+        noteFreqs[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    private int nextSlot() {
+        if (slotCount == versions.length) {
+            int capacity = slotCount * 2;
+            versions = Arrays.copyOf(versions, capacity);
+            noteTerms = Arrays.copyOf(noteTerms, capacity);
+            noteFreqs = Arrays.copyOf(noteFreqs, capacity);
+        }
+        return slotCount++;
+    }
+
+    private int intern(String term) {
+        long key = hash(term);
+        while (true) {
+            int id = termIds.get(key, -1);
+            if (id < 0) {
+                break;
+            }
+            if (terms[id].equals(term)) {
+                return id;
+            }
+            key += PROBE_STEP;
+        }
+        if (termCount == terms.length) {
+            int capacity = termCount * 2;
+            terms = Arrays.copyOf(terms, capacity);
+            docFreqs = Arrays.copyOf(docFreqs, capacity);
+            totalFreqs = Arrays.copyOf(totalFreqs, capacity);
+            scratch = Arrays.copyOf(scratch, capacity);
+        }
+        int id = termCount++;
+        terms[id] = term;
+        termIds.put(key, id, -1);
+        return id;
+    }
+
+    private void compactIfSparse() {
+        if (termCount >= COMPACT_MIN_TERMS && liveTerms * 2 < termCount) {
+            compact();
+        }
+    }
+
+    /**
+     * 去掉不再被任何笔记使用的词并重新编号；按原编号顺序分配新编号，笔记词向量仍保持升序
+     */
+    private void compact() {
+        int[] remap = new int[termCount];
+        LongIntHashMap compactedIds = new LongIntHashMap(liveTerms);
+        int capacity = Math.max(256, Integer.highestOneBit(Math.max(1, liveTerms)) << 1);
+        String[] compactedTerms = new String[capacity];
+        int[] compactedDocFreqs = new int[capacity];
+        int[] compactedTotalFreqs = new int[capacity];
+        int next = 0;
+        for (int id = 0; id < termCount; id++) {
+            if (docFreqs[id] == 0) {
+                remap[id] = -1;
+                continue;
+            }
+            remap[id] = next;
+            compactedTerms[next] = terms[id];
+            compactedDocFreqs[next] = docFreqs[id];
+            compactedTotalFreqs[next] = totalFreqs[id];
+            long key = hash(terms[id]);
+            while (compactedIds.containsKey(key)) {
+                key += PROBE_STEP;
+            }
+            compactedIds.put(key, next, -1);
+            next++;
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int[] ids = noteTerms[slot];
+            if (ids != null) {
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = remap[ids[i]];
+                }
+            }
+        }
+        termIds = compactedIds;
+        terms = compactedTerms;
+        docFreqs = compactedDocFreqs;
+        totalFreqs = compactedTotalFreqs;
+        scratch = new int[capacity];
+        termCount = next;
+    }
+
+    private static boolean isCandidate(String term) {
+        if (term.codePointCount(0, term.length()) < MIN_TERM_LENGTH || STOP_WORDS.contains(term)) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return true;
+            }
+        }
+        // 纯数字
+        return false;
+    }
+
+    /**
+     * FNV-1a 64 位哈希
+     */
+    private static long hash(String term) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 关键词
+     *
+     * @param term      词
+     * @param score     得分
+     * @param noteCount 用户包含该词的笔记数
+     */
+    public record Keyword(String term, double score, int noteCount) {
+    }
+
+    private record Cloud(long modCount, int limit, List<Keyword> keywords) {
+    }
+
+    /**
+     * 一篇笔记分词后的 (词, 权重) 序列
+     */
+    private static final class Tokens {
+
+        private String[] terms = new String[64];
+        private int[] weights = new int[64];
+        private int size;
+
+        void add(String term, int weight) {
+            if (size == terms.length) {
+                terms = Arrays.copyOf(terms, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            terms[size] = term;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.chronotes.backend.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 单个用户的笔记倒排索引
+ * <p>
+ * 由若干内存映射的只读段和一个内存缓冲区组成：新增或修改的笔记先进入缓冲区，
+ * 缓冲区满或 {@link #commit()} 时写成新段；段数超过上限时合并为一个段并清除已删除文档。
+ * 修改笔记时旧版本在所在段中标记删除。检索按 BM25 打分，标题与标签的词频加权。
+ * 关闭后仍可检索，但写入抛出 {@link IndexClosedException}，避免写进不会再落盘的缓冲区
+ */
+public class NoteIndex implements Closeable {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final String META_FILE = "segments.properties";
+
+    private final Path directory;
+    private final int bufferDocs;
+    private final int maxSegments;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, BufferedDoc> buffer = new HashMap<>();
+    private int generation;
+    private long checkpoint;
+    private boolean closed;
+
+    private NoteIndex(Path directory, int bufferDocs, int maxSegments) {
+        this.directory = directory;
+        this.bufferDocs = bufferDocs;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * 打开（或新建）目录下的索引，清理未登记在元数据中的残留文件
+     */
+    public static NoteIndex open(Path directory, int bufferDocs, int maxSegments) throws IOException {
+        Files.createDirectories(directory);
+        NoteIndex index = new NoteIndex(directory, bufferDocs, maxSegments);
+        Path meta = directory.resolve(META_FILE);
+        Set<String> live = new HashSet<>();
+        if (Files.exists(meta)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            index.generation = Integer.parseInt(properties.getProperty("generation", "0"));
+            index.checkpoint = Long.parseLong(properties.getProperty("checkpoint", "0"));
+            for (String name : properties.getProperty("segments", "").split(",")) {
+                if (!name.isEmpty()) {
+                    index.segments.add(Segment.open(directory, name));
+                    live.add(name);
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                int dot = fileName.indexOf('.');
+                String base = dot < 0 ? fileName : fileName.substring(0, dot);
+                if (!fileName.equals(META_FILE) && (fileName.endsWith(".tmp") || !live.contains(base))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 已同步到的笔记最大更新时间（毫秒）
+     */
+    public long checkpoint() {
+        lock.readLock().lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void advanceCheckpoint(long value) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            checkpoint = Math.max(checkpoint, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 笔记已索引的版本（更新时间毫秒），未索引返回 -1
+     */
+    public long indexedVersion(long noteId) {
+        lock.readLock().lock();
+        try {
+            BufferedDoc doc = buffer.get(noteId);
+            if (doc != null) {
+                return doc.version();
+            }
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                Segment segment = segments.get(i);
+                int ordinal = segment.liveOrdinal(noteId);
+                if (ordinal >= 0) {
+                    return segment.version(ordinal);
+                }
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或替换一篇笔记
+     */
+    public void put(long noteId, long version, String title, String content, String tags) {
+        // 分词在锁外完成
+        BufferedDoc doc = analyze(version, title, content, tags);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            removeLive(noteId);
+            buffer.put(noteId, doc);
+            if (buffer.size() >= bufferDocs) {
+                commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(long noteId) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            removeLive(noteId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 检索，返回得分最高的 limit 篇笔记
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        lock.readLock().lock();
+        try {
+            long docs = buffer.size();
+            long totalLength = 0;
+            for (Segment segment : segments) {
+                docs += segment.liveDocCount();
+                totalLength += segment.liveLength();
+            }
+            for (BufferedDoc doc : buffer.values()) {
+                totalLength += doc.length();
+            }
+            if (docs == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / docs;
+
+            // 按段内文档序号累加得分，避免逐个文档装箱
+            double[][] segmentScores = new double[segments.size()][];
+            Map<Long, Double> bufferScores = new HashMap<>();
+            int[] termOrdinals = new int[segments.size()];
+            for (String term : terms) {
+                byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                long docFreq = 0;
+                for (int i = 0; i < segments.size(); i++) {
+                    termOrdinals[i] = segments.get(i).findTerm(bytes);
+                    if (termOrdinals[i] >= 0) {
+                        docFreq += segments.get(i).docFreq(termOrdinals[i]);
+                    }
+                }
+                for (BufferedDoc doc : buffer.values()) {
+                    if (doc.frequencies().containsKey(term)) {
+                        docFreq++;
+                    }
+                }
+                if (docFreq == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docs - docFreq + 0.5) / (docFreq + 0.5));
+
+                for (int i = 0; i < segments.size(); i++) {
+                    if (termOrdinals[i] < 0) {
+                        continue;
+                    }
+                    Segment segment = segments.get(i);
+                    if (segmentScores[i] == null) {
+                        segmentScores[i] = new double[segment.docCount()];
+                    }
+                    double[] scores = segmentScores[i];
+                    segment.forEachPosting(termOrdinals[i], (ordinal, frequency) ->
+                            scores[ordinal] += idf * bm25(frequency, segment.length(ordinal), averageLength));
+                }
+                for (Map.Entry<Long, BufferedDoc> entry : buffer.entrySet()) {
+                    Integer frequency = entry.getValue().frequencies().get(term);
+                    if (frequency != null) {
+                        bufferScores.merge(entry.getKey(),
+                                idf * bm25(frequency, entry.getValue().length(), averageLength), Double::sum);
+                    }
+                }
+            }
+
+            for (int i = 0; i < segments.size(); i++) {
+                double[] scores = segmentScores[i];
+                if (scores == null) {
+                    continue;
+                }
+                Segment segment = segments.get(i);
+                for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+                    if (scores[ordinal] > 0 && !segment.isDeleted(ordinal)) {
+                        offer(top, limit, segment.noteId(ordinal), scores[ordinal]);
+                    }
+                }
+            }
+            bufferScores.forEach((noteId, score) -> offer(top, limit, noteId, score));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    private static void offer(PriorityQueue<Hit> top, int limit, long noteId, double score) {
+        if (top.size() < limit) {
+            top.add(new Hit(noteId, score));
+        } else if (score > top.peek().score()) {
+            top.poll();
+            top.add(new Hit(noteId, score));
+        }
+    }
+
+    /**
+     * 将缓冲区写成段、必要时合并，并持久化删除标记与元数据
+     */
+    public void commit() throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            flush();
+            List<Segment> obsolete = List.of();
+            if (segments.size() > maxSegments) {
+                obsolete = new ArrayList<>(segments);
+                Segment merged = merge(obsolete);
+                segments.clear();
+                if (merged != null) {
+                    segments.add(merged);
+                }
+            }
+            for (Segment segment : segments) {
+                segment.writeDeletions();
+            }
+            writeMeta();
+            for (Segment segment : obsolete) {
+                segment.deleteFiles(directory);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 落盘并拒绝之后的写入；重复关闭不做任何事
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            commit();
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IndexClosedException();
+        }
+    }
+
+    private void removeLive(long noteId) {
+        buffer.remove(noteId);
+        for (Segment segment : segments) {
+            int ordinal = segment.liveOrdinal(noteId);
+            if (ordinal >= 0) {
+                segment.delete(ordinal);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        long[] noteIds = buffer.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] lengths = new int[noteIds.length];
+        long[] versions = new long[noteIds.length];
+        Map<String, Postings> postings = new HashMap<>();
+        for (int ordinal = 0; ordinal < noteIds.length; ordinal++) {
+            BufferedDoc doc = buffer.get(noteIds[ordinal]);
+            lengths[ordinal] = doc.length();
+            versions[ordinal] = doc.version();
+            int current = ordinal;
+            doc.frequencies().forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new Postings()).add(current, frequency));
+        }
+
+        List<byte[]> terms = new ArrayList<>(postings.size());
+        Map<byte[], Postings> byBytes = new HashMap<>();
+        postings.forEach((term, list) -> {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            terms.add(bytes);
+            byBytes.put(bytes, list);
+        });
+        terms.sort(Arrays::compareUnsigned);
+
+        SegmentWriter writer = new SegmentWriter();
+        for (byte[] term : terms) {
+            Postings list = byBytes.get(term);
+            writer.addTerm(term, list.ordinals, list.frequencies, list.size);
+        }
+        String name = nextSegmentName();
+        writer.write(directory.resolve(name + ".seg"), noteIds, lengths, versions);
+        segments.add(Segment.open(directory, name));
+        buffer.clear();
+    }
+
+    /**
+     * 按词典序多路归并各段的词，重排文档序号并丢弃已删除文档
+     */
+    private Segment merge(List<Segment> sources) throws IOException {
+        List<long[]> live = new ArrayList<>();
+        for (int s = 0; s < sources.size(); s++) {
+            Segment segment = sources.get(s);
+            for (int ordinal = 0; ordinal < segment.docCount(); ordinal++) {
+                if (!segment.isDeleted(ordinal)) {
+                    live.add(new long[]{segment.noteId(ordinal), s, ordinal});
+                }
+            }
+        }
+        if (live.isEmpty()) {
+            return null;
+        }
+        live.sort(Comparator.comparingLong(ref -> ref[0]));
+
+        int[][] remap = new int[sources.size()][];
+        for (int s = 0; s < sources.size(); s++) {
+            remap[s] = new int[sources.get(s).docCount()];
+        }
+        long[] noteIds = new long[live.size()];
+        int[] lengths = new int[live.size()];
+        long[] versions = new long[live.size()];
+        for (int ordinal = 0; ordinal < live.size(); ordinal++) {
+            long[] ref = live.get(ordinal);
+            Segment segment = sources.get((int) ref[1]);
+            int oldOrdinal = (int) ref[2];
+            remap[(int) ref[1]][oldOrdinal] = ordinal;
+            noteIds[ordinal] = ref[0];
+            lengths[ordinal] = segment.length(oldOrdinal);
+            versions[ordinal] = segment.version(oldOrdinal);
+        }
+
+        SegmentWriter writer = new SegmentWriter();
+        int[] cursors = new int[sources.size()];
+        byte[][] current = new byte[sources.size()][];
+        for (int s = 0; s < sources.size(); s++) {
+            current[s] = sources.get(s).termCount() > 0 ? sources.get(s).term(0) : null;
+        }
+        Postings postings = new Postings();
+        while (true) {
+            byte[] smallest = null;
+            for (byte[] term : current) {
+                if (term != null && (smallest == null || Arrays.compareUnsigned(term, smallest) < 0)) {
+                    smallest = term;
+                }
+            }
+            if (smallest == null) {
+                break;
+            }
+            postings.size = 0;
+            for (int s = 0; s < sources.size(); s++) {
+                if (current[s] == null || !Arrays.equals(current[s], smallest)) {
+                    continue;
+                }
+                Segment segment = sources.get(s);
+                int[] segmentRemap = remap[s];
+                segment.forEachPosting(cursors[s], (ordinal, frequency) -> {
+                    if (!segment.isDeleted(ordinal)) {
+                        postings.add(segmentRemap[ordinal], frequency);
+                    }
+                });
+                cursors[s]++;
+                current[s] = cursors[s] < segment.termCount() ? segment.term(cursors[s]) : null;
+            }
+            if (postings.size > 0) {
+                postings.sortByOrdinal();
+                writer.addTerm(smallest, postings.ordinals, postings.frequencies, postings.size);
+            }
+        }
+        String name = nextSegmentName();
+        writer.write(directory.resolve(name + ".seg"), noteIds, lengths, versions);
+        return Segment.open(directory, name);
+    }
+
+    private String nextSegmentName() {
+        return "seg-" + (++generation);
+    }
+
+    private void writeMeta() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("generation", String.valueOf(generation));
+        properties.setProperty("checkpoint", String.valueOf(checkpoint));
+        properties.setProperty("segments", String.join(",", segments.stream().map(Segment::name).toList()));
+        Path temp = directory.resolve(META_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, directory.resolve(META_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static double bm25(int frequency, int length, double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static BufferedDoc analyze(long version, String title, String content, String tags) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int[] length = new int[1];
+        Tokenizer.tokenizeNote(title, content, tags, (term, weight) -> {
+            frequencies.merge(term, weight, Integer::sum);
+            length[0] += weight;
+        });
+        return new BufferedDoc(version, length[0], frequencies);
+    }
+
+    /**
+     * 检索结果
+     */
+    public record Hit(long noteId, double score) {
+    }
+
+    private record BufferedDoc(long version, int length, Map<String, Integer> frequencies) {
+    }
+
+    /**
+     * (文档序号, 词频) 列表
+     */
+    private static final class Postings {
+
+        private int[] ordinals = new int[8];
+        private int[] frequencies = new int[8];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void sortByOrdinal() {
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((long) ordinals[i] << 32) | frequencies[i];
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < size; i++) {
+                ordinals[i] = (int) (packed[i] >>> 32);
+                frequencies[i] = (int) packed[i];
+            }
+        }
+    }
+}
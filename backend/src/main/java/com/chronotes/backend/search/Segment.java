@@ -0,0 +1,229 @@
+package com.chronotes.backend.search;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * 只读索引段
+ * <p>
+ * 段文件整体内存映射，词典与倒排表都在映射区内按需解码，不加载到堆上；
+ * 堆上只保存删除标记
+ */
+final class Segment {
+
+    private static final int TERM_ENTRY_SIZE = 4 * Integer.BYTES;
+
+    private final String name;
+    private final Path deletionsPath;
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final int docsOffset;
+    private final int termIndexOffset;
+    private final int termBytesOffset;
+    private final int postingsOffset;
+    private final BitSet deleted;
+    private boolean deletionsDirty;
+    private long liveLength;
+
+    private Segment(String name, Path deletionsPath, MappedByteBuffer buffer, BitSet deleted) {
+        this.name = name;
+        this.deletionsPath = deletionsPath;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != SegmentWriter.MAGIC || buffer.getInt(4) != SegmentWriter.VERSION) {
+            throw new IllegalStateException("索引段格式不正确: " + name);
+        }
+        this.docCount = buffer.getInt(8);
+        this.termCount = buffer.getInt(12);
+        this.docsOffset = buffer.getInt(16);
+        this.termIndexOffset = buffer.getInt(20);
+        this.termBytesOffset = buffer.getInt(24);
+        this.postingsOffset = buffer.getInt(28);
+        this.deleted = deleted;
+        for (int ordinal = 0; ordinal < docCount; ordinal++) {
+            if (!deleted.get(ordinal)) {
+                liveLength += length(ordinal);
+            }
+        }
+    }
+
+    static Segment open(Path directory, String name) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(directory.resolve(name + ".seg"), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Path deletionsPath = directory.resolve(name + ".del");
+        BitSet deleted = Files.exists(deletionsPath)
+                ? BitSet.valueOf(Files.readAllBytes(deletionsPath))
+                : new BitSet();
+        return new Segment(name, deletionsPath, buffer, deleted);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int liveDocCount() {
+        return docCount - deleted.cardinality();
+    }
+
+    long liveLength() {
+        return liveLength;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    long noteId(int ordinal) {
+        return buffer.getLong(docsOffset + ordinal * Long.BYTES);
+    }
+
+    int length(int ordinal) {
+        return buffer.getInt(docsOffset + docCount * Long.BYTES + ordinal * Integer.BYTES);
+    }
+
+    long version(int ordinal) {
+        return buffer.getLong(docsOffset + docCount * (Long.BYTES + Integer.BYTES) + ordinal * Long.BYTES);
+    }
+
+    boolean isDeleted(int ordinal) {
+        return deleted.get(ordinal);
+    }
+
+    /**
+     * 按笔记ID查找未删除的文档序号，不存在返回 -1
+     */
+    int liveOrdinal(long noteId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = noteId(mid);
+            if (value < noteId) {
+                low = mid + 1;
+            } else if (value > noteId) {
+                high = mid - 1;
+            } else {
+                return deleted.get(mid) ? -1 : mid;
+            }
+        }
+        return -1;
+    }
+
+    void delete(int ordinal) {
+        if (!deleted.get(ordinal)) {
+            deleted.set(ordinal);
+            liveLength -= length(ordinal);
+            deletionsDirty = true;
+        }
+    }
+
+    /**
+     * 二分查找词，返回词序号，不存在返回 -1
+     */
+    int findTerm(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = compareTerm(mid, term);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    byte[] term(int termOrdinal) {
+        int entry = termIndexOffset + termOrdinal * TERM_ENTRY_SIZE;
+        byte[] term = new byte[buffer.getInt(entry + 4)];
+        buffer.get(termBytesOffset + buffer.getInt(entry), term);
+        return term;
+    }
+
+    int docFreq(int termOrdinal) {
+        return buffer.getInt(termIndexOffset + termOrdinal * TERM_ENTRY_SIZE + 12);
+    }
+
+    /**
+     * 依次解码词的倒排表（包含已删除文档，由调用方过滤）
+     */
+    void forEachPosting(int termOrdinal, PostingConsumer consumer) {
+        int entry = termIndexOffset + termOrdinal * TERM_ENTRY_SIZE;
+        int position = postingsOffset + buffer.getInt(entry + 8);
+        int count = buffer.getInt(entry + 12);
+        int ordinal = 0;
+        for (int i = 0; i < count; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            ordinal += value;
+
+            int frequency = 0;
+            shift = 0;
+            do {
+                b = buffer.get(position++);
+                frequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            consumer.accept(ordinal, frequency);
+        }
+    }
+
+    /**
+     * 将变化过的删除标记写入 .del 文件
+     */
+    void writeDeletions() throws IOException {
+        if (!deletionsDirty) {
+            return;
+        }
+        Path temp = deletionsPath.resolveSibling(deletionsPath.getFileName() + ".tmp");
+        Files.write(temp, deleted.toByteArray());
+        Files.move(temp, deletionsPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deletionsDirty = false;
+    }
+
+    void deleteFiles(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve(name + ".seg"));
+        Files.deleteIfExists(deletionsPath);
+    }
+
+    private int compareTerm(int termOrdinal, byte[] term) {
+        int entry = termIndexOffset + termOrdinal * TERM_ENTRY_SIZE;
+        int offset = termBytesOffset + buffer.getInt(entry);
+        int length = buffer.getInt(entry + 4);
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int compare = Byte.compareUnsigned(buffer.get(offset + i), term[i]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    @FunctionalInterface
+    interface PostingConsumer {
+        void accept(int ordinal, int frequency);
+    }
+}
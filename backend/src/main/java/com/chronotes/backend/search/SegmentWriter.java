@@ -0,0 +1,116 @@
+package com.chronotes.backend.search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 段文件写入器
+ * <p>
+ * 文件布局（大端序）：
+ * <pre>
+ * 头部    magic, version, docCount, termCount, docsOffset, termIndexOffset, termBytesOffset, postingsOffset
+ * 文档表  noteId long[docCount]（升序），length int[docCount]，version long[docCount]
+ * 词索引  每个词 4 个 int：词字节偏移、词字节长度、倒排表偏移、文档频率（按词的 UTF-8 字节序排列）
+ * 词字节  所有词的 UTF-8 字节
+ * 倒排表  每个词依次为 (文档序号差值, 词频) 的变长整数对
+ * </pre>
+ * 词必须按字节序依次写入，同一个词的文档序号必须递增
+ */
+final class SegmentWriter {
+
+    static final int MAGIC = 0x434E5347;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8 * Integer.BYTES;
+
+    private final ByteArrayOutputStream termIndex = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream postings = new ByteArrayOutputStream();
+    private final byte[] intBuffer = new byte[Integer.BYTES];
+    private int termCount;
+    private byte[] lastTerm;
+
+    void addTerm(byte[] term, int[] ordinals, int[] frequencies, int count) {
+        if (lastTerm != null && Arrays.compareUnsigned(lastTerm, term) >= 0) {
+            throw new IllegalArgumentException("词未按字节序写入");
+        }
+        writeInt(termIndex, termBytes.size());
+        writeInt(termIndex, term.length);
+        writeInt(termIndex, postings.size());
+        writeInt(termIndex, count);
+        termBytes.writeBytes(term);
+
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarInt(postings, ordinals[i] - previous);
+            writeVarInt(postings, frequencies[i]);
+            previous = ordinals[i];
+        }
+        lastTerm = term;
+        termCount++;
+    }
+
+    /**
+     * 先写临时文件再原子替换，读者不会看到写了一半的段
+     */
+    void write(Path path, long[] noteIds, int[] lengths, long[] versions) throws IOException {
+        int docCount = noteIds.length;
+        int docsOffset = HEADER_SIZE;
+        int termIndexOffset = docsOffset + docCount * (Long.BYTES + Integer.BYTES + Long.BYTES);
+        int termBytesOffset = termIndexOffset + termIndex.size();
+        int postingsOffset = termBytesOffset + termBytes.size();
+
+        ByteBuffer header = ByteBuffer.allocate(termIndexOffset);
+        header.putInt(MAGIC).putInt(VERSION).putInt(docCount).putInt(termCount)
+                .putInt(docsOffset).putInt(termIndexOffset).putInt(termBytesOffset).putInt(postingsOffset);
+        for (long noteId : noteIds) {
+            header.putLong(noteId);
+        }
+        for (int length : lengths) {
+            header.putInt(length);
+        }
+        for (long version : versions) {
+            header.putLong(version);
+        }
+        header.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(termIndex.toByteArray()));
+            writeFully(channel, ByteBuffer.wrap(termBytes.toByteArray()));
+            writeFully(channel, ByteBuffer.wrap(postings.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void writeInt(ByteArrayOutputStream out, int value) {
+        intBuffer[0] = (byte) (value >>> 24);
+        intBuffer[1] = (byte) (value >>> 16);
+        intBuffer[2] = (byte) (value >>> 8);
+        intBuffer[3] = (byte) value;
+        out.write(intBuffer, 0, Integer.BYTES);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,118 @@
+package com.chronotes.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 笔记分词器
+ * <p>
+ * 中日韩文字按相邻两字切分（二元组），单字片段保留为单字；
+ * 其他文字按连续的字母、数字切分为单词并转为小写
+ */
+public final class Tokenizer {
+
+    /**
+     * 标题中的词按出现一次计几次
+     */
+    public static final int TITLE_WEIGHT = 3;
+
+    /**
+     * 标签中的词按出现一次计几次
+     */
+    public static final int TAG_WEIGHT = 3;
+
+    /**
+     * 超过该长度的单词（如 base64 串）不参与索引
+     */
+    private static final int MAX_WORD_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens::add);
+        return tokens;
+    }
+
+    public static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                i = emitCjkRun(text, i, sink);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                i = emitWord(text, i, sink);
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+    }
+
+    /**
+     * 切分一篇笔记，标题与标签中的词按权重计数；全文检索与关键词提取共用
+     */
+    public static void tokenizeNote(String title, String content, String tags, WeightedConsumer sink) {
+        tokenize(title, term -> sink.accept(term, TITLE_WEIGHT));
+        tokenize(tags, term -> sink.accept(term, TAG_WEIGHT));
+        tokenize(content, term -> sink.accept(term, 1));
+    }
+
+    private static int emitCjkRun(String text, int start, Consumer<String> sink) {
+        int previousStart = -1;
+        int previousEnd = -1;
+        int i = start;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (!isCjk(codePoint)) {
+                break;
+            }
+            int end = i + Character.charCount(codePoint);
+            if (previousStart >= 0) {
+                sink.accept(text.substring(previousStart, end));
+            }
+            previousStart = i;
+            previousEnd = end;
+            i = end;
+        }
+        if (previousStart == start) {
+            // 孤立的单字
+            sink.accept(text.substring(start, previousEnd));
+        }
+        return i;
+    }
+
+    private static int emitWord(String text, int start, Consumer<String> sink) {
+        int i = start;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint) || !Character.isLetterOrDigit(codePoint)) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (i - start <= MAX_WORD_LENGTH) {
+            sink.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        return i;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    @FunctionalInterface
+    public interface WeightedConsumer {
+        void accept(String term, int weight);
+    }
+}
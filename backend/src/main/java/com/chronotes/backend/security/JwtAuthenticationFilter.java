@@ -1,15 +1,16 @@
 package com.chronotes.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -25,8 +26,16 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String PRINCIPAL_MODE_DATABASE = "database";
+
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    /**
+     * 主体来源：claims-由 Token Claims 与本地缓存构建，database-每次按邮箱加载用户（经用户查询缓存）
+     */
+    @Value("${jwt.principal-mode:claims}")
+    private String principalMode;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,13 +45,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 获取 JWT Token
             String token = getJwtFromRequest(request);
 
-            // 验证 Token
-            if (StringUtils.hasText(token) && jwtUtils.validateToken(token)) {
-                // 从 Token 中获取邮箱
-                String email = jwtUtils.getEmailFromToken(token);
-
+            // 验证 Token（一次解析，结果带缓存）
+            Claims claims = StringUtils.hasText(token) ? jwtUtils.parseToken(token) : null;
+            if (claims != null) {
                 // 加载用户信息
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                UserDetails userDetails = PRINCIPAL_MODE_DATABASE.equals(principalMode)
+                        ? userDetailsService.loadUserByUsername(claims.getSubject())
+                        : userDetailsService.loadUserByClaims(claims);
 
                 // 创建认证对象
                 UsernamePasswordAuthenticationToken authentication =
@@ -1,22 +1,48 @@
 package com.chronotes.backend.security;
 
+import com.chronotes.backend.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT 工具类
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    /**
+     * 用户ID
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    /**
+     * 用户 Token 版本号，改密或禁用后递增，使旧 Token 失效（账号状态不写入 Token，禁用同样靠版本号失效）
+     */
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,10 +50,70 @@ public class JwtUtils {
     private Long expiration;
 
     /**
-     * 生成密钥
+     * 已验证 Token 缓存的最大条目数
+     */
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    /**
+     * 已验证 Token 缓存的最长存活时间（毫秒），实际存活时间不超过 Token 自身的过期时间
+     */
+    @Value("${jwt.cache.max-ttl:600000}")
+    private long cacheMaxTtl;
+
+    private SecretKey secretKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * 已验证 Token 缓存：key 为 Token 的 SHA-256 摘要，value 为解析后的 Claims
+     */
+    private Cache<String, Claims> verifiedTokens;
+
+    private Counter cacheHitCounter;
+    private Counter rejectedCounter;
+    private Timer verifyTimer;
+
+    /**
+     * 初始化密钥、解析器与缓存，避免每次请求重复构建
      */
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @PostConstruct
+    public void init() {
+        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ClaimsExpiry(cacheMaxTtl))
+                .build();
+        this.cacheHitCounter = Counter.builder("jwt.verification.cache.hit")
+                .description("命中已验证 Token 缓存的次数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("jwt.verification.rejected")
+                .description("校验失败的 Token 数")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("jwt.verification")
+                .description("Token 签名校验与解析耗时（未命中缓存）")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 生成携带用户ID与版本号的 JWT Token
+     */
+    public String generateToken(User user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + expiration);
+
+        return Jwts.builder()
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(secretKey)
+                .compact();
     }
 
     /**
@@ -41,37 +127,69 @@ public class JwtUtils {
                 .subject(email)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSecretKey())
+                .signWith(secretKey)
                 .compact();
     }
 
+    /**
+     * 验证 Token 并返回其 Claims，验证失败返回 null
+     * <p>
+     * 同一 Token 只做一次签名校验与解析，之后在过期前直接命中缓存
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            log.error("Token为空");
+            return null;
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (isExpired(cached)) {
+                verifiedTokens.invalidate(digest);
+                rejectedCounter.increment();
+                log.error("Token已过期");
+                return null;
+            }
+            cacheHitCounter.increment();
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        Claims claims = verify(token);
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (claims != null) {
+            verifiedTokens.put(digest, claims);
+        } else {
+            rejectedCounter.increment();
+        }
+        return claims;
+    }
+
     /**
      * 从 Token 中获取邮箱
      */
     public String getEmailFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSecretKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getSubject();
-        } catch (Exception e) {
-            log.error("从Token获取邮箱失败: {}", e.getMessage());
+        Claims claims = parseToken(token);
+        if (claims == null) {
+            log.error("从Token获取邮箱失败");
             return null;
         }
+        return claims.getSubject();
     }
 
     /**
      * 验证 Token
      */
     public boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
+
+    /**
+     * 签名校验并解析 Token
+     */
+    private Claims verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSecretKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.error("Token已过期");
         } catch (UnsupportedJwtException e) {
@@ -83,6 +201,56 @@ public class JwtUtils {
         } catch (Exception e) {
             log.error("Token验证失败: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date exp = claims.getExpiration();
+        return exp != null && exp.getTime() <= System.currentTimeMillis();
+    }
+
+    /**
+     * 计算 Token 的 SHA-256 摘要，作为缓存 key，避免在内存中长期持有原始 Token
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 按 Token 自身过期时间计算缓存条目的存活时间
+     */
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        ClaimsExpiry(long maxTtlMillis) {
+            this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMillis);
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return maxTtlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,196 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 密码哈希执行器
+ * <p>
+ * BCrypt 计算放在独立的有界线程池中执行，避免登录高峰时占满 Tomcat 工作线程；
+ * 排队任务超过上限时立即拒绝并提示稍后重试，而不是让请求一直等到超时
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHashExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${password.hash.threads:0}")
+    private int threads;
+
+    @Value("${password.hash.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${password.hash.timeout:5000}")
+    private long timeout;
+
+    @Value("${password.hash.strength:10}")
+    private int strength;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer encodeQueueTimer;
+    private Timer encodeTimer;
+    private Timer matchesQueueTimer;
+    private Timer matchesTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                queue, new HashThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeQueueTimer = queueTimer("encode");
+        this.encodeTimer = hashTimer("encode");
+        this.matchesQueueTimer = queueTimer("matches");
+        this.matchesTimer = hashTimer("matches");
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("排队已满被拒绝的密码哈希请求数")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 加密密码
+     */
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeQueueTimer, encodeTimer));
+    }
+
+    /**
+     * 校验密码
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesQueueTimer, matchesTimer));
+    }
+
+    /**
+     * 已存储哈希的计算强度与当前配置不一致时需要重新哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // BCrypt 格式：$2a$10$...，第 4-5 位为计算强度
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 后台按当前强度重新哈希，成功后把校验通过的旧哈希与新哈希交给回调保存；
+     * 回调应仅在密码仍为旧哈希时写入，期间密码被修改则放弃。线程池繁忙时直接放弃，下次登录再试
+     */
+    public void rehashAsync(String rawPassword, String verifiedHash, BiConsumer<String, String> onHashed) {
+        try {
+            submit(() -> {
+                onHashed.accept(verifiedHash, passwordEncoder.encode(rawPassword));
+                return null;
+            }, encodeQueueTimer, encodeTimer);
+        } catch (BusinessException e) {
+            log.debug("密码哈希线程池繁忙，跳过重新哈希");
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task, Timer queueTimer, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer queueTimer(String operation) {
+        return Timer.builder("password.hash.queue")
+                .description("密码哈希任务排队耗时")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("password.hash.execution")
+                .description("密码哈希计算耗时")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 密码哈希线程工厂
+     */
+    private static class HashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.util.Result;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证接口限流过滤器
+ * <p>
+ * 对 /api/auth 下的发送验证码、登录、注册接口按 IP、邮箱以及全局做滑动窗口限流。
+ * 每次检查只执行一次 Redis Lua 脚本；被判定超限的维度在本地记录到窗口结束，
+ * 期间的请求直接在本地拒绝，不再访问 Redis。
+ * <p>
+ * 请求体无论是否声明 Content-Length（含分块传输）都读入内存，最多 16KB；
+ * 超出上限返回 413，取不到邮箱返回 400，不会绕过按邮箱的限流进入认证逻辑
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * 请求过于频繁错误码
+     */
+    public static final int RATE_LIMITED_CODE = 4291;
+
+    private static final String KEY_PREFIX = "rate_limit:";
+    private static final int MAX_BODY_SIZE = 16 * 1024;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.window:60000}")
+    private long window;
+
+    @Value("${rate-limit.global:3000}")
+    private long globalLimit;
+
+    @Value("${rate-limit.send-code.per-ip:5}")
+    private long sendCodePerIp;
+
+    @Value("${rate-limit.send-code.per-email:1}")
+    private long sendCodePerEmail;
+
+    @Value("${rate-limit.login.per-ip:30}")
+    private long loginPerIp;
+
+    @Value("${rate-limit.login.per-email:10}")
+    private long loginPerEmail;
+
+    @Value("${rate-limit.register.per-ip:10}")
+    private long registerPerIp;
+
+    @Value("${rate-limit.register.per-email:5}")
+    private long registerPerEmail;
+
+    /**
+     * 是否信任 X-Forwarded-For（部署在反向代理之后时开启）
+     */
+    @Value("${rate-limit.trust-forwarded-header:false}")
+    private boolean trustForwardedHeader;
+
+    private DefaultRedisScript<Long> script;
+
+    /**
+     * 本地拒绝名单：限流 key → 解封时间（毫秒时间戳）
+     */
+    private Cache<String, Long> blocked;
+
+    @PostConstruct
+    public void init() {
+        this.script = new DefaultRedisScript<>();
+        this.script.setLocation(new ClassPathResource("scripts/rate_limit.lua"));
+        this.script.setResultType(Long.class);
+        this.blocked = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equalsIgnoreCase(request.getMethod()) || endpointOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = endpointOf(request);
+        if (request.getContentLengthLong() > MAX_BODY_SIZE) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, 4000, "请求体过大");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, 4000, "请求体过大");
+            return;
+        }
+        String email = extractEmail(body);
+        if (email == null) {
+            writeError(response, HttpStatus.BAD_REQUEST, 4000, "邮箱不能为空");
+            return;
+        }
+
+        List<Rule> rules = rulesFor(endpoint, clientIp(request), email);
+        long now = System.currentTimeMillis();
+
+        // 本地预过滤：已知超限的维度直接拒绝
+        for (Rule rule : rules) {
+            Long until = blocked.getIfPresent(rule.key());
+            if (until != null && until > now) {
+                reject(response, until - now);
+                return;
+            }
+        }
+
+        int violated = check(rules, now);
+        if (violated > 0) {
+            long windowIndex = now / window;
+            long until = (windowIndex + 1) * window;
+            blocked.put(rules.get(violated - 1).key(), until);
+            log.warn("请求被限流: {} {}", endpoint, rules.get(violated - 1).key());
+            reject(response, until - now);
+            return;
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * 执行一次 Lua 脚本，返回第一条超限规则的序号，0 表示放行；Redis 不可用时放行
+     */
+    private int check(List<Rule> rules, long now) {
+        long windowIndex = now / window;
+        double elapsed = (double) (now % window) / window;
+        List<String> keys = new ArrayList<>(rules.size() * 2);
+        Object[] args = new Object[rules.size() + 2];
+        args[0] = String.valueOf(elapsed);
+        args[1] = String.valueOf(window);
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            keys.add(rule.key() + ":" + windowIndex);
+            keys.add(rule.key() + ":" + (windowIndex - 1));
+            args[i + 2] = String.valueOf(rule.limit());
+        }
+        try {
+            Long result = redisTemplate.execute(script, keys, args);
+            return result == null ? 0 : result.intValue();
+        } catch (Exception e) {
+            log.warn("限流检查失败，放行请求: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private List<Rule> rulesFor(String endpoint, String ip, String email) {
+        long perIp;
+        long perEmail;
+        switch (endpoint) {
+            case "send-code" -> {
+                perIp = sendCodePerIp;
+                perEmail = sendCodePerEmail;
+            }
+            case "login" -> {
+                perIp = loginPerIp;
+                perEmail = loginPerEmail;
+            }
+            default -> {
+                perIp = registerPerIp;
+                perEmail = registerPerEmail;
+            }
+        }
+        List<Rule> rules = new ArrayList<>(3);
+        rules.add(new Rule(KEY_PREFIX + endpoint + ":ip:" + ip, perIp));
+        rules.add(new Rule(KEY_PREFIX + endpoint + ":email:" + email, perEmail));
+        rules.add(new Rule(KEY_PREFIX + "global", globalLimit));
+        return rules;
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis) + 1)));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_CODE, "请求过于频繁，请稍后重试");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, int code, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Result.error(code, message));
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.endsWith("/api/auth/send-code")) {
+            return "send-code";
+        }
+        if (uri.endsWith("/api/auth/login")) {
+            return "login";
+        }
+        if (uri.endsWith("/api/auth/register")) {
+            return "register";
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedHeader) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            if (email == null || !email.isTextual() || !StringUtils.hasText(email.asText())) {
+                return null;
+            }
+            return email.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            // 请求体不是合法 JSON
+            return null;
+        }
+    }
+
+    /**
+     * 限流规则
+     */
+    private record Rule(String key, long limit) {
+    }
+
+    /**
+     * 缓存请求体的包装器，使过滤器读取邮箱后控制器仍能读取请求体
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * 请求体已全部在内存中，注册后立即通知可读并读完
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.UserChangedEvent;
+import com.chronotes.backend.mapper.UserMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * 用户变更拦截器
+ * <p>
+ * 拦截 {@link UserMapper#insert(User)}、{@link UserMapper#update(User)} 与
+ * {@link UserMapper#updatePasswordHash}，
+ * 写入成功后发布 {@link UserChangedEvent}，由各级用户缓存自行失效。
+ * 处在事务中时推迟到提交之后发布：提交前失效的话，并发读取仍读到旧行并回填，失效就白做了
+ */
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class UserChangeInterceptor implements Interceptor {
+
+    private static final String USER_INSERT_STATEMENT = UserMapper.class.getName() + ".insert";
+    private static final String USER_UPDATE_STATEMENT = UserMapper.class.getName() + ".update";
+    private static final String USER_REHASH_STATEMENT = UserMapper.class.getName() + ".updatePasswordHash";
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs()[1];
+        if (!(result instanceof Integer rows) || rows == 0) {
+            return result;
+        }
+        if (USER_REHASH_STATEMENT.equals(statement.getId()) && parameter instanceof Map<?, ?> params) {
+            // 同一密码重新哈希，已签发的 Token 仍然有效
+            publish(new UserChangedEvent((Long) params.get("id"), null, false));
+            return result;
+        }
+        if (!(parameter instanceof User user)) {
+            return result;
+        }
+        if (USER_INSERT_STATEMENT.equals(statement.getId())) {
+            publish(new UserChangedEvent(user.getId(), user.getEmail(), false));
+        } else if (USER_UPDATE_STATEMENT.equals(statement.getId())) {
+            boolean credentialsChanged = user.getStatus() != null || user.getPassword() != null;
+            publish(new UserChangedEvent(user.getId(), user.getEmail(), credentialsChanged));
+        }
+        return result;
+    }
+
+    private void publish(UserChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventPublisher.publishEvent(event);
+            return;
+        }
+        // 回滚时数据库未变，缓存无需失效
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(event);
+            }
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户详情本地缓存
+ * <p>
+ * 以用户ID为 key 缓存 {@link CustomUserDetails}，使已认证请求无需每次查询数据库；
+ * 用户状态或密码变更时通过 {@link UserChangedEvent} 失效，其他节点的变更由用户缓存的广播负责失效
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.principal-cache.ttl:300000}")
+    private long ttl;
+
+    private Cache<Long, CustomUserDetails> cache;
+
+    /**
+     * 失效次数；加载前记下，加载期间有过失效则不写入，避免把失效前读到的用户（旧 Token 版本号）写回
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 获取缓存的用户详情，不存在返回 null
+     */
+    public CustomUserDetails get(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * 当前失效计数，加载用户前调用
+     */
+    public long generation() {
+        return invalidations.get();
+    }
+
+    /**
+     * 写入用户详情；generation 之后发生过失效时不写入
+     */
+    public void put(CustomUserDetails userDetails, long generation) {
+        Long userId = userDetails.getUser().getId();
+        if (userId == null) {
+            return;
+        }
+        synchronized (invalidations) {
+            if (invalidations.get() == generation) {
+                cache.put(userId, userDetails);
+            }
+        }
+    }
+
+    /**
+     * 本节点写入用户数据后失效
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isCredentialsChanged()) {
+            invalidate(event.getUserId());
+        }
+    }
+
+    /**
+     * 使指定用户的缓存失效
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            synchronized (invalidations) {
+                invalidations.incrementAndGet();
+            }
+            cache.invalidate(userId);
+            log.debug("用户详情缓存已失效: {}", userId);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.chronotes.backend.security;
 
 import com.chronotes.backend.entity.User;
-import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.service.UserCacheService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,14 +17,47 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    private final UserMapper userMapper;
+    private final UserCacheService userCacheService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userMapper.findByEmail(email);
+        User user = userCacheService.findByEmail(email);
         if (user == null) {
             throw new UsernameNotFoundException("用户不存在: " + email);
         }
         return new CustomUserDetails(user);
     }
+
+    /**
+     * 根据 Token Claims 加载用户详情
+     * <p>
+     * 优先命中本地缓存，未命中时经用户查询缓存按ID加载并写入缓存；
+     * Token 中的版本号落后于用户当前版本（已改密或被禁用）时拒绝
+     */
+    public UserDetails loadUserByClaims(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            // 旧版 Token 不含用户ID，回退到按邮箱查询
+            return loadUserByUsername(claims.getSubject());
+        }
+
+        CustomUserDetails userDetails = userDetailsCache.get(userId);
+        if (userDetails == null) {
+            long generation = userDetailsCache.generation();
+            User user = userCacheService.findById(userId);
+            if (user == null) {
+                throw new UsernameNotFoundException("用户不存在: " + userId);
+            }
+            userDetails = new CustomUserDetails(user);
+            userDetailsCache.put(userDetails, generation);
+        }
+
+        Integer tokenVersion = claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Integer.class);
+        Integer currentVersion = userDetails.getUser().getTokenVersion();
+        if (tokenVersion != null && currentVersion != null && tokenVersion < currentVersion) {
+            throw new CredentialsExpiredException("Token已失效: " + userId);
+        }
+        return userDetails;
+    }
 }
@@ -0,0 +1,45 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.attachment.AttachmentResponse;
+import com.chronotes.backend.entity.Attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 附件服务接口
+ */
+public interface AttachmentService {
+    /**
+     * 上传附件，内容边读边写入文件存储，noteId 为空时不关联笔记
+     */
+    AttachmentResponse upload(Long userId, Long noteId, String fileName, String contentType, InputStream content);
+
+    /**
+     * 查询笔记的全部附件
+     */
+    List<AttachmentResponse> listByNote(Long userId, Long noteId);
+
+    /**
+     * 查询附件元数据，不存在时抛出业务异常
+     */
+    Attachment get(Long userId, Long id);
+
+    /**
+     * 把附件内容的 [position, position + count) 区间写入 target
+     */
+    long transferTo(Attachment attachment, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 附件内容对应的本地文件，存储不在本地文件系统上时返回 null
+     */
+    Path localFile(Attachment attachment);
+
+    /**
+     * 删除附件；内容不再被任何附件引用时一并删除文件
+     */
+    void delete(Long userId, Long id);
+}
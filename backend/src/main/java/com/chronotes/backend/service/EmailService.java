@@ -1,5 +1,7 @@
 package com.chronotes.backend.service;
 
+import java.time.LocalDateTime;
+
 /**
  * 邮件服务接口
  */
@@ -11,4 +13,13 @@ public interface EmailService {
      * @param code 验证码
      */
     void sendVerificationCode(String toEmail, String code);
+
+    /**
+     * 发送提醒邮件
+     *
+     * @param toEmail 收件人邮箱
+     * @param title 提醒内容
+     * @param remindAt 提醒时间
+     */
+    void sendReminder(String toEmail, String title, LocalDateTime remindAt);
 }
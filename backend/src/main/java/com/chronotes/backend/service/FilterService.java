@@ -0,0 +1,21 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+
+import java.util.List;
+
+/**
+ * 按标签、状态与日期组合筛选的服务接口
+ */
+public interface FilterService {
+    /**
+     * 按标签与创建日期筛选笔记，按更新时间倒序分页
+     */
+    NotePage filterNotes(Long userId, String query, String cursor, int size);
+
+    /**
+     * 按状态与提醒日期筛选提醒，按提醒时间先后
+     */
+    List<ReminderResponse> filterReminders(Long userId, String query, int limit);
+}
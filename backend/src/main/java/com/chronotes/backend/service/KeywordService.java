@@ -0,0 +1,20 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.KeywordResponse;
+
+import java.util.List;
+
+/**
+ * 关键词与词云服务接口
+ */
+public interface KeywordService {
+    /**
+     * 笔记的关键词，按权重倒序
+     */
+    List<KeywordResponse> noteKeywords(Long userId, Long noteId, int limit);
+
+    /**
+     * 用户全部笔记的主题词云，按权重倒序
+     */
+    List<KeywordResponse> userKeywords(Long userId, int limit);
+}
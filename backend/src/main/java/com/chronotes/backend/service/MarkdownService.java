@@ -0,0 +1,11 @@
+package com.chronotes.backend.service;
+
+/**
+ * Markdown 渲染服务接口
+ */
+public interface MarkdownService {
+    /**
+     * 渲染为 HTML；原始 HTML 会被转义，不安全的链接协议会被清除
+     */
+    String render(String markdown);
+}
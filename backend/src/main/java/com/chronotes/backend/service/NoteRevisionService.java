@@ -0,0 +1,25 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.RevisionPage;
+import com.chronotes.backend.dto.note.RevisionResponse;
+
+/**
+ * 笔记版本服务接口
+ */
+public interface NoteRevisionService {
+    /**
+     * 按版本号倒序分页查询笔记的历史版本，cursor 为上一页返回的 nextCursor
+     */
+    RevisionPage list(Long userId, Long noteId, Integer cursor, int size);
+
+    /**
+     * 查询指定版本的完整内容
+     */
+    RevisionResponse get(Long userId, Long noteId, int revision);
+
+    /**
+     * 把笔记恢复为指定版本的内容；恢复本身会记录为一个新版本
+     */
+    NoteResponse restore(Long userId, Long noteId, int revision);
+}
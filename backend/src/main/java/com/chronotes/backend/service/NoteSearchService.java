@@ -0,0 +1,15 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.NoteSearchHit;
+
+import java.util.List;
+
+/**
+ * 笔记全文检索服务接口
+ */
+public interface NoteSearchService {
+    /**
+     * 在用户的笔记标题、正文与标签中检索，按相关度倒序返回
+     */
+    List<NoteSearchHit> search(Long userId, String query, int limit);
+}
@@ -0,0 +1,41 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.note.NoteRequest;
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.RenderedNote;
+
+/**
+ * 笔记服务接口
+ */
+public interface NoteService {
+    /**
+     * 按更新时间倒序分页查询笔记，cursor 为上一页返回的 nextCursor
+     */
+    NotePage list(Long userId, String cursor, int size);
+
+    /**
+     * 查询笔记详情
+     */
+    NoteResponse get(Long userId, Long noteId);
+
+    /**
+     * 查询笔记并把正文渲染为 HTML
+     */
+    RenderedNote render(Long userId, Long noteId);
+
+    /**
+     * 创建笔记
+     */
+    NoteResponse create(Long userId, NoteRequest request);
+
+    /**
+     * 更新笔记
+     */
+    NoteResponse update(Long userId, Long noteId, NoteRequest request);
+
+    /**
+     * 删除笔记
+     */
+    void delete(Long userId, Long noteId);
+}
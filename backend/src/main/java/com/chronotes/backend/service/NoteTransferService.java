@@ -0,0 +1,26 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.note.TransferProgress;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 笔记批量导入导出服务接口
+ */
+public interface NoteTransferService {
+    /**
+     * 把用户的全部笔记以 Markdown 文件（含 front matter）打包为 ZIP 写入 out
+     */
+    void export(Long userId, OutputStream out);
+
+    /**
+     * 从 ZIP 压缩包导入 Markdown 笔记，totalBytes 为压缩包大小（未知时传 -1），返回最终进度
+     */
+    TransferProgress importArchive(Long userId, InputStream in, long totalBytes);
+
+    /**
+     * 查询最近一次导出（export）或导入（import）的进度，没有记录时返回 null
+     */
+    TransferProgress progress(Long userId, String type);
+}
@@ -0,0 +1,26 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.reminder.ReminderRequest;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+
+import java.util.List;
+
+/**
+ * 提醒服务接口
+ */
+public interface ReminderService {
+    /**
+     * 创建提醒
+     */
+    ReminderResponse create(Long userId, ReminderRequest request);
+
+    /**
+     * 查询待提醒的提醒，按提醒时间先后
+     */
+    List<ReminderResponse> listPending(Long userId, int limit);
+
+    /**
+     * 取消提醒
+     */
+    void cancel(Long userId, Long id);
+}
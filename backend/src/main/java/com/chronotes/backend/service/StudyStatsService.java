@@ -0,0 +1,15 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.stats.TrendResponse;
+
+/**
+ * 学习统计服务接口
+ */
+public interface StudyStatsService {
+    /**
+     * 最近 count 个周期（含当前周期）的笔记增长与提醒完成情况
+     *
+     * @param period 统计周期：day、week 或 month
+     */
+    TrendResponse trend(Long userId, String period, int count);
+}
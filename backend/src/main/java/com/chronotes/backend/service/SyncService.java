@@ -0,0 +1,53 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.dto.sync.SyncResponse;
+import com.chronotes.backend.util.Result;
+import org.springframework.core.Ordered;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collection;
+
+/**
+ * 多设备增量同步服务接口
+ */
+public interface SyncService {
+    /**
+     * 新版本号在变更事件的监听中发布，排在同一事件的其他监听之后
+     */
+    int PUBLISH_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    /**
+     * 读接口依赖的派生数据（检索、筛选、版本历史）的变更监听，排在版本号发布之前，
+     * 本节点读到新版本号时这些数据已经更新，不会以新 ETag 缓存旧结果
+     */
+    int DERIVED_ORDER = PUBLISH_ORDER - 1;
+
+    /**
+     * 返回版本 since 之后的变更，按版本号升序最多 limit 条；
+     * 没有变更且 wait 大于 0 时挂起请求，直到有新变更或等待 wait 毫秒后返回空结果
+     */
+    DeferredResult<Result<SyncResponse>> changes(Long userId, long since, int limit, long wait);
+
+    /**
+     * 用户笔记与提醒数据的当前版本号，任一笔记或提醒变更后增大；
+     * 读取本节点缓存，其他节点的变更经通知更新，通知丢失时最迟在缓存过期后读到。只读，不写库
+     */
+    long currentVersion(Long userId);
+
+    /**
+     * 新用户开始记录变更，在创建用户的事务内调用
+     */
+    void initState(Long userId);
+
+    /**
+     * 为笔记分配新版本号并写入变更记录，deleted 为 true 时记为墓碑。
+     * 必须在业务写入所在的事务内调用，失败时抛出异常使业务写入一并回滚。
+     * 新版本号在提交后、同一写入的变更事件处理完时才对本节点可见并通知挂起的同步请求，调用方提交后须发布变更事件
+     */
+    void recordNotes(Long userId, Collection<Long> noteIds, boolean deleted);
+
+    /**
+     * 为提醒分配新版本号并写入变更记录，调用要求同 {@link #recordNotes}
+     */
+    void recordReminder(Long userId, Long reminderId);
+}
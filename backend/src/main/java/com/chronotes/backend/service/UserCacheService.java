@@ -0,0 +1,26 @@
+package com.chronotes.backend.service;
+
+import com.chronotes.backend.entity.User;
+
+/**
+ * 用户查询缓存服务接口
+ * <p>
+ * 在 UserMapper 之前提供本地 + Redis 两级读穿缓存。返回的用户不含密码哈希（password 为 null），
+ * 校验密码时从 {@link com.chronotes.backend.mapper.UserMapper#findPasswordById} 读取
+ */
+public interface UserCacheService {
+    /**
+     * 用户缓存失效广播频道
+     */
+    String INVALIDATE_CHANNEL = "user_cache:invalidate";
+
+    /**
+     * 根据邮箱查询用户，未注册返回 null
+     */
+    User findByEmail(String email);
+
+    /**
+     * 根据ID查询用户，不存在返回 null
+     */
+    User findById(Long id);
+}
@@ -0,0 +1,283 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.attachment.AttachmentResponse;
+import com.chronotes.backend.entity.Attachment;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.AttachmentMapper;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.service.AttachmentService;
+import com.chronotes.backend.storage.BlobStore;
+import com.chronotes.backend.storage.BlobStore.StagedBlob;
+import com.chronotes.backend.storage.BlobTooLargeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 附件服务实现
+ * <p>
+ * 上传的内容先边读边写入文件存储的暂存区并计算 SHA-256，再在事务内锁定 attachment_content 中该哈希的行，
+ * 提交文件并写入附件记录；删除附件时持有同一行锁判断内容是否仍被引用。锁在数据库中，
+ * 多个节点共用文件目录时并发上传相同内容也不会被误删。文件只在事务结束后删除（删除附件提交后、
+ * 上传回滚后），并另起事务重新加锁确认无人引用，避免回滚后附件记录恢复而文件已不存在。
+ * 附件元数据存数据库，内容只存一份，不经过堆内存
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentServiceImpl implements AttachmentService {
+
+    /**
+     * 附件不存在错误码
+     */
+    public static final int ATTACHMENT_NOT_FOUND_CODE = 4201;
+
+    /**
+     * 文件过大错误码
+     */
+    public static final int FILE_TOO_LARGE_CODE = 4202;
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+
+    private static final int MAX_CONTENT_TYPE_LENGTH = 100;
+
+    private final AttachmentMapper attachmentMapper;
+    private final NoteMapper noteMapper;
+    private final BlobStore blobStore;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 单个附件的大小上限（字节）
+     */
+    @Value("${attachment.max-size:104857600}")
+    private long maxSize;
+
+    private TransactionTemplate writeTransaction;
+
+    /**
+     * 事务结束后清理文件用的独立事务
+     */
+    private TransactionTemplate cleanupTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction = new TransactionTemplate(transactionManager);
+        this.cleanupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public AttachmentResponse upload(Long userId, Long noteId, String fileName, String contentType, InputStream content) {
+        if (noteId != null && noteMapper.findById(userId, noteId) == null) {
+            throw new BusinessException(NoteServiceImpl.NOTE_NOT_FOUND_CODE, "笔记不存在");
+        }
+
+        StagedBlob staged;
+        try {
+            staged = blobStore.stage(content, maxSize);
+        } catch (BlobTooLargeException e) {
+            throw new BusinessException(FILE_TOO_LARGE_CODE, "文件大小不能超过 " + maxSize / (1024 * 1024) + " MB");
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入附件失败", e);
+        }
+
+        Attachment attachment = new Attachment();
+        attachment.setUserId(userId);
+        attachment.setNoteId(noteId);
+        attachment.setFileName(normalizeFileName(fileName));
+        attachment.setContentType(normalizeContentType(contentType));
+        attachment.setSize(staged.size());
+        attachment.setSha256(staged.hash());
+        attachment.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        boolean stored;
+        try {
+            stored = Boolean.TRUE.equals(writeTransaction.execute(status -> {
+                // 行锁持有到事务提交，附件记录可见之前其他节点无法删除这份内容
+                attachmentMapper.lockContent(staged.hash(), attachment.getCreateTime());
+                try {
+                    boolean committed = blobStore.commit(staged);
+                    if (committed) {
+                        // 本次新放入的文件在回滚后没有附件引用
+                        deleteAfterCompletion(staged.hash(), TransactionSynchronization.STATUS_ROLLED_BACK);
+                    }
+                    attachmentMapper.insert(attachment);
+                    return committed;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("写入附件失败", e);
+                }
+            }));
+        } finally {
+            // 提交成功后暂存文件已不存在，这里只清理失败时的残留
+            blobStore.discard(staged);
+        }
+        meterRegistry.counter("attachment.uploads", "result", stored ? "stored" : "deduplicated").increment();
+
+        log.info("上传附件: userId={}, attachmentId={}, size={}", userId, attachment.getId(), attachment.getSize());
+        return toResponse(attachment);
+    }
+
+    @Override
+    public List<AttachmentResponse> listByNote(Long userId, Long noteId) {
+        List<Attachment> attachments = attachmentMapper.findByNote(userId, noteId);
+        List<AttachmentResponse> responses = new ArrayList<>(attachments.size());
+        for (Attachment attachment : attachments) {
+            responses.add(toResponse(attachment));
+        }
+        return responses;
+    }
+
+    @Override
+    public Attachment get(Long userId, Long id) {
+        Attachment attachment = attachmentMapper.findById(userId, id);
+        if (attachment == null) {
+            throw new BusinessException(ATTACHMENT_NOT_FOUND_CODE, "附件不存在");
+        }
+        return attachment;
+    }
+
+    @Override
+    public long transferTo(Attachment attachment, long position, long count, WritableByteChannel target) throws IOException {
+        return blobStore.transferTo(attachment.getSha256(), position, count, target);
+    }
+
+    @Override
+    public Path localFile(Attachment attachment) {
+        return blobStore.localFile(attachment.getSha256());
+    }
+
+    @Override
+    public void delete(Long userId, Long id) {
+        delete(get(userId, id));
+        log.info("删除附件: userId={}, attachmentId={}", userId, id);
+    }
+
+    /**
+     * 笔记删除后删除其附件
+     */
+    @EventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        for (Attachment attachment : attachmentMapper.findByNote(event.getUserId(), event.getNoteId())) {
+            try {
+                delete(attachment);
+            } catch (Exception e) {
+                log.warn("删除笔记附件失败: noteId={}, attachmentId={}, {}",
+                        event.getNoteId(), attachment.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void delete(Attachment attachment) {
+        String hash = attachment.getSha256();
+        writeTransaction.executeWithoutResult(status -> {
+            attachmentMapper.lockContent(hash, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+            if (attachmentMapper.delete(attachment.getUserId(), attachment.getId()) > 0
+                    && attachmentMapper.countBySha256(hash) == 0) {
+                deleteAfterCompletion(hash, TransactionSynchronization.STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * 当前事务以 expectedStatus 结束后删除内容文件
+     */
+    private void deleteAfterCompletion(String hash, int expectedStatus) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) {
+                    deleteIfUnreferenced(hash);
+                }
+            }
+        });
+    }
+
+    /**
+     * 重新锁定内容，确认没有附件引用后删除文件；原事务的锁已释放，期间可能有其他上传引用了这份内容
+     */
+    private void deleteIfUnreferenced(String hash) {
+        try {
+            cleanupTransaction.executeWithoutResult(status -> {
+                attachmentMapper.lockContent(hash, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+                if (attachmentMapper.countBySha256(hash) == 0) {
+                    try {
+                        blobStore.delete(hash);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // 附件记录已不存在，残留的文件不影响使用
+            log.warn("删除附件文件失败: sha256={}, {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * 只保留文件名本身，去掉客户端可能带上的路径
+     */
+    private static String normalizeFileName(String fileName) {
+        if (!StringUtils.hasText(fileName)) {
+            return "未命名";
+        }
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1).trim();
+        if (name.isEmpty()) {
+            return "未命名";
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(0, MAX_FILE_NAME_LENGTH) : name;
+    }
+
+    private static String normalizeContentType(String contentType) {
+        if (StringUtils.hasText(contentType)) {
+            try {
+                String normalized = MediaType.parseMediaType(contentType).toString();
+                if (normalized.length() <= MAX_CONTENT_TYPE_LENGTH) {
+                    return normalized;
+                }
+            } catch (InvalidMediaTypeException ignored) {
+                // 无法识别的类型按二进制流处理
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private static AttachmentResponse toResponse(Attachment attachment) {
+        AttachmentResponse response = new AttachmentResponse();
+        response.setId(attachment.getId());
+        response.setNoteId(attachment.getNoteId());
+        response.setFileName(attachment.getFileName());
+        response.setContentType(attachment.getContentType());
+        response.setSize(attachment.getSize());
+        response.setSha256(attachment.getSha256());
+        response.setUrl("/api/attachments/" + attachment.getId());
+        response.setCreateTime(attachment.getCreateTime());
+        return response;
+    }
+}
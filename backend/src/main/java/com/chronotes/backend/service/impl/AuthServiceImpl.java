@@ -7,17 +7,27 @@ import com.chronotes.backend.entity.User;
 import com.chronotes.backend.exception.BusinessException;
 import com.chronotes.backend.mapper.UserMapper;
 import com.chronotes.backend.security.JwtUtils;
+import com.chronotes.backend.security.PasswordHashExecutor;
 import com.chronotes.backend.service.AuthService;
 import com.chronotes.backend.service.EmailService;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.service.UserCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 认证服务实现
@@ -28,25 +38,64 @@ import java.util.concurrent.TimeUnit;
 public class AuthServiceImpl implements AuthService {
 
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCacheService userCacheService;
+    private final PasswordHashExecutor passwordHashExecutor;
     private final JwtUtils jwtUtils;
     private final EmailService emailService;
     private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SyncService syncService;
+    private final PlatformTransactionManager transactionManager;
 
     private static final String VERIFY_CODE_PREFIX = "verify_code:";
     private static final int CODE_LENGTH = 6;
     private static final long CODE_EXPIRE_TIME = 5; // 5分钟
 
+    /**
+     * 方法耗时 Timer，按 "方法:结果" 缓存，避免每次调用重新构建并查找注册表
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     public AuthResponse login(LoginRequest request) {
+        return record("login", () -> doLogin(request));
+    }
+
+    @Override
+    public AuthResponse register(RegisterRequest request) {
+        return record("register", () -> doRegister(request));
+    }
+
+    @Override
+    public void sendVerificationCode(String email) {
+        record("sendVerificationCode", () -> {
+            doSendVerificationCode(email);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean verifyCode(String email, String code) {
+        return record("verifyCode", () -> doVerifyCode(email, code));
+    }
+
+    private AuthResponse doLogin(LoginRequest request) {
         // 查询用户
-        User user = userMapper.findByEmail(request.getEmail());
+        User user = userCacheService.findByEmail(request.getEmail());
         if (user == null) {
             throw new BusinessException(4001, "用户不存在");
         }
 
-        // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // 验证密码（缓存中的用户不含密码哈希，从数据库读取）
+        String passwordHash = userMapper.findPasswordById(user.getId());
+        if (passwordHash == null || !passwordHashExecutor.matches(request.getPassword(), passwordHash)) {
             throw new BusinessException(4002, "密码错误");
         }
 
@@ -55,8 +104,16 @@ public class AuthServiceImpl implements AuthService {
             throw new BusinessException(4003, "账号已被禁用");
         }
 
+        // 哈希强度配置变更后，登录时在后台按新强度重新哈希
+        if (passwordHashExecutor.needsRehash(passwordHash)) {
+            Long userId = user.getId();
+            // 仅在密码仍为本次校验的哈希时写入，期间改过密码则放弃，避免旧密码的哈希覆盖新密码
+            passwordHashExecutor.rehashAsync(request.getPassword(), passwordHash,
+                    (oldHash, hash) -> userMapper.updatePasswordHash(userId, oldHash, hash, LocalDateTime.now()));
+        }
+
         // 生成 Token
-        String token = jwtUtils.generateToken(user.getEmail());
+        String token = jwtUtils.generateToken(user);
 
         log.info("用户登录成功: {}", user.getEmail());
         AuthResponse response = new AuthResponse();
@@ -68,39 +125,41 @@ public class AuthServiceImpl implements AuthService {
         return response;
     }
 
-    @Override
-    public AuthResponse register(RegisterRequest request) {
+    private AuthResponse doRegister(RegisterRequest request) {
         // 检查邮箱是否已注册
-        User existUser = userMapper.findByEmail(request.getEmail());
+        User existUser = userCacheService.findByEmail(request.getEmail());
         if (existUser != null) {
             throw new BusinessException(4004, "该邮箱已被注册");
         }
 
         // 验证验证码
-        if (!verifyCode(request.getEmail(), request.getVerifyCode())) {
+        if (!doVerifyCode(request.getEmail(), request.getVerifyCode())) {
             throw new BusinessException(4005, "验证码错误或已过期");
         }
 
         // 创建用户
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashExecutor.encode(request.getPassword()));
         user.setUsername(request.getEmail().split("@")[0]); // 默认用户名为邮箱前缀
         user.setStatus(1);
+        user.setTokenVersion(0);
         user.setCreateTime(LocalDateTime.now());
         user.setUpdateTime(LocalDateTime.now());
 
-        // 保存到数据库
-        int result = userMapper.insert(user);
-        if (result == 0) {
-            throw new BusinessException("注册失败，请稍后重试");
-        }
+        // 保存到数据库，同一事务内开始记录同步变更
+        writeTransaction.executeWithoutResult(status -> {
+            if (userMapper.insert(user) == 0) {
+                throw new BusinessException("注册失败，请稍后重试");
+            }
+            syncService.initState(user.getId());
+        });
 
         // 删除已使用的验证码
         redisTemplate.delete(VERIFY_CODE_PREFIX + request.getEmail());
 
         // 生成 Token
-        String token = jwtUtils.generateToken(user.getEmail());
+        String token = jwtUtils.generateToken(user);
 
         log.info("用户注册成功: {}", user.getEmail());
         AuthResponse response = new AuthResponse();
@@ -112,10 +171,9 @@ public class AuthServiceImpl implements AuthService {
         return response;
     }
 
-    @Override
-    public void sendVerificationCode(String email) {
+    private void doSendVerificationCode(String email) {
         // 检查邮箱是否已注册
-        User existUser = userMapper.findByEmail(email);
+        User existUser = userCacheService.findByEmail(email);
         if (existUser != null) {
             throw new BusinessException(4004, "该邮箱已被注册");
         }
@@ -133,13 +191,55 @@ public class AuthServiceImpl implements AuthService {
         log.info("验证码已发送至邮箱: {}", email);
     }
 
-    @Override
-    public boolean verifyCode(String email, String code) {
+    private boolean doVerifyCode(String email, String code) {
         String key = VERIFY_CODE_PREFIX + email;
         String storedCode = redisTemplate.opsForValue().get(key);
         return code.equals(storedCode);
     }
 
+    /**
+     * 记录方法耗时，按结果（成功、用户不存在、密码错误、账号禁用等）区分
+     */
+    private <T> T record(String method, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (BusinessException e) {
+            outcome = outcomeOf(e.getCode());
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(timer(method, outcome));
+        }
+    }
+
+    private Timer timer(String method, String outcome) {
+        return timers.computeIfAbsent(method + ":" + outcome, key -> Timer.builder("auth.service")
+                .description("认证服务方法耗时")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String outcomeOf(Integer code) {
+        if (code == null) {
+            return "failure";
+        }
+        return switch (code) {
+            case 4001 -> "user_not_found";
+            case 4002 -> "wrong_password";
+            case 4003 -> "disabled";
+            case 4004 -> "email_registered";
+            case 4005 -> "invalid_code";
+            case BusinessException.BUSY_CODE -> "busy";
+            default -> "failure";
+        };
+    }
+
     /**
      * 生成随机验证码
      */
@@ -1,41 +1,57 @@
 package com.chronotes.backend.service.impl;
 
 import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mail.MailMessage;
+import com.chronotes.backend.mail.MailOutbox;
 import com.chronotes.backend.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
 /**
  * 邮件服务实现
+ * <p>
+ * 邮件写入发件箱后立即返回，由 {@link com.chronotes.backend.mail.MailDispatcher} 异步投递
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
+    private static final DateTimeFormatter REMIND_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailOutbox mailOutbox;
 
     @Override
     public void sendVerificationCode(String toEmail, String code) {
+        MailMessage message = new MailMessage();
+        message.setId(UUID.randomUUID().toString());
+        message.setTo(toEmail);
+        message.setSubject("Chronotes 注册验证码");
+        message.setText("您的验证码是：" + code + "\n\n验证码5分钟内有效，请勿泄露给他人。\n\n如非本人操作，请忽略此邮件。");
+        message.setCreateTime(System.currentTimeMillis());
+
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Chronotes 注册验证码");
-            message.setText("您的验证码是：" + code + "\n\n验证码5分钟内有效，请勿泄露给他人。\n\n如非本人操作，请忽略此邮件。");
-
-            mailSender.send(message);
-            log.info("验证码邮件发送成功: {}", toEmail);
+            mailOutbox.enqueue(message);
+            log.info("验证码邮件已加入发送队列: {}", toEmail);
         } catch (Exception e) {
-            log.error("验证码邮件发送失败: {}", e.getMessage());
+            log.error("验证码邮件入队失败: {}", e.getMessage());
             throw new BusinessException("邮件发送失败，请稍后重试");
         }
     }
+
+    @Override
+    public void sendReminder(String toEmail, String title, LocalDateTime remindAt) {
+        MailMessage message = new MailMessage();
+        message.setId(UUID.randomUUID().toString());
+        message.setTo(toEmail);
+        message.setSubject("Chronotes 提醒：" + title);
+        message.setText("您设置的提醒已到时间：\n\n" + title + "\n\n提醒时间：" + REMIND_AT_FORMAT.format(remindAt));
+        message.setCreateTime(System.currentTimeMillis());
+        mailOutbox.enqueue(message);
+    }
 }
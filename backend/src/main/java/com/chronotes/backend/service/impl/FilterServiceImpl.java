@@ -0,0 +1,482 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.note.NoteSummary;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.filter.FilterExpression;
+import com.chronotes.backend.filter.FilterIndex;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.mapper.ReminderMapper;
+import com.chronotes.backend.service.FilterService;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.util.LongIntHashMap;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 筛选服务实现
+ * <p>
+ * 每个用户一份常驻内存的笔记 {@link FilterIndex} 与提醒 {@link FilterIndex}，首次筛选时从数据库分批加载，
+ * 闲置后释放。筛选在索引上求出一页有序的ID，再按ID回表取数，回表结果按表达式复核：
+ * 已删除的从索引移除，已变化的更新索引后按新值判断，不命中的跳过并继续向后取。
+ * <p>
+ * 笔记索引与关键词统计相同，本节点写入通过事件更新，查询前追赶其他节点的写入并定期核对笔记数；
+ * 提醒的状态也会在其他节点触发时改变，提醒索引加载后超过 refresh-interval 即重新加载，
+ * 期间的差异由回表复核兜底
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FilterServiceImpl implements FilterService {
+
+    private static final int LOAD_BATCH = 1000;
+    private static final int CATCH_UP_BATCH = 500;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 回表后复核不命中时继续向后取的最多轮数，超过后返回不满一页的结果与续读游标
+     */
+    private static final int MAX_ROUNDS = 4;
+
+    private static final Set<String> NOTE_FIELDS = Set.of(FilterExpression.TAG, FilterExpression.DATE);
+    private static final Set<String> REMINDER_FIELDS = Set.of(FilterExpression.STATUS, FilterExpression.DATE);
+
+    /**
+     * 提醒状态在筛选条件中的名称，下标为状态值
+     */
+    private static final String[] STATUS_NAMES = {"pending", "fired", "cancelled"};
+
+    private final NoteMapper noteMapper;
+    private final ReminderMapper reminderMapper;
+
+    @Value("${filter.max-open-users:1000}")
+    private long maxOpenUsers;
+
+    @Value("${filter.idle-timeout:1800000}")
+    private long idleTimeout;
+
+    /**
+     * 追赶时回看的时间窗口（毫秒），覆盖节点间时钟偏差与同一毫秒内的并发写入
+     */
+    @Value("${filter.catch-up-lag:5000}")
+    private long catchUpLag;
+
+    /**
+     * 与数据库核对笔记数的最小间隔（毫秒）
+     */
+    @Value("${filter.reconcile-interval:60000}")
+    private long reconcileInterval;
+
+    /**
+     * 提醒索引加载后多久重新加载（毫秒）
+     */
+    @Value("${filter.reminder.refresh-interval:60000}")
+    private long reminderRefreshInterval;
+
+    private LoadingCache<Long, Entry> noteIndexes;
+
+    private LoadingCache<Long, FilterIndex> reminderIndexes;
+
+    @PostConstruct
+    public void init() {
+        this.noteIndexes = Caffeine.newBuilder()
+                .maximumSize(maxOpenUsers)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .build(userId -> new Entry(loadNotes(userId)));
+        this.reminderIndexes = Caffeine.newBuilder()
+                .maximumSize(maxOpenUsers)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .expireAfterWrite(reminderRefreshInterval, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .build(this::loadReminders);
+    }
+
+    @Override
+    public NotePage filterNotes(Long userId, String query, String cursor, int size) {
+        FilterExpression expression = FilterExpression.parse(query, NOTE_FIELDS, Set.of());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterKey = Long.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (StringUtils.hasText(cursor)) {
+            NoteServiceImpl.Cursor position = NoteServiceImpl.Cursor.decode(cursor);
+            afterKey = versionOf(position.updateTime());
+            afterId = position.id();
+        }
+        long cursorKey = afterKey;
+        long cursorId = afterId;
+
+        FilterIndex index = refreshNotes(userId);
+        List<Note> matched = new ArrayList<>(pageSize + 1);
+        boolean more = false;
+        for (int round = 0; round < MAX_ROUNDS && matched.size() <= pageSize; round++) {
+            int wanted = pageSize + 1 - matched.size();
+            FilterIndex.Hits hits = index.query(expression, afterKey, afterId, wanted);
+            if (hits.size() == 0) {
+                more = false;
+                break;
+            }
+            Map<Long, Note> rows = new HashMap<>();
+            for (Note note : noteMapper.findSummariesByIds(userId, boxed(hits.ids()))) {
+                rows.put(note.getId(), note);
+            }
+            for (long id : hits.ids()) {
+                Note note = rows.get(id);
+                if (note == null) {
+                    index.delete(id);
+                    continue;
+                }
+                long version = versionOf(note.getUpdateTime());
+                if (index.version(id) != version) {
+                    putNote(index, note);
+                }
+                // 更新后排到游标之前的笔记已不属于这一页之后
+                boolean afterCursor = version < cursorKey || (version == cursorKey && id < cursorId);
+                if (afterCursor && expression.matches(noteKeys(note), dayOf(note.getCreateTime()))) {
+                    matched.add(note);
+                }
+            }
+            afterKey = hits.sortKeys()[hits.size() - 1];
+            afterId = hits.ids()[hits.size() - 1];
+            more = hits.size() == wanted;
+            if (!more) {
+                break;
+            }
+        }
+
+        matched.sort(Comparator.comparing(Note::getUpdateTime).thenComparing(Note::getId).reversed());
+        String nextCursor = null;
+        if (matched.size() > pageSize) {
+            matched = matched.subList(0, pageSize);
+            Note last = matched.get(pageSize - 1);
+            nextCursor = new NoteServiceImpl.Cursor(last.getUpdateTime(), last.getId()).encode();
+        } else if (more) {
+            // 复核后不满一页，从最后检查过的位置续读
+            nextCursor = new NoteServiceImpl.Cursor(timeOf(afterKey), afterId).encode();
+        }
+        List<NoteSummary> items = new ArrayList<>(matched.size());
+        for (Note note : matched) {
+            items.add(NoteServiceImpl.toSummary(note));
+        }
+        return new NotePage(items, nextCursor);
+    }
+
+    @Override
+    public List<ReminderResponse> filterReminders(Long userId, String query, int limit) {
+        FilterExpression expression = FilterExpression.parse(query, REMINDER_FIELDS, Set.of(STATUS_NAMES));
+        int wantedTotal = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FilterIndex index = reminderIndexes.get(userId);
+
+        List<Reminder> matched = new ArrayList<>(wantedTotal);
+        long afterKey = Long.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        for (int round = 0; round < MAX_ROUNDS && matched.size() < wantedTotal; round++) {
+            int wanted = wantedTotal - matched.size();
+            FilterIndex.Hits hits = index.query(expression, afterKey, afterId, wanted);
+            if (hits.size() == 0) {
+                break;
+            }
+            Map<Long, Reminder> rows = new HashMap<>();
+            for (Reminder reminder : reminderMapper.findByIds(userId, boxed(hits.ids()))) {
+                rows.put(reminder.getId(), reminder);
+            }
+            for (long id : hits.ids()) {
+                Reminder reminder = rows.get(id);
+                if (reminder == null) {
+                    index.delete(id);
+                    continue;
+                }
+                if (index.version(id) != reminder.getStatus()) {
+                    putReminder(index, reminder.getId(), reminder.getRemindAt(), reminder.getStatus());
+                }
+                if (expression.matches(reminderKeys(reminder.getStatus()), dayOf(reminder.getRemindAt()))) {
+                    matched.add(reminder);
+                }
+            }
+            afterKey = hits.sortKeys()[hits.size() - 1];
+            afterId = hits.ids()[hits.size() - 1];
+            if (hits.size() < wanted) {
+                break;
+            }
+        }
+
+        List<ReminderResponse> responses = new ArrayList<>(matched.size());
+        for (Reminder reminder : matched) {
+            responses.add(ReminderServiceImpl.toResponse(reminder));
+        }
+        return responses;
+    }
+
+    /**
+     * 本节点写入的笔记直接更新已加载的索引；未加载的在下次加载时读取。
+     * 数据已经保存，索引更新失败时丢弃该用户的索引，下次访问重新加载，不影响写入请求
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNoteChanged(NoteChangedEvent event) {
+        Entry entry = noteIndexes.getIfPresent(event.getUserId());
+        if (entry == null) {
+            return;
+        }
+        try {
+            if (event.isDeleted()) {
+                entry.index().delete(event.getNoteId());
+            } else {
+                putNote(entry.index(), event.getNote());
+            }
+        } catch (Exception e) {
+            noteIndexes.invalidate(event.getUserId());
+            log.warn("更新笔记筛选索引失败，下次访问重新加载: userId={}, noteId={}, {}",
+                    event.getUserId(), event.getNoteId(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNotesImported(NotesImportedEvent event) {
+        Entry entry = noteIndexes.getIfPresent(event.getUserId());
+        if (entry == null) {
+            return;
+        }
+        try {
+            for (Note note : event.getNotes()) {
+                putNote(entry.index(), note);
+            }
+        } catch (Exception e) {
+            noteIndexes.invalidate(event.getUserId());
+            log.warn("导入笔记写入筛选索引失败，下次访问重新加载: userId={}, {}", event.getUserId(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onReminderChanged(ReminderChangedEvent event) {
+        FilterIndex index = reminderIndexes.getIfPresent(event.getUserId());
+        if (index == null) {
+            return;
+        }
+        try {
+            putReminder(index, event.getReminderId(), event.getRemindAt(), event.getStatus());
+        } catch (Exception e) {
+            reminderIndexes.invalidate(event.getUserId());
+            log.warn("更新提醒筛选索引失败，下次访问重新加载: userId={}, reminderId={}, {}",
+                    event.getUserId(), event.getReminderId(), e.getMessage());
+        }
+    }
+
+    private FilterIndex refreshNotes(Long userId) {
+        Entry entry = noteIndexes.get(userId);
+        catchUp(userId, entry.index());
+        long now = System.currentTimeMillis();
+        if (now - entry.reconciledAt >= reconcileInterval) {
+            entry.reconciledAt = now;
+            reconcile(userId, entry.index());
+        }
+        return entry.index();
+    }
+
+    /**
+     * 按 (update_time, id) 分批读取用户全部笔记的标签与时间，检查点为最后一条的更新时间
+     */
+    private FilterIndex loadNotes(Long userId) {
+        long start = System.currentTimeMillis();
+        FilterIndex index = new FilterIndex();
+        LocalDateTime sinceTime = timeOf(0);
+        long sinceId = 0;
+        while (true) {
+            List<Note> rows = noteMapper.findFilterRows(userId, sinceTime, sinceId, LOAD_BATCH);
+            for (Note note : rows) {
+                putNote(index, note);
+            }
+            if (!rows.isEmpty()) {
+                Note last = rows.get(rows.size() - 1);
+                index.advanceCheckpoint(versionOf(last.getUpdateTime()));
+                sinceTime = last.getUpdateTime();
+                sinceId = last.getId();
+            }
+            if (rows.size() < LOAD_BATCH) {
+                break;
+            }
+        }
+        log.debug("已加载笔记筛选索引: userId={}, notes={}, bytes={}, elapsed={}ms",
+                userId, index.size(), index.sizeInBytes(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private FilterIndex loadReminders(Long userId) {
+        FilterIndex index = new FilterIndex();
+        long afterId = 0;
+        while (true) {
+            List<Reminder> rows = reminderMapper.findFilterRows(userId, afterId, LOAD_BATCH);
+            for (Reminder reminder : rows) {
+                putReminder(index, reminder.getId(), reminder.getRemindAt(), reminder.getStatus());
+            }
+            if (rows.size() < LOAD_BATCH) {
+                break;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+        return index;
+    }
+
+    /**
+     * 读取检查点之后更新过的笔记版本，只对版本变化的笔记回表取标签
+     */
+    private void catchUp(Long userId, FilterIndex index) {
+        long since = Math.max(0, index.checkpoint() - catchUpLag);
+        LocalDateTime sinceTime = timeOf(since);
+        long sinceId = 0;
+        while (true) {
+            List<Note> versions = noteMapper.findVersionsSince(userId, sinceTime, sinceId, CATCH_UP_BATCH);
+            List<Long> changed = new ArrayList<>();
+            for (Note version : versions) {
+                if (index.version(version.getId()) != versionOf(version.getUpdateTime())) {
+                    changed.add(version.getId());
+                }
+            }
+            if (!changed.isEmpty()) {
+                for (Note note : noteMapper.findSummariesByIds(userId, changed)) {
+                    putNote(index, note);
+                }
+            }
+            if (!versions.isEmpty()) {
+                Note last = versions.get(versions.size() - 1);
+                index.advanceCheckpoint(versionOf(last.getUpdateTime()));
+                sinceTime = last.getUpdateTime();
+                sinceId = last.getId();
+            }
+            if (versions.size() < CATCH_UP_BATCH) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 笔记数与数据库不一致时，沿索引列出全部笔记ID，移除已在其他节点删除的笔记
+     */
+    private void reconcile(Long userId, FilterIndex index) {
+        if (noteMapper.countByUser(userId) == index.size()) {
+            return;
+        }
+        LongIntHashMap live = new LongIntHashMap(index.size());
+        LocalDateTime sinceTime = timeOf(0);
+        long sinceId = 0;
+        while (true) {
+            List<Note> versions = noteMapper.findVersionsSince(userId, sinceTime, sinceId, CATCH_UP_BATCH);
+            for (Note version : versions) {
+                live.put(version.getId(), 1, 0);
+            }
+            if (versions.size() < CATCH_UP_BATCH) {
+                break;
+            }
+            Note last = versions.get(versions.size() - 1);
+            sinceTime = last.getUpdateTime();
+            sinceId = last.getId();
+        }
+        int removed = 0;
+        for (long noteId : index.ids()) {
+            if (!live.containsKey(noteId)) {
+                index.delete(noteId);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("筛选索引已清除其他节点删除的笔记: userId={}, removed={}", userId, removed);
+        }
+    }
+
+    /**
+     * 笔记以更新时间作为版本与排序键，与列表的排序一致
+     */
+    private static void putNote(FilterIndex index, Note note) {
+        long version = versionOf(note.getUpdateTime());
+        List<String> tags = NoteServiceImpl.splitTags(note.getTags());
+        String[] keys = new String[tags.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FilterExpression.key(FilterExpression.TAG, tags.get(i));
+        }
+        index.put(note.getId(), version, version, dayOf(note.getCreateTime()), keys);
+    }
+
+    /**
+     * 提醒以状态作为版本；排序键取提醒时间的相反数，使结果按提醒时间先后
+     */
+    private static void putReminder(FilterIndex index, long id, LocalDateTime remindAt, int status) {
+        index.put(id, status, -versionOf(remindAt), dayOf(remindAt),
+                new String[]{FilterExpression.key(FilterExpression.STATUS, STATUS_NAMES[status])});
+    }
+
+    private static Set<String> noteKeys(Note note) {
+        Set<String> keys = new HashSet<>();
+        for (String tag : NoteServiceImpl.splitTags(note.getTags())) {
+            keys.add(FilterExpression.key(FilterExpression.TAG, tag));
+        }
+        return keys;
+    }
+
+    private static Set<String> reminderKeys(int status) {
+        return Set.of(FilterExpression.key(FilterExpression.STATUS, STATUS_NAMES[status]));
+    }
+
+    private static long versionOf(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime timeOf(long epochMilli) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMilli, 1000), (int) Math.floorMod(epochMilli, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static int dayOf(LocalDateTime time) {
+        return (int) time.toLocalDate().toEpochDay();
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        List<Long> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 用户的笔记索引与上次核对时间，刚加载的索引无需核对
+     */
+    private static final class Entry {
+
+        private final FilterIndex index;
+        private volatile long reconciledAt = System.currentTimeMillis();
+
+        Entry(FilterIndex index) {
+            this.index = index;
+        }
+
+        FilterIndex index() {
+            return index;
+        }
+    }
+}
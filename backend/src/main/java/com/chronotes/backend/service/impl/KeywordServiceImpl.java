@@ -0,0 +1,248 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.KeywordResponse;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.search.KeywordIndex;
+import com.chronotes.backend.service.KeywordService;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.util.LongIntHashMap;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关键词与词云服务实现
+ * <p>
+ * 每个用户一份常驻内存的 {@link KeywordIndex}，首次使用时从数据库加载，闲置后释放。
+ * 本节点的写入通过 {@link NoteChangedEvent} 立即增量更新；每次查询前沿 (user_id, update_time, id)
+ * 索引追赶检查点之后更新过的笔记以补上其他节点的写入，并定期核对笔记数，清除在其他节点删除的笔记
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KeywordServiceImpl implements KeywordService {
+
+    private static final int CATCH_UP_BATCH = 500;
+    private static final int MAX_LIMIT = 200;
+
+    private final NoteMapper noteMapper;
+
+    @Value("${keyword.max-open-users:1000}")
+    private long maxOpenUsers;
+
+    @Value("${keyword.idle-timeout:1800000}")
+    private long idleTimeout;
+
+    /**
+     * 追赶时回看的时间窗口（毫秒），覆盖节点间时钟偏差与同一毫秒内的并发写入
+     */
+    @Value("${keyword.catch-up-lag:5000}")
+    private long catchUpLag;
+
+    /**
+     * 与数据库核对笔记数的最小间隔（毫秒）
+     */
+    @Value("${keyword.reconcile-interval:60000}")
+    private long reconcileInterval;
+
+    private LoadingCache<Long, Entry> indexes;
+
+    @PostConstruct
+    public void init() {
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxOpenUsers)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .build(userId -> new Entry(new KeywordIndex()));
+    }
+
+    @Override
+    public List<KeywordResponse> noteKeywords(Long userId, Long noteId, int limit) {
+        if (noteMapper.findSummariesByIds(userId, List.of(noteId)).isEmpty()) {
+            Entry entry = indexes.getIfPresent(userId);
+            if (entry != null) {
+                entry.index().delete(noteId);
+            }
+            throw new BusinessException(NoteServiceImpl.NOTE_NOT_FOUND_CODE, "笔记不存在");
+        }
+        KeywordIndex index = refresh(userId);
+        return toResponses(index.noteKeywords(noteId, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    @Override
+    public List<KeywordResponse> userKeywords(Long userId, int limit) {
+        KeywordIndex index = refresh(userId);
+        return toResponses(index.userKeywords(Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * 本节点写入的笔记直接更新已加载的统计；未加载的在下次加载时读取。
+     * 笔记已经保存，统计更新失败时丢弃该用户的统计，下次访问重新加载，不影响写入请求
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNoteChanged(NoteChangedEvent event) {
+        Entry entry = indexes.getIfPresent(event.getUserId());
+        if (entry == null) {
+            return;
+        }
+        try {
+            if (event.isDeleted()) {
+                entry.index().delete(event.getNoteId());
+            } else {
+                put(entry.index(), event.getNote());
+            }
+        } catch (Exception e) {
+            indexes.invalidate(event.getUserId());
+            log.warn("更新关键词统计失败，下次访问重新加载: userId={}, noteId={}, {}",
+                    event.getUserId(), event.getNoteId(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNotesImported(NotesImportedEvent event) {
+        Entry entry = indexes.getIfPresent(event.getUserId());
+        if (entry == null) {
+            return;
+        }
+        try {
+            for (Note note : event.getNotes()) {
+                put(entry.index(), note);
+            }
+        } catch (Exception e) {
+            indexes.invalidate(event.getUserId());
+            log.warn("导入笔记写入关键词统计失败，下次访问重新加载: userId={}, {}", event.getUserId(), e.getMessage());
+        }
+    }
+
+    private KeywordIndex refresh(Long userId) {
+        Entry entry = indexes.get(userId);
+        catchUp(userId, entry.index());
+        long now = System.currentTimeMillis();
+        if (now - entry.reconciledAt >= reconcileInterval) {
+            entry.reconciledAt = now;
+            reconcile(userId, entry.index());
+        }
+        return entry.index();
+    }
+
+    /**
+     * 读取检查点之后更新过的笔记版本，只对版本变化的笔记回表取正文并重新统计；首次加载即从头追赶
+     */
+    private void catchUp(Long userId, KeywordIndex index) {
+        long since = Math.max(0, index.checkpoint() - catchUpLag);
+        LocalDateTime sinceTime = LocalDateTime.ofEpochSecond(since / 1000, (int) (since % 1000) * 1_000_000, ZoneOffset.UTC);
+        long sinceId = 0;
+        while (true) {
+            List<Note> versions = noteMapper.findVersionsSince(userId, sinceTime, sinceId, CATCH_UP_BATCH);
+            List<Long> changed = new ArrayList<>();
+            for (Note version : versions) {
+                if (index.version(version.getId()) != versionOf(version)) {
+                    changed.add(version.getId());
+                }
+            }
+            if (!changed.isEmpty()) {
+                for (Note note : noteMapper.findByIds(userId, changed)) {
+                    put(index, note);
+                }
+            }
+            if (!versions.isEmpty()) {
+                Note last = versions.get(versions.size() - 1);
+                index.advanceCheckpoint(versionOf(last));
+                sinceTime = last.getUpdateTime();
+                sinceId = last.getId();
+            }
+            if (versions.size() < CATCH_UP_BATCH) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 笔记数与数据库不一致时，沿索引列出全部笔记ID，移除已在其他节点删除的笔记
+     */
+    private void reconcile(Long userId, KeywordIndex index) {
+        if (noteMapper.countByUser(userId) == index.noteCount()) {
+            return;
+        }
+        LongIntHashMap live = new LongIntHashMap(index.noteCount());
+        LocalDateTime sinceTime = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+        long sinceId = 0;
+        while (true) {
+            List<Note> versions = noteMapper.findVersionsSince(userId, sinceTime, sinceId, CATCH_UP_BATCH);
+            for (Note version : versions) {
+                live.put(version.getId(), 1, 0);
+            }
+            if (versions.size() < CATCH_UP_BATCH) {
+                break;
+            }
+            Note last = versions.get(versions.size() - 1);
+            sinceTime = last.getUpdateTime();
+            sinceId = last.getId();
+        }
+        int removed = 0;
+        for (long noteId : index.noteIds()) {
+            if (!live.containsKey(noteId)) {
+                index.delete(noteId);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("关键词统计已清除其他节点删除的笔记: userId={}, removed={}", userId, removed);
+        }
+    }
+
+    private static void put(KeywordIndex index, Note note) {
+        index.put(note.getId(), versionOf(note), note.getTitle(), note.getContent(), note.getTags());
+    }
+
+    /**
+     * 以更新时间作为统计中的笔记版本
+     */
+    private static long versionOf(Note note) {
+        return note.getUpdateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static List<KeywordResponse> toResponses(List<KeywordIndex.Keyword> keywords) {
+        List<KeywordResponse> responses = new ArrayList<>(keywords.size());
+        for (KeywordIndex.Keyword keyword : keywords) {
+            responses.add(new KeywordResponse(keyword.term(), keyword.score(), keyword.noteCount()));
+        }
+        return responses;
+    }
+
+    /**
+     * 用户的统计与上次核对时间
+     */
+    private static final class Entry {
+
+        private final KeywordIndex index;
+        private volatile long reconciledAt;
+
+        Entry(KeywordIndex index) {
+            this.index = index;
+        }
+
+        KeywordIndex index() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.service.MarkdownService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.LinkReferenceDefinition;
+import org.commonmark.node.Node;
+import org.commonmark.node.SourceSpan;
+import org.commonmark.parser.IncludeSourceSpans;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Markdown 渲染服务实现
+ * <p>
+ * 先只做块级解析（不解析行内元素），按顶层块（段落、标题、列表、代码块、表格等）切分文档，
+ * 每块的渲染结果按块内容缓存在有容量上限（按字节计）的本地缓存中。编辑一段后再次渲染，
+ * 只有内容变化的块需要完整解析和渲染，其余块直接取缓存。
+ * 链接引用定义对全文生效，渲染单个块时把全文的定义拼在块前，定义变化时引用它们的块随之失效
+ */
+@Service
+@RequiredArgsConstructor
+public class MarkdownServiceImpl implements MarkdownService {
+
+    private static final List<Extension> EXTENSIONS =
+            List.of(TablesExtension.create(), StrikethroughExtension.create());
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${markdown.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    /**
+     * 只解析块结构，用于切分；行内解析器为空实现
+     */
+    private final Parser blockParser = Parser.builder()
+            .extensions(EXTENSIONS)
+            .includeSourceSpans(IncludeSourceSpans.BLOCKS)
+            .inlineParserFactory(context -> (lines, node) -> {
+            })
+            .build();
+
+    private final Parser parser = Parser.builder()
+            .extensions(EXTENSIONS)
+            .build();
+
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .extensions(EXTENSIONS)
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            .build();
+
+    /**
+     * 块源码 → 渲染后的 HTML。以源码本身为键：按内容哈希定位、命中时再逐字比较，不会因哈希碰撞串块
+     */
+    private Cache<String, String> blocks;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Timer renderTimer;
+
+    @PostConstruct
+    public void init() {
+        this.blocks = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .<String, String>weigher((block, html) -> 64 + (block.length() + html.length()) * 2)
+                .build();
+        this.hitCounter = blockCounter("hit");
+        this.missCounter = blockCounter("miss");
+        this.renderTimer = Timer.builder("markdown.render")
+                .description("Markdown 文档渲染耗时（含切分与缓存查找）")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String render(String markdown) {
+        if (!StringUtils.hasText(markdown)) {
+            return "";
+        }
+        return renderTimer.record(() -> {
+            StringBuilder html = new StringBuilder(markdown.length() + markdown.length() / 4);
+            for (String block : split(markdown)) {
+                String rendered = blocks.getIfPresent(block);
+                if (rendered == null) {
+                    missCounter.increment();
+                    rendered = renderer.render(parser.parse(block));
+                    blocks.put(block, rendered);
+                } else {
+                    hitCounter.increment();
+                }
+                html.append(rendered);
+            }
+            return html.toString();
+        });
+    }
+
+    /**
+     * 切分为可独立渲染的顶层块源码。含 '[' 的块前拼上全文的链接引用定义
+     */
+    List<String> split(String markdown) {
+        Node document = blockParser.parse(markdown);
+        String definitions = definitions(document, markdown);
+
+        List<String> result = new ArrayList<>();
+        for (Node node = document.getFirstChild(); node != null; node = node.getNext()) {
+            List<SourceSpan> spans = node.getSourceSpans();
+            if (spans.isEmpty() || node instanceof LinkReferenceDefinition) {
+                continue;
+            }
+            // 从首行行首截取，保留缩进（缩进代码块依赖它）
+            SourceSpan first = spans.get(0);
+            SourceSpan last = spans.get(spans.size() - 1);
+            String block = markdown.substring(first.getInputIndex() - first.getColumnIndex(),
+                    last.getInputIndex() + last.getLength());
+            // 定义放在块前：块若是未闭合的代码块会一直延伸到末尾，放在块后会被当成代码内容
+            if (!definitions.isEmpty() && block.indexOf('[') >= 0) {
+                block = definitions + "\n\n" + block;
+            }
+            result.add(block);
+        }
+        return result;
+    }
+
+    /**
+     * 收集全文（含嵌套在列表、引用中）的链接引用定义源码
+     */
+    private static String definitions(Node document, String markdown) {
+        StringBuilder definitions = new StringBuilder();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(LinkReferenceDefinition definition) {
+                for (SourceSpan span : definition.getSourceSpans()) {
+                    if (!definitions.isEmpty()) {
+                        definitions.append('\n');
+                    }
+                    definitions.append(markdown, span.getInputIndex(), span.getInputIndex() + span.getLength());
+                }
+            }
+        });
+        return definitions.toString();
+    }
+
+    private Counter blockCounter(String result) {
+        return Counter.builder("markdown.blocks")
+                .description("渲染时的块缓存查找结果")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
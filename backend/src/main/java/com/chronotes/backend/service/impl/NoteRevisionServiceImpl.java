@@ -0,0 +1,382 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NoteRequest;
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.RevisionPage;
+import com.chronotes.backend.dto.note.RevisionResponse;
+import com.chronotes.backend.dto.note.RevisionSummary;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.NoteRevision;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteRevisionMapper;
+import com.chronotes.backend.revision.LineDelta;
+import com.chronotes.backend.service.NoteRevisionService;
+import com.chronotes.backend.service.NoteService;
+import com.chronotes.backend.service.SyncService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 笔记版本服务实现
+ * <p>
+ * 每次保存记录一个版本：每隔 revision.snapshot-interval 个版本存一份全量快照，其余版本只存
+ * 相对上一版本的行级增量，因此任意版本最多应用 snapshot-interval - 1 个增量即可还原，
+ * 与笔记累计保存了多少次无关。增量超过正文一半大小时直接改存快照。
+ * 各笔记最新版本的内容缓存在本地，保存时无需回放增量链；后台定期压缩较早的版本
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteRevisionServiceImpl implements NoteRevisionService {
+
+    /**
+     * 版本不存在错误码
+     */
+    public static final int REVISION_NOT_FOUND_CODE = 4103;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int COMPRESS_BATCH = 200;
+
+    private final NoteRevisionMapper revisionMapper;
+    private final NoteService noteService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${revision.snapshot-interval:50}")
+    private int snapshotInterval;
+
+    @Value("${revision.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${revision.compress-after:86400000}")
+    private long compressAfter;
+
+    @Value("${revision.compress-interval:3600000}")
+    private long compressInterval;
+
+    /**
+     * 同一笔记的版本写入串行执行；使用 ReentrantLock，虚拟线程持锁访问数据库时不会钉住载体线程
+     */
+    private final ReentrantLock[] locks = new ReentrantLock[64];
+
+    /**
+     * 笔记ID → 最新版本
+     */
+    private Cache<Long, Latest> latestRevisions;
+
+    private Timer reconstructTimer;
+    private DistributionSummary chainLength;
+
+    private ScheduledExecutorService compressor;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.latestRevisions = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .<Long, Latest>weigher((noteId, latest) -> 64 + latest.content().length() * 2)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+        this.reconstructTimer = Timer.builder("revision.reconstruct")
+                .description("还原指定版本的耗时（读取增量链并回放）")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.chainLength = DistributionSummary.builder("revision.chain.length")
+                .description("还原版本时回放的增量个数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后开始后台压缩
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        compressor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revision-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compressor.scheduleWithFixedDelay(this::compressOldRevisions, compressInterval, compressInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (compressor != null) {
+            compressor.shutdownNow();
+        }
+    }
+
+    @Override
+    public RevisionPage list(Long userId, Long noteId, Integer cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<NoteRevision> revisions = revisionMapper.findPage(userId, noteId, cursor, pageSize + 1);
+        boolean hasMore = revisions.size() > pageSize;
+        if (hasMore) {
+            revisions = revisions.subList(0, pageSize);
+        }
+        List<RevisionSummary> items = new ArrayList<>(revisions.size());
+        for (NoteRevision revision : revisions) {
+            RevisionSummary summary = new RevisionSummary();
+            summary.setRevision(revision.getRevision());
+            summary.setTitle(revision.getTitle());
+            summary.setContentLength(revision.getContentLength());
+            summary.setCreateTime(revision.getCreateTime());
+            items.add(summary);
+        }
+        Integer nextCursor = hasMore ? revisions.get(revisions.size() - 1).getRevision() : null;
+        return new RevisionPage(items, nextCursor);
+    }
+
+    @Override
+    public RevisionResponse get(Long userId, Long noteId, int revision) {
+        NoteRevision header = revisionMapper.findHeader(userId, noteId, revision);
+        if (header == null) {
+            throw new BusinessException(REVISION_NOT_FOUND_CODE, "版本不存在");
+        }
+        RevisionResponse response = new RevisionResponse();
+        response.setNoteId(noteId);
+        response.setRevision(revision);
+        response.setTitle(header.getTitle());
+        response.setContent(reconstruct(noteId, header.getSnapshotRevision(), revision));
+        response.setTags(NoteServiceImpl.splitTags(header.getTags()));
+        response.setCreateTime(header.getCreateTime());
+        return response;
+    }
+
+    @Override
+    public NoteResponse restore(Long userId, Long noteId, int revision) {
+        RevisionResponse target = get(userId, noteId, revision);
+        NoteRequest request = new NoteRequest();
+        request.setTitle(target.getTitle());
+        request.setContent(target.getContent());
+        request.setTags(target.getTags());
+        log.info("恢复笔记版本: userId={}, noteId={}, revision={}", userId, noteId, revision);
+        return noteService.update(userId, noteId, request);
+    }
+
+    /**
+     * 笔记写入后记录版本；记录失败不影响笔记本身的保存
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (event.isDeleted()) {
+            try {
+                revisionMapper.deleteByNote(event.getNoteId());
+            } catch (Exception e) {
+                // 残留的版本随笔记不可见，不影响使用
+                log.warn("删除笔记版本失败: noteId={}, {}", event.getNoteId(), e.getMessage());
+            } finally {
+                latestRevisions.invalidate(event.getNoteId());
+            }
+            return;
+        }
+        ReentrantLock lock = locks[Math.floorMod(event.getNoteId().hashCode(), locks.length)];
+        lock.lock();
+        try {
+            record(event.getNote());
+        } catch (Exception e) {
+            latestRevisions.invalidate(event.getNoteId());
+            log.warn("记录笔记版本失败: noteId={}, {}", event.getNoteId(), e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 批量导入的笔记各记录一个初始版本
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNotesImported(NotesImportedEvent event) {
+        for (Note note : event.getNotes()) {
+            onNoteChanged(new NoteChangedEvent(event.getUserId(), note.getId(), note));
+        }
+    }
+
+    private void record(Note note) {
+        String content = note.getContent() == null ? "" : note.getContent();
+        // 其他节点可能已写入同一版本号，唯一键冲突时丢弃本地缓存重新读取最新版本后再试一次
+        for (int attempt = 0; ; attempt++) {
+            Latest latest = latest(note.getId());
+            if (latest != null && latest.content().equals(content)
+                    && Objects.equals(latest.title(), note.getTitle())
+                    && Objects.equals(latest.tags(), note.getTags())) {
+                return;
+            }
+
+            NoteRevision revision = new NoteRevision();
+            revision.setNoteId(note.getId());
+            revision.setUserId(note.getUserId());
+            revision.setRevision(latest == null ? 1 : latest.revision() + 1);
+            revision.setTitle(note.getTitle());
+            revision.setTags(note.getTags());
+            revision.setCompressed(false);
+            revision.setContentLength(content.length());
+            revision.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+            byte[] snapshot = content.getBytes(StandardCharsets.UTF_8);
+            byte[] delta = null;
+            if (latest != null && revision.getRevision() - latest.snapshotRevision() < snapshotInterval) {
+                delta = LineDelta.diff(latest.content(), content);
+                if (delta.length * 2 > snapshot.length) {
+                    delta = null;
+                }
+            }
+            revision.setSnapshotRevision(delta == null ? revision.getRevision() : latest.snapshotRevision());
+            revision.setBody(delta == null ? snapshot : delta);
+
+            try {
+                revisionMapper.insert(revision);
+            } catch (DuplicateKeyException e) {
+                latestRevisions.invalidate(note.getId());
+                if (attempt > 0) {
+                    throw e;
+                }
+                continue;
+            }
+            latestRevisions.put(note.getId(), new Latest(revision.getRevision(), revision.getSnapshotRevision(),
+                    revision.getTitle(), revision.getTags(), content));
+            return;
+        }
+    }
+
+    /**
+     * 读取最新版本，本地未缓存时从数据库还原
+     */
+    private Latest latest(Long noteId) {
+        Latest cached = latestRevisions.getIfPresent(noteId);
+        if (cached != null) {
+            return cached;
+        }
+        NoteRevision row = revisionMapper.findLatest(noteId);
+        if (row == null) {
+            return null;
+        }
+        String content = row.isSnapshot()
+                ? new String(body(row), StandardCharsets.UTF_8)
+                : reconstruct(noteId, row.getSnapshotRevision(), row.getRevision());
+        Latest latest = new Latest(row.getRevision(), row.getSnapshotRevision(), row.getTitle(), row.getTags(), content);
+        latestRevisions.put(noteId, latest);
+        return latest;
+    }
+
+    /**
+     * 从快照开始依次应用增量还原到指定版本
+     */
+    private String reconstruct(Long noteId, int snapshotRevision, int revision) {
+        return reconstructTimer.record(() -> {
+            List<NoteRevision> chain = revisionMapper.findChain(noteId, snapshotRevision, revision);
+            if (chain.isEmpty() || !chain.get(0).isSnapshot() || chain.size() != revision - snapshotRevision + 1) {
+                throw new IllegalStateException("版本链不完整: noteId=" + noteId + ", revision=" + revision);
+            }
+            List<String> lines = LineDelta.lines(new String(body(chain.get(0)), StandardCharsets.UTF_8));
+            for (int i = 1; i < chain.size(); i++) {
+                lines = LineDelta.apply(lines, body(chain.get(i)));
+            }
+            chainLength.record(chain.size() - 1);
+            return String.join("", lines);
+        });
+    }
+
+    /**
+     * 压缩创建时间早于 revision.compress-after 的版本；旧版本很少读取，压缩后占用空间更小
+     */
+    void compressOldRevisions() {
+        LocalDateTime before = LocalDateTime.now().minus(compressAfter, ChronoUnit.MILLIS);
+        int compressed = 0;
+        try {
+            List<NoteRevision> batch;
+            do {
+                batch = revisionMapper.findUncompressed(before, COMPRESS_BATCH);
+                for (NoteRevision revision : batch) {
+                    compressed += revisionMapper.markCompressed(revision.getId(), deflate(revision.getBody()));
+                }
+            } while (batch.size() == COMPRESS_BATCH);
+        } catch (Exception e) {
+            log.warn("压缩笔记版本失败: {}", e.getMessage());
+        }
+        if (compressed > 0) {
+            log.info("已压缩笔记版本: {}", compressed);
+        }
+    }
+
+    private static byte[] body(NoteRevision revision) {
+        return Boolean.TRUE.equals(revision.getCompressed()) ? inflate(revision.getBody()) : revision.getBody();
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("版本数据已损坏");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("版本数据已损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 笔记的最新版本
+     */
+    private record Latest(int revision, int snapshotRevision, String title, String tags, String content) {
+    }
+}
@@ -0,0 +1,271 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NoteSearchHit;
+import com.chronotes.backend.dto.note.NoteSummary;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.search.IndexClosedException;
+import com.chronotes.backend.search.NoteIndex;
+import com.chronotes.backend.service.NoteSearchService;
+import com.chronotes.backend.service.SyncService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 笔记全文检索服务实现
+ * <p>
+ * 每个用户一份 {@link NoteIndex}，存放在 search.index.dir/{用户ID} 下，按需打开、闲置后关闭。
+ * 本节点的写入通过 {@link NoteChangedEvent} 立即更新索引；每次检索前再沿 (user_id, update_time, id)
+ * 索引追赶检查点之后更新过的笔记，以补上其他节点的写入和进程重启前未落盘的缓冲区。
+ * 已删除的笔记在结果回表时发现并从索引中移除。
+ * 事件写入在映射项的 compute 内进行，与闲置淘汰时的关闭互斥；检索遇到刚关闭的索引时重新获取
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteSearchServiceImpl implements NoteSearchService {
+
+    private static final int CATCH_UP_BATCH = 500;
+    private static final int MAX_LIMIT = 100;
+
+    private final NoteMapper noteMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.index.dir:data/search-index}")
+    private String indexDir;
+
+    @Value("${search.index.max-open-users:1000}")
+    private long maxOpenUsers;
+
+    @Value("${search.index.idle-timeout:1800000}")
+    private long idleTimeout;
+
+    @Value("${search.index.buffer-docs:128}")
+    private int bufferDocs;
+
+    @Value("${search.index.max-segments:8}")
+    private int maxSegments;
+
+    /**
+     * 追赶时回看的时间窗口（毫秒），覆盖节点间时钟偏差与同一毫秒内的并发写入
+     */
+    @Value("${search.index.catch-up-lag:5000}")
+    private long catchUpLag;
+
+    private LoadingCache<Long, NoteIndex> indexes;
+
+    private Timer searchTimer;
+
+    @PostConstruct
+    public void init() {
+        Path root = Path.of(indexDir);
+        // evictionListener 与淘汰在同一原子操作中执行，关闭完成前同一用户的索引不会被重新打开
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxOpenUsers)
+                .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .<Long, NoteIndex>evictionListener((userId, index, cause) -> closeQuietly(userId, index))
+                .build(userId -> NoteIndex.open(root.resolve(String.valueOf(userId)), bufferDocs, maxSegments));
+        this.searchTimer = Timer.builder("note.search")
+                .description("笔记全文检索耗时（含追赶与回表）")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexes.asMap().forEach(this::closeQuietly);
+    }
+
+    @Override
+    public List<NoteSearchHit> search(Long userId, String query, int limit) {
+        if (!StringUtils.hasText(query)) {
+            return List.of();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            for (int attempt = 0; ; attempt++) {
+                NoteIndex index = indexes.get(userId);
+                try {
+                    catchUp(userId, index);
+                    List<NoteIndex.Hit> hits = index.search(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+                    return hydrate(userId, index, hits);
+                } catch (IndexClosedException e) {
+                    // 取到索引后恰好被淘汰关闭，重新打开再查一次
+                    if (attempt > 0) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            sample.stop(searchTimer);
+        }
+    }
+
+    /**
+     * 本节点写入的笔记直接更新已打开的索引；未打开的索引在下次打开时追赶。
+     * 笔记已经保存，索引更新失败时关闭该用户的索引，下次打开时按版本追赶，不影响写入请求
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNoteChanged(NoteChangedEvent event) {
+        indexes.asMap().computeIfPresent(event.getUserId(), (userId, index) -> {
+            try {
+                if (event.isDeleted()) {
+                    index.delete(event.getNoteId());
+                } else {
+                    put(index, event.getNote());
+                }
+                return index;
+            } catch (Exception e) {
+                log.warn("更新检索索引失败，关闭后重新追赶: userId={}, noteId={}, {}",
+                        userId, event.getNoteId(), e.getMessage());
+                return discard(userId, index);
+            }
+        });
+    }
+
+    /**
+     * 批量导入的笔记同样直接写入已打开的索引
+     */
+    @EventListener
+    @Order(SyncService.DERIVED_ORDER)
+    public void onNotesImported(NotesImportedEvent event) {
+        indexes.asMap().computeIfPresent(event.getUserId(), (userId, index) -> {
+            try {
+                for (Note note : event.getNotes()) {
+                    put(index, note);
+                }
+                return index;
+            } catch (Exception e) {
+                log.warn("导入笔记写入检索索引失败，关闭后重新追赶: userId={}, {}", userId, e.getMessage());
+                return discard(userId, index);
+            }
+        });
+    }
+
+    /**
+     * 在 compute 内关闭索引并返回 null 以移出映射；显式移除不触发 evictionListener
+     */
+    private NoteIndex discard(Long userId, NoteIndex index) {
+        closeQuietly(userId, index);
+        return null;
+    }
+
+    /**
+     * 读取检查点之后更新过的笔记版本，只对版本变化的笔记回表取正文并重新索引
+     */
+    private void catchUp(Long userId, NoteIndex index) {
+        long since = Math.max(0, index.checkpoint() - catchUpLag);
+        LocalDateTime sinceTime = LocalDateTime.ofEpochSecond(since / 1000, (int) (since % 1000) * 1_000_000, ZoneOffset.UTC);
+        long sinceId = 0;
+        int reindexed = 0;
+        while (true) {
+            List<Note> versions = noteMapper.findVersionsSince(userId, sinceTime, sinceId, CATCH_UP_BATCH);
+            List<Long> changed = new ArrayList<>();
+            for (Note version : versions) {
+                if (index.indexedVersion(version.getId()) != versionOf(version)) {
+                    changed.add(version.getId());
+                }
+            }
+            if (!changed.isEmpty()) {
+                for (Note note : noteMapper.findByIds(userId, changed)) {
+                    put(index, note);
+                }
+                reindexed += changed.size();
+            }
+            if (!versions.isEmpty()) {
+                Note last = versions.get(versions.size() - 1);
+                index.advanceCheckpoint(versionOf(last));
+                sinceTime = last.getUpdateTime();
+                sinceId = last.getId();
+            }
+            if (versions.size() < CATCH_UP_BATCH) {
+                break;
+            }
+        }
+        if (reindexed > 0) {
+            log.debug("检索索引追赶完成: userId={}, reindexed={}", userId, reindexed);
+        }
+    }
+
+    private List<NoteSearchHit> hydrate(Long userId, NoteIndex index, List<NoteIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (NoteIndex.Hit hit : hits) {
+            ids.add(hit.noteId());
+        }
+        Map<Long, Note> notes = new HashMap<>();
+        for (Note note : noteMapper.findSummariesByIds(userId, ids)) {
+            notes.put(note.getId(), note);
+        }
+
+        List<NoteSearchHit> results = new ArrayList<>(hits.size());
+        for (NoteIndex.Hit hit : hits) {
+            Note note = notes.get(hit.noteId());
+            if (note == null) {
+                // 笔记已在其他节点删除
+                index.delete(hit.noteId());
+                continue;
+            }
+            NoteSummary summary = NoteServiceImpl.toSummary(note);
+            NoteSearchHit result = new NoteSearchHit();
+            result.setId(summary.getId());
+            result.setTitle(summary.getTitle());
+            result.setTags(summary.getTags());
+            result.setUpdateTime(summary.getUpdateTime());
+            result.setScore(hit.score());
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static void put(NoteIndex index, Note note) {
+        index.put(note.getId(), versionOf(note), note.getTitle(), note.getContent(), note.getTags());
+    }
+
+    /**
+     * 以更新时间作为索引中的文档版本
+     */
+    private static long versionOf(Note note) {
+        return note.getUpdateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private void closeQuietly(Long userId, NoteIndex index) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.close();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("检索索引落盘失败: userId={}, {}", userId, e.getMessage());
+        }
+    }
+}
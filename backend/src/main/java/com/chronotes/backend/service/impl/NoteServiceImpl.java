@@ -0,0 +1,251 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.note.NoteRequest;
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.dto.note.NoteSummary;
+import com.chronotes.backend.dto.note.RenderedNote;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.service.MarkdownService;
+import com.chronotes.backend.service.NoteService;
+import com.chronotes.backend.service.SyncService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 笔记服务实现
+ * <p>
+ * 列表使用游标分页：游标编码上一页最后一条的 (update_time, id)，
+ * 下一页从该位置沿索引继续读取，不使用 OFFSET。
+ * <p>
+ * 写入与同步版本号在同一事务内提交，提交后再发布 {@link NoteChangedEvent}
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteServiceImpl implements NoteService {
+
+    /**
+     * 笔记不存在错误码
+     */
+    public static final int NOTE_NOT_FOUND_CODE = 4101;
+
+    /**
+     * 分页游标无效错误码
+     */
+    public static final int INVALID_CURSOR_CODE = 4102;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final NoteMapper noteMapper;
+    private final MarkdownService markdownService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public NotePage list(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        if (StringUtils.hasText(cursor)) {
+            Cursor position = Cursor.decode(cursor);
+            cursorTime = position.updateTime();
+            cursorId = position.id();
+        }
+
+        // 多取一条用于判断是否还有下一页
+        List<Note> notes = noteMapper.findPage(userId, cursorTime, cursorId, pageSize + 1);
+        boolean hasMore = notes.size() > pageSize;
+        if (hasMore) {
+            notes = notes.subList(0, pageSize);
+        }
+
+        List<NoteSummary> items = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            items.add(toSummary(note));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Note last = notes.get(notes.size() - 1);
+            nextCursor = new Cursor(last.getUpdateTime(), last.getId()).encode();
+        }
+        return new NotePage(items, nextCursor);
+    }
+
+    @Override
+    public NoteResponse get(Long userId, Long noteId) {
+        return toResponse(requireNote(userId, noteId));
+    }
+
+    @Override
+    public RenderedNote render(Long userId, Long noteId) {
+        Note note = requireNote(userId, noteId);
+        RenderedNote rendered = new RenderedNote();
+        rendered.setId(note.getId());
+        rendered.setTitle(note.getTitle());
+        rendered.setHtml(markdownService.render(note.getContent()));
+        rendered.setUpdateTime(note.getUpdateTime());
+        return rendered;
+    }
+
+    @Override
+    public NoteResponse create(Long userId, NoteRequest request) {
+        LocalDateTime now = now();
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle(request.getTitle().trim());
+        note.setContent(request.getContent() == null ? "" : request.getContent());
+        note.setTags(joinTags(request.getTags()));
+        note.setCreateTime(now);
+        note.setUpdateTime(now);
+        writeTransaction.executeWithoutResult(status -> {
+            noteMapper.insert(note);
+            syncService.recordNotes(userId, List.of(note.getId()), false);
+        });
+        eventPublisher.publishEvent(new NoteChangedEvent(userId, note.getId(), note, now, true));
+        log.info("笔记创建成功: userId={}, noteId={}", userId, note.getId());
+        return toResponse(note);
+    }
+
+    @Override
+    public NoteResponse update(Long userId, Long noteId, NoteRequest request) {
+        Note note = requireNote(userId, noteId);
+        note.setTitle(request.getTitle().trim());
+        if (request.getContent() != null) {
+            note.setContent(request.getContent());
+        }
+        if (request.getTags() != null) {
+            note.setTags(joinTags(request.getTags()));
+        }
+        note.setUpdateTime(now());
+        writeTransaction.executeWithoutResult(status -> {
+            if (noteMapper.update(note) == 0) {
+                throw new BusinessException(NOTE_NOT_FOUND_CODE, "笔记不存在");
+            }
+            syncService.recordNotes(userId, List.of(noteId), false);
+        });
+        eventPublisher.publishEvent(new NoteChangedEvent(userId, noteId, note));
+        return toResponse(note);
+    }
+
+    @Override
+    public void delete(Long userId, Long noteId) {
+        // 先读出创建时间，统计按创建日期扣减
+        Note note = requireNote(userId, noteId);
+        writeTransaction.executeWithoutResult(status -> {
+            if (noteMapper.delete(userId, noteId) == 0) {
+                throw new BusinessException(NOTE_NOT_FOUND_CODE, "笔记不存在");
+            }
+            syncService.recordNotes(userId, List.of(noteId), true);
+        });
+        eventPublisher.publishEvent(new NoteChangedEvent(userId, noteId, null, note.getCreateTime(), false));
+        log.info("笔记删除成功: userId={}, noteId={}", userId, noteId);
+    }
+
+    private Note requireNote(Long userId, Long noteId) {
+        Note note = noteMapper.findById(userId, noteId);
+        if (note == null) {
+            throw new BusinessException(NOTE_NOT_FOUND_CODE, "笔记不存在");
+        }
+        return note;
+    }
+
+    /**
+     * 与 DATETIME(3) 列精度一致，保证游标中的时间与库中存储值完全相同
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * 去掉空白与重复标签；标签内的逗号会与分隔符冲突，替换为空格
+     */
+    static String joinTags(List<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return "";
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            if (StringUtils.hasText(tag)) {
+                normalized.add(tag.replace(',', ' ').trim());
+            }
+        }
+        return String.join(",", normalized);
+    }
+
+    static List<String> splitTags(String tags) {
+        if (!StringUtils.hasText(tags)) {
+            return List.of();
+        }
+        return List.of(tags.split(","));
+    }
+
+    static NoteSummary toSummary(Note note) {
+        NoteSummary summary = new NoteSummary();
+        summary.setId(note.getId());
+        summary.setTitle(note.getTitle());
+        summary.setTags(splitTags(note.getTags()));
+        summary.setCreateTime(note.getCreateTime());
+        summary.setUpdateTime(note.getUpdateTime());
+        return summary;
+    }
+
+    static NoteResponse toResponse(Note note) {
+        NoteResponse response = new NoteResponse();
+        response.setId(note.getId());
+        response.setTitle(note.getTitle());
+        response.setContent(note.getContent());
+        response.setTags(splitTags(note.getTags()));
+        response.setCreateTime(note.getCreateTime());
+        response.setUpdateTime(note.getUpdateTime());
+        return response;
+    }
+
+    /**
+     * 分页游标：上一页最后一条笔记的 (update_time, id)，对客户端不透明
+     */
+    record Cursor(LocalDateTime updateTime, long id) {
+
+        String encode() {
+            String raw = updateTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BusinessException(INVALID_CURSOR_CODE, "无效的分页游标");
+            }
+        }
+    }
+}
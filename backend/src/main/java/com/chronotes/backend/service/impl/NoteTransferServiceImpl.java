@@ -0,0 +1,558 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.TransferProgress;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.service.NoteTransferService;
+import com.chronotes.backend.service.SyncService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 笔记批量导入导出服务实现
+ * <p>
+ * 每篇笔记对应一个 Markdown 文件，标题、标签与时间写在 YAML front matter 中。
+ * 导出在只读事务内用 MyBatis Cursor 逐行读取并直接写入 ZIP 输出流；导入逐个解析压缩包条目，
+ * 每凑满一批用一条多值 INSERT 在独立的短事务中插入并记录同步版本，提交后再发布变更事件。
+ * 任何时刻内存中最多只有一篇导出笔记或一批导入笔记，与笔记总数无关。
+ * 进度写入 Redis，可在其他节点上查询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NoteTransferServiceImpl implements NoteTransferService {
+
+    /**
+     * 导入文件格式错误错误码
+     */
+    public static final int INVALID_ARCHIVE_CODE = 4104;
+
+    private static final String PROGRESS_PREFIX = "note:transfer:";
+
+    private static final Duration PROGRESS_TTL = Duration.ofDays(1);
+
+    private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_CONTENT_LENGTH = 1_000_000;
+    private static final int MAX_TAGS = 20;
+    private static final int MAX_TAG_LENGTH = 30;
+
+    /**
+     * Yaml 实例不是线程安全的，构造开销又与解析一篇 front matter 相当，每个线程复用一个
+     */
+    private static final ThreadLocal<Yaml> FRONT_MATTER =
+            ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor(new LoaderOptions())));
+
+    private final NoteMapper noteMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SyncService syncService;
+
+    /**
+     * 同时进行的导入导出数（全局），每个任务占用一个数据库连接
+     */
+    @Value("${transfer.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${transfer.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 一批笔记正文的总字符数上限，防止大笔记凑成的批次占用过多内存
+     */
+    @Value("${transfer.import.batch-max-chars:4194304}")
+    private long batchMaxChars;
+
+    @Value("${transfer.import.max-entry-bytes:4194304}")
+    private int maxEntryBytes;
+
+    /**
+     * 每处理多少条更新一次进度
+     */
+    @Value("${transfer.progress-interval:1000}")
+    private int progressInterval;
+
+    private Semaphore permits;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.permits = new Semaphore(maxConcurrent);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void export(Long userId, OutputStream out) {
+        acquire();
+        Progress progress = new Progress(userId, "export");
+        try {
+            progress.total = (long) noteMapper.countByUser(userId);
+            progress.report(true);
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024), StandardCharsets.UTF_8);
+            readTransaction.executeWithoutResult(status -> {
+                try (Cursor<Note> cursor = noteMapper.streamByUser(userId)) {
+                    for (Note note : cursor) {
+                        ZipEntry entry = new ZipEntry(entryName(note));
+                        entry.setTimeLocal(note.getUpdateTime());
+                        zip.putNextEntry(entry);
+                        zip.write(toMarkdown(note).getBytes(StandardCharsets.UTF_8));
+                        zip.closeEntry();
+                        progress.processed++;
+                        progress.report(false);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            zip.finish();
+            zip.flush();
+            progress.finish();
+            meterRegistry.counter("note.transfer.notes", "type", "export").increment(progress.processed);
+            log.info("导出笔记完成: userId={}, count={}", userId, progress.processed);
+        } catch (IOException | RuntimeException e) {
+            progress.fail(e.getMessage());
+            // 响应已开始输出，客户端会收到不完整的压缩包
+            log.warn("导出笔记中断: userId={}, written={}, {}", userId, progress.processed, e.getMessage());
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public TransferProgress importArchive(Long userId, InputStream in, long totalBytes) {
+        acquire();
+        Progress progress = new Progress(userId, "import");
+        progress.imported = 0L;
+        progress.skipped = 0L;
+        progress.bytesRead = 0L;
+        progress.totalBytes = totalBytes >= 0 ? totalBytes : null;
+        progress.report(true);
+        CountingInputStream counting = new CountingInputStream(in);
+        BufferedInputStream buffered = new BufferedInputStream(counting, 64 * 1024);
+        List<Note> batch = new ArrayList<>(batchSize);
+        long batchChars = 0;
+        try (ZipInputStream zip = new ZipInputStream(buffered, StandardCharsets.UTF_8)) {
+            checkSignature(buffered);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                progress.processed++;
+                Note note = isMarkdown(entry.getName()) ? readNote(userId, entry.getName(), zip) : null;
+                if (note == null) {
+                    progress.skipped++;
+                } else {
+                    batch.add(note);
+                    batchChars += note.getContent().length();
+                    if (batch.size() >= batchSize || batchChars >= batchMaxChars) {
+                        insert(userId, batch, progress);
+                        batchChars = 0;
+                    }
+                }
+                progress.bytesRead = counting.count;
+                progress.report(false);
+            }
+            insert(userId, batch, progress);
+            // 读完末尾的中央目录，使已读字节数与上传大小一致
+            buffered.transferTo(OutputStream.nullOutputStream());
+            progress.bytesRead = counting.count;
+            progress.finish();
+        } catch (ZipException | IllegalArgumentException e) {
+            // 压缩包损坏或文件名不是 UTF-8 编码；已提交的批次保留
+            progress.fail("压缩包格式错误: " + e.getMessage());
+            throw new BusinessException(INVALID_ARCHIVE_CODE, "压缩包格式错误，已导入 " + progress.imported + " 篇笔记");
+        } catch (IOException e) {
+            progress.fail(e.getMessage());
+            throw new UncheckedIOException("读取导入文件失败", e);
+        } finally {
+            permits.release();
+        }
+        meterRegistry.counter("note.transfer.notes", "type", "import").increment(progress.imported);
+        log.info("导入笔记完成: userId={}, imported={}, skipped={}", userId, progress.imported, progress.skipped);
+        return progress.snapshot();
+    }
+
+    @Override
+    public TransferProgress progress(Long userId, String type) {
+        String json = redisTemplate.opsForValue().get(PROGRESS_PREFIX + type + ":" + userId);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, TransferProgress.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("进度数据格式错误", e);
+        }
+    }
+
+    private void acquire() {
+        if (!permits.tryAcquire()) {
+            throw new BusinessException(BusinessException.BUSY_CODE, "导入导出任务繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 在一个短事务内批量插入并记录同步版本，提交后整批发布导入事件，由各模块更新索引与版本记录。
+     * 同步记录要与插入共用事务连接，BATCH 执行器的会话不能与之混用，这里用多值 INSERT，
+     * 与驱动 rewriteBatchedStatements 合并后的语句相同
+     */
+    private void insert(Long userId, List<Note> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            noteMapper.insertAll(batch);
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (Note note : batch) {
+                ids.add(note.getId());
+            }
+            syncService.recordNotes(userId, ids, false);
+        });
+        eventPublisher.publishEvent(new NotesImportedEvent(userId, List.copyOf(batch)));
+        progress.imported += batch.size();
+        batch.clear();
+    }
+
+    /**
+     * ZipInputStream 遇到非 ZIP 内容时不报错而是当作没有条目，这里先检查文件头
+     */
+    private static void checkSignature(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        byte[] header = in.readNBytes(4);
+        in.reset();
+        boolean zip = header.length == 4 && header[0] == 'P' && header[1] == 'K'
+                && ((header[2] == 3 && header[3] == 4) || (header[2] == 5 && header[3] == 6));
+        if (!zip) {
+            throw new ZipException("不是 ZIP 文件");
+        }
+    }
+
+    private Note readNote(Long userId, String entryName, ZipInputStream zip) throws IOException {
+        byte[] bytes = zip.readNBytes(maxEntryBytes + 1);
+        if (bytes.length > maxEntryBytes) {
+            return null;
+        }
+        Note note = parse(entryName, new String(bytes, StandardCharsets.UTF_8),
+                LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        if (note != null) {
+            note.setUserId(userId);
+        }
+        return note;
+    }
+
+    private static boolean isMarkdown(String name) {
+        String lower = name.toLowerCase();
+        return !lower.startsWith("__macosx/")
+                && (lower.endsWith(".md") || lower.endsWith(".markdown") || lower.endsWith(".txt"));
+    }
+
+    /**
+     * 文件名：去掉路径分隔符等非法字符的标题 + 笔记ID，保证唯一且无需记录已用过的文件名
+     */
+    static String entryName(Note note) {
+        String title = note.getTitle().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        if (title.length() > 80) {
+            title = title.substring(0, 80);
+        }
+        return (title.isEmpty() ? "未命名" : title) + "-" + note.getId() + ".md";
+    }
+
+    /**
+     * 笔记转为带 YAML front matter 的 Markdown，字符串值一律写成双引号字符串
+     */
+    static String toMarkdown(Note note) {
+        StringBuilder builder = new StringBuilder(note.getContent() == null ? 256 : note.getContent().length() + 256);
+        builder.append("---\n");
+        builder.append("title: ").append(quote(note.getTitle())).append('\n');
+        builder.append("tags: [");
+        List<String> tags = NoteServiceImpl.splitTags(note.getTags());
+        for (int i = 0; i < tags.size(); i++) {
+            builder.append(i == 0 ? "" : ", ").append(quote(tags.get(i)));
+        }
+        builder.append("]\n");
+        builder.append("created: \"").append(note.getCreateTime()).append("\"\n");
+        builder.append("updated: \"").append(note.getUpdateTime()).append("\"\n");
+        builder.append("---\n\n");
+        if (note.getContent() != null) {
+            builder.append(note.getContent());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * YAML 双引号字符串：转义反斜杠、双引号与控制字符
+     */
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\x%02x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * 解析 Markdown 文件；有 front matter 时从中读取标题、标签与时间，否则以文件名为标题。
+     * 超过正文长度上限时返回 null
+     */
+    static Note parse(String entryName, String text, LocalDateTime now) {
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        Map<?, ?> meta = Map.of();
+        String content = text;
+        if (text.startsWith("---\n") || text.startsWith("---\r\n")) {
+            // 找到单独一行的结束标记 ---
+            int start = text.indexOf('\n') + 1;
+            int lineStart = start;
+            while (lineStart < text.length()) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                String line = text.substring(lineStart, lineEnd < 0 ? text.length() : lineEnd);
+                if (line.equals("---") || line.equals("---\r")) {
+                    try {
+                        Object loaded = FRONT_MATTER.get().load(text.substring(start, lineStart));
+                        if (loaded == null || loaded instanceof Map<?, ?>) {
+                            meta = loaded == null ? Map.of() : (Map<?, ?>) loaded;
+                            content = lineEnd < 0 ? "" : stripLeadingBlankLine(text.substring(lineEnd + 1));
+                        }
+                    } catch (RuntimeException e) {
+                        // 不是合法的 YAML，整体作为正文
+                    }
+                    break;
+                }
+                if (lineEnd < 0) {
+                    break;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            return null;
+        }
+
+        String title = meta.get("title") == null ? null : meta.get("title").toString().trim();
+        if (!StringUtils.hasText(title)) {
+            String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+            int dot = fileName.lastIndexOf('.');
+            title = (dot > 0 ? fileName.substring(0, dot) : fileName).trim();
+        }
+        if (title.isEmpty()) {
+            title = "未命名";
+        }
+
+        Note note = new Note();
+        note.setTitle(title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title);
+        note.setContent(content);
+        note.setTags(NoteServiceImpl.joinTags(tags(meta.get("tags"))));
+        LocalDateTime created = time(meta.get("created"), time(meta.get("date"), now));
+        note.setCreateTime(created);
+        note.setUpdateTime(time(meta.get("updated"), created));
+        return note;
+    }
+
+    private static String stripLeadingBlankLine(String body) {
+        if (body.startsWith("\r\n")) {
+            return body.substring(2);
+        }
+        return body.startsWith("\n") ? body.substring(1) : body;
+    }
+
+    /**
+     * 标签可以是 YAML 列表或逗号分隔的字符串；超出数量与长度限制的部分截掉
+     */
+    private static List<String> tags(Object value) {
+        List<String> raw = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item != null) {
+                    raw.add(item.toString());
+                }
+            }
+        } else if (value != null) {
+            raw.addAll(List.of(value.toString().split(",")));
+        }
+        List<String> tags = new ArrayList<>();
+        for (String tag : raw) {
+            String trimmed = tag.trim();
+            if (!trimmed.isEmpty() && tags.size() < MAX_TAGS) {
+                tags.add(trimmed.length() > MAX_TAG_LENGTH ? trimmed.substring(0, MAX_TAG_LENGTH) : trimmed);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * 解析时间：带引号的 ISO 字符串，或 YAML 自动识别的时间戳（不带时区时按 UTC 解析，这里按原样还原）
+     */
+    private static LocalDateTime time(Object value, LocalDateTime fallback) {
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+        }
+        if (value != null) {
+            try {
+                return LocalDateTime.parse(value.toString().trim()).truncatedTo(ChronoUnit.MILLIS);
+            } catch (DateTimeParseException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * 任务进度，每处理 progressInterval 条写一次 Redis
+     */
+    private class Progress {
+
+        private final String key;
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private String status = "running";
+        private long processed;
+        private long lastReported;
+        private Long total;
+        private Long imported;
+        private Long skipped;
+        private Long bytesRead;
+        private Long totalBytes;
+        private String message;
+
+        Progress(Long userId, String type) {
+            this.key = PROGRESS_PREFIX + type + ":" + userId;
+        }
+
+        void report(boolean force) {
+            if (!force && processed - lastReported < progressInterval) {
+                return;
+            }
+            lastReported = processed;
+            try {
+                redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(snapshot()), PROGRESS_TTL);
+            } catch (Exception e) {
+                // 进度仅供展示，写入失败不影响任务本身
+                log.warn("更新导入导出进度失败: {}, {}", key, e.getMessage());
+            }
+        }
+
+        void finish() {
+            status = "done";
+            report(true);
+        }
+
+        void fail(String reason) {
+            status = "failed";
+            message = reason;
+            report(true);
+        }
+
+        TransferProgress snapshot() {
+            TransferProgress progress = new TransferProgress();
+            progress.setStatus(status);
+            progress.setProcessed(processed);
+            progress.setTotal(total);
+            progress.setImported(imported);
+            progress.setSkipped(skipped);
+            progress.setBytesRead(bytesRead);
+            progress.setTotalBytes(totalBytes);
+            progress.setMessage(message);
+            progress.setStartTime(startTime);
+            progress.setUpdateTime(LocalDateTime.now());
+            return progress;
+        }
+    }
+
+    /**
+     * 统计已读取字节数的输入流
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
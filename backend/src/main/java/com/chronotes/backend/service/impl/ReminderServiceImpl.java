@@ -0,0 +1,156 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.reminder.ReminderRequest;
+import com.chronotes.backend.dto.reminder.ReminderResponse;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.mapper.ReminderMapper;
+import com.chronotes.backend.reminder.ReminderQueue;
+import com.chronotes.backend.reminder.ReminderScheduler;
+import com.chronotes.backend.service.ReminderService;
+import com.chronotes.backend.service.SyncService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 提醒服务实现
+ * <p>
+ * 提醒记录存数据库，到期时间写入 Redis 到期队列，由 {@link ReminderScheduler} 认领并触发；
+ * 状态变更与同步版本号在同一事务内提交
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderServiceImpl implements ReminderService {
+
+    /**
+     * 提醒不存在错误码
+     */
+    public static final int REMINDER_NOT_FOUND_CODE = 4301;
+
+    private static final int MAX_LIST_SIZE = 100;
+
+    private final ReminderMapper reminderMapper;
+    private final NoteMapper noteMapper;
+    private final ReminderQueue reminderQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ReminderResponse create(Long userId, ReminderRequest request) {
+        if (request.getNoteId() != null && noteMapper.findById(userId, request.getNoteId()) == null) {
+            throw new BusinessException(NoteServiceImpl.NOTE_NOT_FOUND_CODE, "笔记不存在");
+        }
+
+        Reminder reminder = new Reminder();
+        reminder.setUserId(userId);
+        reminder.setNoteId(request.getNoteId());
+        reminder.setTitle(request.getTitle().trim());
+        reminder.setRemindAt(request.getRemindAt().truncatedTo(ChronoUnit.MILLIS));
+        reminder.setStatus(Reminder.STATUS_PENDING);
+        reminder.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        writeTransaction.executeWithoutResult(status -> {
+            reminderMapper.insert(reminder);
+            syncService.recordReminder(userId, reminder.getId());
+        });
+
+        try {
+            reminderQueue.schedule(reminder.getId(), ReminderScheduler.epochMilli(reminder.getRemindAt()));
+        } catch (Exception e) {
+            writeTransaction.executeWithoutResult(status -> {
+                reminderMapper.cancel(userId, reminder.getId());
+                syncService.recordReminder(userId, reminder.getId());
+            });
+            eventPublisher.publishEvent(new ReminderChangedEvent(userId, reminder.getId(), reminder.getRemindAt(), Reminder.STATUS_CANCELLED));
+            log.error("提醒入队失败: reminderId={}, {}", reminder.getId(), e.getMessage());
+            throw new BusinessException("提醒创建失败，请稍后重试");
+        }
+        eventPublisher.publishEvent(new ReminderChangedEvent(userId, reminder.getId(), reminder.getRemindAt(), Reminder.STATUS_PENDING));
+
+        log.info("创建提醒: userId={}, reminderId={}, remindAt={}", userId, reminder.getId(), reminder.getRemindAt());
+        return toResponse(reminder);
+    }
+
+    @Override
+    public List<ReminderResponse> listPending(Long userId, int limit) {
+        List<Reminder> reminders = reminderMapper.findPendingByUser(userId, Math.max(1, Math.min(limit, MAX_LIST_SIZE)));
+        List<ReminderResponse> responses = new ArrayList<>(reminders.size());
+        for (Reminder reminder : reminders) {
+            responses.add(toResponse(reminder));
+        }
+        return responses;
+    }
+
+    @Override
+    public void cancel(Long userId, Long id) {
+        Reminder reminder = reminderMapper.findById(userId, id);
+        if (reminder == null) {
+            throw new BusinessException(REMINDER_NOT_FOUND_CODE, "提醒不存在");
+        }
+        Boolean cancelled = writeTransaction.execute(status -> {
+            if (reminderMapper.cancel(userId, id) == 0) {
+                // 已提醒或已取消
+                return false;
+            }
+            syncService.recordReminder(userId, id);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(cancelled)) {
+            return;
+        }
+        reminderQueue.cancel(id);
+        eventPublisher.publishEvent(new ReminderChangedEvent(userId, id, reminder.getRemindAt(), Reminder.STATUS_CANCELLED));
+        log.info("取消提醒: userId={}, reminderId={}", userId, id);
+    }
+
+    /**
+     * 笔记删除后取消其提醒
+     */
+    @EventListener
+    public void onNoteChanged(NoteChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        for (Long id : reminderMapper.findPendingIdsByNote(event.getUserId(), event.getNoteId())) {
+            try {
+                cancel(event.getUserId(), id);
+            } catch (Exception e) {
+                log.warn("取消笔记提醒失败: noteId={}, reminderId={}, {}", event.getNoteId(), id, e.getMessage());
+            }
+        }
+    }
+
+    static ReminderResponse toResponse(Reminder reminder) {
+        ReminderResponse response = new ReminderResponse();
+        response.setId(reminder.getId());
+        response.setNoteId(reminder.getNoteId());
+        response.setTitle(reminder.getTitle());
+        response.setRemindAt(reminder.getRemindAt());
+        response.setStatus(reminder.getStatus());
+        response.setFireTime(reminder.getFireTime());
+        response.setCreateTime(reminder.getCreateTime());
+        return response;
+    }
+}
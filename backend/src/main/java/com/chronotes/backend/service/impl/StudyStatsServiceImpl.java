@@ -0,0 +1,54 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.analytics.TrendCalculator;
+import com.chronotes.backend.dto.stats.TrendResponse;
+import com.chronotes.backend.entity.ActivityRollup;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.ActivityRollupMapper;
+import com.chronotes.backend.service.StudyStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 学习统计服务实现
+ * <p>
+ * 只读取预先汇总的分桶（见 {@link com.chronotes.backend.analytics.ActivityRollupUpdater}），
+ * 每次查询最多读取 MAX_POINTS 个分桶加一行总数，不扫描笔记表与提醒表
+ */
+@Service
+@RequiredArgsConstructor
+public class StudyStatsServiceImpl implements StudyStatsService {
+
+    private static final int MAX_POINTS = 60;
+
+    private static final Map<String, Integer> PERIODS = Map.of(
+            "day", ActivityRollup.PERIOD_DAY,
+            "week", ActivityRollup.PERIOD_WEEK,
+            "month", ActivityRollup.PERIOD_MONTH);
+
+    private final ActivityRollupMapper rollupMapper;
+
+    @Override
+    public TrendResponse trend(Long userId, String period, int count) {
+        Integer code = PERIODS.get(period);
+        if (code == null) {
+            throw new BusinessException(4000, "period 只能为 day、week 或 month");
+        }
+        int points = Math.max(1, Math.min(count, MAX_POINTS));
+
+        LocalDate today = LocalDate.now();
+        LocalDate first = TrendCalculator.bucketStart(code, today);
+        for (int i = 1; i < points; i++) {
+            first = TrendCalculator.previous(code, first);
+        }
+        List<ActivityRollup> rows = rollupMapper.findSince(userId, code, first);
+        List<ActivityRollup> total = rollupMapper.findSince(userId, ActivityRollup.PERIOD_TOTAL, TrendCalculator.TOTAL_BUCKET);
+        int noteTotal = total.isEmpty() ? 0 : Math.max(0, total.get(0).getNotesCreated());
+
+        return new TrendResponse(period, noteTotal, TrendCalculator.series(code, today, points, rows, noteTotal));
+    }
+}
@@ -0,0 +1,473 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.sync.SyncResponse;
+import com.chronotes.backend.entity.ChangeLog;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.mapper.ReminderMapper;
+import com.chronotes.backend.mapper.SyncMapper;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.util.Result;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多设备增量同步服务实现
+ * <p>
+ * 每个用户在 sync_state 中有一个递增的版本号，笔记与提醒的每次写入都在业务事务内调用
+ * {@link #recordNotes} / {@link #recordReminder} 把版本号加一，并把新版本号写入该实体在 change_log 中的唯一一行
+ * （已删除的保留为墓碑）；记录失败时业务写入一并回滚，版本号与数据不会不一致。版本号所在行的锁持有到提交，
+ * 同一用户的变更按版本号顺序提交，客户端按 version &gt; since 读取不会漏掉较早分配、较晚提交的变更。
+ * <p>
+ * 新用户注册时创建状态行；本功能上线前注册的用户没有状态行，在其首次写入（业务事务内）或首次调用同步接口时
+ * 创建并为现有数据补写变更记录，{@link #currentVersion} 只读，对这些用户返回 0。
+ * <p>
+ * 没有新变更时请求以 {@link DeferredResult} 挂起，不占用请求线程：本节点记录变更后直接唤醒，
+ * 并通过 Redis 发布/订阅通知其他节点唤醒各自挂起的请求；通知丢失时等到超时返回，客户端重新请求即可。
+ * <p>
+ * 版本号同时用作读接口的 ETag（见 {@link #currentVersion}）。提交后的版本号先暂存，在该写入的变更事件中最后发布
+ * （{@link SyncService#PUBLISH_ORDER}），检索、筛选等派生数据的监听排在其前（{@link SyncService#DERIVED_ORDER}），
+ * 本节点读到新版本号时派生数据已经更新
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncServiceImpl implements SyncService, MessageListener {
+
+    /**
+     * 变更通知频道，消息为 "用户ID|版本号"
+     */
+    public static final String CHANGED_CHANNEL = "sync:changed";
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final SyncMapper syncMapper;
+    private final NoteMapper noteMapper;
+    private final ReminderMapper reminderMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 单次请求最长挂起时间（毫秒）
+     */
+    @Value("${sync.max-wait:60000}")
+    private long maxWait;
+
+    /**
+     * 本节点同时挂起的请求数上限
+     */
+    @Value("${sync.max-waiters:10000}")
+    private int maxWaiters;
+
+    @Value("${sync.max-waiters-per-user:8}")
+    private int maxWaitersPerUser;
+
+    /**
+     * 唤醒后查询变更并写回响应的线程数
+     */
+    @Value("${sync.notifier-threads:2}")
+    private int notifierThreads;
+
+    /**
+     * 本节点缓存的用户版本号有效期（毫秒），变更通知丢失时版本号最多滞后这么久
+     */
+    @Value("${sync.version-cache-ttl:5000}")
+    private long versionCacheTtl;
+
+    /**
+     * 挂起的请求：用户ID → 请求
+     */
+    private final Map<Long, List<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * 已提交、尚未发布的版本号：用户ID → 版本号
+     */
+    private final Map<Long, Long> committed = new ConcurrentHashMap<>();
+
+    /**
+     * 用户ID → 当前版本号
+     */
+    private Cache<Long, Long> versions;
+
+    private TransactionTemplate writeTransaction;
+
+    /**
+     * 加入调用方事务，没有事务时直接报错
+     */
+    private TransactionTemplate recordTransaction;
+
+    private ExecutorService notifier;
+
+    @PostConstruct
+    public void init() {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.recordTransaction = new TransactionTemplate(transactionManager);
+        this.recordTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(versionCacheTtl, TimeUnit.MILLISECONDS)
+                .build();
+        AtomicInteger index = new AtomicInteger();
+        this.notifier = Executors.newFixedThreadPool(notifierThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sync-notifier-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("sync.waiters", waiting, AtomicInteger::get)
+                .description("等待新变更的同步请求数")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    @PreDestroy
+    public void stop() {
+        notifier.shutdownNow();
+    }
+
+    @Override
+    public DeferredResult<Result<SyncResponse>> changes(Long userId, long since, int limit, long wait) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long waitMillis = Math.max(0, Math.min(wait, maxWait));
+        SyncResponse response = load(userId, since, pageSize);
+        if (waitMillis == 0 || response.isReset() || response.getVersion() > since) {
+            DeferredResult<Result<SyncResponse>> result = new DeferredResult<>();
+            result.setResult(Result.success(response));
+            return result;
+        }
+
+        DeferredResult<Result<SyncResponse>> result = new DeferredResult<>(waitMillis, () -> Result.success(empty(since)));
+        Waiter waiter = new Waiter(since, pageSize, result);
+        register(userId, waiter);
+        result.onCompletion(() -> {
+            waiters.computeIfPresent(userId, (id, list) -> {
+                list.remove(waiter);
+                return list.isEmpty() ? null : list;
+            });
+            waiting.decrementAndGet();
+        });
+        // 查询与挂起之间提交的变更不会再有通知，挂起后再核对一次
+        Long current = syncMapper.findVersion(userId);
+        if (current != null && current > since) {
+            wake(userId, current);
+        }
+        return result;
+    }
+
+    @Override
+    public long currentVersion(Long userId) {
+        return versions.get(userId, id -> {
+            Long version = syncMapper.findVersion(id);
+            return version == null ? 0L : version;
+        });
+    }
+
+    @Override
+    public void initState(Long userId) {
+        syncMapper.insertState(userId, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    @Override
+    public void recordNotes(Long userId, Collection<Long> noteIds, boolean deleted) {
+        List<ChangeLog> changes = new ArrayList<>(noteIds.size());
+        for (Long noteId : noteIds) {
+            changes.add(change(userId, ChangeLog.TYPE_NOTE, noteId, deleted));
+        }
+        record(userId, changes);
+    }
+
+    @Override
+    public void recordReminder(Long userId, Long reminderId) {
+        record(userId, List.of(change(userId, ChangeLog.TYPE_REMINDER, reminderId, false)));
+    }
+
+    @EventListener
+    @Order(PUBLISH_ORDER)
+    public void onNoteChanged(NoteChangedEvent event) {
+        publish(event.getUserId());
+    }
+
+    @EventListener
+    @Order(PUBLISH_ORDER)
+    public void onNotesImported(NotesImportedEvent event) {
+        publish(event.getUserId());
+    }
+
+    @EventListener
+    @Order(PUBLISH_ORDER)
+    public void onReminderChanged(ReminderChangedEvent event) {
+        publish(event.getUserId());
+    }
+
+    /**
+     * 接收其他节点（以及本节点）的变更通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        try {
+            wake(Long.valueOf(body.substring(0, separator)), Long.parseLong(body.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            log.warn("无效的同步变更通知: {}", body);
+        }
+    }
+
+    /**
+     * 在调用方事务内分配版本号并写入变更记录，用户还没有状态行时先创建并补写；提交后暂存版本号，等变更事件发布
+     */
+    private void record(Long userId, List<ChangeLog> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long version = recordTransaction.execute(status -> {
+            if (syncMapper.incrementVersion(userId, changes.size()) == 0) {
+                start(userId);
+                syncMapper.incrementVersion(userId, changes.size());
+            }
+            long top = syncMapper.findVersion(userId);
+            long next = top - changes.size();
+            for (ChangeLog change : changes) {
+                change.setVersion(++next);
+            }
+            syncMapper.upsertChanges(changes);
+            return top;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.merge(userId, version, Math::max);
+            }
+        });
+    }
+
+    /**
+     * 发布已提交的版本号：更新本节点缓存、唤醒挂起的请求，并通知其他节点
+     */
+    private void publish(Long userId) {
+        Long version = committed.remove(userId);
+        if (version == null) {
+            return;
+        }
+        wake(userId, version);
+        try {
+            redisTemplate.convertAndSend(CHANGED_CHANNEL, userId + "|" + version);
+        } catch (Exception e) {
+            // 其他节点等到挂起超时或版本号缓存过期后读到
+            log.warn("同步变更通知发送失败: {}", e.getMessage());
+        }
+    }
+
+    private void register(Long userId, Waiter waiter) {
+        if (waiting.incrementAndGet() > maxWaiters) {
+            waiting.decrementAndGet();
+            throw new BusinessException(BusinessException.BUSY_CODE, "系统繁忙，请稍后重试");
+        }
+        try {
+            waiters.compute(userId, (id, list) -> {
+                if (list == null) {
+                    list = new ArrayList<>();
+                } else if (list.size() >= maxWaitersPerUser) {
+                    throw new BusinessException(BusinessException.BUSY_CODE, "同步连接过多，请关闭其他窗口后重试");
+                }
+                list.add(waiter);
+                return list;
+            });
+        } catch (BusinessException e) {
+            waiting.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 更新本节点缓存的版本号，唤醒该用户 since 小于 version 的挂起请求，在通知线程上查询变更并写回
+     */
+    private void wake(Long userId, long version) {
+        versions.asMap().merge(userId, version, Math::max);
+        List<Waiter> woken = new ArrayList<>();
+        waiters.computeIfPresent(userId, (id, list) -> {
+            list.removeIf(waiter -> {
+                if (waiter.since() < version) {
+                    woken.add(waiter);
+                    return true;
+                }
+                return false;
+            });
+            return list.isEmpty() ? null : list;
+        });
+        for (Waiter waiter : woken) {
+            notifier.execute(() -> respond(userId, waiter));
+        }
+    }
+
+    private void respond(Long userId, Waiter waiter) {
+        if (waiter.result().isSetOrExpired()) {
+            return;
+        }
+        try {
+            waiter.result().setResult(Result.success(load(userId, waiter.since(), waiter.limit())));
+        } catch (Exception e) {
+            waiter.result().setErrorResult(e);
+        }
+    }
+
+    /**
+     * 读取 since 之后的一页变更，按版本号顺序回表取笔记与提醒；回表时已不存在的按删除返回
+     */
+    private SyncResponse load(Long userId, long since, int limit) {
+        long current = ensureState(userId);
+        versions.asMap().merge(userId, current, Math::max);
+        if (since > current) {
+            SyncResponse response = empty(current);
+            response.setReset(true);
+            return response;
+        }
+        SyncResponse response = empty(since);
+        List<ChangeLog> changes = syncMapper.findChangesSince(userId, since, limit + 1);
+        if (changes.isEmpty()) {
+            return response;
+        }
+        if (changes.size() > limit) {
+            changes = changes.subList(0, limit);
+            response.setHasMore(true);
+        }
+        response.setVersion(changes.get(changes.size() - 1).getVersion());
+
+        List<Long> noteIds = new ArrayList<>();
+        List<Long> reminderIds = new ArrayList<>();
+        for (ChangeLog change : changes) {
+            if (change.getEntityType() == ChangeLog.TYPE_NOTE && !change.getDeleted()) {
+                noteIds.add(change.getEntityId());
+            } else if (change.getEntityType() == ChangeLog.TYPE_REMINDER && !change.getDeleted()) {
+                reminderIds.add(change.getEntityId());
+            }
+        }
+        Map<Long, Note> notes = new HashMap<>();
+        if (!noteIds.isEmpty()) {
+            for (Note note : noteMapper.findByIds(userId, noteIds)) {
+                notes.put(note.getId(), note);
+            }
+        }
+        Map<Long, Reminder> reminders = new HashMap<>();
+        if (!reminderIds.isEmpty()) {
+            for (Reminder reminder : reminderMapper.findByIds(userId, reminderIds)) {
+                reminders.put(reminder.getId(), reminder);
+            }
+        }
+        for (ChangeLog change : changes) {
+            if (change.getEntityType() == ChangeLog.TYPE_NOTE) {
+                Note note = notes.get(change.getEntityId());
+                if (note == null) {
+                    response.getDeletedNoteIds().add(change.getEntityId());
+                } else {
+                    response.getNotes().add(NoteServiceImpl.toResponse(note));
+                }
+            } else if (change.getEntityType() == ChangeLog.TYPE_REMINDER) {
+                Reminder reminder = reminders.get(change.getEntityId());
+                if (reminder == null) {
+                    response.getDeletedReminderIds().add(change.getEntityId());
+                } else {
+                    response.getReminders().add(ReminderServiceImpl.toResponse(reminder));
+                }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 用户当前的版本号；没有状态行的老用户在首次同步时开始记录，这是同步接口上唯一的写入
+     */
+    private long ensureState(Long userId) {
+        Long version = syncMapper.findVersion(userId);
+        if (version != null) {
+            return version;
+        }
+        return writeTransaction.execute(status -> start(userId));
+    }
+
+    /**
+     * 在当前事务内创建状态行并为现有笔记与提醒补写变更记录，返回补写后的版本号；
+     * 状态行已存在时等待对方提交后返回其版本号。插入的状态行在提交前持有锁，
+     * 期间其他写入在 incrementVersion 处等待，补写完成后再分配版本号
+     */
+    private long start(Long userId) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        try {
+            syncMapper.insertState(userId, now);
+        } catch (DuplicateKeyException e) {
+            // 其他请求或节点已开始记录
+            return syncMapper.findVersion(userId);
+        }
+        int notes = syncMapper.backfillNotes(userId, 0, now);
+        int reminders = syncMapper.backfillReminders(userId, notes, now);
+        syncMapper.updateVersion(userId, notes + reminders);
+        log.info("开始记录同步变更: userId={}, version={}", userId, notes + reminders);
+        return (long) notes + reminders;
+    }
+
+    private static SyncResponse empty(long version) {
+        SyncResponse response = new SyncResponse();
+        response.setVersion(version);
+        return response;
+    }
+
+    private static ChangeLog change(Long userId, int entityType, Long entityId, boolean deleted) {
+        ChangeLog change = new ChangeLog();
+        change.setUserId(userId);
+        change.setEntityType(entityType);
+        change.setEntityId(entityId);
+        change.setDeleted(deleted);
+        change.setChangeTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return change;
+    }
+
+    /**
+     * 挂起的同步请求
+     */
+    private record Waiter(long since, int limit, DeferredResult<Result<SyncResponse>> result) {
+    }
+}
@@ -0,0 +1,337 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.UserChangedEvent;
+import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.security.UserDetailsCache;
+import com.chronotes.backend.service.UserCacheService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户查询缓存服务实现
+ * <p>
+ * 读取顺序：本地缓存 → Redis → MySQL。Redis 中按ID存放用户 JSON，按邮箱只存放用户ID
+ * （或"未注册"标记），因此修改用户信息时只需删除ID对应的条目。缓存中的用户不含密码哈希，
+ * 需要校验密码时由调用方从数据库读取。
+ * 写入用户后删除 Redis 条目并通过发布/订阅通知所有节点清理本地缓存。
+ * <p>
+ * 回源读库与失效可能交错：读库开始时行还是旧的，读完前失效已经完成，这时回填会把旧数据（含旧的 Token 版本号）
+ * 写回缓存。因此每个用户ID和邮箱在 Redis 中各有一个代际，失效时先递增代际再删除条目；回填在读库前记下代际，
+ * 由脚本比较后才写入，代际已变化则放弃。本地缓存同样在读取前记下本节点的失效计数，期间有过失效就不写入
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCacheServiceImpl implements UserCacheService, MessageListener {
+
+    private final UserMapper userMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final UserDetailsCache userDetailsCache;
+    private final ObjectMapper objectMapper;
+
+    private static final String USER_ID_PREFIX = "user_cache:id:";
+    private static final String USER_EMAIL_PREFIX = "user_cache:email:";
+    private static final String GENERATION_ID_PREFIX = "user_cache:gen:id:";
+    private static final String GENERATION_EMAIL_PREFIX = "user_cache:gen:email:";
+    private static final String NOT_FOUND_MARK = "-";
+    private static final Long NOT_FOUND_ID = -1L;
+
+    @Value("${user.cache.local.max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${user.cache.local.ttl:60000}")
+    private long localTtl;
+
+    @Value("${user.cache.redis.ttl:1800000}")
+    private long redisTtl;
+
+    @Value("${user.cache.negative-ttl:60000}")
+    private long negativeTtl;
+
+    /**
+     * 本地缓存：用户ID → 用户
+     */
+    private Cache<Long, User> localUsers;
+
+    /**
+     * 本地缓存：邮箱 → 用户ID（NOT_FOUND_ID 表示未注册）
+     */
+    private Cache<String, Long> localEmails;
+
+    /**
+     * 本节点处理过的失效次数，回填本地缓存前比较
+     */
+    private final AtomicLong localInvalidations = new AtomicLong();
+
+    private DefaultRedisScript<Long> setScript;
+
+    private DefaultRedisScript<Long> invalidateScript;
+
+    @PostConstruct
+    public void init() {
+        this.setScript = new DefaultRedisScript<>();
+        this.setScript.setLocation(new ClassPathResource("scripts/user_cache_set.lua"));
+        this.setScript.setResultType(Long.class);
+        this.invalidateScript = new DefaultRedisScript<>();
+        this.invalidateScript.setLocation(new ClassPathResource("scripts/user_cache_invalidate.lua"));
+        this.invalidateScript.setResultType(Long.class);
+        this.localUsers = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl, TimeUnit.MILLISECONDS)
+                .build();
+        this.localEmails = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Math.min(localTtl, negativeTtl), TimeUnit.MILLISECONDS)
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        long localGeneration = localInvalidations.get();
+        String generation = null;
+        Long userId = localEmails.getIfPresent(email);
+        if (userId == null) {
+            List<String> values = readRedis(USER_EMAIL_PREFIX + email, GENERATION_EMAIL_PREFIX + email);
+            if (values != null) {
+                userId = parseEmailIndex(values.get(0));
+                generation = values.get(1) == null ? "" : values.get(1);
+            }
+        }
+        if (userId != null) {
+            if (NOT_FOUND_ID.equals(userId)) {
+                putLocalEmail(email, NOT_FOUND_ID, localGeneration);
+                return null;
+            }
+            User user = findById(userId);
+            if (user != null && email.equals(user.getEmail())) {
+                putLocalEmail(email, userId, localGeneration);
+                return user;
+            }
+            // 邮箱索引已过时（用户修改了邮箱），回源查询
+            evictEmails(List.of(email));
+            generation = null;
+        }
+
+        User user = userMapper.findByEmail(email);
+        if (user == null) {
+            putLocalEmail(email, NOT_FOUND_ID, localGeneration);
+            writeRedis(GENERATION_EMAIL_PREFIX + email, generation, negativeTtl, USER_EMAIL_PREFIX + email, NOT_FOUND_MARK);
+            return null;
+        }
+        // 只回填邮箱索引（命中后会核对邮箱），用户行在按ID查询时按用户代际回填
+        putLocalEmail(email, user.getId(), localGeneration);
+        writeRedis(GENERATION_EMAIL_PREFIX + email, generation, redisTtl, USER_EMAIL_PREFIX + email, user.getId().toString());
+        return copy(user);
+    }
+
+    @Override
+    public User findById(Long id) {
+        User user = localUsers.getIfPresent(id);
+        if (user != null) {
+            return copy(user);
+        }
+        long localGeneration = localInvalidations.get();
+        String generation = null;
+        List<String> values = readRedis(USER_ID_PREFIX + id, GENERATION_ID_PREFIX + id);
+        if (values != null) {
+            user = parseUser(values.get(0));
+            generation = values.get(1) == null ? "" : values.get(1);
+        }
+        if (user == null) {
+            user = userMapper.findById(id);
+            if (user == null) {
+                return null;
+            }
+            user = copy(user);
+            try {
+                writeRedis(GENERATION_ID_PREFIX + id, generation, redisTtl,
+                        USER_ID_PREFIX + id, objectMapper.writeValueAsString(user));
+            } catch (JsonProcessingException e) {
+                log.warn("用户缓存序列化失败: {}", e.getMessage());
+            }
+        }
+        synchronized (localInvalidations) {
+            if (localInvalidations.get() == localGeneration) {
+                localUsers.put(id, user);
+            }
+        }
+        return copy(user);
+    }
+
+    /**
+     * 本节点写入用户后，删除 Redis 条目并广播失效消息
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Set<String> emails = new LinkedHashSet<>();
+        if (event.getEmail() != null) {
+            emails.add(event.getEmail());
+        }
+        if (event.getUserId() != null) {
+            // 修改邮箱时旧邮箱的索引也要删除
+            User cached = localUsers.getIfPresent(event.getUserId());
+            if (cached == null) {
+                List<String> values = readRedis(USER_ID_PREFIX + event.getUserId());
+                cached = values == null ? null : parseUser(values.get(0));
+            }
+            if (cached != null) {
+                emails.add(cached.getEmail());
+            }
+        }
+
+        // 先列代际键，再列缓存键
+        List<String> keys = new ArrayList<>();
+        if (event.getUserId() != null) {
+            keys.add(GENERATION_ID_PREFIX + event.getUserId());
+        }
+        emails.forEach(email -> keys.add(GENERATION_EMAIL_PREFIX + email));
+        int generations = keys.size();
+        if (event.getUserId() != null) {
+            keys.add(USER_ID_PREFIX + event.getUserId());
+        }
+        emails.forEach(email -> keys.add(USER_EMAIL_PREFIX + email));
+        evictLocal(event.getUserId(), emails);
+        try {
+            redisTemplate.execute(invalidateScript, keys, String.valueOf(generations), String.valueOf(redisTtl));
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, encodeMessage(event.getUserId(), emails));
+        } catch (Exception e) {
+            log.warn("用户缓存失效广播失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 接收其他节点（以及本节点）的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        String idPart = separator < 0 ? body : body.substring(0, separator);
+        Long userId = idPart.isEmpty() ? null : Long.valueOf(idPart);
+        List<String> emails = separator < 0 || separator == body.length() - 1
+                ? List.of()
+                : List.of(body.substring(separator + 1).split(","));
+        evictLocal(userId, emails);
+        userDetailsCache.invalidate(userId);
+    }
+
+    private void evictLocal(Long userId, Iterable<String> emails) {
+        synchronized (localInvalidations) {
+            localInvalidations.incrementAndGet();
+        }
+        if (userId != null) {
+            localUsers.invalidate(userId);
+        }
+        emails.forEach(localEmails::invalidate);
+    }
+
+    private void evictEmails(List<String> emails) {
+        emails.forEach(localEmails::invalidate);
+        try {
+            redisTemplate.delete(emails.stream().map(email -> USER_EMAIL_PREFIX + email).toList());
+        } catch (Exception e) {
+            log.warn("删除用户邮箱索引失败: {}", e.getMessage());
+        }
+    }
+
+    private static String encodeMessage(Long userId, Set<String> emails) {
+        return (userId == null ? "" : userId.toString()) + "|" + String.join(",", emails);
+    }
+
+    private void putLocalEmail(String email, Long userId, long localGeneration) {
+        synchronized (localInvalidations) {
+            if (localInvalidations.get() == localGeneration) {
+                localEmails.put(email, userId);
+            }
+        }
+    }
+
+    /**
+     * 读库前记下代际的回填，代际已变化时放弃；generation 为 null（读取 Redis 失败）时不回填
+     */
+    private void writeRedis(String generationKey, String generation, long ttl, String key, String value) {
+        if (generation == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(setScript, List.of(generationKey, key), generation, String.valueOf(ttl), value);
+        } catch (Exception e) {
+            log.warn("写入用户缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一次读取多个键，Redis 不可用时返回 null
+     */
+    private List<String> readRedis(String... keys) {
+        try {
+            return redisTemplate.opsForValue().multiGet(List.of(keys));
+        } catch (Exception e) {
+            log.warn("读取用户缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long parseEmailIndex(String value) {
+        if (value == null) {
+            return null;
+        }
+        return NOT_FOUND_MARK.equals(value) ? NOT_FOUND_ID : Long.valueOf(value);
+    }
+
+    private User parseUser(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            // 旧版本写入的 JSON 可能含密码哈希，复制时丢弃
+            return copy(objectMapper.readValue(json, User.class));
+        } catch (JsonProcessingException e) {
+            log.warn("用户缓存反序列化失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存中的对象不直接交给调用方，避免被修改后污染缓存；不复制密码哈希
+     */
+    private static User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setEmail(source.getEmail());
+        user.setUsername(source.getUsername());
+        user.setAvatarUrl(source.getAvatarUrl());
+        user.setBio(source.getBio());
+        user.setStatus(source.getStatus());
+        user.setTokenVersion(source.getTokenVersion());
+        user.setCreateTime(source.getCreateTime());
+        user.setUpdateTime(source.getUpdateTime());
+        return user;
+    }
+}
@@ -0,0 +1,63 @@
+package com.chronotes.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * 按内容寻址的文件存储，内容以 SHA-256（小写十六进制）为键，相同内容只存一份
+ * <p>
+ * 写入分两步：{@link #stage} 把输入流边读边写入暂存区并计算哈希，{@link #commit} 再把暂存内容
+ * 放到哈希对应的位置。调用方在两步之间按哈希加锁（多个节点共用存储时须为数据库行锁等跨节点的锁），与删除互斥。
+ * 接入对象存储时实现本接口并声明为 Bean，同时把 storage.type 设为其他值以停用本地实现
+ */
+public interface BlobStore {
+
+    /**
+     * 把输入流写入暂存区，超过 maxSize 字节时抛出 {@link BlobTooLargeException} 并清理暂存内容
+     */
+    StagedBlob stage(InputStream in, long maxSize) throws IOException;
+
+    /**
+     * 提交暂存内容；已存在相同内容时丢弃暂存内容，返回 false
+     */
+    boolean commit(StagedBlob staged) throws IOException;
+
+    /**
+     * 放弃暂存内容
+     */
+    void discard(StagedBlob staged);
+
+    /**
+     * 内容是否存在
+     */
+    boolean exists(String hash);
+
+    /**
+     * 把 [position, position + count) 区间的内容写入 target，返回写入字节数
+     */
+    long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException;
+
+    /**
+     * 内容对应的本地文件，可交给容器以 sendfile 发送；不在本地文件系统上时返回 null
+     */
+    default Path localFile(String hash) {
+        return null;
+    }
+
+    /**
+     * 删除内容，不存在时返回 false
+     */
+    boolean delete(String hash) throws IOException;
+
+    /**
+     * 已暂存的内容
+     *
+     * @param hash SHA-256
+     * @param size 字节数
+     * @param file 暂存文件
+     */
+    record StagedBlob(String hash, long size, Path file) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.chronotes.backend.storage;
+
+import java.io.IOException;
+
+/**
+ * 写入内容超过大小上限
+ */
+public class BlobTooLargeException extends IOException {
+
+    public BlobTooLargeException(long maxSize) {
+        super("内容超过 " + maxSize + " 字节");
+    }
+}
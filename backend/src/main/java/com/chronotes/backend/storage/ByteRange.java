@@ -0,0 +1,68 @@
+package com.chronotes.backend.storage;
+
+/**
+ * HTTP Range 请求中的单个字节区间 [start, end]（两端都包含）
+ * <p>
+ * 只支持单个区间；多区间、格式错误的请求头按 RFC 9110 忽略，返回完整内容
+ *
+ * @param start 起始字节
+ * @param end   结束字节（包含）
+ */
+public record ByteRange(long start, long end) {
+
+    /**
+     * 区间完全落在内容之外，应返回 416
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    /**
+     * 解析 Range 请求头；应忽略该请求头时返回 null
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // bytes=-N：最后 N 个字节
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return suffix < 0 ? null : UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 区间字节数
+     */
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Content-Range 响应头
+     */
+    public String contentRange(long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+}
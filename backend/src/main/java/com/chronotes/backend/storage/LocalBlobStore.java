@@ -0,0 +1,164 @@
+package com.chronotes.backend.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * 本地目录文件存储
+ * <p>
+ * 内容存放在 storage.local.dir/{哈希前2位}/{哈希第3-4位}/{哈希}，暂存文件在 tmp 子目录，
+ * 与正式文件位于同一文件系统，提交时原子重命名。写入时每次只在堆上保留一个缓冲区，
+ * 读取时由 {@link FileChannel#transferTo} 直接从页缓存发送。
+ * 目录也可以是挂载到本地的对象存储（如 ossfs），多个节点共享同一目录
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Value("${storage.local.dir:data/attachments}")
+    private String dir;
+
+    private Path root;
+    private Path tmpDir;
+
+    @PostConstruct
+    public void init() {
+        this.root = Path.of(dir).toAbsolutePath();
+        this.tmpDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(tmpDir);
+            // 清理上次运行中断遗留的暂存文件；只删除一小时前的，避免误删共享目录上其他节点正在写入的文件
+            FileTime cutoff = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+            try (Stream<Path> files = Files.list(tmpDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("初始化文件存储目录失败: " + root, e);
+        }
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, long maxSize) throws IOException {
+        MessageDigest digest = sha256();
+        Path file = Files.createTempFile(tmpDir, "upload-", ".tmp");
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new BlobTooLargeException(maxSize);
+                }
+                digest.update(buffer, 0, read);
+                wrapped.clear().limit(read);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new StagedBlob(HEX.formatHex(digest.digest()), size, file);
+    }
+
+    @Override
+    public boolean commit(StagedBlob staged) throws IOException {
+        Path target = path(staged.hash());
+        if (Files.exists(target)) {
+            Files.deleteIfExists(staged.file());
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        // 同一文件系统内重命名是原子的；并发提交相同内容时后者覆盖前者，内容一致
+        Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    @Override
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists(staged.file());
+        } catch (IOException e) {
+            log.warn("删除暂存文件失败: {}, {}", staged.file(), e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(path(hash));
+    }
+
+    @Override
+    public long transferTo(String hash, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0) {
+                    break;
+                }
+                transferred += n;
+            }
+            return transferred;
+        }
+    }
+
+    @Override
+    public Path localFile(String hash) {
+        return path(hash);
+    }
+
+    @Override
+    public boolean delete(String hash) throws IOException {
+        return Files.deleteIfExists(path(hash));
+    }
+
+    private Path path(String hash) {
+        if (hash.length() != 64 || !hash.chars().allMatch(HexFormat::isHexDigit)) {
+            throw new IllegalArgumentException("无效的内容哈希: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.chronotes.backend.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记响应只取决于当前用户的笔记与提醒数据（以及请求参数）的读接口
+ * <p>
+ * 这类接口以用户数据版本号作为强 ETag，不必先生成响应即可应答 If-None-Match，
+ * 并把序列化后的响应缓存到版本号变化为止，见 {@link ConditionalGetInterceptor}。
+ * 响应还依赖当前时间、附件或异步计算结果的接口不应标记
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+}
@@ -0,0 +1,155 @@
+package com.chronotes.backend.web;
+
+import com.chronotes.backend.security.CustomUserDetails;
+import com.chronotes.backend.service.SyncService;
+import com.chronotes.backend.util.Result;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * 读接口的条件请求拦截器
+ * <p>
+ * 返回 {@link Result} 的 GET 接口都交给 {@link ResponseCacheFilter} 缓冲，较大的响应压缩后写出。
+ * 标记了 {@link ConditionalGet} 的接口在调用之前处理：以 "用户ID-数据版本号" 作为强 ETag，
+ * 与 If-None-Match 相符时直接返回 304；响应缓存中有同一版本的结果时直接写出缓存；
+ * 否则调用接口，由过滤器缓存结果并写出 ETag。压缩后的表示是另一个表示，ETag 加 "-gzip" 后缀
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * 响应需要缓冲（返回 Result 的 GET 接口）
+     */
+    static final String JSON_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".json";
+
+    /**
+     * 未命中缓存的条件请求，值为 {@link Conditional}
+     */
+    static final String CONDITIONAL_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".conditional";
+
+    /**
+     * 命中的缓存响应，值为 {@link ResponseCache.Response}
+     */
+    static final String CACHED_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".cached";
+
+    /**
+     * 接口正常返回（抛出异常时由异常处理器生成的错误响应不缓存）
+     */
+    static final String COMPLETED_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".completed";
+
+    /**
+     * 客户端需要每次校验，但可以保存响应
+     */
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    private final SyncService syncService;
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !"GET".equals(request.getMethod())
+                || method.getMethod().getReturnType() != Result.class) {
+            return true;
+        }
+        request.setAttribute(JSON_ATTRIBUTE, Boolean.TRUE);
+        if (!method.hasMethodAnnotation(ConditionalGet.class)) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails principal)) {
+            return true;
+        }
+        Long userId = principal.getUser().getId();
+        long version;
+        try {
+            version = syncService.currentVersion(userId);
+        } catch (Exception e) {
+            // 取不到版本号时按普通请求处理
+            log.warn("读取数据版本号失败: userId={}, {}", userId, e.getMessage());
+            return true;
+        }
+
+        String etag = "\"" + userId + "-" + version + "\"";
+        String matched = match(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag);
+        if (matched != null) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, matched);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            count("not_modified");
+            return false;
+        }
+
+        String query = request.getQueryString();
+        String key = query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+        ResponseCache.Response cached = responseCache.get(userId, key, version);
+        if (cached != null) {
+            request.setAttribute(CACHED_ATTRIBUTE, cached);
+            count("hit");
+            return false;
+        }
+        request.setAttribute(CONDITIONAL_ATTRIBUTE, new Conditional(userId, key, version, etag));
+        count("miss");
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        request.setAttribute(COMPLETED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    /**
+     * 压缩表示的 ETag
+     */
+    static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * If-None-Match 中与当前任一表示相符的 ETag（按弱比较），都不相符返回 null
+     */
+    static String match(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String gzipEtag = gzipEtag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return etag;
+            }
+            if (tag.equals(gzipEtag)) {
+                return gzipEtag;
+            }
+        }
+        return null;
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("http.response.cache", "result", result).increment();
+    }
+
+    /**
+     * 待缓存响应的条件请求
+     *
+     * @param etag 未压缩时的 ETag
+     */
+    record Conditional(Long userId, String key, long version, String etag) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.chronotes.backend.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 读接口的响应缓存
+ * <p>
+ * 按用户保存最近请求过的序列化响应（每个用户最多若干条，按最近使用淘汰），总字节数受上限约束，
+ * 超过压缩阈值的同时保存 gzip 结果，命中时既不查询也不序列化、不再压缩。
+ * 每条响应记录生成时的数据版本号，版本号变化后不再命中；另有有效期兜底版本号未能及时更新的情况
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * 缓存的响应总字节数上限
+     */
+    @Value("${http.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    /**
+     * 每个用户缓存的响应数
+     */
+    @Value("${http.cache.max-entries-per-user:32}")
+    private int maxEntriesPerUser;
+
+    /**
+     * 单条响应的有效期（毫秒）
+     */
+    @Value("${http.cache.ttl:600000}")
+    private long ttl;
+
+    /**
+     * 响应体达到该字节数时 gzip 压缩
+     */
+    @Value("${http.compression.min-size:2048}")
+    private int minCompressSize;
+
+    /**
+     * 用户ID → 该用户缓存的响应
+     */
+    private Cache<Long, UserResponses> responses;
+
+    @PostConstruct
+    public void init() {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, UserResponses entries) -> entries.weight())
+                .expireAfterAccess(ttl, TimeUnit.MILLISECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    /**
+     * 查找版本号为 version 时生成的响应，没有或已过期返回 null
+     */
+    public Response get(Long userId, String key, long version) {
+        UserResponses entries = responses.getIfPresent(userId);
+        return entries == null ? null : entries.get(key, version, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ttl));
+    }
+
+    /**
+     * 保存响应，需要时同时保存压缩结果
+     */
+    public Response put(Long userId, String key, long version, String etag, byte[] body) {
+        Response response = new Response(etag, body, compressible(body.length) ? gzip(body) : null);
+        responses.asMap().compute(userId, (id, entries) -> {
+            if (entries == null) {
+                entries = new UserResponses(maxEntriesPerUser);
+            }
+            entries.put(key, new Entry(version, System.nanoTime(), response));
+            // 返回同一对象也会按新的字节数重新计算权重
+            return entries;
+        });
+        return response;
+    }
+
+    public boolean compressible(int length) {
+        return length >= minCompressSize;
+    }
+
+    public static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 序列化后的响应
+     *
+     * @param etag 未压缩时的 ETag
+     * @param body 响应体
+     * @param gzip 压缩后的响应体，未达到压缩阈值时为 null
+     */
+    public record Response(String etag, byte[] body, byte[] gzip) {
+
+        int weight() {
+            return body.length + (gzip == null ? 0 : gzip.length) + 64;
+        }
+    }
+
+    private record Entry(long version, long createdAt, Response response) {
+    }
+
+    /**
+     * 一个用户缓存的响应，按最近使用淘汰
+     */
+    private static final class UserResponses {
+
+        private final Map<String, Entry> entries;
+
+        private int weight;
+
+        UserResponses(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        weight -= eldest.getValue().response().weight();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Response get(String key, long version, long notBefore) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.version() != version || entry.createdAt() - notBefore < 0) {
+                entries.remove(key);
+                weight -= entry.response().weight();
+                return null;
+            }
+            return entry.response();
+        }
+
+        synchronized void put(String key, Entry entry) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.response().weight();
+            }
+            weight += entry.response().weight();
+        }
+
+        synchronized int weight() {
+            return weight;
+        }
+    }
+}
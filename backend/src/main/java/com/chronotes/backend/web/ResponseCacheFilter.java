@@ -0,0 +1,254 @@
+package com.chronotes.backend.web;
+
+import com.chronotes.backend.service.SyncService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * 读接口响应的缓冲、缓存与压缩
+ * <p>
+ * 只缓冲 {@link ConditionalGetInterceptor} 标记的 JSON 响应，SSE、附件下载等其他 GET 响应原样写出。
+ * 缓冲的响应在接口返回后写出：条件请求正常返回且期间数据版本号未变时存入 {@link ResponseCache} 并带上 ETag；
+ * 客户端接受 gzip 且响应达到压缩阈值时写出压缩结果（缓存中的压缩结果直接复用）
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache responseCache;
+    private final SyncService syncService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        BufferingResponse buffering = new BufferingResponse(request, response);
+        filterChain.doFilter(request, buffering);
+
+        ResponseCache.Response cached = (ResponseCache.Response) request.getAttribute(ConditionalGetInterceptor.CACHED_ATTRIBUTE);
+        if (cached != null) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            write(request, response, cached);
+            return;
+        }
+        if (!buffering.isBuffering() || response.isCommitted()) {
+            return;
+        }
+        byte[] body = buffering.toByteArray();
+        ConditionalGetInterceptor.Conditional conditional =
+                (ConditionalGetInterceptor.Conditional) request.getAttribute(ConditionalGetInterceptor.CONDITIONAL_ATTRIBUTE);
+        if (conditional != null && request.getAttribute(ConditionalGetInterceptor.COMPLETED_ATTRIBUTE) != null
+                && response.getStatus() == HttpServletResponse.SC_OK
+                && syncService.currentVersion(conditional.userId()) == conditional.version()) {
+            write(request, response, responseCache.put(conditional.userId(), conditional.key(),
+                    conditional.version(), conditional.etag(), body));
+            return;
+        }
+        if (response.getStatus() == HttpServletResponse.SC_OK && responseCache.compressible(body.length)) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                writeBody(response, ResponseCache.gzip(body), true);
+                return;
+            }
+        }
+        writeBody(response, body, false);
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, ResponseCache.Response cached)
+            throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ConditionalGetInterceptor.CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cached.gzip() != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.ETAG, ConditionalGetInterceptor.gzipEtag(cached.etag()));
+            writeBody(response, cached.gzip(), true);
+        } else {
+            response.setHeader(HttpHeaders.ETAG, cached.etag());
+            writeBody(response, cached.body(), false);
+        }
+    }
+
+    private static void writeBody(HttpServletResponse response, byte[] body, boolean gzip) throws IOException {
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Accept-Encoding 是否接受 gzip（未列出或 q=0 时不接受）
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 对返回 Result 的接口缓冲响应体，其他响应直接写出
+     */
+    private static final class BufferingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private ByteArrayOutputStream buffer;
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        BufferingResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        /**
+         * 首次写出时决定是否缓冲，此时拦截器已经执行
+         */
+        private boolean buffered() {
+            if (buffer == null && request.getAttribute(ConditionalGetInterceptor.JSON_ATTRIBUTE) != null) {
+                buffer = new ByteArrayOutputStream(1024);
+            }
+            return buffer != null;
+        }
+
+        boolean isBuffering() {
+            return buffer != null;
+        }
+
+        byte[] toByteArray() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return buffer.toByteArray();
+        }
+
+        /**
+         * 不缓冲时返回原始输出流，isReady / setWriteListener 等非阻塞写出由容器处理
+         */
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (!buffered()) {
+                return super.getOutputStream();
+            }
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        buffer.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        buffer.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    /**
+                     * 写入内存缓冲区总是就绪，立即通知；缓冲的内容由过滤器在接口返回后写出
+                     */
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        try {
+                            listener.onWritePossible();
+                        } catch (IOException e) {
+                            listener.onError(e);
+                        }
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (!buffered()) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (request.getAttribute(ConditionalGetInterceptor.JSON_ATTRIBUTE) == null) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (request.getAttribute(ConditionalGetInterceptor.JSON_ATTRIBUTE) == null) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (buffer == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (buffer != null) {
+                buffer.reset();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (buffer != null) {
+                buffer.reset();
+            }
+            super.reset();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- 从发件箱取出一批邮件并登记租约
+-- KEYS[1]: 发件箱（List） KEYS[2]: 租约（ZSet，score 为租约到期时间） KEYS[3]: 认领记录（Hash，值为节点ID）
+-- ARGV[1]: 最多取出条数 ARGV[2]: 租约到期时间 ARGV[3]: 节点ID
+-- 返回取出的消息ID
+local claimed = {}
+for i = 1, tonumber(ARGV[1]) do
+    local id = redis.call('RPOP', KEYS[1])
+    if not id then
+        break
+    end
+    redis.call('ZADD', KEYS[2], ARGV[2], id)
+    redis.call('HSET', KEYS[3], id, ARGV[3])
+    claimed[#claimed + 1] = id
+end
+return claimed
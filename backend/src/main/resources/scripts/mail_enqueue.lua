@@ -0,0 +1,6 @@
+-- 写入消息体并放入发件箱，两步在同一脚本内完成，不会出现有ID无消息体或有消息体未入队
+-- KEYS[1]: 消息体（Hash） KEYS[2]: 发件箱（List）
+-- ARGV[1]: 消息ID ARGV[2]: 消息 JSON
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+redis.call('LPUSH', KEYS[2], ARGV[1])
+return 1
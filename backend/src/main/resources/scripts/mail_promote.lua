@@ -0,0 +1,10 @@
+-- 把到期的重试邮件移回发件箱，移出与放回原子完成，多节点同时执行也只放回一次
+-- KEYS[1]: 重试（ZSet，score 为到期时间） KEYS[2]: 发件箱（List）
+-- ARGV[1]: 当前时间 ARGV[2]: 最多移动条数
+-- 返回移动的数量
+local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+for _, id in ipairs(ids) do
+    redis.call('ZREM', KEYS[1], id)
+    redis.call('LPUSH', KEYS[2], id)
+end
+return #ids
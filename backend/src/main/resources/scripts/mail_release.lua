@@ -0,0 +1,35 @@
+-- 把已取出、未结束的邮件放回发件箱队首（下一次最先取出）
+-- KEYS[1]: 发件箱（List） KEYS[2]: 租约（ZSet） KEYS[3]: 认领记录（Hash）
+-- 释放本节点持有的邮件：ARGV[1] 为 'node'，ARGV[2] 为节点ID，ARGV[3..] 为消息ID
+-- 回收租约过期的邮件：ARGV[1] 为 'expired'，ARGV[2] 为当前时间，ARGV[3] 为最多回收条数
+-- 返回放回的数量
+local ids
+local node
+if ARGV[1] == 'expired' then
+    ids = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[2], 'LIMIT', 0, tonumber(ARGV[3]))
+else
+    ids = {}
+    for i = 3, #ARGV do
+        ids[#ids + 1] = ARGV[i]
+    end
+    node = ARGV[2]
+end
+
+-- 倒序放回，使租约最早到期的位于队首
+local released = 0
+for i = #ids, 1, -1 do
+    local id = ids[i]
+    local owner = redis.call('HGET', KEYS[3], id)
+    if owner then
+        if node == nil or owner == node then
+            redis.call('RPUSH', KEYS[1], id)
+            redis.call('ZREM', KEYS[2], id)
+            redis.call('HDEL', KEYS[3], id)
+            released = released + 1
+        end
+    else
+        -- 认领记录已随确认删除，只清理残留的租约
+        redis.call('ZREM', KEYS[2], id)
+    end
+end
+return released
@@ -0,0 +1,12 @@
+-- 为本节点仍持有的邮件续约；已被回收或已被其他节点重新取出的跳过
+-- KEYS[1]: 租约（ZSet） KEYS[2]: 认领记录（Hash）
+-- ARGV[1]: 新的租约到期时间 ARGV[2]: 节点ID ARGV[3..]: 消息ID
+-- 返回续约成功的数量
+local renewed = 0
+for i = 3, #ARGV do
+    if redis.call('HGET', KEYS[2], ARGV[i]) == ARGV[2] then
+        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i])
+        renewed = renewed + 1
+    end
+end
+return renewed
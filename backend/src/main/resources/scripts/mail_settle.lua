@@ -0,0 +1,29 @@
+-- 结束本节点持有的一封邮件：确认、安排重试或转入死信
+-- KEYS[1]: 租约（ZSet） KEYS[2]: 认领记录（Hash） KEYS[3]: 消息体（Hash） KEYS[4]: 发件箱（List）
+-- KEYS[5]: 重试（ZSet） KEYS[6]: 死信（List） KEYS[7]: 死信原因（Hash）
+-- ARGV[1]: 'ack' / 'retry' / 'dead' ARGV[2]: 节点ID ARGV[3]: 消息ID
+-- ARGV[4]: 消息体（retry / dead） ARGV[5]: 重试时间（retry）或死信原因（dead）
+-- 返回 1 表示已处理，0 表示租约已失去
+local id = ARGV[3]
+local owner = redis.call('HGET', KEYS[2], id)
+if owner ~= ARGV[2] then
+    -- 租约过期已被回收：若已发送成功且尚未被重新取出，撤下放回发件箱的副本
+    if ARGV[1] == 'ack' and not owner and redis.call('LREM', KEYS[4], 0, id) > 0 then
+        redis.call('HDEL', KEYS[3], id)
+    end
+    return 0
+end
+
+redis.call('ZREM', KEYS[1], id)
+redis.call('HDEL', KEYS[2], id)
+if ARGV[1] == 'ack' then
+    redis.call('HDEL', KEYS[3], id)
+elseif ARGV[1] == 'retry' then
+    redis.call('HSET', KEYS[3], id, ARGV[4])
+    redis.call('ZADD', KEYS[5], ARGV[5], id)
+else
+    redis.call('HSET', KEYS[3], id, ARGV[4])
+    redis.call('HSET', KEYS[7], id, ARGV[5])
+    redis.call('LPUSH', KEYS[6], id)
+end
+return 1
@@ -0,0 +1,26 @@
+-- 滑动窗口计数限流（多维度原子检查）
+-- KEYS: 每条规则两个 key，依次为当前窗口计数、上一窗口计数
+-- ARGV[1]: 当前窗口已经过的比例（0-1）
+-- ARGV[2]: 窗口长度（毫秒）
+-- ARGV[3..]: 每条规则的上限
+-- 返回 0 表示放行（所有规则计数 +1），否则返回第一条超限规则的序号（从 1 开始），不计数
+local elapsed = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local rules = #KEYS / 2
+
+for i = 1, rules do
+    local limit = tonumber(ARGV[i + 2])
+    local current = tonumber(redis.call('GET', KEYS[i * 2 - 1]) or '0')
+    local previous = tonumber(redis.call('GET', KEYS[i * 2]) or '0')
+    if previous * (1 - elapsed) + current >= limit then
+        return i
+    end
+end
+
+for i = 1, rules do
+    local key = KEYS[i * 2 - 1]
+    if redis.call('INCR', key) == 1 then
+        redis.call('PEXPIRE', key, window * 2)
+    end
+end
+return 0
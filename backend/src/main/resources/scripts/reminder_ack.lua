@@ -0,0 +1,17 @@
+-- 确认提醒已处理；已被其他节点重新认领的跳过
+-- KEYS[1]: 租约（ZSet） KEYS[2]: 认领记录（Hash）
+-- ARGV[1]: 节点ID ARGV[2..]: 提醒ID 与认领时的到期时间交替排列
+-- 返回确认成功的数量
+local acked = 0
+for i = 2, #ARGV - 1, 2 do
+    local owner = redis.call('HGET', KEYS[2], ARGV[i])
+    if owner then
+        local sep = string.find(owner, '|', 1, true)
+        if string.sub(owner, 1, sep - 1) == ARGV[1] and tonumber(string.sub(owner, sep + 1)) == tonumber(ARGV[i + 1]) then
+            redis.call('ZREM', KEYS[1], ARGV[i])
+            redis.call('HDEL', KEYS[2], ARGV[i])
+            acked = acked + 1
+        end
+    end
+end
+return acked
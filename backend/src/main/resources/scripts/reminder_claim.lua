@@ -0,0 +1,18 @@
+-- 认领即将到期的提醒
+-- KEYS[1]: 到期队列（ZSet，score 为到期时间）
+-- KEYS[2]: 租约（ZSet，score 为租约到期时间）
+-- KEYS[3]: 认领记录（Hash，值为 "节点ID|到期时间"）
+-- ARGV[1]: 认领截止时间（毫秒） ARGV[2]: 最多认领条数 ARGV[3]: 租约到期时间 ARGV[4]: 节点ID
+-- 返回 {id1, dueAt1, id2, dueAt2, ...}
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[2]))
+local claimed = {}
+for i = 1, #due, 2 do
+    local id = due[i]
+    local dueAt = due[i + 1]
+    redis.call('ZREM', KEYS[1], id)
+    redis.call('ZADD', KEYS[2], ARGV[3], id)
+    redis.call('HSET', KEYS[3], id, ARGV[4] .. '|' .. dueAt)
+    claimed[#claimed + 1] = id
+    claimed[#claimed + 1] = dueAt
+end
+return claimed
@@ -0,0 +1,34 @@
+-- 把认领的提醒按原到期时间放回到期队列
+-- KEYS[1]: 到期队列（ZSet） KEYS[2]: 租约（ZSet） KEYS[3]: 认领记录（Hash）
+-- 释放本节点持有的提醒：ARGV[1] 为 'node'，ARGV[2] 为节点ID，ARGV[3..] 为提醒ID
+-- 回收租约过期的提醒：ARGV[1] 为 'expired'，ARGV[2] 为当前时间，ARGV[3] 为最多回收条数
+-- 返回放回的数量
+local ids
+local node
+if ARGV[1] == 'expired' then
+    ids = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[2], 'LIMIT', 0, tonumber(ARGV[3]))
+else
+    ids = {}
+    for i = 3, #ARGV do
+        ids[#ids + 1] = ARGV[i]
+    end
+    node = ARGV[2]
+end
+
+local released = 0
+for _, id in ipairs(ids) do
+    local owner = redis.call('HGET', KEYS[3], id)
+    if owner then
+        local sep = string.find(owner, '|', 1, true)
+        if node == nil or string.sub(owner, 1, sep - 1) == node then
+            redis.call('ZADD', KEYS[1], tonumber(string.sub(owner, sep + 1)), id)
+            redis.call('ZREM', KEYS[2], id)
+            redis.call('HDEL', KEYS[3], id)
+            released = released + 1
+        end
+    else
+        -- 认领记录已随确认或取消删除，只清理残留的租约
+        redis.call('ZREM', KEYS[2], id)
+    end
+end
+return released
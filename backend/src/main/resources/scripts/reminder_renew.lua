@@ -0,0 +1,13 @@
+-- 为本节点仍持有的提醒续约；已被取消或已被其他节点重新认领的跳过
+-- KEYS[1]: 租约（ZSet） KEYS[2]: 认领记录（Hash）
+-- ARGV[1]: 新的租约到期时间 ARGV[2]: 节点ID ARGV[3..]: 提醒ID
+-- 返回续约成功的数量
+local renewed = 0
+for i = 3, #ARGV do
+    local owner = redis.call('HGET', KEYS[2], ARGV[i])
+    if owner and string.sub(owner, 1, string.find(owner, '|', 1, true) - 1) == ARGV[2] then
+        redis.call('ZADD', KEYS[1], ARGV[1], ARGV[i])
+        renewed = renewed + 1
+    end
+end
+return renewed
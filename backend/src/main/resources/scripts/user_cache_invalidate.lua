@@ -0,0 +1,12 @@
+-- 使用户缓存失效：先递增代际，使读库中的回填放弃，再删除缓存键
+-- KEYS: 代际键与缓存键，前 ARGV[1] 个为代际键
+-- ARGV[1]: 代际键数量 ARGV[2]: 代际键过期时间（毫秒）
+local generations = tonumber(ARGV[1])
+for i = 1, generations do
+    redis.call('INCR', KEYS[i])
+    redis.call('PEXPIRE', KEYS[i], ARGV[2])
+end
+for i = generations + 1, #KEYS do
+    redis.call('DEL', KEYS[i])
+end
+return generations
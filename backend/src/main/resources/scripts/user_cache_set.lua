@@ -0,0 +1,12 @@
+-- 回填用户缓存；读库期间发生过失效（代际已变化）时放弃，避免把旧数据写回
+-- KEYS[1]: 代际 KEYS[2..]: 待写入的缓存键
+-- ARGV[1]: 读库前读到的代际（不存在为空串） ARGV[2]: 过期时间（毫秒） ARGV[3..]: 与 KEYS[2..] 对应的值
+-- 返回 1 表示已写入，0 表示放弃
+local generation = redis.call('GET', KEYS[1]) or ''
+if generation ~= ARGV[1] then
+    return 0
+end
+for i = 2, #KEYS do
+    redis.call('SET', KEYS[i], ARGV[i + 1], 'PX', ARGV[2])
+end
+return 1
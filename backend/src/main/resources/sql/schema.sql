@@ -12,9 +12,129 @@ CREATE TABLE IF NOT EXISTS `user` (
     `avatar_url` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
     `bio` VARCHAR(200) DEFAULT NULL COMMENT '个人简介',
     `status` TINYINT(1) DEFAULT 1 COMMENT '状态:0-禁用,1-启用',
+    `token_version` INT NOT NULL DEFAULT 0 COMMENT 'Token版本号',
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_email` (`email`),
     KEY `idx_status` (`status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
+
+-- 升级已有库：补充 token_version 列（MySQL 不支持 ADD COLUMN IF NOT EXISTS，按 information_schema 判断，列已存在时跳过）
+SET @ddl = IF(
+    (SELECT COUNT(*) FROM information_schema.COLUMNS
+     WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user' AND COLUMN_NAME = 'token_version') = 0,
+    'ALTER TABLE `user` ADD COLUMN `token_version` INT NOT NULL DEFAULT 0 COMMENT ''Token版本号'' AFTER `status`',
+    'SELECT 1');
+PREPARE upgrade_user FROM @ddl;
+EXECUTE upgrade_user;
+DEALLOCATE PREPARE upgrade_user;
+
+-- 创建笔记表
+CREATE TABLE IF NOT EXISTS `note` (
+    `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '笔记ID',
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `title` VARCHAR(200) NOT NULL COMMENT '标题',
+    `content` MEDIUMTEXT COMMENT 'Markdown 正文',
+    `tags` VARCHAR(500) DEFAULT NULL COMMENT '标签，逗号分隔',
+    `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+    `update_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    -- 列表按 (update_time, id) 倒序做游标分页
+    KEY `idx_user_update` (`user_id`, `update_time`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='笔记表';
+
+-- 创建笔记版本表
+CREATE TABLE IF NOT EXISTS `note_revision` (
+    `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `note_id` BIGINT(20) NOT NULL COMMENT '笔记ID',
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `revision` INT NOT NULL COMMENT '版本号，同一笔记内从1递增',
+    `snapshot_revision` INT NOT NULL COMMENT '所在增量链起点的全量快照版本号，等于 revision 时本行即为快照',
+    `title` VARCHAR(200) NOT NULL COMMENT '标题',
+    `tags` VARCHAR(500) DEFAULT NULL COMMENT '标签，逗号分隔',
+    `body` MEDIUMBLOB NOT NULL COMMENT '快照为 UTF-8 正文，增量为相对上一版本的行级增量',
+    `compressed` TINYINT(1) NOT NULL DEFAULT 0 COMMENT 'body 是否已压缩:0-否,1-是（Deflate）',
+    `content_length` INT NOT NULL COMMENT '该版本正文字符数',
+    `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_note_revision` (`note_id`, `revision`),
+    -- 后台压缩按创建时间扫描未压缩的旧版本
+    KEY `idx_compressed_create` (`compressed`, `create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='笔记版本表';
+
+-- 创建附件表
+CREATE TABLE IF NOT EXISTS `attachment` (
+    `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '附件ID',
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `note_id` BIGINT(20) DEFAULT NULL COMMENT '所属笔记ID，未关联笔记时为空',
+    `file_name` VARCHAR(255) NOT NULL COMMENT '原始文件名',
+    `content_type` VARCHAR(100) NOT NULL COMMENT 'MIME 类型',
+    `size` BIGINT(20) NOT NULL COMMENT '字节数',
+    `sha256` CHAR(64) NOT NULL COMMENT '内容 SHA-256，即文件存储中的键，相同内容的附件共用一份文件',
+    `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '上传时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_user_note` (`user_id`, `note_id`),
+    -- 删除附件后按内容判断文件是否仍被引用
+    KEY `idx_sha256` (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='附件表';
+
+-- 创建附件内容锁表
+CREATE TABLE IF NOT EXISTS `attachment_content` (
+    `sha256` CHAR(64) NOT NULL COMMENT '内容 SHA-256',
+    `lock_time` DATETIME(3) NOT NULL COMMENT '最近一次加锁时间',
+    PRIMARY KEY (`sha256`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='附件内容锁表，提交与删除同一内容时锁定对应行，多个节点共用文件目录时互斥';
+
+-- 创建提醒表
+CREATE TABLE IF NOT EXISTS `reminder` (
+    `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '提醒ID',
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `note_id` BIGINT(20) DEFAULT NULL COMMENT '关联笔记ID，未关联笔记时为空',
+    `title` VARCHAR(200) NOT NULL COMMENT '提醒内容',
+    `remind_at` DATETIME(3) NOT NULL COMMENT '提醒时间',
+    `status` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '状态:0-待提醒,1-已提醒,2-已取消',
+    `fire_time` DATETIME(3) DEFAULT NULL COMMENT '实际提醒时间',
+    `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    -- 按提醒时间列出用户的提醒；到期调度在 Redis 中，不扫描本表
+    KEY `idx_user_status_remind` (`user_id`, `status`, `remind_at`),
+    -- 删除笔记时取消其提醒
+    KEY `idx_note` (`note_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='提醒表';
+
+-- 创建活动统计汇总表
+CREATE TABLE IF NOT EXISTS `activity_rollup` (
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `period` TINYINT(1) NOT NULL COMMENT '统计周期:0-日,1-周,2-月,3-全部',
+    `bucket` DATE NOT NULL COMMENT '分桶起始日期（当日、当周周一、当月1日），全部为 1970-01-01',
+    `notes_created` INT NOT NULL DEFAULT 0 COMMENT '该时段创建、目前仍存在的笔记数',
+    `reminders_due` INT NOT NULL DEFAULT 0 COMMENT '提醒时间在该时段、未取消的提醒数',
+    `reminders_fired` INT NOT NULL DEFAULT 0 COMMENT '提醒时间在该时段、已提醒的提醒数',
+    -- 统计页按 (user_id, period, bucket) 读取最近若干分桶
+    PRIMARY KEY (`user_id`, `period`, `bucket`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='活动统计汇总表';
+
+-- 创建同步状态表
+CREATE TABLE IF NOT EXISTS `sync_state` (
+    `user_id` BIGINT(20) NOT NULL COMMENT '用户ID',
+    `version` BIGINT(20) NOT NULL DEFAULT 0 COMMENT '用户最新的变更版本号，每次变更递增',
+    `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '开始记录变更的时间',
+    PRIMARY KEY (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='同步状态表';
+
+-- 创建变更记录表
+CREATE TABLE IF NOT EXISTS `change_log` (
+    `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '主键',
+    `user_id` BIGINT(20) NOT NULL COMMENT '所属用户ID',
+    `entity_type` TINYINT(1) NOT NULL COMMENT '实体类型:1-笔记,2-提醒',
+    `entity_id` BIGINT(20) NOT NULL COMMENT '实体ID',
+    `version` BIGINT(20) NOT NULL COMMENT '最近一次变更的版本号',
+    `deleted` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '是否已删除:0-否,1-是',
+    `change_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '最近一次变更时间',
+    PRIMARY KEY (`id`),
+    -- 每个实体只保留最近一次变更，客户端离线期间的多次修改只同步一次
+    UNIQUE KEY `uk_user_entity` (`user_id`, `entity_type`, `entity_id`),
+    -- 增量同步按 (user_id, version) 读取某版本之后的变更
+    KEY `idx_user_version` (`user_id`, `version`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='变更记录表';
@@ -0,0 +1,169 @@
+package com.chronotes.backend.analytics;
+
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.event.NotesImportedEvent;
+import com.chronotes.backend.event.ReminderChangedEvent;
+import com.chronotes.backend.mapper.ActivityRollupMapper;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 统计汇总测试：增量刷写的结果与从源表全量重建的结果一致（内存数据库执行真实 SQL）
+ */
+class ActivityRollupUpdaterTests {
+
+    /**
+     * 周日、三月最后一天的最后一毫秒
+     */
+    private static final LocalDateTime MARCH_END = LocalDateTime.of(2024, 3, 31, 23, 59, 59, 999_000_000);
+
+    /**
+     * 周一、四月第一天的零点
+     */
+    private static final LocalDateTime APRIL_START = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    private TestDatabase database;
+    private NoteMapper noteMapper;
+    private ActivityRollupUpdater updater;
+    private ActivityRollupRebuilder rebuilder;
+    private long nextReminderId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = TestDatabase.create();
+        noteMapper = database.mapper(NoteMapper.class);
+        ActivityRollupMapper rollupMapper = database.mapper(ActivityRollupMapper.class);
+        updater = new ActivityRollupUpdater(rollupMapper, new SimpleMeterRegistry());
+        updater.init();
+        rebuilder = new ActivityRollupRebuilder(rollupMapper, updater);
+        ReflectionTestUtils.setField(rebuilder, "rebuildThreads", 2);
+        // 每段一个用户，覆盖分段并行重建
+        ReflectionTestUtils.setField(rebuilder, "chunkSize", 1);
+        for (long id = 1; id <= 3; id++) {
+            database.jdbc().update("INSERT INTO `user` (id, email, password) VALUES (?, ?, 'x')", id, "u" + id + "@example.com");
+        }
+        nextReminderId = 1;
+    }
+
+    @Test
+    void incrementalFlushesMatchFullRebuild() throws Exception {
+        Note monthEnd = createNote(1L, MARCH_END);
+        createNote(1L, APRIL_START);
+        createNote(2L, MARCH_END);
+        long firedAtMidnight = createReminder(1L, MARCH_END);
+        long cancelled = createReminder(1L, APRIL_START);
+        updater.flush();
+
+        // 删除上一次刷写中创建的笔记：从创建当天扣减
+        deleteNote(monthEnd);
+        importNotes(2L, List.of(APRIL_START, APRIL_START.plusDays(30), MARCH_END.minusDays(6)));
+        fire(1L, firedAtMidnight, MARCH_END);
+        cancel(1L, cancelled, APRIL_START);
+        updater.flush();
+
+        // 同一次刷写内创建又删除
+        deleteNote(createNote(2L, APRIL_START.plusDays(6)));
+        long moved = createReminder(2L, MARCH_END);
+        reschedule(2L, moved, MARCH_END, APRIL_START);
+        fire(2L, moved, APRIL_START);
+        createReminder(2L, APRIL_START.minusNanos(1_000_000));
+        updater.flush();
+
+        List<String> incremental = rollups();
+        assertFalse(incremental.isEmpty());
+        assertEquals(0, rebuilder.rebuild());
+        assertEquals(rollups(), incremental);
+    }
+
+    @Test
+    void rebuildDiscardsBufferedDeltasAlreadyInTheSourceTables() throws Exception {
+        createNote(1L, MARCH_END);
+        createReminder(2L, APRIL_START);
+        updater.flush();
+        createNote(1L, APRIL_START);
+        fire(2L, createReminder(2L, MARCH_END), MARCH_END);
+
+        assertEquals(0, rebuilder.rebuild());
+        List<String> rebuilt = rollups();
+        updater.flush();
+
+        assertEquals(rebuilt, rollups(), "重建已包含缓冲的增量，之后的刷写不重复计入");
+    }
+
+    /**
+     * 全部非零分桶；增量在跨刷写创建又删除时留下全零的分桶，读取时与缺失等价
+     */
+    private List<String> rollups() {
+        return database.jdbc().queryForList(
+                "SELECT CONCAT(user_id, '/', period, '/', bucket, ' ', notes_created, ',', reminders_due, ',', reminders_fired)"
+                        + " FROM activity_rollup WHERE notes_created <> 0 OR reminders_due <> 0 OR reminders_fired <> 0"
+                        + " ORDER BY user_id, period, bucket", String.class);
+    }
+
+    private Note createNote(Long userId, LocalDateTime createTime) {
+        Note note = note(userId, createTime);
+        noteMapper.insert(note);
+        updater.onNoteChanged(new NoteChangedEvent(userId, note.getId(), note, createTime, true));
+        return note;
+    }
+
+    private void deleteNote(Note note) {
+        database.jdbc().update("DELETE FROM note WHERE id = ?", note.getId());
+        updater.onNoteChanged(new NoteChangedEvent(note.getUserId(), note.getId(), null, note.getCreateTime(), false));
+    }
+
+    private void importNotes(Long userId, List<LocalDateTime> createTimes) {
+        List<Note> notes = createTimes.stream().map(time -> note(userId, time)).toList();
+        noteMapper.insertAll(notes);
+        updater.onNotesImported(new NotesImportedEvent(userId, notes));
+    }
+
+    private long createReminder(Long userId, LocalDateTime remindAt) {
+        long id = nextReminderId++;
+        database.jdbc().update("INSERT INTO reminder (id, user_id, title, remind_at, status) VALUES (?, ?, '提醒', ?, ?)",
+                id, userId, remindAt, Reminder.STATUS_PENDING);
+        updater.onReminderChanged(new ReminderChangedEvent(userId, id, remindAt, Reminder.STATUS_PENDING));
+        return id;
+    }
+
+    private void fire(Long userId, long id, LocalDateTime remindAt) {
+        database.jdbc().update("UPDATE reminder SET status = ? WHERE id = ?", Reminder.STATUS_FIRED, id);
+        updater.onReminderChanged(new ReminderChangedEvent(userId, id, remindAt, Reminder.STATUS_FIRED));
+    }
+
+    private void cancel(Long userId, long id, LocalDateTime remindAt) {
+        database.jdbc().update("UPDATE reminder SET status = ? WHERE id = ?", Reminder.STATUS_CANCELLED, id);
+        updater.onReminderChanged(new ReminderChangedEvent(userId, id, remindAt, Reminder.STATUS_CANCELLED));
+    }
+
+    /**
+     * 与提醒服务修改时间的做法一致：旧时间记为取消，新时间记为待提醒
+     */
+    private void reschedule(Long userId, long id, LocalDateTime from, LocalDateTime to) {
+        database.jdbc().update("UPDATE reminder SET remind_at = ? WHERE id = ?", to, id);
+        updater.onReminderChanged(new ReminderChangedEvent(userId, id, from, Reminder.STATUS_CANCELLED));
+        updater.onReminderChanged(new ReminderChangedEvent(userId, id, to, Reminder.STATUS_PENDING));
+    }
+
+    private static Note note(Long userId, LocalDateTime createTime) {
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle("标题");
+        note.setContent("正文");
+        note.setCreateTime(createTime);
+        note.setUpdateTime(createTime);
+        return note;
+    }
+}
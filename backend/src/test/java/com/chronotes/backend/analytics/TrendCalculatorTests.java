@@ -0,0 +1,85 @@
+package com.chronotes.backend.analytics;
+
+import com.chronotes.backend.dto.stats.TrendPoint;
+import com.chronotes.backend.entity.ActivityRollup;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 统计分桶折叠与趋势计算测试
+ */
+class TrendCalculatorTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 13);
+
+    @Test
+    void foldMatchesGroupByOverDailyCounts() {
+        Random random = new Random(7);
+        List<ActivityRollup> daily = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            daily.add(day(1L + random.nextInt(3), TODAY.minusDays(random.nextInt(800)), random.nextInt(5) - 1, random.nextInt(3), random.nextInt(2)));
+        }
+        List<ActivityRollup> rows = TrendCalculator.fold(daily);
+
+        for (int period = ActivityRollup.PERIOD_DAY; period <= ActivityRollup.PERIOD_TOTAL; period++) {
+            for (ActivityRollup row : rows) {
+                if (row.getPeriod() != period) {
+                    continue;
+                }
+                int notes = 0;
+                int due = 0;
+                for (ActivityRollup day : daily) {
+                    if (day.getUserId().equals(row.getUserId()) && TrendCalculator.bucketStart(period, day.getBucket()).equals(row.getBucket())) {
+                        notes += day.getNotesCreated();
+                        due += day.getRemindersDue();
+                    }
+                }
+                assertEquals(notes, row.getNotesCreated());
+                assertEquals(due, row.getRemindersDue());
+            }
+        }
+        assertEquals(3, rows.stream().filter(row -> row.getPeriod() == ActivityRollup.PERIOD_TOTAL).count());
+        assertEquals(DayOfWeek.MONDAY, TrendCalculator.bucketStart(ActivityRollup.PERIOD_WEEK, TODAY).getDayOfWeek());
+    }
+
+    @Test
+    void seriesFillsGapsAndDerivesRunningTotals() {
+        List<ActivityRollup> daily = List.of(
+                day(1L, LocalDate.of(2023, 6, 1), 10, 0, 0),
+                day(1L, LocalDate.of(2024, 1, 20), 3, 4, 3),
+                day(1L, LocalDate.of(2024, 3, 1), 2, 0, 0),
+                day(1L, LocalDate.of(2024, 4, 2), 0, 5, 0));
+        List<ActivityRollup> months = TrendCalculator.fold(daily).stream()
+                .filter(row -> row.getPeriod() == ActivityRollup.PERIOD_MONTH
+                        && !row.getBucket().isBefore(LocalDate.of(2024, 1, 1)))
+                .toList();
+
+        List<TrendPoint> points = TrendCalculator.series(ActivityRollup.PERIOD_MONTH, TODAY, 3, months, 15);
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1)),
+                points.stream().map(TrendPoint::getBucket).toList());
+        assertEquals(List.of(13, 13, 15), points.stream().map(TrendPoint::getNoteTotal).toList());
+        assertEquals(List.of(3, 0, 2), points.stream().map(TrendPoint::getNotesCreated).toList());
+        assertEquals(0.75, points.get(0).getCompletionRate());
+        assertNull(points.get(1).getCompletionRate());
+    }
+
+    private static ActivityRollup day(Long userId, LocalDate day, int notes, int due, int fired) {
+        ActivityRollup row = new ActivityRollup();
+        row.setUserId(userId);
+        row.setPeriod(ActivityRollup.PERIOD_DAY);
+        row.setBucket(day);
+        row.setNotesCreated(notes);
+        row.setRemindersDue(due);
+        row.setRemindersFired(fired);
+        return row;
+    }
+}
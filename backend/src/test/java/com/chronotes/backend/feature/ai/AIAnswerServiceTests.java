@@ -0,0 +1,310 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.mapper.NoteMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 笔记问答推送测试（逐段输出的模型替身）
+ */
+class AIAnswerServiceTests {
+
+    private static final int WINDOW = 8;
+
+    private final ExecutorService modelThreads = Executors.newCachedThreadPool();
+    private EmbeddingService embeddingService;
+    private AIAnswerService service;
+
+    @AfterEach
+    void tearDown() {
+        modelThreads.shutdownNow();
+        service.shutdown();
+        embeddingService.shutdown();
+    }
+
+    @Test
+    void streamsSourcesThenTokensThenDone() throws Exception {
+        service = service(new LocalAnswerModel());
+        RecordingEmitter emitter = new RecordingEmitter(0, Integer.MAX_VALUE);
+        service.answer(1L, "梯度下降", emitter);
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("sources", emitter.names.get(0));
+        assertEquals("done", emitter.names.get(emitter.names.size() - 1));
+        assertTrue(emitter.text().contains("梯度下降用于最小化损失函数。"), emitter.text());
+    }
+
+    @Test
+    void pullsFromModelNoFasterThanClientReads() throws Exception {
+        TokenModel model = new TokenModel(200);
+        service = service(model);
+        // 每次写出耗时 2 毫秒的慢客户端
+        RecordingEmitter emitter = new RecordingEmitter(2, Integer.MAX_VALUE);
+        service.answer(1L, "梯度下降", emitter);
+
+        assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(200, emitter.tokens.get());
+        assertTrue(model.maxAhead.get() <= WINDOW, "模型超前输出: " + model.maxAhead.get());
+    }
+
+    @Test
+    void cancelsGenerationWhenClientDisconnectsAndFreesSlot() throws Exception {
+        TokenModel model = new TokenModel(Integer.MAX_VALUE);
+        service = service(model);
+        // 第三次写出时客户端已断开
+        service.answer(1L, "梯度下降", new RecordingEmitter(1, 3));
+        service.answer(1L, "梯度下降", new RecordingEmitter(1, 3));
+
+        assertTrue(model.cancelled.await(5, TimeUnit.SECONDS));
+        long produced = model.produced.get();
+        Thread.sleep(100);
+        assertEquals(produced, model.produced.get());
+
+        // 名额已释放
+        RecordingEmitter next = new RecordingEmitter(0, 3);
+        service.answer(1L, "梯度下降", next);
+        assertTrue(next.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(next.names.contains("token"), next.names.toString());
+    }
+
+    @Test
+    void limitsConcurrentStreamsPerUser() throws Exception {
+        TokenModel model = new TokenModel(Integer.MAX_VALUE);
+        model.paused = true;
+        service = service(model);
+        service.answer(1L, "问题", new RecordingEmitter(0, Integer.MAX_VALUE));
+        service.answer(1L, "问题", new RecordingEmitter(0, Integer.MAX_VALUE));
+
+        RecordingEmitter rejected = new RecordingEmitter(0, Integer.MAX_VALUE);
+        service.answer(1L, "问题", rejected);
+        assertTrue(rejected.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("error"), rejected.names);
+        assertEquals(AIAnswerService.TOO_MANY_STREAMS_CODE, rejected.data.get(0).get("code"));
+
+        RecordingEmitter otherUser = new RecordingEmitter(0, Integer.MAX_VALUE);
+        service.answer(2L, "问题", otherUser);
+        assertTrue(otherUser.sent.await(5, TimeUnit.SECONDS));
+        assertEquals("sources", otherUser.names.get(0));
+    }
+
+    private AIAnswerService service(AnswerModel model) {
+        HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(32);
+        embeddingService = new EmbeddingService(embeddingModel, new NoCache(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(embeddingService, "batchSize", 8);
+        ReflectionTestUtils.setField(embeddingService, "maxWait", 0L);
+        ReflectionTestUtils.setField(embeddingService, "queueCapacity", 64);
+        ReflectionTestUtils.setField(embeddingService, "submitTimeout", 100L);
+        ReflectionTestUtils.setField(embeddingService, "timeout", 5000L);
+        ReflectionTestUtils.setField(embeddingService, "concurrency", 1);
+        ReflectionTestUtils.setField(embeddingService, "chunkSize", 1000);
+        embeddingService.init();
+
+        Note note = new Note();
+        note.setId(10L);
+        note.setTitle("机器学习");
+        note.setContent("今天复习了线性代数。梯度下降用于最小化损失函数。学习率不宜过大。");
+        NoteMapper noteMapper = (NoteMapper) Proxy.newProxyInstance(NoteMapper.class.getClassLoader(),
+                new Class<?>[]{NoteMapper.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByIds")) {
+                        return ((Collection<?>) args[1]).contains(10L) ? List.of(note) : List.of();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        AIAnswerService answerService = new AIAnswerService(embeddingService, new SingleNoteStore(), noteMapper, model,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(answerService, "maxStreams", 100);
+        ReflectionTestUtils.setField(answerService, "maxStreamsPerUser", 2);
+        ReflectionTestUtils.setField(answerService, "senderThreads", 2);
+        ReflectionTestUtils.setField(answerService, "window", WINDOW);
+        ReflectionTestUtils.setField(answerService, "timeout", 10000L);
+        ReflectionTestUtils.setField(answerService, "topK", 5);
+        ReflectionTestUtils.setField(answerService, "passageChars", 1000);
+        answerService.init();
+        return answerService;
+    }
+
+    /**
+     * 在自己的线程上按请求量逐个输出的模型替身，记录超前于已写出部分的最大段数
+     */
+    private class TokenModel implements AnswerModel {
+
+        private final int length;
+        private final AtomicLong produced = new AtomicLong();
+        private final AtomicLong maxAhead = new AtomicLong();
+        private final CountDownLatch cancelled = new CountDownLatch(2);
+        private volatile boolean paused;
+
+        TokenModel(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public String id() {
+            return "test-tokens";
+        }
+
+        @Override
+        public Flow.Publisher<String> generate(String question, List<Passage> passages) {
+            return subscriber -> {
+                AtomicLong demand = new AtomicLong();
+                AtomicBoolean stopped = new AtomicBoolean();
+                AtomicLong requested = new AtomicLong();
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        requested.addAndGet(n);
+                        demand.addAndGet(n);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        if (stopped.compareAndSet(false, true)) {
+                            cancelled.countDown();
+                        }
+                    }
+                });
+                modelThreads.execute(() -> {
+                    int emitted = 0;
+                    while (!stopped.get() && emitted < length && !Thread.currentThread().isInterrupted()) {
+                        if (paused || demand.get() == 0) {
+                            LockSupport.parkNanos(100_000);
+                            continue;
+                        }
+                        demand.decrementAndGet();
+                        emitted++;
+                        produced.incrementAndGet();
+                        // 已请求量 - 初始窗口 = 已写出的段数
+                        maxAhead.accumulateAndGet(emitted - (requested.get() - WINDOW), Math::max);
+                        subscriber.onNext("t" + emitted + " ");
+                    }
+                    if (!stopped.get() && emitted == length) {
+                        subscriber.onComplete();
+                    }
+                });
+            };
+        }
+    }
+
+    /**
+     * 记录事件的 SSE 连接，可模拟慢客户端与中途断开
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final long delay;
+        private final int failAt;
+        private final AtomicInteger sends = new AtomicInteger();
+        private final AtomicInteger tokens = new AtomicInteger();
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<Map<?, ?>> data = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sent = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(long delay, int failAt) {
+            this.delay = delay;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (sends.incrementAndGet() >= failAt) {
+                throw new IOException("客户端已断开");
+            }
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (DataWithMediaType item : builder.build()) {
+                if (item.getData() instanceof String text && text.startsWith("event:")) {
+                    names.add(text.substring(6, text.indexOf('\n')));
+                } else if (item.getData() instanceof Map<?, ?> map) {
+                    data.add(map);
+                    if (map.get("text") instanceof String text) {
+                        tokens.addAndGet(text.split(" ").length);
+                    }
+                } else if (item.getData() instanceof List<?> list) {
+                    data.add(Map.of("sources", list));
+                }
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String text() {
+            StringBuilder text = new StringBuilder();
+            for (Map<?, ?> item : data) {
+                if (item.get("text") instanceof String part) {
+                    text.append(part);
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * 只有一篇笔记的向量存储
+     */
+    private static class SingleNoteStore implements VectorStore {
+
+        @Override
+        public void upsert(Long userId, Long noteId, float[] vector) {
+        }
+
+        @Override
+        public void delete(Long userId, Long noteId) {
+        }
+
+        @Override
+        public List<Hit> search(Long userId, float[] query, int k) {
+            return List.of(new Hit(10L, 0.8f), new Hit(11L, 0.5f));
+        }
+
+        @Override
+        public List<Hit> searchExact(Long userId, float[] query, int k) {
+            return search(userId, query, k);
+        }
+    }
+
+    private static class NoCache implements EmbeddingCache {
+
+        @Override
+        public Map<String, float[]> getAll(Collection<String> hashes) {
+            return new HashMap<>();
+        }
+
+        @Override
+        public void putAll(Map<String, float[]> vectors) {
+        }
+    }
+}
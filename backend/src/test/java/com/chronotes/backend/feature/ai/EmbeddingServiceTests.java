@@ -0,0 +1,204 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 嵌入流水线测试（本地特征哈希模型替身）
+ */
+class EmbeddingServiceTests {
+
+    private final RecordingModel model = new RecordingModel();
+    private final InMemoryCache cache = new InMemoryCache();
+    private EmbeddingService service;
+
+    @AfterEach
+    void tearDown() {
+        model.release();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void batchesConcurrentRequestsAndDeduplicatesIdenticalText() throws Exception {
+        service = service(8, 50, 1024);
+        List<CompletableFuture<List<float[]>>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(service.embedAllAsync(List.of("段落 " + (i % 10))));
+        }
+        for (int i = 0; i < 40; i++) {
+            assertArrayEquals(futures.get(i % 10).get(5, TimeUnit.SECONDS).get(0),
+                    futures.get(i).get(5, TimeUnit.SECONDS).get(0));
+        }
+
+        assertEquals(10, model.embedded());
+        assertTrue(model.batches.stream().allMatch(size -> size <= 8));
+        assertTrue(model.batches.size() < 10, "请求应被合并成批: " + model.batches);
+    }
+
+    @Test
+    void textFinishedBetweenCacheReadAndRegistrationIsNotEmbeddedAgain() throws Exception {
+        service = service(8, 0, 1024);
+        float[] first = service.embedAllAsync(List.of("段落")).get(5, TimeUnit.SECONDS).get(0);
+
+        // 模拟调用方读缓存时该批尚未写入、登记前已算完并移出登记
+        cache.staleReads.set(1);
+        float[] again = service.embedAllAsync(List.of("段落")).get(5, TimeUnit.SECONDS).get(0);
+
+        assertArrayEquals(first, again);
+        assertEquals(1, model.embedded());
+    }
+
+    @Test
+    void reusesCachedVectorsForUnchangedParagraphs() throws Exception {
+        service = service(32, 5, 1024);
+        String original = "第一段：梯度下降\n\n第二段：学习率\n\n第三段：损失函数";
+        float[] first = service.embedDocumentAsync(original).get(5, TimeUnit.SECONDS);
+        assertEquals(3, model.embedded());
+
+        float[] again = service.embedDocumentAsync(original).get(5, TimeUnit.SECONDS);
+        assertArrayEquals(first, again);
+        assertEquals(3, model.embedded());
+
+        service.embedDocumentAsync(original.replace("学习率", "动量")).get(5, TimeUnit.SECONDS);
+        assertEquals(4, model.embedded());
+    }
+
+    @Test
+    void editingOneLineOfLongParagraphReembedsOneChunk() throws Exception {
+        service = service(32, 5, 1024);
+        StringBuilder paragraph = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            paragraph.append("第 ").append(i).append(" 行没有空行分隔\n");
+        }
+        String original = paragraph.toString();
+        service.embedDocumentAsync(original).get(5, TimeUnit.SECONDS);
+        int chunks = model.embedded();
+        assertTrue(chunks > 5, "长段落应被切成多块: " + chunks);
+
+        service.embedDocumentAsync(original.replace("第 250 行", "第 250 行加长了一些内容")).get(5, TimeUnit.SECONDS);
+        assertTrue(model.embedded() - chunks <= 2, "重新计算的块数: " + (model.embedded() - chunks));
+    }
+
+    @Test
+    void rejectsCallersWhenModelIsSaturated() throws Exception {
+        service = service(1, 0, 2);
+        model.block();
+        service.embedAllAsync(List.of("a"));
+        assertTrue(model.started.await(5, TimeUnit.SECONDS));
+        // 工作线程卡在模型调用上，队列只能再容纳 2 条
+        service.embedAllAsync(List.of("b"));
+        service.embedAllAsync(List.of("c"));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.embedAllAsync(List.of("d")));
+        assertEquals(BusinessException.BUSY_CODE, e.getCode());
+
+        model.release();
+        assertEquals(1, service.embedAll(List.of("d")).size());
+    }
+
+    private EmbeddingService service(int batchSize, long maxWait, int queueCapacity) {
+        EmbeddingService embeddingService = new EmbeddingService(model, cache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(embeddingService, "batchSize", batchSize);
+        ReflectionTestUtils.setField(embeddingService, "maxWait", maxWait);
+        ReflectionTestUtils.setField(embeddingService, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(embeddingService, "submitTimeout", 100L);
+        ReflectionTestUtils.setField(embeddingService, "timeout", 5000L);
+        ReflectionTestUtils.setField(embeddingService, "concurrency", 1);
+        ReflectionTestUtils.setField(embeddingService, "chunkSize", 1000);
+        embeddingService.init();
+        return embeddingService;
+    }
+
+    /**
+     * 记录每批大小的模型替身，可模拟后端阻塞
+     */
+    private static class RecordingModel extends HashingEmbeddingModel {
+
+        private final List<Integer> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        RecordingModel() {
+            super(32);
+        }
+
+        @Override
+        public List<float[]> embed(List<String> texts) {
+            batches.add(texts.size());
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.embed(texts);
+        }
+
+        int embedded() {
+            return batches.stream().mapToInt(Integer::intValue).sum();
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+    }
+
+    /**
+     * 内存向量缓存
+     */
+    private static class InMemoryCache implements EmbeddingCache {
+
+        private final Map<String, float[]> vectors = new ConcurrentHashMap<>();
+
+        /**
+         * 接下来若干次读取按未命中返回
+         */
+        private final AtomicInteger staleReads = new AtomicInteger();
+
+        @Override
+        public Map<String, float[]> getAll(Collection<String> hashes) {
+            if (staleReads.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return Map.of();
+            }
+            Map<String, float[]> found = new HashMap<>();
+            for (String hash : hashes) {
+                float[] vector = vectors.get(hash);
+                if (vector != null) {
+                    found.put(hash, vector);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public void putAll(Map<String, float[]> vectors) {
+            this.vectors.putAll(vectors);
+        }
+    }
+}
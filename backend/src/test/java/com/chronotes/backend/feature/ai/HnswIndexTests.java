@@ -0,0 +1,114 @@
+package com.chronotes.backend.feature.ai;
+
+import com.chronotes.backend.search.Tokenizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HNSW 向量索引测试（召回率、增删、重新打开）
+ */
+class HnswIndexTests {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void approximateSearchAgreesWithExactSearch() throws Exception {
+        Random random = new Random(7);
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSION, 16, 100)) {
+            for (long id = 0; id < 5000; id++) {
+                index.upsert(id, randomVector(random));
+            }
+            int found = 0;
+            for (int q = 0; q < 50; q++) {
+                float[] query = randomVector(random);
+                Set<Long> exact = ids(index.searchExact(query, 10));
+                for (long id : ids(index.search(query, 10, 64))) {
+                    if (exact.contains(id)) {
+                        found++;
+                    }
+                }
+            }
+            double recall = found / 500.0;
+            assertTrue(recall >= 0.9, "recall@10 = " + recall);
+        }
+    }
+
+    @Test
+    void findsSemanticallyClosestNoteWithLocalEmbedding() throws Exception {
+        try (HnswIndex index = HnswIndex.open(directory, 64, 8, 50)) {
+            index.upsert(1, embed("梯度下降法通过沿负梯度方向更新参数来最小化损失函数"));
+            index.upsert(2, embed("周末去超市买牛奶和面包"));
+            index.upsert(3, embed("MySQL 索引的最左前缀原则"));
+
+            List<VectorStore.Hit> hits = index.search(embed("我学过梯度下降吗"), 1, 16);
+            assertEquals(1, hits.get(0).noteId());
+        }
+    }
+
+    @Test
+    void deletesReplacesAndReopens() throws Exception {
+        Random random = new Random(11);
+        float[] target = randomVector(random);
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSION, 8, 50)) {
+            for (long id = 0; id < 300; id++) {
+                index.upsert(id, randomVector(random));
+            }
+            index.upsert(42, target);
+            assertEquals(42, index.search(target, 1, 32).get(0).noteId());
+
+            index.delete(42);
+            assertFalse(ids(index.search(target, 10, 32)).contains(42L));
+            index.upsert(7, target);
+            assertEquals(299, index.liveSize());
+        }
+
+        try (HnswIndex index = HnswIndex.open(directory, DIMENSION, 8, 50)) {
+            assertEquals(299, index.liveSize());
+            assertFalse(index.contains(42));
+            VectorStore.Hit best = index.search(target, 1, 32).get(0);
+            assertEquals(7, best.noteId());
+            assertEquals(1.0f, best.score(), 1e-4);
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    /**
+     * 确定性的本地向量化替身：把分词结果哈希到固定维度
+     */
+    private static float[] embed(String text) {
+        float[] vector = new float[64];
+        for (String token : Tokenizer.tokenize(text)) {
+            int hash = Arrays.hashCode(token.getBytes(StandardCharsets.UTF_8));
+            vector[Math.floorMod(hash, 64)] += 1;
+        }
+        return vector;
+    }
+
+    private static Set<Long> ids(List<VectorStore.Hit> hits) {
+        Set<Long> ids = new HashSet<>();
+        hits.forEach(hit -> ids.add(hit.noteId()));
+        return ids;
+    }
+}
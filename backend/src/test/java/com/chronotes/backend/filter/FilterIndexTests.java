@@ -0,0 +1,164 @@
+package com.chronotes.backend.filter;
+
+import com.chronotes.backend.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 筛选索引测试（位图运算、表达式解析与求值、分页顺序）
+ */
+class FilterIndexTests {
+
+    private static final Set<String> FIELDS = Set.of(FilterExpression.TAG, FilterExpression.STATUS, FilterExpression.DATE);
+    private static final Set<String> STATUSES = Set.of("pending", "fired");
+    private static final String[] TAGS = {"work", "home", "java", "idea"};
+
+    @Test
+    void bitmapOperationsMatchBitSet() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            // 同一桶内既有稀疏的数组容器也有超过 4096 个元素的位图容器
+            BitSet leftSet = new BitSet();
+            BitSet rightSet = new BitSet();
+            RoaringBitmap left = new RoaringBitmap();
+            RoaringBitmap right = new RoaringBitmap();
+            int count = random.nextInt(20_000);
+            for (int i = 0; i < count; i++) {
+                int value = random.nextInt(round % 2 == 0 ? 200_000 : 8_000);
+                leftSet.set(value);
+                left.add(value);
+                value = random.nextInt(200_000);
+                rightSet.set(value);
+                right.add(value);
+            }
+            for (int i = 0; i < count / 2; i++) {
+                int value = random.nextInt(200_000);
+                leftSet.clear(value);
+                left.remove(value);
+            }
+            assertEquals(leftSet, toBitSet(left));
+            assertEquals(leftSet.cardinality(), left.cardinality());
+
+            BitSet and = (BitSet) leftSet.clone();
+            and.and(rightSet);
+            assertEquals(and, toBitSet(RoaringBitmap.and(left, right)));
+            BitSet or = (BitSet) leftSet.clone();
+            or.or(rightSet);
+            assertEquals(or, toBitSet(RoaringBitmap.or(left, right)));
+            assertEquals(or, toBitSet(RoaringBitmap.or(List.of(left, new RoaringBitmap(), right))));
+            BitSet andNot = (BitSet) leftSet.clone();
+            andNot.andNot(rightSet);
+            assertEquals(andNot, toBitSet(RoaringBitmap.andNot(left, right)));
+        }
+    }
+
+    @Test
+    void indexEvaluationMatchesPerRecordEvaluation() {
+        Random random = new Random(7);
+        FilterIndex index = new FilterIndex();
+        List<Set<String>> keys = new ArrayList<>();
+        int[] days = new int[2000];
+        int base = (int) LocalDate.of(2026, 1, 1).toEpochDay();
+        for (int id = 0; id < days.length; id++) {
+            Set<String> recordKeys = new HashSet<>();
+            for (String tag : TAGS) {
+                if (random.nextInt(3) == 0) {
+                    recordKeys.add(FilterExpression.key(FilterExpression.TAG, tag));
+                }
+            }
+            recordKeys.add(FilterExpression.key(FilterExpression.STATUS, random.nextBoolean() ? "pending" : "fired"));
+            keys.add(recordKeys);
+            days[id] = base + random.nextInt(60);
+            index.put(id, 1, id, days[id], recordKeys.toArray(new String[0]));
+        }
+        // 删除与改写后剩余记录的结果不应受回收编号的影响
+        for (int id = 0; id < days.length; id += 3) {
+            index.delete(id);
+            keys.set(id, null);
+        }
+        for (int id = 1; id < days.length; id += 5) {
+            keys.set(id, Set.of(FilterExpression.key(FilterExpression.TAG, "moved")));
+            index.put(id, 2, id, days[id], new String[]{FilterExpression.key(FilterExpression.TAG, "moved")});
+        }
+
+        String[] queries = {
+                "tag:work",
+                "tag:WORK tag:java",
+                "tag:work OR tag:home AND NOT status:fired",
+                "(tag:work OR tag:home) AND NOT status:fired",
+                "NOT tag:idea",
+                "date:2026-01-10..2026-01-20 OR tag:moved",
+                "date:..2026-01-05 AND not (tag:java or tag:idea)",
+                "date:2026-02-01.. status:pending",
+                "tag:\"none such\"",
+        };
+        for (String query : queries) {
+            FilterExpression expression = FilterExpression.parse(query, FIELDS, STATUSES);
+            List<Long> expected = new ArrayList<>();
+            for (int id = days.length - 1; id >= 0; id--) {
+                if (keys.get(id) != null && expression.matches(keys.get(id), days[id])) {
+                    expected.add((long) id);
+                }
+            }
+            assertEquals(expected.size(), index.count(expression), query);
+            assertEquals(expected, toList(index.query(expression, Long.MAX_VALUE, Long.MAX_VALUE, days.length).ids()), query);
+        }
+    }
+
+    @Test
+    void pagesInSortKeyOrderFromCursor() {
+        FilterIndex index = new FilterIndex();
+        String[] work = {FilterExpression.key(FilterExpression.TAG, "work")};
+        // 排序键相同的按ID倒序
+        index.put(1, 1, 100, 0, work);
+        index.put(2, 1, 300, 0, work);
+        index.put(3, 1, 200, 0, work);
+        index.put(4, 1, 200, 0, work);
+        index.put(5, 1, 400, 0, new String[0]);
+        FilterExpression expression = FilterExpression.parse("tag:work", FIELDS, STATUSES);
+
+        FilterIndex.Hits first = index.query(expression, Long.MAX_VALUE, Long.MAX_VALUE, 2);
+        assertArrayEquals(new long[]{2, 4}, first.ids());
+        assertArrayEquals(new long[]{300, 200}, first.sortKeys());
+        FilterIndex.Hits second = index.query(expression, 200, 4, 2);
+        assertArrayEquals(new long[]{3, 1}, second.ids());
+        assertEquals(0, index.query(expression, 100, 1, 2).size());
+
+        index.put(1, 2, 500, 0, work);
+        assertArrayEquals(new long[]{1, 2}, index.query(expression, Long.MAX_VALUE, Long.MAX_VALUE, 2).ids());
+        assertEquals(2, index.version(1));
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        for (String query : new String[]{"", "work", "tag:", "priority:high", "status:done", "(tag:a", "tag:a )",
+                "tag:a AND", "date:2026-13-01", "date:2026-02-01..2026-01-01", "tag:\"a"}) {
+            assertThrows(BusinessException.class, () -> FilterExpression.parse(query, FIELDS, STATUSES), query);
+        }
+    }
+
+    private static BitSet toBitSet(RoaringBitmap bitmap) {
+        BitSet set = new BitSet();
+        bitmap.forEach(set::set);
+        return set;
+    }
+
+    private static List<Long> toList(long[] values) {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,188 @@
+package com.chronotes.backend.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 邮件投递端到端测试（进程内 SMTP 服务器）
+ */
+class MailDispatcherTests {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void deliversBatchOverOneConnectionAndAcks() throws Exception {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        MailDispatcher dispatcher = dispatcher(outbox, greenMail.getSmtp().getPort());
+        for (int i = 0; i < 3; i++) {
+            outbox.enqueue(message("user" + i + "@example.com"));
+        }
+
+        assertEquals(3, dispatcher.dispatchBatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Chronotes 注册验证码", received[0].getSubject());
+        assertEquals(3, outbox.acked.size());
+        assertTrue(outbox.retries.isEmpty());
+    }
+
+    @Test
+    void identicalMailsAreEachSentAndAcked() {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        MailDispatcher dispatcher = dispatcher(outbox, greenMail.getSmtp().getPort());
+        // 同一用户同一时刻的两条同名提醒：内容完全相同，消息ID不同
+        outbox.enqueue(message("user@example.com"));
+        outbox.enqueue(message("user@example.com"));
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        assertEquals(2, outbox.acked.size());
+    }
+
+    @Test
+    void transientRejectionIsRetriedAndPermanentIsDeadLettered() throws Exception {
+        Address address = new InternetAddress("user@example.com");
+        SendFailedException greylisted = new SendFailedException("Invalid Addresses",
+                new SMTPAddressFailedException((InternetAddress) address, "RCPT TO", 451, "451 4.7.1 try again later"));
+        SendFailedException busy = new SendFailedException("Send failed", null,
+                new Address[0], new Address[]{address}, new Address[0]);
+        SendFailedException unknown = new SendFailedException("Invalid Addresses",
+                new SMTPAddressFailedException((InternetAddress) address, "RCPT TO", 550, "550 5.1.1 no such user"),
+                new Address[0], new Address[0], new Address[]{address});
+
+        assertFalse(MailDispatcher.isPermanent(greylisted));
+        assertFalse(MailDispatcher.isPermanent(new MailSendException("failed", busy)));
+        assertTrue(MailDispatcher.isPermanent(unknown));
+    }
+
+    @Test
+    void schedulesRetryWhenRelayIsUnreachable() {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        // 端口 1 上没有 SMTP 服务，模拟中继不可用
+        MailDispatcher dispatcher = dispatcher(outbox, 1);
+        outbox.enqueue(message("user@example.com"));
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertTrue(outbox.acked.isEmpty());
+        assertEquals(1, outbox.retries.size());
+        assertEquals(1, outbox.retries.keySet().iterator().next().getAttempts());
+    }
+
+    private static MailDispatcher dispatcher(MailOutbox outbox, int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.setDefaultEncoding("UTF-8");
+
+        MailDispatcher dispatcher = new MailDispatcher(outbox, mailSender, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@chronotes.local");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "pollTimeout", 100L);
+        ReflectionTestUtils.setField(dispatcher, "lease", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 5);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", 60000L);
+        dispatcher.init();
+        return dispatcher;
+    }
+
+    private static MailMessage message(String to) {
+        MailMessage message = new MailMessage();
+        message.setId(UUID.randomUUID().toString());
+        message.setTo(to);
+        message.setSubject("Chronotes 注册验证码");
+        message.setText("您的验证码是：123456");
+        message.setCreateTime(System.currentTimeMillis());
+        return message;
+    }
+
+    /**
+     * 内存发件箱
+     */
+    private static class InMemoryOutbox implements MailOutbox {
+
+        private final Deque<MailMessage> pending = new ArrayDeque<>();
+        private final List<MailMessage> acked = new ArrayList<>();
+        private final Map<MailMessage, Long> retries = new HashMap<>();
+        private final List<MailMessage> dead = new ArrayList<>();
+
+        @Override
+        public void enqueue(MailMessage message) {
+            pending.addLast(message);
+        }
+
+        @Override
+        public List<MailMessage> take(String nodeId, int batchSize, Duration timeout, long leaseUntil) {
+            List<MailMessage> batch = new ArrayList<>();
+            while (batch.size() < batchSize && !pending.isEmpty()) {
+                batch.add(pending.pollFirst());
+            }
+            return batch;
+        }
+
+        @Override
+        public int renew(String nodeId, Collection<String> ids, long leaseUntil) {
+            return ids.size();
+        }
+
+        @Override
+        public boolean ack(String nodeId, MailMessage message) {
+            return acked.add(message);
+        }
+
+        @Override
+        public boolean retry(String nodeId, MailMessage message, long dueAt) {
+            retries.put(message, dueAt);
+            return true;
+        }
+
+        @Override
+        public boolean deadLetter(String nodeId, MailMessage message, String reason) {
+            return dead.add(message);
+        }
+
+        @Override
+        public int promoteDueRetries(long now) {
+            return 0;
+        }
+
+        @Override
+        public int release(String nodeId, Collection<String> ids) {
+            return 0;
+        }
+
+        @Override
+        public int reclaimExpired(long now, int limit) {
+            return 0;
+        }
+    }
+}
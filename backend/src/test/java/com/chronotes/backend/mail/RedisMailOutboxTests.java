@@ -0,0 +1,125 @@
+package com.chronotes.backend.mail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 邮件发件箱租约测试（进程内 Redis 替身，执行真实的 Lua 脚本）
+ */
+class RedisMailOutboxTests {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+    private static RedisMailOutbox outbox;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = RedisServer.newRedisServer(0);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        outbox = new RedisMailOutbox(redisTemplate, new ObjectMapper());
+        outbox.init();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        connectionFactory.getConnection().serverCommands().flushAll();
+    }
+
+    @Test
+    void expiredLeaseOfVanishedNodeIsReclaimedByAnotherNode() {
+        outbox.enqueue(message("1"));
+        outbox.enqueue(message("2"));
+
+        // 节点 a 取出后下线，不再续约
+        assertEquals(2, outbox.take("a", 10, Duration.ofMillis(100), NOW + 30_000).size());
+        assertEquals(0, outbox.reclaimExpired(NOW + 29_999, 100));
+        assertEquals(2, outbox.reclaimExpired(NOW + 30_000, 100));
+
+        List<MailMessage> retaken = outbox.take("b", 10, Duration.ofMillis(100), NOW + 60_000);
+        assertEquals(List.of("1", "2"), retaken.stream().map(MailMessage::getId).toList(), "回收的邮件排在队首");
+        assertFalse(outbox.retry("a", retaken.get(0), NOW), "失去租约的节点不能再处理");
+        assertTrue(outbox.ack("b", retaken.get(0)));
+        assertTrue(outbox.deadLetter("b", retaken.get(1), "550"));
+        assertEquals(0, redisTemplate.opsForZSet().size("mail:lease"));
+        assertEquals(0, redisTemplate.opsForZSet().size("mail:retry"));
+    }
+
+    @Test
+    void renewKeepsLeaseAndReleaseReturnsOnlyOwnMessages() {
+        outbox.enqueue(message("1"));
+        outbox.enqueue(message("2"));
+        outbox.take("a", 1, Duration.ofMillis(100), NOW + 30_000);
+        outbox.take("b", 1, Duration.ofMillis(100), NOW + 30_000);
+
+        assertEquals(1, outbox.renew("a", List.of("1", "2"), NOW + 90_000));
+        assertEquals(1, outbox.reclaimExpired(NOW + 60_000, 100), "只回收未续约的 2");
+        assertEquals(0, outbox.release("b", List.of("1")));
+        assertEquals(1, outbox.release("a", List.of("1")));
+        assertEquals(2, redisTemplate.opsForList().size("mail:outbox"));
+    }
+
+    @Test
+    void lateAckWithdrawsReclaimedCopy() {
+        outbox.enqueue(message("1"));
+        MailMessage taken = outbox.take("a", 10, Duration.ofMillis(100), NOW + 30_000).get(0);
+        outbox.reclaimExpired(NOW + 30_000, 100);
+
+        // 发送成功后才确认，此时已被放回发件箱但还没有节点重新取出
+        assertFalse(outbox.ack("a", taken));
+        assertEquals(0, redisTemplate.opsForList().size("mail:outbox"));
+        assertFalse(redisTemplate.opsForHash().hasKey("mail:messages", "1"));
+    }
+
+    @Test
+    void dueRetriesMoveBackToOutboxOnce() {
+        outbox.enqueue(message("1"));
+        outbox.enqueue(message("2"));
+        List<MailMessage> taken = outbox.take("a", 10, Duration.ofMillis(100), NOW + 30_000);
+        assertTrue(outbox.retry("a", taken.get(0), NOW + 5_000));
+        assertTrue(outbox.retry("a", taken.get(1), NOW + 10_000));
+
+        assertEquals(0, outbox.promoteDueRetries(NOW + 4_999));
+        assertEquals(1, outbox.promoteDueRetries(NOW + 5_000));
+        assertEquals(0, outbox.promoteDueRetries(NOW + 5_000), "已移回的邮件不会再次放回");
+        assertEquals(List.of("1"), redisTemplate.opsForList().range("mail:outbox", 0, -1));
+        assertEquals(1, redisTemplate.opsForZSet().size("mail:retry"));
+        assertEquals("1", outbox.take("b", 10, Duration.ofMillis(100), NOW + 60_000).get(0).getId());
+    }
+
+    private static MailMessage message(String id) {
+        MailMessage message = new MailMessage();
+        message.setId(id);
+        message.setTo("user@example.com");
+        message.setSubject("提醒");
+        message.setText("提醒内容");
+        message.setCreateTime(NOW);
+        return message;
+    }
+}
@@ -0,0 +1,95 @@
+package com.chronotes.backend.reminder;
+
+import com.chronotes.backend.reminder.ReminderQueue.Claim;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 提醒到期队列测试（进程内 Redis 替身，执行真实的 Lua 脚本）
+ */
+class RedisReminderQueueTests {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisReminderQueue queue;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = RedisServer.newRedisServer(0);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        queue = new RedisReminderQueue(new StringRedisTemplate(connectionFactory));
+        queue.init();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        connectionFactory.getConnection().serverCommands().flushAll();
+    }
+
+    @Test
+    void claimsOnlyDueSliceAndNeverTwice() {
+        queue.schedule(1, NOW + 1_000);
+        queue.schedule(2, NOW + 3_000);
+        queue.schedule(3, NOW + 60_000);
+
+        List<Claim> first = queue.claim("a", NOW + 5_000, 100, NOW + 30_000);
+        List<Claim> second = queue.claim("b", NOW + 5_000, 100, NOW + 30_000);
+
+        assertEquals(List.of(new Claim(1, NOW + 1_000), new Claim(2, NOW + 3_000)), first);
+        assertTrue(second.isEmpty());
+        assertEquals(0, queue.ack("b", first), "只有认领的节点能确认");
+        assertEquals(1, queue.ack("a", List.of(first.get(0), new Claim(2, NOW + 4_000))), "到期时间不符的不确认");
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedByAnotherNode() {
+        queue.schedule(1, NOW + 1_000);
+        queue.schedule(2, NOW + 2_000);
+        queue.claim("a", NOW + 5_000, 100, NOW + 30_000);
+
+        // 节点 a 只为提醒 1 续约，之后宕机
+        assertEquals(1, queue.renew("a", List.of(1L), NOW + 90_000));
+        assertEquals(0, queue.renew("b", List.of(2L), NOW + 90_000));
+
+        assertEquals(1, queue.reclaimExpired(NOW + 31_000, 100));
+        assertEquals(List.of(new Claim(2, NOW + 2_000)), queue.claim("b", NOW + 35_000, 100, NOW + 125_000));
+        assertEquals(1, queue.reclaimExpired(NOW + 91_000, 100));
+        assertEquals(List.of(new Claim(1, NOW + 1_000)), queue.claim("b", NOW + 95_000, 100, NOW + 125_000));
+    }
+
+    @Test
+    void releaseAndCancelAffectOnlyOwnClaims() {
+        queue.schedule(1, NOW + 1_000);
+        queue.schedule(2, NOW + 2_000);
+        List<Claim> claims = queue.claim("a", NOW + 5_000, 100, NOW + 30_000);
+        queue.cancel(2);
+
+        assertEquals(0, queue.release("b", List.of(1L, 2L)));
+        assertEquals(1, queue.release("a", List.of(1L, 2L)));
+        assertEquals(List.of(claims.get(0)), queue.claim("b", NOW + 5_000, 100, NOW + 30_000));
+        // 已取消的提醒不会随租约过期回到队列
+        assertEquals(1, queue.reclaimExpired(NOW + 31_000, 100));
+    }
+}
@@ -0,0 +1,56 @@
+package com.chronotes.backend.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分层时间轮测试
+ */
+class TimingWheelTests {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void firesEachTaskOnFirstTickAtOrAfterDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        // 覆盖多层：8 格 × 100 毫秒一圈为 0.8 秒，最远约 2 小时需要 5 层
+        for (int i = 0; i < 5000; i++) {
+            long deadline = START + 1 + random.nextLong(2 * 3600 * 1000L);
+            deadlines.add(deadline);
+            assertTrue(wheel.add(deadline, deadline));
+        }
+
+        int fired = 0;
+        for (long now = START; fired < deadlines.size(); now += 37) {
+            for (long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= now, "不应提前触发");
+                assertTrue(now - deadline < 100 + 37, "最多晚一格（加上推进间隔）");
+                fired++;
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsExpiredTasksAndFiresInDeadlineOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 4, START);
+
+        assertFalse(wheel.add("past", START - 1));
+        assertTrue(wheel.add("c", START + 5_000));
+        assertTrue(wheel.add("a", START + 150));
+        assertTrue(wheel.add("b", START + 1_000));
+
+        assertEquals(List.of("a"), wheel.advance(START + 200));
+        assertEquals(List.of(), wheel.advance(START + 999));
+        assertEquals(List.of("b", "c"), wheel.advance(START + 60_000));
+    }
+}
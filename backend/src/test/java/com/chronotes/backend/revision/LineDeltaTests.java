@@ -0,0 +1,71 @@
+package com.chronotes.backend.revision;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 行级增量测试
+ */
+class LineDeltaTests {
+
+    @Test
+    void reproducesTargetExactly() {
+        String base = "# 标题\n第一段\n第二段\n第三段\n结尾";
+        String[] targets = {
+                base,
+                "",
+                "# 标题\n第一段\n插入的一行\n第二段\n第三段\n结尾",
+                "第一段\n第三段\n结尾\n",
+                "# 新标题\n第一段\n第二段改\n第三段\n结尾\r\n追加",
+                "完全不同\n的内容",
+        };
+        for (String target : targets) {
+            assertEquals(target, LineDelta.apply(base, LineDelta.diff(base, target)));
+            assertEquals(base, LineDelta.apply(target, LineDelta.diff(target, base)));
+        }
+    }
+
+    @Test
+    void reproducesRandomEdits() {
+        Random random = new Random(7);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lines.add("行 " + random.nextInt(50) + "\n");
+        }
+        String base = String.join("", lines);
+        for (int round = 0; round < 200; round++) {
+            for (int edit = 0; edit < 1 + random.nextInt(20); edit++) {
+                int at = random.nextInt(lines.size());
+                switch (random.nextInt(3)) {
+                    case 0 -> lines.remove(at);
+                    case 1 -> lines.add(at, "新行 " + random.nextInt(1000) + "\n");
+                    default -> lines.set(at, "改 " + random.nextInt(1000) + "\n");
+                }
+            }
+            String target = String.join("", lines);
+            assertEquals(target, LineDelta.apply(base, LineDelta.diff(base, target)));
+            base = target;
+        }
+    }
+
+    @Test
+    void deltaSizeFollowsEditNotDocument() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            builder.append("这是第 ").append(i).append(" 行，内容足够长以便与增量大小对比\n");
+        }
+        String base = builder.toString();
+        String target = base.replace("这是第 1000 行", "这是修改后的第 1000 行").replace("这是第 1500 行", "这是第 1500 行（补充）");
+
+        byte[] delta = LineDelta.diff(base, target);
+
+        assertEquals(target, LineDelta.apply(base, delta));
+        assertTrue(delta.length < 200, "增量大小: " + delta.length);
+    }
+}
@@ -0,0 +1,108 @@
+package com.chronotes.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 关键词统计测试（TF-IDF 排序、增量更新与重建一致、词典整理）
+ */
+class KeywordIndexTests {
+
+    @Test
+    void ranksDistinctiveTermsAndSkipsStopWordsAndNumbers() {
+        KeywordIndex index = new KeywordIndex();
+        index.put(1, 1, "梯度下降", "梯度下降用于最小化损失。the loss 2024", "ml");
+        index.put(2, 1, "学习率", "学习率 loss", "ml");
+        index.put(3, 1, "购物清单", "牛奶 面包", "");
+
+        // 标题中的双字词权重最高，同分按词序
+        assertEquals(List.of("下降", "度下", "梯度"), terms(index.noteKeywords(1, 3)));
+        List<String> all = terms(index.noteKeywords(1, 100));
+        assertFalse(all.contains("the"));
+        assertFalse(all.contains("2024"));
+        assertTrue(all.contains("loss"));
+
+        KeywordIndex.Keyword ml = index.userKeywords(100).stream()
+                .filter(keyword -> keyword.term().equals("ml")).findFirst().orElseThrow();
+        assertEquals(2, ml.noteCount());
+    }
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        KeywordIndex incremental = new KeywordIndex();
+        String[] contents = new String[200];
+        for (int id = 0; id < contents.length; id++) {
+            contents[id] = text(id, 0);
+            incremental.put(id, 0, "笔记" + id, contents[id], "tag" + id % 5);
+        }
+        // 一半笔记改写，三分之一删除
+        for (int id = 0; id < contents.length; id += 2) {
+            contents[id] = text(id, 1);
+            incremental.put(id, 1, "笔记" + id, contents[id], "tag" + id % 5);
+        }
+        for (int id = 0; id < contents.length; id += 3) {
+            contents[id] = null;
+            incremental.delete(id);
+        }
+
+        KeywordIndex rebuilt = new KeywordIndex();
+        for (int id = 0; id < contents.length; id++) {
+            if (contents[id] != null) {
+                rebuilt.put(id, id % 2 == 0 ? 1 : 0, "笔记" + id, contents[id], "tag" + id % 5);
+            }
+        }
+
+        assertEquals(rebuilt.noteCount(), incremental.noteCount());
+        assertEquals(rebuilt.userKeywords(50), incremental.userKeywords(50));
+        for (int id = 1; id < contents.length; id += 7) {
+            assertEquals(rebuilt.noteKeywords(id, 10), incremental.noteKeywords(id, 10));
+        }
+        assertEquals(1, incremental.version(2));
+        assertEquals(-1, incremental.version(3));
+    }
+
+    @Test
+    void compactsDictionaryAfterNotesAreReplaced() {
+        KeywordIndex index = new KeywordIndex();
+        // 每轮换掉全部词，旧词不断失效
+        for (int round = 0; round < 20; round++) {
+            for (int id = 0; id < 10; id++) {
+                StringBuilder content = new StringBuilder();
+                for (int i = 0; i < 50; i++) {
+                    content.append("word").append(round).append('x').append(id).append('x').append(i).append(' ');
+                }
+                index.put(id, round, "", content.toString(), "");
+            }
+        }
+        index.put(100, 0, "", "keep keep stable", "");
+
+        List<KeywordIndex.Keyword> cloud = index.userKeywords(1000);
+        assertEquals(502, cloud.size());
+        assertTrue(cloud.stream().map(KeywordIndex.Keyword::term)
+                .allMatch(term -> term.startsWith("word19") || term.equals("keep") || term.equals("stable")));
+        assertEquals("keep", index.noteKeywords(100, 1).get(0).term());
+        index.delete(100);
+        assertTrue(index.noteKeywords(100, 5).isEmpty());
+        assertEquals(500, index.userKeywords(1000).size());
+    }
+
+    private static String text(int id, int revision) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            text.append("term").append((id * 31 + i * 7 + revision * 13) % 97).append(' ');
+            if (i % 5 == 0) {
+                text.append("主题").append((char) ('甲' + (id + i + revision) % 10)).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private static List<String> terms(List<KeywordIndex.Keyword> keywords) {
+        return keywords.stream().map(KeywordIndex.Keyword::term).toList();
+    }
+}
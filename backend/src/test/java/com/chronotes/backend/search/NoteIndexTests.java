@@ -0,0 +1,89 @@
+package com.chronotes.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 笔记倒排索引测试（分词、BM25 排序、段写入/合并/重新打开）
+ */
+class NoteIndexTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tokenizesCjkAsBigramsAndOtherTextAsWords() {
+        assertEquals(List.of("梯度", "度下", "下降", "sgd", "v2"), Tokenizer.tokenize("梯度下降：SGD-v2"));
+        assertEquals(List.of("学", "notes"), Tokenizer.tokenize("学 notes"));
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndAppliesUpdatesAndDeletes() throws Exception {
+        try (NoteIndex index = NoteIndex.open(directory, 2, 2)) {
+            index.put(1, 1, "机器学习笔记", "梯度下降法用于最小化损失函数", "ml");
+            index.put(2, 1, "梯度下降", "学习率的选择", "ml");
+            index.put(3, 1, "购物清单", "牛奶 面包", "");
+
+            List<NoteIndex.Hit> hits = index.search("梯度下降", 10);
+            assertEquals(2, hits.size());
+            assertEquals(2, hits.get(0).noteId());
+
+            index.put(2, 2, "学习率", "调参记录", "ml");
+            assertEquals(List.of(1L), ids(index.search("梯度下降", 10)));
+            assertEquals(2, index.indexedVersion(2));
+
+            index.delete(1);
+            assertTrue(index.search("梯度下降", 10).isEmpty());
+            assertEquals(List.of(3L), ids(index.search("牛奶", 10)));
+        }
+    }
+
+    @Test
+    void persistsSegmentsAndDeletionsAcrossReopenAndMerge() throws Exception {
+        try (NoteIndex index = NoteIndex.open(directory, 3, 2)) {
+            for (long id = 1; id <= 20; id++) {
+                index.put(id, id, "note " + id, id % 2 == 0 ? "even 偶数" : "odd 奇数", "");
+            }
+            index.delete(4);
+            index.advanceCheckpoint(20);
+        }
+
+        try (NoteIndex index = NoteIndex.open(directory, 3, 2)) {
+            assertEquals(20, index.checkpoint());
+            assertEquals(-1, index.indexedVersion(4));
+            assertEquals(7, index.indexedVersion(7));
+            assertEquals(9, index.search("偶数", 100).size());
+            assertEquals(10, index.search("odd", 100).size());
+            assertEquals(List.of(13L), ids(index.search("13", 10)));
+        }
+    }
+
+    @Test
+    void closedIndexRejectsWritesButStillSearches() throws Exception {
+        NoteIndex index = NoteIndex.open(directory, 10, 2);
+        index.put(1, 1, "梯度下降", "学习率", "");
+        index.close();
+        index.close();
+
+        assertThrows(IndexClosedException.class, () -> index.put(2, 1, "梯度", "", ""));
+        assertThrows(IndexClosedException.class, () -> index.delete(1));
+        assertThrows(IndexClosedException.class, () -> index.advanceCheckpoint(5));
+        assertEquals(List.of(1L), ids(index.search("梯度下降", 10)));
+
+        try (NoteIndex reopened = NoteIndex.open(directory, 10, 2)) {
+            assertEquals(1, reopened.indexedVersion(1), "关闭时已落盘");
+            assertEquals(-1, reopened.indexedVersion(2));
+        }
+    }
+
+    private static List<Long> ids(List<NoteIndex.Hit> hits) {
+        return hits.stream().map(NoteIndex.Hit::noteId).toList();
+    }
+}
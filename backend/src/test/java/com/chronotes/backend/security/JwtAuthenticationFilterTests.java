@@ -0,0 +1,136 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.UserChangedEvent;
+import com.chronotes.backend.service.UserCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * JWT 认证过滤器测试：claims 模式下旧版本号的 Token 在改密或禁用后被拒绝，database 模式按邮箱加载
+ */
+class JwtAuthenticationFilterTests {
+
+    private final AtomicReference<User> row = new AtomicReference<>();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private JwtUtils jwtUtils;
+    private UserDetailsCache userDetailsCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        row.set(user(1, 0));
+        UserCacheService userCacheService = new UserCacheService() {
+            @Override
+            public User findByEmail(String email) {
+                reads.incrementAndGet();
+                return email.equals(row.get().getEmail()) ? row.get() : null;
+            }
+
+            @Override
+            public User findById(Long id) {
+                reads.incrementAndGet();
+                return id.equals(row.get().getId()) ? row.get() : null;
+            }
+        };
+        jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "secret", "test-secret-test-secret-test-secret-0123456789");
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxTtl", 600_000L);
+        jwtUtils.init();
+        userDetailsCache = new UserDetailsCache();
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", 60_000L);
+        userDetailsCache.init();
+        filter = new JwtAuthenticationFilter(jwtUtils, new UserDetailsServiceImpl(userCacheService, userDetailsCache));
+        ReflectionTestUtils.setField(filter, "principalMode", "claims");
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void claimsModeRejectsTokenIssuedBeforePasswordChange() throws Exception {
+        String token = jwtUtils.generateToken(row.get());
+        assertNotNull(authenticate(token));
+        assertNotNull(authenticate(token));
+        assertEquals(1, reads.get(), "第二次请求命中用户详情缓存");
+
+        // 改密：版本号递增并失效用户详情缓存
+        row.set(user(1, 1));
+        userDetailsCache.onUserChanged(new UserChangedEvent(1L, null, true));
+
+        assertNull(authenticate(token), "改密前签发的 Token 不再有效");
+        assertNotNull(authenticate(jwtUtils.generateToken(row.get())));
+    }
+
+    @Test
+    void claimsModeRejectsTokenOfDisabledUser() throws Exception {
+        String token = jwtUtils.generateToken(row.get());
+        assertNotNull(authenticate(token));
+
+        // 禁用账号同样递增版本号，状态不写入 Token
+        row.set(user(0, 1));
+        userDetailsCache.onUserChanged(new UserChangedEvent(1L, null, true));
+
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void claimsModeFallsBackToEmailForLegacyToken() throws Exception {
+        Authentication authentication = authenticate(jwtUtils.generateToken("a@example.com"));
+
+        assertNotNull(authentication);
+        assertEquals("a@example.com", ((CustomUserDetails) authentication.getPrincipal()).getUsername());
+    }
+
+    @Test
+    void databaseModeLoadsUserByEmailOnEveryRequest() throws Exception {
+        ReflectionTestUtils.setField(filter, "principalMode", "database");
+        String token = jwtUtils.generateToken(row.get());
+
+        assertNotNull(authenticate(token));
+        assertNotNull(authenticate(token));
+        assertEquals(2, reads.get());
+
+        row.set(user(1, 0));
+        row.get().setEmail("b@example.com");
+        assertNull(authenticate(token), "邮箱对应的用户不存在时不认证");
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static User user(int status, int tokenVersion) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("a@example.com");
+        user.setStatus(status);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
@@ -0,0 +1,100 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 已验证 Token 缓存测试
+ */
+class JwtUtilsTests {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtils = new JwtUtils(meterRegistry);
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxTtl", 600_000L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void repeatedTokenIsServedFromCache() {
+        String token = jwtUtils.generateToken(user());
+
+        Claims first = jwtUtils.parseToken(token);
+        Claims second = jwtUtils.parseToken(token);
+
+        assertNotNull(first);
+        assertSame(first, second, "第二次直接返回缓存的 Claims");
+        assertEquals(1.0, meterRegistry.get("jwt.verification.cache.hit").counter().count());
+        assertEquals(1L, meterRegistry.get("jwt.verification").timer().count(), "只做一次签名校验");
+        assertEquals(1L, first.get(JwtUtils.CLAIM_USER_ID, Long.class));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws Exception {
+        Date expiration = new Date(System.currentTimeMillis() + 1_500);
+        String token = Jwts.builder()
+                .subject("a@example.com")
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        assertNotNull(jwtUtils.parseToken(token));
+
+        // exp 以秒为单位写入 Token，等到截断后的过期时间之后
+        Thread.sleep(expiration.getTime() - System.currentTimeMillis() + 100);
+
+        assertNull(jwtUtils.parseToken(token));
+        assertNull(jwtUtils.parseToken(token));
+        assertEquals(0.0, meterRegistry.get("jwt.verification.cache.hit").counter().count());
+    }
+
+    @Test
+    void tamperedTokenIsNeverServedFromCache() {
+        String token = jwtUtils.generateToken(user());
+        assertNotNull(jwtUtils.parseToken(token));
+
+        // 改写载荷中的邮箱，保留原签名
+        String[] parts = token.split("\\.");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = new String(decoder.decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("a@example.com", "admin@example.com");
+        String tampered = parts[0] + "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertNull(jwtUtils.parseToken(tampered));
+        assertNull(jwtUtils.parseToken(tampered), "校验失败的 Token 不进入缓存");
+        assertEquals(2.0, meterRegistry.get("jwt.verification.rejected").counter().count());
+        assertEquals("a@example.com", jwtUtils.parseToken(token).getSubject());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("a@example.com");
+        user.setTokenVersion(0);
+        return user;
+    }
+}
@@ -0,0 +1,130 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录时重新哈希测试（内存数据库执行真实的 UserMapper SQL）
+ */
+class PasswordHashExecutorTests {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(5);
+    private final CountDownLatch encodeStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseEncode = new CountDownLatch(1);
+
+    private UserMapper userMapper;
+    private PasswordHashExecutor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase database = TestDatabase.create();
+        userMapper = database.mapper(UserMapper.class);
+        User user = new User();
+        user.setEmail("a@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("old-password"));
+        user.setUsername("a");
+        user.setStatus(1);
+        user.setTokenVersion(0);
+        user.setCreateTime(LocalDateTime.now());
+        user.setUpdateTime(LocalDateTime.now());
+        userMapper.insert(user);
+
+        // 重新哈希旧密码时停住，模拟任务仍在排队或执行
+        PasswordEncoder encoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("old-password".contentEquals(rawPassword)) {
+                    encodeStarted.countDown();
+                    try {
+                        releaseEncode.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+        executor = new PasswordHashExecutor(encoder, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "threads", 2);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 8);
+        ReflectionTestUtils.setField(executor, "timeout", 5000L);
+        ReflectionTestUtils.setField(executor, "strength", 5);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rehashUpgradesCostWhenPasswordUnchanged() throws Exception {
+        releaseEncode.countDown();
+        AtomicInteger rows = new AtomicInteger(-1);
+        CountDownLatch saved = new CountDownLatch(1);
+
+        String verified = userMapper.findPasswordById(1L);
+        assertTrue(executor.needsRehash(verified));
+        executor.rehashAsync("old-password", verified, (oldHash, hash) -> {
+            rows.set(userMapper.updatePasswordHash(1L, oldHash, hash, LocalDateTime.now()));
+            saved.countDown();
+        });
+
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        assertEquals(1, rows.get());
+        String stored = userMapper.findPasswordById(1L);
+        assertFalse(executor.needsRehash(stored));
+        assertTrue(executor.matches("old-password", stored));
+        assertEquals(0, userMapper.findById(1L).getTokenVersion());
+    }
+
+    @Test
+    void passwordChangedDuringRehashIsNotOverwritten() throws Exception {
+        AtomicInteger rows = new AtomicInteger(-1);
+        CountDownLatch saved = new CountDownLatch(1);
+
+        String verified = userMapper.findPasswordById(1L);
+        executor.rehashAsync("old-password", verified, (oldHash, hash) -> {
+            rows.set(userMapper.updatePasswordHash(1L, oldHash, hash, LocalDateTime.now()));
+            saved.countDown();
+        });
+        assertTrue(encodeStarted.await(5, TimeUnit.SECONDS));
+
+        // 重新哈希进行中用户修改了密码
+        User change = new User();
+        change.setId(1L);
+        change.setPassword(executor.encode("new-password"));
+        change.setUpdateTime(LocalDateTime.now());
+        assertEquals(1, userMapper.update(change));
+        releaseEncode.countDown();
+
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+        assertEquals(0, rows.get(), "比较旧哈希失败，重新哈希应放弃");
+        String stored = userMapper.findPasswordById(1L);
+        assertTrue(executor.matches("new-password", stored));
+        assertFalse(executor.matches("old-password", stored));
+        assertEquals(1, userMapper.findById(1L).getTokenVersion());
+    }
+}
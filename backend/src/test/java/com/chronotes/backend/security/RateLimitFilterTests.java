@@ -0,0 +1,177 @@
+package com.chronotes.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 认证接口限流测试（进程内 Redis 替身，执行真实的 Lua 脚本）
+ */
+class RateLimitFilterTests {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RateLimitFilter filter;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = RedisServer.newRedisServer(0);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory.getConnection().serverCommands().flushAll();
+        filter = new RateLimitFilter(redisTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "window", 60_000L);
+        ReflectionTestUtils.setField(filter, "globalLimit", 1000L);
+        ReflectionTestUtils.setField(filter, "loginPerIp", 3L);
+        ReflectionTestUtils.setField(filter, "loginPerEmail", 2L);
+        filter.init();
+    }
+
+    @Test
+    void perIpLimitRejectsWithinWindow() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, login("10.0.0.1", "user" + i + "@example.com").getStatus());
+        }
+        MockHttpServletResponse rejected = login("10.0.0.1", "other@example.com");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(200, login("10.0.0.2", "other@example.com").getStatus(), "其他 IP 不受影响");
+    }
+
+    @Test
+    void perEmailLimitAppliesAcrossIpsAndNormalizesCase() throws Exception {
+        assertEquals(200, login("10.0.0.1", "victim@example.com").getStatus());
+        assertEquals(200, login("10.0.0.2", "Victim@Example.com ").getStatus());
+        assertEquals(429, login("10.0.0.3", "victim@example.com").getStatus());
+        assertTrue(redisTemplate.keys("rate_limit:login:email:victim@example.com:*").size() > 0);
+    }
+
+    @Test
+    void chunkedBodyIsStillLimitedPerEmail() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(200, send(chunked(request("10.0.0." + i, json("victim@example.com")))).getStatus());
+        }
+        assertEquals(429, send(chunked(request("10.0.0.9", json("victim@example.com")))).getStatus());
+    }
+
+    @Test
+    void oversizedOrUnparsableBodyIsRejected() throws Exception {
+        String padded = "{\"email\":\"victim@example.com\",\"password\":\"x\",\"pad\":\"" + "a".repeat(17 * 1024) + "\"}";
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(chunked(request("10.0.0.1", padded)), response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest(), "超出上限的请求不进入认证逻辑");
+
+        assertEquals(413, send(request("10.0.0.1", padded)).getStatus());
+        assertEquals(400, send(request("10.0.0.1", "email=victim@example.com")).getStatus());
+        assertEquals(400, send(request("10.0.0.1", "{\"password\":\"x\"}")).getStatus());
+    }
+
+    @Test
+    void downstreamReadsTheSameBody() throws Exception {
+        String body = json("user@example.com");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(chunked(request("10.0.0.1", body)), new MockHttpServletResponse(), chain);
+
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), forwarded.getInputStream().readAllBytes());
+        assertEquals(body.length(), forwarded.getContentLength());
+    }
+
+    @Test
+    void previousWindowIsWeightedByRemainingFraction() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/rate_limit.lua"));
+        script.setResultType(Long.class);
+        List<String> keys = List.of("k:2", "k:1");
+        redisTemplate.opsForValue().set("k:1", "10");
+
+        // 当前窗口过去 75%：上一窗口计 10 × 0.25 = 2.5，上限 4 时还能放行 2 次
+        assertEquals(0L, redisTemplate.execute(script, keys, "0.75", "60000", "4"));
+        assertEquals(0L, redisTemplate.execute(script, keys, "0.75", "60000", "4"));
+        assertEquals(1L, redisTemplate.execute(script, keys, "0.75", "60000", "4"));
+        assertEquals("2", redisTemplate.opsForValue().get("k:2"), "被拒绝的请求不计数");
+        // 同样的计数在窗口刚开始时：上一窗口全额计入，10 + 2 已达上限 12
+        assertEquals(1L, redisTemplate.execute(script, keys, "0.0", "60000", "12"));
+        assertEquals(0L, redisTemplate.execute(script, keys, "0.0", "60000", "13"));
+    }
+
+    private MockHttpServletResponse login(String ip, String email) throws Exception {
+        return send(request(ip, json(email)));
+    }
+
+    private MockHttpServletResponse send(HttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /**
+     * 分块传输：不声明 Content-Length
+     */
+    private static HttpServletRequest chunked(MockHttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+    }
+
+    private static String json(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+    }
+}
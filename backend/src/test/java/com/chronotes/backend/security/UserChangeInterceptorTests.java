@@ -0,0 +1,91 @@
+package com.chronotes.backend.security;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.UserChangedEvent;
+import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.support.TestDatabase;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户变更事件的发布时机测试
+ */
+class UserChangeInterceptorTests {
+
+    private final List<Object> events = new ArrayList<>();
+    private final UserChangeInterceptor interceptor = new UserChangeInterceptor(events::add);
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transaction = new TransactionTemplate(TestDatabase.create().transactionManager());
+    }
+
+    @Test
+    void publishesAfterCommitInsideTransaction() {
+        transaction.executeWithoutResult(status -> {
+            insert(user());
+            assertTrue(events.isEmpty(), "提交前不失效缓存");
+        });
+
+        assertEquals(1, events.size());
+        UserChangedEvent event = (UserChangedEvent) events.get(0);
+        assertEquals(1L, event.getUserId());
+        assertEquals("a@example.com", event.getEmail());
+    }
+
+    @Test
+    void rolledBackWriteIsNotPublished() {
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            insert(user());
+            throw new IllegalStateException("回滚");
+        }));
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void publishesImmediatelyWithoutTransaction() {
+        insert(user());
+
+        assertEquals(1, events.size());
+    }
+
+    private void insert(User user) {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration, UserMapper.class.getName() + ".insert",
+                new StaticSqlSource(configuration, "INSERT INTO user"), SqlCommandType.INSERT).build();
+        Executor executor = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(),
+                new Class<?>[]{Executor.class}, (proxy, method, args) -> 1);
+        try {
+            interceptor.intercept(new Invocation(executor,
+                    Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                    new Object[]{statement, user}));
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("a@example.com");
+        return user;
+    }
+}
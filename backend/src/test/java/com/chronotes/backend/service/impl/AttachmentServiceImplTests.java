@@ -0,0 +1,158 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.attachment.AttachmentResponse;
+import com.chronotes.backend.mapper.AttachmentMapper;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.storage.LocalBlobStore;
+import com.chronotes.backend.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 附件引用计数测试：两个服务实例模拟共用数据库与文件目录的两个节点
+ */
+class AttachmentServiceImplTests {
+
+    private static final byte[] CONTENT = "同一份 PDF".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private TestDatabase database;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = TestDatabase.create();
+    }
+
+    @Test
+    void deletingOneReferenceKeepsSharedContent() {
+        LocalBlobStore store = store(new LocalBlobStore());
+        AttachmentServiceImpl service = service(store);
+
+        AttachmentResponse first = upload(service);
+        AttachmentResponse second = upload(service);
+        assertEquals(first.getSha256(), second.getSha256());
+
+        service.delete(1L, first.getId());
+        assertTrue(store.exists(second.getSha256()), "仍有附件引用时保留文件");
+        service.delete(1L, second.getId());
+        assertFalse(store.exists(second.getSha256()));
+    }
+
+    @Test
+    void rolledBackDeleteKeepsTheFile() {
+        LocalBlobStore store = store(new LocalBlobStore());
+        AttachmentServiceImpl service = service(store);
+        AttachmentResponse uploaded = upload(service);
+
+        new TransactionTemplate(database.transactionManager()).executeWithoutResult(status -> {
+            service.delete(1L, uploaded.getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, database.mapper(AttachmentMapper.class).countBySha256(uploaded.getSha256()));
+        assertTrue(store.exists(uploaded.getSha256()), "附件记录随回滚恢复，文件不能已被删除");
+    }
+
+    @Test
+    void failedUploadRemovesOnlyTheFileItStored() {
+        LocalBlobStore store = store(new LocalBlobStore());
+        AttachmentServiceImpl service = service(store);
+        database.jdbc().execute("ALTER TABLE attachment ADD CONSTRAINT chk_reject CHECK (file_name <> 'rejected.pdf')");
+
+        assertThrows(RuntimeException.class, () -> upload(service, "rejected.pdf"));
+        assertEquals(0, countFiles(), "回滚后不留下无人引用的文件");
+
+        AttachmentResponse uploaded = upload(service);
+        assertThrows(RuntimeException.class, () -> upload(service, "rejected.pdf"));
+        assertTrue(store.exists(uploaded.getSha256()), "已有附件引用的文件不受失败的上传影响");
+    }
+
+    @Test
+    void uploadOnAnotherNodeWaitsForDeleteOfSameContent() throws Exception {
+        CountDownLatch deleting = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        LocalBlobStore pausingStore = store(new LocalBlobStore() {
+            @Override
+            public boolean delete(String hash) throws IOException {
+                deleting.countDown();
+                try {
+                    resume.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.delete(hash);
+            }
+        });
+        LocalBlobStore otherStore = store(new LocalBlobStore());
+        AttachmentServiceImpl nodeA = service(pausingStore);
+        AttachmentServiceImpl nodeB = service(otherStore);
+
+        AttachmentResponse existing = upload(nodeA);
+        CompletableFuture<Void> delete = CompletableFuture.runAsync(() -> nodeA.delete(1L, existing.getId()));
+        assertTrue(deleting.await(10, TimeUnit.SECONDS));
+
+        // 节点 A 已判定内容无引用、正要删除文件，节点 B 此时上传相同内容
+        CompletableFuture<AttachmentResponse> upload = CompletableFuture.supplyAsync(() -> upload(nodeB));
+        Thread.sleep(200);
+        assertFalse(upload.isDone(), "上传等待删除所在事务结束");
+
+        resume.countDown();
+        delete.get(10, TimeUnit.SECONDS);
+        AttachmentResponse uploaded = upload.get(10, TimeUnit.SECONDS);
+
+        assertTrue(otherStore.exists(uploaded.getSha256()), "删除完成后重新提交文件");
+        assertEquals(1, database.mapper(AttachmentMapper.class).countBySha256(uploaded.getSha256()));
+    }
+
+    private long countFiles() {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LocalBlobStore store(LocalBlobStore store) {
+        ReflectionTestUtils.setField(store, "dir", dir.toString());
+        store.init();
+        return store;
+    }
+
+    private AttachmentServiceImpl service(LocalBlobStore store) {
+        AttachmentServiceImpl service = new AttachmentServiceImpl(database.mapper(AttachmentMapper.class),
+                database.mapper(NoteMapper.class), store, new SimpleMeterRegistry(), database.transactionManager());
+        ReflectionTestUtils.setField(service, "maxSize", 1024L);
+        service.init();
+        return service;
+    }
+
+    private static AttachmentResponse upload(AttachmentServiceImpl service) {
+        return upload(service, "a.pdf");
+    }
+
+    private static AttachmentResponse upload(AttachmentServiceImpl service, String fileName) {
+        return service.upload(1L, null, fileName, "application/pdf", new ByteArrayInputStream(CONTENT));
+    }
+}
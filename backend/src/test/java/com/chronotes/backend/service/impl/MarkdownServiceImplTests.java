@@ -0,0 +1,101 @@
+package com.chronotes.backend.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 分块渲染测试
+ */
+class MarkdownServiceImplTests {
+
+    private static final String DOCUMENT = """
+            # 梯度下降
+
+            沿负梯度方向更新参数，详见[教材][book]。
+            第二行属于同一段落
+
+            1. 学习率过大会震荡
+
+               学习率过小收敛慢
+            2. 可以使用 ~~固定~~ 衰减学习率
+
+            ```python
+            w = w - lr * grad
+
+            print(w)
+            ```
+
+            | 方法 | 说明 |
+            | --- | --- |
+            | SGD | 随机 |
+
+            > 引用中的 [链接][book]
+            > 第二行
+
+            <script>alert(1)</script>
+
+            [book]: https://example.com/book "教材"
+            """;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MarkdownServiceImpl service = service();
+
+    @Test
+    void rendersSameHtmlAsWholeDocument() {
+        String html = service.render(DOCUMENT);
+
+        assertEquals(renderWhole(DOCUMENT), html);
+        assertFalse(html.contains("<script>"));
+    }
+
+    @Test
+    void rerendersOnlyChangedBlocks() {
+        service.render(DOCUMENT);
+        int blocks = service.split(DOCUMENT).size();
+        assertEquals(blocks, misses());
+
+        String edited = DOCUMENT.replace("学习率过小收敛慢", "学习率过小收敛很慢");
+        assertEquals(renderWhole(edited), service.render(edited));
+        assertEquals(blocks + 1, misses());
+    }
+
+    @Test
+    void invalidatesBlocksWhenReferenceDefinitionChanges() {
+        service.render(DOCUMENT);
+        String edited = DOCUMENT.replace("https://example.com/book", "https://example.com/book2");
+
+        String html = service.render(edited);
+
+        assertEquals(renderWhole(edited), html);
+        // 只有引用了定义的段落与引用块需要重新渲染
+        assertEquals(service.split(DOCUMENT).size() + 2, misses());
+    }
+
+    private int misses() {
+        return (int) meterRegistry.get("markdown.blocks").tag("result", "miss").counter().count();
+    }
+
+    private MarkdownServiceImpl service() {
+        MarkdownServiceImpl markdownService = new MarkdownServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(markdownService, "cacheMaxBytes", 1L << 20);
+        markdownService.init();
+        return markdownService;
+    }
+
+    private static String renderWhole(String markdown) {
+        List<org.commonmark.Extension> extensions = List.of(TablesExtension.create(), StrikethroughExtension.create());
+        return HtmlRenderer.builder().extensions(extensions).escapeHtml(true).sanitizeUrls(true).build()
+                .render(Parser.builder().extensions(extensions).build().parse(markdown));
+    }
+}
@@ -0,0 +1,150 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NoteRequest;
+import com.chronotes.backend.dto.note.NoteResponse;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.NoteRevision;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.mapper.NoteRevisionMapper;
+import com.chronotes.backend.service.NoteService;
+import com.chronotes.backend.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 笔记版本测试（内存数据库执行真实的 NoteRevisionMapper SQL）
+ */
+class NoteRevisionServiceImplTests {
+
+    private static final int SNAPSHOT_INTERVAL = 4;
+    private static final Long USER_ID = 1L;
+    private static final Long NOTE_ID = 10L;
+
+    private TestDatabase database;
+    private NoteRevisionMapper revisionMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private NoteRevisionServiceImpl revisionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = TestDatabase.create();
+        revisionMapper = database.mapper(NoteRevisionMapper.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // 恢复版本时按笔记服务的行为保存并发布变更事件
+        NoteService noteService = (NoteService) Proxy.newProxyInstance(NoteService.class.getClassLoader(),
+                new Class<?>[]{NoteService.class}, (proxy, method, args) -> {
+                    if (!"update".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    NoteRequest request = (NoteRequest) args[2];
+                    revisionService.onNoteChanged(new NoteChangedEvent(USER_ID, NOTE_ID,
+                            note(request.getTitle(), request.getContent(), NoteServiceImpl.joinTags(request.getTags()))));
+                    return new NoteResponse();
+                });
+        revisionService = newService(noteService);
+    }
+
+    @Test
+    void everyRevisionIsRebuiltFromABoundedDeltaChain() {
+        List<String> contents = edits(11);
+        contents.forEach(content -> save(content));
+
+        for (int revision = 1; revision <= contents.size(); revision++) {
+            NoteRevision header = revisionMapper.findHeader(USER_ID, NOTE_ID, revision);
+            assertTrue(revision - header.getSnapshotRevision() < SNAPSHOT_INTERVAL, "增量链不超过快照间隔");
+            assertEquals(contents.get(revision - 1), revisionService.get(USER_ID, NOTE_ID, revision).getContent());
+        }
+        assertEquals(3, revisionMapper.findChain(NOTE_ID, 1, contents.size()).stream()
+                .filter(NoteRevision::isSnapshot).count(), "第 1、5、9 版为快照");
+        assertEquals(SNAPSHOT_INTERVAL - 1,
+                meterRegistry.get("revision.chain.length").summary().max(), "回放的增量个数有上限");
+    }
+
+    @Test
+    void compressedRevisionsAndColdCacheStillReconstruct() {
+        List<String> contents = edits(6);
+        contents.forEach(content -> save(content));
+        ReflectionTestUtils.setField(revisionService, "compressAfter", -60_000L);
+        revisionService.compressOldRevisions();
+
+        // 新实例没有最新版本缓存，从压缩后的增量链还原后继续记录
+        NoteRevisionServiceImpl restarted = newService(null);
+        restarted.onNoteChanged(new NoteChangedEvent(USER_ID, NOTE_ID, note("标题", contents.get(5) + "尾行\n", "")));
+        assertEquals(contents.get(3), restarted.get(USER_ID, NOTE_ID, 4).getContent());
+        assertEquals(contents.get(5) + "尾行\n", restarted.get(USER_ID, NOTE_ID, 7).getContent());
+    }
+
+    @Test
+    void restoreRecordsTheOldContentAsANewRevision() {
+        save("第一行\n第二行\n");
+        save("第一行\n改过的第二行\n");
+
+        revisionService.restore(USER_ID, NOTE_ID, 1);
+
+        assertEquals(3, revisionMapper.findLatest(NOTE_ID).getRevision());
+        assertEquals("第一行\n第二行\n", revisionService.get(USER_ID, NOTE_ID, 3).getContent());
+        assertEquals(List.of("标签"), revisionService.get(USER_ID, NOTE_ID, 3).getTags());
+    }
+
+    @Test
+    void failedRevisionCleanupDoesNotFailTheNoteDelete() {
+        save("正文\n");
+        database.jdbc().execute("ALTER TABLE note_revision RENAME TO note_revision_off");
+
+        assertDoesNotThrow(() -> revisionService.onNoteChanged(
+                new NoteChangedEvent(USER_ID, NOTE_ID, null, LocalDateTime.now(), false)));
+    }
+
+    private NoteRevisionServiceImpl newService(NoteService noteService) {
+        NoteRevisionServiceImpl service = new NoteRevisionServiceImpl(revisionMapper, noteService, meterRegistry);
+        ReflectionTestUtils.setField(service, "snapshotInterval", SNAPSHOT_INTERVAL);
+        ReflectionTestUtils.setField(service, "cacheMaxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(service, "compressAfter", 86_400_000L);
+        service.init();
+        return service;
+    }
+
+    private void save(String content) {
+        revisionService.onNoteChanged(new NoteChangedEvent(USER_ID, NOTE_ID, note("标题", content, "标签")));
+    }
+
+    /**
+     * 每次改动一行并追加一行，增量远小于正文
+     */
+    private static List<String> edits(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add("第 " + i + " 行：一段足够长的正文内容，保证增量比快照小得多\n");
+        }
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.set(i % lines.size(), "第 " + i + " 次修改\n");
+            lines.add("追加 " + i + "\n");
+            contents.add(String.join("", lines));
+        }
+        return contents;
+    }
+
+    private static Note note(String title, String content, String tags) {
+        Note note = new Note();
+        note.setId(NOTE_ID);
+        note.setUserId(USER_ID);
+        note.setTitle(title);
+        note.setContent(content);
+        note.setTags(tags);
+        note.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return note;
+    }
+}
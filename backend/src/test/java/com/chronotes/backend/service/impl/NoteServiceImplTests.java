@@ -0,0 +1,116 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.note.NotePage;
+import com.chronotes.backend.dto.note.NoteSummary;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.exception.BusinessException;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 笔记游标分页测试（内存数据库执行真实的 findPage SQL）
+ */
+class NoteServiceImplTests {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDateTime SAME_TIME = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private NoteMapper noteMapper;
+    private NoteServiceImpl noteService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase database = TestDatabase.create();
+        noteMapper = database.mapper(NoteMapper.class);
+        // 列表只读取笔记，其余依赖不参与
+        noteService = new NoteServiceImpl(noteMapper, null, null, null, database.transactionManager());
+        noteService.init();
+    }
+
+    @Test
+    void pagesAreStableAcrossEqualUpdateTimes() {
+        List<Long> expected = new ArrayList<>();
+        expected.add(insert(USER_ID, SAME_TIME.plusMinutes(1)));
+        List<Long> sameTime = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sameTime.add(insert(USER_ID, SAME_TIME));
+        }
+        // 同一更新时间按 id 倒序
+        for (int i = sameTime.size() - 1; i >= 0; i--) {
+            expected.add(sameTime.get(i));
+        }
+        expected.add(insert(USER_ID, SAME_TIME.minusMinutes(1)));
+        insert(2L, SAME_TIME);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            NotePage page = noteService.list(USER_ID, cursor, 2);
+            page.getItems().stream().map(NoteSummary::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, seen, "跨页不重复、不遗漏，且只返回本人笔记");
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        insert(USER_ID, SAME_TIME);
+        insert(USER_ID, SAME_TIME.plusMinutes(1));
+
+        NotePage exact = noteService.list(USER_ID, null, 2);
+        assertEquals(2, exact.getItems().size());
+        assertNull(exact.getNextCursor(), "恰好取完时不返回下一页游标");
+
+        NotePage first = noteService.list(USER_ID, null, 1);
+        assertNotNull(first.getNextCursor());
+        NotePage last = noteService.list(USER_ID, first.getNextCursor(), 1);
+        assertEquals(1, last.getItems().size());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> cursors = List.of(
+                "不是游标",
+                encoder.encodeToString("garbage".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString("2024-05-01T12:00|abc".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString("yesterday|1".getBytes(StandardCharsets.UTF_8)));
+
+        for (String cursor : cursors) {
+            BusinessException e = assertThrows(BusinessException.class, () -> noteService.list(USER_ID, cursor, 10));
+            assertEquals(NoteServiceImpl.INVALID_CURSOR_CODE, e.getCode().intValue());
+        }
+        assertTrue(noteService.list(USER_ID, "", 10).getItems().isEmpty(), "空游标视为第一页");
+    }
+
+    private Long insert(Long userId, LocalDateTime updateTime) {
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle("标题");
+        note.setContent("正文");
+        note.setTags("");
+        note.setCreateTime(updateTime);
+        note.setUpdateTime(updateTime);
+        noteMapper.insert(note);
+        return note.getId();
+    }
+}
@@ -0,0 +1,62 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.entity.Note;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 笔记导入导出格式测试
+ */
+class NoteTransferServiceImplTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void exportedMarkdownParsesBackToSameNote() {
+        Note note = new Note();
+        note.setId(42L);
+        note.setTitle("梯度下降: \"笔记\" \\ 第一章");
+        note.setContent("---\n正文里的分隔线\n---\n\n# 标题\n");
+        note.setTags("机器学习,优化");
+        note.setCreateTime(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_000_000));
+        note.setUpdateTime(LocalDateTime.of(2024, 3, 2, 9, 0));
+
+        Note parsed = NoteTransferServiceImpl.parse(NoteTransferServiceImpl.entryName(note),
+                NoteTransferServiceImpl.toMarkdown(note), NOW);
+
+        assertEquals("梯度下降_ _笔记_ _ 第一章-42.md", NoteTransferServiceImpl.entryName(note));
+        assertEquals(note.getTitle(), parsed.getTitle());
+        assertEquals(note.getContent(), parsed.getContent());
+        assertEquals(note.getTags(), parsed.getTags());
+        assertEquals(note.getCreateTime(), parsed.getCreateTime());
+        assertEquals(note.getUpdateTime(), parsed.getUpdateTime());
+    }
+
+    @Test
+    void readsFrontMatterWrittenByOtherTools() {
+        String text = "---\ntags:\n  - 读书\n  - 心理学\ndate: 2023-05-06\n---\n正文";
+
+        Note parsed = NoteTransferServiceImpl.parse("库/读书笔记/思考快与慢.md", text, NOW);
+
+        assertEquals("思考快与慢", parsed.getTitle());
+        assertEquals("读书,心理学", parsed.getTags());
+        assertEquals("正文", parsed.getContent());
+        assertEquals(LocalDateTime.of(2023, 5, 6, 0, 0), parsed.getCreateTime());
+        assertEquals(parsed.getCreateTime(), parsed.getUpdateTime());
+    }
+
+    @Test
+    void treatsFilesWithoutFrontMatterAsPlainContent() {
+        Note parsed = NoteTransferServiceImpl.parse("待办.txt", "\uFEFF- 买菜\n---\n- 写周报", NOW);
+
+        assertEquals("待办", parsed.getTitle());
+        assertEquals("- 买菜\n---\n- 写周报", parsed.getContent());
+        assertEquals("", parsed.getTags());
+        assertEquals(NOW, parsed.getCreateTime());
+        assertNull(NoteTransferServiceImpl.parse("大.md", "字".repeat(1_000_001), NOW));
+    }
+}
@@ -0,0 +1,187 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.dto.sync.SyncResponse;
+import com.chronotes.backend.entity.Note;
+import com.chronotes.backend.entity.Reminder;
+import com.chronotes.backend.event.NoteChangedEvent;
+import com.chronotes.backend.mapper.NoteMapper;
+import com.chronotes.backend.mapper.ReminderMapper;
+import com.chronotes.backend.mapper.SyncMapper;
+import com.chronotes.backend.support.TestDatabase;
+import com.chronotes.backend.util.Result;
+import com.github.fppt.jedismock.RedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 同步版本号测试（内存数据库执行真实的 SyncMapper SQL）
+ */
+class SyncServiceImplTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private TestDatabase database;
+    private NoteMapper noteMapper;
+    private ReminderMapper reminderMapper;
+    private SyncMapper syncMapper;
+    private TransactionTemplate transaction;
+    private SyncServiceImpl syncService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = RedisServer.newRedisServer(0);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = TestDatabase.create();
+        noteMapper = database.mapper(NoteMapper.class);
+        reminderMapper = database.mapper(ReminderMapper.class);
+        syncMapper = database.mapper(SyncMapper.class);
+        transaction = new TransactionTemplate(database.transactionManager());
+
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        syncService = new SyncServiceImpl(syncMapper, noteMapper, reminderMapper, database.transactionManager(),
+                new StringRedisTemplate(connectionFactory), listenerContainer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(syncService, "maxWait", 60_000L);
+        ReflectionTestUtils.setField(syncService, "maxWaiters", 100);
+        ReflectionTestUtils.setField(syncService, "maxWaitersPerUser", 8);
+        ReflectionTestUtils.setField(syncService, "notifierThreads", 1);
+        ReflectionTestUtils.setField(syncService, "versionCacheTtl", 60_000L);
+        syncService.init();
+    }
+
+    @Test
+    void committedWritesBumpVersionOfNewUser() {
+        transaction.executeWithoutResult(status -> syncService.initState(1L));
+        assertEquals(0, syncService.currentVersion(1L));
+
+        Note note = note(1L, "第一篇");
+        transaction.executeWithoutResult(status -> {
+            noteMapper.insert(note);
+            syncService.recordNotes(1L, List.of(note.getId()), false);
+        });
+        assertEquals(0, syncService.currentVersion(1L), "变更事件处理完之前本节点仍返回旧版本号");
+
+        syncService.onNoteChanged(new NoteChangedEvent(1L, note.getId(), note));
+        assertEquals(1, syncService.currentVersion(1L));
+        SyncResponse response = changes(1L, 0);
+        assertEquals(1, response.getVersion());
+        assertEquals(note.getId(), response.getNotes().get(0).getId());
+    }
+
+    @Test
+    void failedRecordRollsBackTheWrite() {
+        transaction.executeWithoutResult(status -> syncService.initState(1L));
+        database.jdbc().execute("ALTER TABLE change_log RENAME TO change_log_off");
+
+        Note note = note(1L, "写入失败");
+        assertThrows(RuntimeException.class, () -> transaction.executeWithoutResult(status -> {
+            noteMapper.insert(note);
+            syncService.recordNotes(1L, List.of(note.getId()), false);
+        }));
+
+        assertEquals(0, noteMapper.countByUser(1L), "版本号记录失败时笔记写入一并回滚");
+        assertEquals(0L, syncMapper.findVersion(1L));
+        assertThrows(IllegalTransactionStateException.class,
+                () -> syncService.recordNotes(1L, List.of(1L), false), "必须在业务事务内调用");
+    }
+
+    @Test
+    void legacyUserStartsOnFirstWriteAndReadsDoNotWrite() {
+        List<Note> existing = List.of(note(1L, "旧笔记一"), note(1L, "旧笔记二"));
+        noteMapper.insertAll(existing);
+        existing.forEach(note -> assertNotNull(note.getId()));
+        reminderMapper.insert(reminder(1L));
+
+        assertEquals(0, syncService.currentVersion(1L));
+        assertNull(syncMapper.findVersion(1L), "读取版本号不创建状态行");
+
+        Note changed = existing.get(0);
+        changed.setTitle("旧笔记一（修改）");
+        changed.setUpdateTime(NOW.plusSeconds(1));
+        transaction.executeWithoutResult(status -> {
+            noteMapper.update(changed);
+            syncService.recordNotes(1L, List.of(changed.getId()), false);
+        });
+        syncService.onNoteChanged(new NoteChangedEvent(1L, changed.getId(), changed));
+
+        // 补写 2 篇笔记与 1 个提醒，再为本次修改分配版本号 4
+        assertEquals(4L, syncMapper.findVersion(1L));
+        assertEquals(4, syncService.currentVersion(1L));
+        SyncResponse response = changes(1L, 0);
+        assertEquals(3, response.getNotes().size() + response.getReminders().size());
+        assertEquals(changed.getId(), response.getNotes().get(response.getNotes().size() - 1).getId());
+    }
+
+    @Test
+    void legacyUserStartsOnFirstSync() {
+        noteMapper.insert(note(2L, "旧笔记"));
+
+        SyncResponse response = changes(2L, 0);
+
+        assertEquals(1, response.getVersion());
+        assertEquals(1, response.getNotes().size());
+        assertEquals(1L, syncMapper.findVersion(2L), "同步接口为老用户开始记录");
+    }
+
+    private SyncResponse changes(Long userId, long since) {
+        @SuppressWarnings("unchecked")
+        Result<SyncResponse> result = (Result<SyncResponse>) syncService.changes(userId, since, 100, 0).getResult();
+        return result.getData();
+    }
+
+    private static Note note(Long userId, String title) {
+        Note note = new Note();
+        note.setUserId(userId);
+        note.setTitle(title);
+        note.setContent("正文");
+        note.setTags("");
+        note.setCreateTime(NOW);
+        note.setUpdateTime(NOW);
+        return note;
+    }
+
+    private static Reminder reminder(Long userId) {
+        Reminder reminder = new Reminder();
+        reminder.setUserId(userId);
+        reminder.setTitle("提醒");
+        reminder.setRemindAt(NOW.plusDays(1));
+        reminder.setStatus(Reminder.STATUS_PENDING);
+        reminder.setCreateTime(NOW);
+        return reminder;
+    }
+}
@@ -0,0 +1,135 @@
+package com.chronotes.backend.service.impl;
+
+import com.chronotes.backend.entity.User;
+import com.chronotes.backend.event.UserChangedEvent;
+import com.chronotes.backend.mapper.UserMapper;
+import com.chronotes.backend.security.UserDetailsCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户查询缓存测试（进程内 Redis 替身，执行真实的 Lua 脚本）
+ */
+class UserCacheServiceImplTests {
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final AtomicReference<User> row = new AtomicReference<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private volatile CountDownLatch readStarted;
+    private volatile CountDownLatch releaseRead;
+
+    private StringRedisTemplate redisTemplate;
+    private UserCacheServiceImpl cache;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = RedisServer.newRedisServer(0);
+        server.start();
+        connectionFactory = new LettuceConnectionFactory(server.getHost(), server.getBindPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory.getConnection().serverCommands().flushAll();
+        row.set(user(0));
+        UserMapper userMapper = (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+                new Class<?>[]{UserMapper.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> {
+                        User current = row.get();
+                        reads.incrementAndGet();
+                        if (readStarted != null) {
+                            readStarted.countDown();
+                            releaseRead.await(5, TimeUnit.SECONDS);
+                        }
+                        yield current;
+                    }
+                    case "findByEmail" -> row.get().getEmail().equals(args[0]) ? row.get() : null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        UserDetailsCache userDetailsCache = new UserDetailsCache();
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", 60_000L);
+        userDetailsCache.init();
+        cache = new UserCacheServiceImpl(userMapper, redisTemplate, listenerContainer, userDetailsCache,
+                new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(cache, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(cache, "localTtl", 60_000L);
+        ReflectionTestUtils.setField(cache, "redisTtl", 1_800_000L);
+        ReflectionTestUtils.setField(cache, "negativeTtl", 60_000L);
+        cache.init();
+    }
+
+    @Test
+    void readStartedBeforeInvalidationIsNotWrittenBack() throws Exception {
+        readStarted = new CountDownLatch(1);
+        releaseRead = new CountDownLatch(1);
+        CompletableFuture<User> slowRead = CompletableFuture.supplyAsync(() -> cache.findById(1L));
+        assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+
+        // 读库进行中改密：Token 版本号递增并使缓存失效
+        row.set(user(1));
+        cache.onUserChanged(new UserChangedEvent(1L, null, true));
+        releaseRead.countDown();
+        assertEquals(0, slowRead.get(5, TimeUnit.SECONDS).getTokenVersion());
+
+        readStarted = null;
+        assertFalse(redisTemplate.hasKey("user_cache:id:1"), "失效前读到的行不应回填");
+        assertEquals(1, cache.findById(1L).getTokenVersion());
+        assertEquals(1, cache.findById(1L).getTokenVersion());
+        assertEquals(2, reads.get(), "失效后回源一次，之后命中缓存");
+    }
+
+    @Test
+    void cachedUserHasNoPasswordHash() {
+        assertNull(cache.findById(1L).getPassword());
+        assertNull(cache.findByEmail("a@example.com").getPassword());
+
+        String json = redisTemplate.opsForValue().get("user_cache:id:1");
+        assertTrue(json.contains("\"tokenVersion\":0"));
+        assertFalse(json.contains("$2a$"));
+    }
+
+    private static User user(int tokenVersion) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("a@example.com");
+        user.setPassword("$2a$10$" + "x".repeat(53));
+        user.setStatus(1);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
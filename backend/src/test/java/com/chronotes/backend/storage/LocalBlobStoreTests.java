@@ -0,0 +1,90 @@
+package com.chronotes.backend.storage;
+
+import com.chronotes.backend.storage.BlobStore.StagedBlob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地文件存储测试
+ */
+class LocalBlobStoreTests {
+
+    @TempDir
+    Path dir;
+
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalBlobStore();
+        ReflectionTestUtils.setField(store, "dir", dir.toString());
+        store.init();
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws Exception {
+        byte[] content = "同一份 PDF".getBytes(StandardCharsets.UTF_8);
+
+        StagedBlob first = store.stage(new ByteArrayInputStream(content), 1024);
+        assertTrue(store.commit(first));
+        StagedBlob second = store.stage(new ByteArrayInputStream(content), 1024);
+        assertFalse(store.commit(second));
+
+        assertEquals(first.hash(), second.hash());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), first.hash());
+        assertEquals(1, countFiles());
+        assertTrue(store.delete(first.hash()));
+        assertFalse(store.exists(first.hash()));
+    }
+
+    @Test
+    void rejectsOversizedContentWithoutLeavingFiles() {
+        byte[] content = new byte[200 * 1024];
+
+        assertThrows(BlobTooLargeException.class, () -> store.stage(new ByteArrayInputStream(content), 100 * 1024));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void transfersRequestedRange() throws IOException {
+        byte[] content = new byte[300 * 1024];
+        new Random(1).nextBytes(content);
+        StagedBlob staged = store.stage(new ByteArrayInputStream(content), content.length);
+        store.commit(staged);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = store.transferTo(staged.hash(), 1000, 70_000, Channels.newChannel(out));
+
+        assertEquals(70_000, transferred);
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 71_000), out.toByteArray());
+    }
+
+    private long countFiles() {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.chronotes.backend.support;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapper 测试用的内存数据库（H2 MySQL 兼容模式）
+ * <p>
+ * 按 sql/schema.sql 建表，加载全部 Mapper XML；Mapper 经 SqlSessionTemplate 调用，
+ * 与 {@link #transactionManager()} 开启的事务共用连接，和应用中的行为一致
+ */
+public final class TestDatabase {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final DataSource dataSource;
+    private final SqlSessionTemplate sqlSession;
+    private final DataSourceTransactionManager transactionManager;
+
+    private TestDatabase(DataSource dataSource, SqlSessionFactory sqlSessionFactory) {
+        this.dataSource = dataSource;
+        this.sqlSession = new SqlSessionTemplate(sqlSessionFactory);
+        this.transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    /**
+     * 新建一个独立的空库
+     */
+    public static TestDatabase create() throws Exception {
+        String url = "jdbc:h2:mem:test" + SEQUENCE.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        DataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(), url, "sa", "");
+        loadSchema(new JdbcTemplate(dataSource));
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml"));
+        factory.setTypeAliasesPackage("com.chronotes.backend.entity");
+        org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        factory.setConfiguration(configuration);
+        return new TestDatabase(dataSource, factory.getObject());
+    }
+
+    public <T> T mapper(Class<T> type) {
+        return sqlSession.getMapper(type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    public DataSourceTransactionManager transactionManager() {
+        return transactionManager;
+    }
+
+    /**
+     * 建表；去掉 H2 不支持的 CREATE DATABASE / USE 语句，以及只用于升级已有 MySQL 库的语句
+     */
+    private static void loadSchema(JdbcTemplate jdbc) throws IOException {
+        String script = StreamUtils.copyToString(
+                new ClassPathResource("sql/schema.sql").getInputStream(), StandardCharsets.UTF_8);
+        for (String sql : script.split(";")) {
+            StringBuilder statement = new StringBuilder();
+            for (String line : sql.split("\n")) {
+                if (!line.trim().startsWith("--")) {
+                    statement.append(line).append('\n');
+                }
+            }
+            String trimmed = statement.toString().trim();
+            String upper = trimmed.toUpperCase();
+            if (!trimmed.isEmpty() && !upper.startsWith("CREATE DATABASE") && !upper.startsWith("USE ")
+                    && !isUpgradeStatement(upper)) {
+                jdbc.execute(trimmed);
+            }
+        }
+    }
+
+    /**
+     * 升级已有库用的预处理语句（SET @ddl / PREPARE / EXECUTE / DEALLOCATE），新建的库不需要
+     */
+    private static boolean isUpgradeStatement(String upper) {
+        return upper.startsWith("SET @") || upper.startsWith("PREPARE ")
+                || upper.startsWith("EXECUTE ") || upper.startsWith("DEALLOCATE ");
+    }
+}
@@ -0,0 +1,115 @@
+package com.chronotes.backend.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 响应缓存、ETag 匹配与压缩协商测试
+ */
+class ResponseCacheTests {
+
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(cache, "maxEntriesPerUser", 2);
+        ReflectionTestUtils.setField(cache, "ttl", 60_000L);
+        ReflectionTestUtils.setField(cache, "minCompressSize", 100);
+        cache.init();
+    }
+
+    @Test
+    void hitsOnlyForSameVersionAndEvictsLeastRecentlyUsed() throws IOException {
+        byte[] large = "{\"code\":0,\"data\":\"梯度下降\"}".repeat(20).getBytes(StandardCharsets.UTF_8);
+        ResponseCache.Response stored = cache.put(1L, "/api/notes", 7, "\"1-7\"", large);
+
+        assertArrayEquals(large, new GZIPInputStream(new ByteArrayInputStream(stored.gzip())).readAllBytes());
+        assertNotNull(cache.get(1L, "/api/notes", 7));
+        assertNull(cache.get(2L, "/api/notes", 7));
+        // 版本号变化后不再命中，也不会在版本号回到原值前复活
+        assertNull(cache.get(1L, "/api/notes", 8));
+        assertNull(cache.get(1L, "/api/notes", 7));
+
+        cache.put(1L, "/api/notes/1", 8, "\"1-8\"", "{}".getBytes(StandardCharsets.UTF_8));
+        cache.put(1L, "/api/notes/2", 8, "\"1-8\"", "{}".getBytes(StandardCharsets.UTF_8));
+        assertNotNull(cache.get(1L, "/api/notes/1", 8));
+        cache.put(1L, "/api/notes/3", 8, "\"1-8\"", "{}".getBytes(StandardCharsets.UTF_8));
+        assertNotNull(cache.get(1L, "/api/notes/1", 8));
+        assertNull(cache.get(1L, "/api/notes/2", 8));
+        assertNull(cache.get(1L, "/api/notes/3", 8).gzip());
+    }
+
+    @Test
+    void matchesEitherRepresentationWithWeakComparison() {
+        String etag = "\"1-7\"";
+
+        assertEquals("\"1-7-gzip\"", ConditionalGetInterceptor.gzipEtag(etag));
+        assertEquals(etag, ConditionalGetInterceptor.match("\"1-7\"", etag));
+        assertEquals("\"1-7-gzip\"", ConditionalGetInterceptor.match("\"0-1\", W/\"1-7-gzip\"", etag));
+        assertEquals(etag, ConditionalGetInterceptor.match("*", etag));
+        assertNull(ConditionalGetInterceptor.match("\"1-6\", \"2-7\"", etag));
+        assertNull(ConditionalGetInterceptor.match(null, etag));
+    }
+
+    @Test
+    void bufferedResponseAcceptsWriteListener() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        request.setAttribute(ConditionalGetInterceptor.JSON_ATTRIBUTE, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] body = "{\"code\":200}".getBytes(StandardCharsets.UTF_8);
+
+        new ResponseCacheFilter(cache, null).doFilter(request, response, (req, res) -> {
+            ServletOutputStream out = res.getOutputStream();
+            out.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    assertTrue(out.isReady());
+                    out.write(body);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+        });
+
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertEquals(body.length, response.getContentLength());
+    }
+
+    @Test
+    void negotiatesGzipFromAcceptEncoding() {
+        assertTrue(ResponseCacheFilter.acceptsGzip(request("gzip, deflate, br")));
+        assertTrue(ResponseCacheFilter.acceptsGzip(request("br;q=1.0, GZIP;q=0.5")));
+        assertTrue(ResponseCacheFilter.acceptsGzip(request("*")));
+        assertFalse(ResponseCacheFilter.acceptsGzip(request("gzip;q=0")));
+        assertFalse(ResponseCacheFilter.acceptsGzip(request("br, identity")));
+        assertFalse(ResponseCacheFilter.acceptsGzip(new MockHttpServletRequest()));
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        return request;
+    }
+}